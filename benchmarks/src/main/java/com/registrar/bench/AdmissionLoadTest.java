@@ -0,0 +1,214 @@
+package com.registrar.bench;
+
+import com.registrar.service.AdmissionControl;
+import com.registrar.service.AdmissionLimits;
+import com.registrar.service.RegistrarService;
+import com.registrar.service.RegistrarService.EnrollResult;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Overload test of AdmissionControl, in-process. Regular clients each send
+ * an enroll or drop every few milliseconds; a handful of "script" clients
+ * each enroll one student in a popular course and drop it again, a burst of
+ * {@code scriptBurst} calls every millisecond, and together offer more than
+ * the service can take. Everyone sends on a fixed schedule, so a slow reply
+ * does not hide the calls that should have been sent meanwhile. Scripts are
+ * paced rather than tight loops, and wake once per burst, because in one
+ * process a loop of cheap rejections (or a wake-up per call) would steal
+ * the clients' CPU, which a remote script cannot.
+ *
+ * Each round runs twice on a fresh campus: straight into RegistrarService,
+ * and through an AdmissionControl. Prints, for regular clients, the latency
+ * percentiles of the calls that were served (measured from when they were
+ * due) and how many were shed, plus what happened to the scripts' calls.
+ *
+ * Run: java -cp benchmarks/target/benchmarks.jar com.registrar.bench.AdmissionLoadTest [clients] [scripts] [seconds] [intervalMs] [scriptBurst]
+ * Defaults: 64 clients, 16 scripts, 10 seconds, 2 ms between a client's calls, 20 calls per script burst.
+ */
+public final class AdmissionLoadTest {
+    private AdmissionLoadTest() { }
+
+    /** One call on either path; false if it was shed. */
+    private interface Target {
+        boolean enroll(String studentId, String courseCode, int priority);
+        boolean drop(String studentId, String courseCode);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int scripts = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int intervalMs = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+        int scriptBurst = args.length > 4 ? Integer.parseInt(args[4]) : 20;
+
+        CampusGenerator campus = new CampusGenerator(42, 20_000, 2_000);
+        AdmissionLimits limits = AdmissionLimits.DEFAULT;
+        System.out.println(campus + ", " + limits);
+
+        for (boolean guarded : new boolean[] {false, true}) {
+            RegistrarService service = campus.build();
+            Target target;
+            AdmissionControl ac = null;
+            if (guarded) {
+                AdmissionControl a = ac = new AdmissionControl(service, limits);
+                target = new Target() {
+                    public boolean enroll(String s, String c, int p) {
+                        EnrollResult r = a.enroll(s, c, p);
+                        return r != EnrollResult.RATE_LIMITED && r != EnrollResult.OVERLOADED;
+                    }
+                    public boolean drop(String s, String c) {
+                        AdmissionControl.DropResult r = a.drop(s, c);
+                        return r != AdmissionControl.DropResult.RATE_LIMITED && r != AdmissionControl.DropResult.OVERLOADED;
+                    }
+                };
+            } else {
+                target = new Target() {
+                    public boolean enroll(String s, String c, int p) { service.enroll(s, c, p); return true; }
+                    public boolean drop(String s, String c) { service.drop(s, c); return true; }
+                };
+            }
+            // Short warm-up so JIT compilation does not land in the measured window
+            run(target, campus, clients, scripts, Math.min(3, seconds), intervalMs, scriptBurst, 1);
+            Worker[] measured = run(target, campus, clients, scripts, seconds, intervalMs, scriptBurst, 2);
+            report(guarded ? "admission control" : "unguarded", measured, seconds);
+            if (ac != null) {
+                System.out.printf("  admitted %,d  rate limited %,d  overloaded %,d (incl. warm-up)%n",
+                        ac.admittedCount(), ac.rateLimitedCount(), ac.overloadedCount());
+            }
+        }
+    }
+
+    private static Worker[] run(Target target, CampusGenerator campus, int clients, int scripts, int seconds,
+                                int intervalMs, int scriptBurst, long seed) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(clients + scripts);
+        // IDs are built up front: formatting them per call would cost more than a shed call
+        String[] studentIds = new String[campus.studentCount()];
+        for (int i = 0; i < studentIds.length; i++) studentIds[i] = CampusGenerator.studentId(i);
+        String[] courseCodes = new String[campus.courseCount()];
+        for (int i = 0; i < courseCodes.length; i++) courseCodes[i] = CampusGenerator.courseCode(i);
+        Worker[] all = new Worker[clients + scripts];
+        for (int i = 0; i < all.length; i++) {
+            boolean script = i >= clients;
+            all[i] = new Worker(target, campus, studentIds, courseCodes, new SplittableRandom(seed * 1_000_003 + i),
+                    deadline, done, script ? 1_000_000L : intervalMs * 1_000_000L, script ? scriptBurst : 1,
+                    script ? studentIds[i - clients] : null);
+            Thread t = new Thread(all[i], (script ? "script-" : "client-") + i);
+            t.setDaemon(true);
+            t.start();
+        }
+        done.await();
+        return all;
+    }
+
+    private static void report(String label, Worker[] workers, int seconds) {
+        long served = 0, shed = 0, scriptServed = 0, scriptShed = 0;
+        for (Worker w : workers) {
+            if (w.script != null) {
+                scriptServed += w.count;
+                scriptShed += w.shed;
+            } else {
+                served += w.count;
+                shed += w.shed;
+            }
+        }
+        long[] all = new long[(int) served];
+        int at = 0;
+        for (Worker w : workers) {
+            if (w.script != null) continue;
+            System.arraycopy(w.latencies, 0, all, at, w.count);
+            at += w.count;
+        }
+        Arrays.sort(all);
+        System.out.printf("%s: clients served %,d (%,.0f/s), shed %,d; scripts served %,d, shed %,d%n",
+                label, served, served / (double) seconds, shed, scriptServed, scriptShed);
+        System.out.printf("  client latency p50 %.2f ms  p90 %.2f ms  p99 %.2f ms  p99.9 %.2f ms  max %.2f ms%n",
+                ms(all, 0.50), ms(all, 0.90), ms(all, 0.99), ms(all, 0.999),
+                all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+    }
+
+    private static double ms(long[] sorted, double q) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) (q * sorted.length))] / 1e6;
+    }
+
+    private static final class Worker implements Runnable {
+        private final Target target;
+        private final CampusGenerator campus;
+        private final String[] studentIds;
+        private final String[] courseCodes;
+        private final SplittableRandom rnd;
+        private final long deadline;
+        private final CountDownLatch done;
+        private final long intervalNanos;
+        private final int burst;          // calls sent each interval
+        final String script;              // the one student a script hammers, else null
+        private boolean scriptHolds;
+        private String scriptCourse;
+        long[] latencies = new long[1 << 12];
+        int count;
+        long shed;
+
+        Worker(Target target, CampusGenerator campus, String[] studentIds, String[] courseCodes, SplittableRandom rnd,
+               long deadline, CountDownLatch done, long intervalNanos, int burst, String script) {
+            this.target = target;
+            this.campus = campus;
+            this.studentIds = studentIds;
+            this.courseCodes = courseCodes;
+            this.rnd = rnd;
+            this.deadline = deadline;
+            this.done = done;
+            this.intervalNanos = intervalNanos;
+            this.burst = burst;
+            this.script = script;
+        }
+
+        @Override
+        public void run() {
+            try {
+                // Spread the clients' schedules over one interval
+                long due = System.nanoTime() + rnd.nextLong(intervalNanos);
+                while (due < deadline) {
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) LockSupport.parkNanos(wait);
+                    for (int i = 0; i < burst; i++) {
+                        if (call()) {
+                            record(System.nanoTime() - due);
+                        } else {
+                            shed++;
+                        }
+                    }
+                    due += intervalNanos;
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+
+        /**
+         * A client's enroll (70%) or drop of a random course, or a script's
+         * next step in grabbing and releasing popular seats; false if shed.
+         */
+        private boolean call() {
+            String code = courseCodes[campus.popularCourse(rnd)];
+            if (script != null) {
+                scriptHolds = !scriptHolds;
+                if (!scriptHolds) return target.drop(script, scriptCourse);
+                scriptCourse = code;
+                return target.enroll(script, code, 0);
+            }
+            String sid = studentIds[rnd.nextInt(studentIds.length)];
+            if (rnd.nextInt(100) < 70) return target.enroll(sid, code, rnd.nextInt(3));
+            return target.drop(sid, code);
+        }
+
+        private void record(long nanos) {
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = nanos;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.registrar.bench;
+
+import com.registrar.model.TimeSlot;
+import com.registrar.model.TimeSlot.Day;
+import com.registrar.service.EnrollRequest;
+import com.registrar.service.RegistrarService;
+import com.registrar.service.ShardedRegistrar;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic campus. The same seed and sizes always produce the
+ * same students, courses, meeting times and enrollment requests.
+ *
+ * Meeting patterns follow a typical US timetable: MWF 50-minute sessions,
+ * TuTh 75-minute sessions, MW 75-minute sessions and weekly 170-minute
+ * evening seminars, starting on the half hour between 08:00 and 20:00.
+ * Capacities are mostly small sections, with some lectures and a few large halls.
+ */
+public final class CampusGenerator {
+    private final long seed;
+    private final int studentCount;
+    private final int courseCount;
+
+    public CampusGenerator(long seed, int studentCount, int courseCount) {
+        this.seed = seed;
+        this.studentCount = studentCount;
+        this.courseCount = courseCount;
+    }
+
+    public static String studentId(int i) { return String.format("S%07d", i); }
+    public static String courseCode(int i) { return String.format("C%05d", i); }
+
+    public int studentCount() { return studentCount; }
+    public int courseCount() { return courseCount; }
+
+    /** Adds every student and course to the service. */
+    public RegistrarService populate(RegistrarService service) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        for (int i = 0; i < studentCount; i++) {
+            service.addStudent(studentId(i), "Student " + i);
+        }
+        for (int i = 0; i < courseCount; i++) {
+            service.addCourse(courseCode(i), "Course " + i, capacity(rnd), meetingTimes(rnd));
+        }
+        return service;
+    }
+
+    /** Same campus as {@link #populate(RegistrarService)}, spread over a sharded registrar. */
+    public ShardedRegistrar populate(ShardedRegistrar registrar) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        for (int i = 0; i < studentCount; i++) {
+            registrar.addStudent(studentId(i), "Student " + i);
+        }
+        for (int i = 0; i < courseCount; i++) {
+            registrar.addCourse(courseCode(i), "Course " + i, capacity(rnd), meetingTimes(rnd));
+        }
+        return registrar;
+    }
+
+    /**
+     * Writes the campus as students.csv, courses.csv and meeting_times.csv in
+     * the format read by CsvImporter. Same seed, same campus as {@link #populate}.
+     */
+    public void writeCsv(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        try (BufferedWriter w = Files.newBufferedWriter(dir.resolve("students.csv"), StandardCharsets.UTF_8)) {
+            w.write("id,name\n");
+            for (int i = 0; i < studentCount; i++) {
+                w.write(studentId(i) + ",Student " + i + "\n");
+            }
+        }
+        SplittableRandom rnd = new SplittableRandom(seed);
+        try (BufferedWriter courses = Files.newBufferedWriter(dir.resolve("courses.csv"), StandardCharsets.UTF_8);
+             BufferedWriter times = Files.newBufferedWriter(dir.resolve("meeting_times.csv"), StandardCharsets.UTF_8)) {
+            courses.write("code,title,capacity\n");
+            times.write("course_code,day,start,end\n");
+            for (int i = 0; i < courseCount; i++) {
+                String code = courseCode(i);
+                courses.write(code + ",Course " + i + "," + capacity(rnd) + "\n");
+                for (TimeSlot t : meetingTimes(rnd)) {
+                    times.write(code + "," + t.getDay() + "," + clock(t.getStartMin()) + "," + clock(t.getEndMin()) + "\n");
+                }
+            }
+        }
+    }
+
+    private static String clock(int minutes) {
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+
+    /** Convenience: a new service holding the generated campus. */
+    public RegistrarService build() {
+        return populate(new RegistrarService());
+    }
+
+    /**
+     * A reproducible stream of enrollment requests. Course demand is skewed so
+     * that a small share of courses is heavily oversubscribed, as on a real
+     * registration day. Priorities are mostly 1, with some 0 and 2.
+     */
+    public List<EnrollRequest> requests(int count, long requestSeed) {
+        SplittableRandom rnd = new SplittableRandom(requestSeed);
+        List<EnrollRequest> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            out.add(new EnrollRequest(studentId(rnd.nextInt(studentCount)),
+                    courseCode(popularCourse(rnd)), priority(rnd)));
+        }
+        return out;
+    }
+
+    /** Runs {@code perStudent} requests for every student through enrollAll. */
+    public void enrollEveryone(RegistrarService service, int perStudent, long requestSeed) {
+        service.enrollAll(requests(studentCount * perStudent, requestSeed));
+    }
+
+    /** Skewed course pick: the square biases toward low indices (the "popular" ones). */
+    int popularCourse(SplittableRandom rnd) {
+        double u = rnd.nextDouble();
+        return (int) (u * u * courseCount);
+    }
+
+    private static int priority(SplittableRandom rnd) {
+        int p = rnd.nextInt(10);
+        return p == 0 ? 0 : (p == 9 ? 2 : 1);
+    }
+
+    private static int capacity(SplittableRandom rnd) {
+        int p = rnd.nextInt(100);
+        if (p < 75) return 20 + rnd.nextInt(21);     // sections: 20-40
+        if (p < 97) return 60 + rnd.nextInt(241);    // lectures: 60-300
+        return 500 + rnd.nextInt(301);               // halls: 500-800
+    }
+
+    private static List<TimeSlot> meetingTimes(SplittableRandom rnd) {
+        int pattern = rnd.nextInt(10);
+        if (pattern < 4) {
+            int start = halfHour(rnd, 8, 17);
+            return slots(start, 50, Day.MON, Day.WED, Day.FRI);
+        } else if (pattern < 8) {
+            int start = halfHour(rnd, 8, 18);
+            return slots(start, 75, Day.TUE, Day.THU);
+        } else if (pattern < 9) {
+            int start = halfHour(rnd, 8, 18);
+            return slots(start, 75, Day.MON, Day.WED);
+        } else {
+            int start = halfHour(rnd, 17, 20);
+            Day day = Day.values()[rnd.nextInt(5)];
+            return slots(start, 170, day);
+        }
+    }
+
+    private static int halfHour(SplittableRandom rnd, int fromHour, int toHour) {
+        return fromHour * 60 + 30 * rnd.nextInt((toHour - fromHour) * 2 + 1);
+    }
+
+    private static List<TimeSlot> slots(int start, int length, Day... days) {
+        List<TimeSlot> out = new ArrayList<>(days.length);
+        for (Day d : days) out.add(new TimeSlot(d, start, start + length));
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return "CampusGenerator{seed=" + seed + ", students=" + studentCount + ", courses=" + courseCount + "}";
+    }
+}
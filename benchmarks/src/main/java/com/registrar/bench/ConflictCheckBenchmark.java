@@ -0,0 +1,89 @@
+package com.registrar.bench;
+
+import com.registrar.model.Course;
+import com.registrar.model.Student;
+import com.registrar.model.TimeSlot;
+import com.registrar.service.RegistrarService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conflict checks for a student holding five courses, against a course that
+ * conflicts and one that does not, through each available path:
+ * the original nested loop over the schedule, Student.hasConflict with a
+ * meeting-time collection (builds a mask), Student.hasConflict(Course)
+ * (precomputed mask) and the service's conflict graph (enroll() returning
+ * CONFLICT without side effects).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConflictCheckBenchmark {
+    @Param({"5000"})
+    public int courses;
+
+    private RegistrarService service;
+    private Student student;
+    private Course clash;
+    private Course free;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new CampusGenerator(11, 1, courses).build();
+        student = service.getStudent(CampusGenerator.studentId(0));
+        int enrolled = 0;
+        for (int i = 0; i < courses && enrolled < 5; i++) {
+            if (service.enroll(student.getId(), CampusGenerator.courseCode(i), 1)
+                    == RegistrarService.EnrollResult.ENROLLED) {
+                enrolled++;
+            }
+        }
+        for (int i = 0; i < courses && (clash == null || free == null); i++) {
+            Course c = service.getCourse(CampusGenerator.courseCode(i));
+            if (student.getEnrolledCourses().contains(c.getCode())) continue;
+            if (legacyConflict(student, c.getMeetingTimes())) {
+                if (clash == null) clash = c;
+            } else if (free == null) {
+                free = c;
+            }
+        }
+    }
+
+    /** The pre-bitmask implementation: every meeting time against every scheduled slot. */
+    private static boolean legacyConflict(Student s, Collection<TimeSlot> meetingTimes) {
+        for (TimeSlot t : meetingTimes) {
+            for (TimeSlot existing : s.getSchedule()) {
+                if (existing.conflictsWith(t)) return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean legacyLoopClash() { return legacyConflict(student, clash.getMeetingTimes()); }
+
+    @Benchmark
+    public boolean legacyLoopFree() { return legacyConflict(student, free.getMeetingTimes()); }
+
+    @Benchmark
+    public boolean collectionClash() { return student.hasConflict(clash.getMeetingTimes()); }
+
+    @Benchmark
+    public boolean collectionFree() { return student.hasConflict(free.getMeetingTimes()); }
+
+    @Benchmark
+    public boolean maskClash() { return student.hasConflict(clash); }
+
+    @Benchmark
+    public boolean maskFree() { return student.hasConflict(free); }
+
+    @Benchmark
+    public RegistrarService.EnrollResult graphClash() {
+        return service.enroll(student.getId(), clash.getCode(), 1);
+    }
+}
@@ -0,0 +1,72 @@
+package com.registrar.bench;
+
+import com.registrar.model.Student;
+import com.registrar.model.TimeSlot;
+import com.registrar.service.RegistrarService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * drop() on a full course with a waitlist, so every drop promotes the next
+ * waiting student. The dropped student re-joins the waitlist afterwards,
+ * keeping the waitlist length steady across invocations.
+ *
+ * dropAndRejoin times the calls alone; the promotion runs on the service's
+ * promotion worker. dropAndAwaitPromotion also waits for it, which is what a
+ * drop cost when it refilled the seat itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DropRefillBenchmark {
+    private static final String COURSE = "BIG100";
+    private static final int CAPACITY = 100;
+
+    @Param({"1000", "100000"})
+    public int waitlistLength;
+
+    private RegistrarService service;
+    private final SplittableRandom rnd = new SplittableRandom(3);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new RegistrarService();
+        for (int i = 0; i < CAPACITY + waitlistLength; i++) {
+            service.addStudent(CampusGenerator.studentId(i), "Student " + i);
+        }
+        service.addCourse(COURSE, "Big Lecture", CAPACITY,
+                Collections.singletonList(new TimeSlot(TimeSlot.Day.MON, 9 * 60, 10 * 60)));
+        for (int i = 0; i < CAPACITY + waitlistLength; i++) {
+            service.enroll(CampusGenerator.studentId(i), COURSE, rnd.nextInt(3));
+        }
+    }
+
+    @Benchmark
+    public boolean dropAndRejoin() {
+        return dropRandomAndRejoin();
+    }
+
+    @Benchmark
+    public boolean dropAndAwaitPromotion() throws InterruptedException {
+        boolean dropped = dropRandomAndRejoin();
+        service.awaitPromotions();
+        return dropped;
+    }
+
+    private boolean dropRandomAndRejoin() {
+        // rosterPage reads under the course lock; the promotion worker may be seating someone
+        List<Student> page = service.rosterPage(COURSE, RegistrarService.RosterOrder.STUDENT_ID, rnd.nextInt(CAPACITY), 1);
+        if (page.isEmpty()) return false; // a seat is still being refilled
+        String sid = page.get(0).getId();
+        boolean dropped = service.drop(sid, COURSE);
+        service.enroll(sid, COURSE, 1);
+        return dropped;
+    }
+}
@@ -0,0 +1,90 @@
+package com.registrar.bench;
+
+import com.registrar.metrics.RegistrarMetrics;
+import com.registrar.model.Course;
+import com.registrar.service.RegistrarService;
+import com.registrar.service.RegistrarService.EnrollResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * enroll() followed by drop() of the same seat, on a pre-filled campus.
+ * The single-threaded and 4-thread variants use the same campus, so the
+ * ratio of their scores shows how well the striped locks scale; the hot
+ * variant sends every thread to the 16 most popular courses.
+ * The trial fails if any course ends up over capacity. With metrics=true a
+ * RegistrarMetrics is attached, so the two scores give its hot-path overhead.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EnrollBenchmark {
+    @Param({"50000"})
+    public int students;
+
+    @Param({"5000"})
+    public int courses;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private RegistrarService service;
+    private CampusGenerator campus;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        campus = new CampusGenerator(42, students, courses);
+        service = campus.build();
+        campus.enrollEveryone(service, 3, 7);
+        if (metrics) RegistrarMetrics.attach(service);
+    }
+
+    @TearDown(Level.Trial)
+    public void checkInvariants() {
+        for (Course c : service.listCourses()) {
+            if (c.getEnrolledStudentIds().size() > c.getCapacity()) {
+                throw new IllegalStateException("over-enrolled: " + c);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        final SplittableRandom rnd = new SplittableRandom(Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public EnrollResult enrollDrop(ThreadRandom r) {
+        return enrollDrop(r, courses);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public EnrollResult enrollDropContended(ThreadRandom r) {
+        return enrollDrop(r, courses);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public EnrollResult enrollDropHotCourses(ThreadRandom r) {
+        return enrollDrop(r, 16);
+    }
+
+    private EnrollResult enrollDrop(ThreadRandom r, int courseRange) {
+        String sid = CampusGenerator.studentId(r.rnd.nextInt(students));
+        String code = CampusGenerator.courseCode(r.rnd.nextInt(courseRange));
+        EnrollResult result = service.enroll(sid, code, 1);
+        if (result == EnrollResult.ENROLLED) {
+            service.drop(sid, code);
+        } else if (result == EnrollResult.ADDED_TO_WAITLIST) {
+            service.leaveWaitlist(sid, code);
+        }
+        return result;
+    }
+}
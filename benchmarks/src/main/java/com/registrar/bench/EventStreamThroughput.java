@@ -0,0 +1,110 @@
+package com.registrar.bench;
+
+import com.registrar.events.EventBus;
+import com.registrar.events.EventListener;
+import com.registrar.metrics.LatencyHistogram;
+import com.registrar.metrics.RegistrarMetrics;
+import com.registrar.service.RegistrarService;
+import com.registrar.service.RegistrarService.EnrollResult;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Service throughput with an EventBus attached and listeners of different
+ * speeds. Producer threads run enroll/drop on a generated campus for a fixed
+ * time; each scenario reports service operations per second, enroll latency
+ * and what the bus did (published, delivered, dropped, blocked, batch size).
+ *
+ * Scenarios: no bus; a fast listener; a slow listener (fixed cost per event,
+ * like sending a notification) under BLOCK and under DROP.
+ *
+ * Run: java -cp benchmarks/target/benchmarks.jar com.registrar.bench.EventStreamThroughput [threads] [seconds] [slowMicrosPerEvent]
+ * Defaults: 4 threads, 5 seconds, 20 us per event.
+ */
+public final class EventStreamThroughput {
+    private static final int CAPACITY = 1 << 14;
+    private static final int MAX_BATCH = 512;
+
+    private EventStreamThroughput() { }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        long slowNanos = (args.length > 2 ? Long.parseLong(args[2]) : 20) * 1000;
+
+        run("no event bus", null, null, threads, seconds);
+        run("fast listener, BLOCK", EventBus.Backpressure.BLOCK, batch -> { }, threads, seconds);
+        run("slow listener, BLOCK", EventBus.Backpressure.BLOCK, slow(slowNanos), threads, seconds);
+        run("slow listener, DROP", EventBus.Backpressure.DROP, slow(slowNanos), threads, seconds);
+    }
+
+    /** A listener that takes a fixed time per event. */
+    private static EventListener slow(long nanosPerEvent) {
+        return batch -> LockSupport.parkNanos(nanosPerEvent * batch.size());
+    }
+
+    private static void run(String name, EventBus.Backpressure policy, EventListener listener,
+                            int threads, int seconds) throws InterruptedException {
+        CampusGenerator campus = new CampusGenerator(42, 50_000, 5_000);
+        RegistrarService service = campus.build();
+        campus.enrollEveryone(service, 3, 7);
+        EventBus bus = null;
+        if (policy != null) {
+            bus = new EventBus(CAPACITY, MAX_BATCH, policy);
+            bus.addListener(listener);
+            service.setEventSink(bus);
+        }
+        RegistrarMetrics metrics = RegistrarMetrics.attach(service);
+
+        // Warm-up pass, then measure
+        drive(service, campus, threads, 1, 1);
+        metrics.reset();
+        long ops = drive(service, campus, threads, seconds, 2);
+
+        LatencyHistogram.Snapshot enroll = metrics.enrollLatency();
+        System.out.printf("%-22s %,10.0f ops/s   enroll p50 %6.1f us  p99 %8.1f us  p99.9 %8.1f us%n",
+                name, ops / (double) seconds, enroll.percentileNanos(0.50) / 1e3,
+                enroll.percentileNanos(0.99) / 1e3, enroll.percentileNanos(0.999) / 1e3);
+        if (bus != null) {
+            bus.close();
+            System.out.printf("%-22s published %,d  delivered %,d  dropped %,d  blocked %,d  avg batch %.1f%n",
+                    "", bus.publishedCount(), bus.deliveredCount(), bus.droppedCount(), bus.blockedCount(),
+                    bus.batchCount() == 0 ? 0.0 : bus.deliveredCount() / (double) bus.batchCount());
+        }
+    }
+
+    /** Runs enroll (then drop or leave) from several threads; returns service calls made. */
+    private static long drive(RegistrarService service, CampusGenerator campus, int threads, int seconds, long seed)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong ops = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom rnd = new SplittableRandom(seed * 7919 + t);
+            Thread worker = new Thread(() -> {
+                long n = 0;
+                while (System.nanoTime() < deadline) {
+                    String sid = CampusGenerator.studentId(rnd.nextInt(campus.studentCount()));
+                    String code = CampusGenerator.courseCode(campus.popularCourse(rnd));
+                    EnrollResult r = service.enroll(sid, code, rnd.nextInt(3));
+                    n++;
+                    if (r == EnrollResult.ENROLLED && rnd.nextBoolean()) {
+                        service.drop(sid, code);
+                        n++;
+                    } else if (r == EnrollResult.ADDED_TO_WAITLIST && rnd.nextInt(4) == 0) {
+                        service.leaveWaitlist(sid, code);
+                        n++;
+                    }
+                }
+                ops.addAndGet(n);
+                done.countDown();
+            }, "producer-" + t);
+            worker.start();
+        }
+        done.await();
+        return ops.get();
+    }
+}
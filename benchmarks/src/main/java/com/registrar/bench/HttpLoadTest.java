@@ -0,0 +1,180 @@
+package com.registrar.bench;
+
+import com.registrar.http.RegistrarHttpServer;
+import com.registrar.service.RegistrarService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test of the HTTP API: each client thread sends a request,
+ * waits for the reply and sends the next, for a fixed duration. The mix is
+ * 60% enroll, 15% drop, 15% course lookup and 10% roster page, over a
+ * generated campus with skewed course demand. Prints requests per second
+ * and latency percentiles.
+ *
+ * By default the server runs in-process on a free port with a fresh campus;
+ * pass a base URL to load an already running server that holds the same
+ * generated campus.
+ *
+ * Run: java -cp benchmarks/target/benchmarks.jar com.registrar.bench.HttpLoadTest [clients] [seconds] [students] [courses] [baseUrl]
+ * Defaults: 64 clients, 20 seconds, 20000 students, 2000 courses.
+ */
+public final class HttpLoadTest {
+    private HttpLoadTest() { }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int students = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+        int courses = args.length > 3 ? Integer.parseInt(args[3]) : 2_000;
+        String base = args.length > 4 ? args[4] : null;
+
+        CampusGenerator campus = new CampusGenerator(42, students, courses);
+        RegistrarHttpServer server = null;
+        if (base == null) {
+            RegistrarService service = campus.build();
+            server = RegistrarHttpServer.start(service, new InetSocketAddress("127.0.0.1", 0));
+            base = "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+        System.setProperty("http.maxConnections", String.valueOf(clients));
+
+        // Short warm-up so JIT compilation does not land in the measured window
+        run(base, campus, clients, Math.min(5, seconds), 1);
+        Client[] measured = run(base, campus, clients, seconds, 2);
+
+        long total = 0, errors = 0;
+        for (Client c : measured) {
+            total += c.count;
+            errors += c.errors;
+        }
+        long[] all = new long[(int) total];
+        int at = 0;
+        for (Client c : measured) {
+            System.arraycopy(c.latencies, 0, all, at, c.count);
+            at += c.count;
+        }
+        Arrays.sort(all);
+        System.out.printf("%d clients, %d s: %,d requests, %,.0f req/s, %d errors%n",
+                clients, seconds, total, total / (double) seconds, errors);
+        System.out.printf("latency p50 %.2f ms  p90 %.2f ms  p99 %.2f ms  p99.9 %.2f ms  max %.2f ms%n",
+                ms(all, 0.50), ms(all, 0.90), ms(all, 0.99), ms(all, 0.999),
+                all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+        if (server != null) server.close();
+    }
+
+    private static Client[] run(String base, CampusGenerator campus, int clients, int seconds, long seed)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(clients);
+        Client[] all = new Client[clients];
+        for (int i = 0; i < clients; i++) {
+            all[i] = new Client(base, campus, new SplittableRandom(seed * 1_000_003 + i), deadline, done);
+            Thread t = new Thread(all[i], "load-client-" + i);
+            t.setDaemon(true);
+            t.start();
+        }
+        done.await();
+        return all;
+    }
+
+    private static double ms(long[] sorted, double q) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) (q * sorted.length))] / 1e6;
+    }
+
+    private static final AtomicLong firstError = new AtomicLong();
+
+    private static final class Client implements Runnable {
+        private final String base;
+        private final CampusGenerator campus;
+        private final SplittableRandom rnd;
+        private final long deadline;
+        private final CountDownLatch done;
+        long[] latencies = new long[1 << 14];
+        int count;
+        long errors;
+
+        Client(String base, CampusGenerator campus, SplittableRandom rnd, long deadline, CountDownLatch done) {
+            this.base = base;
+            this.campus = campus;
+            this.rnd = rnd;
+            this.deadline = deadline;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (System.nanoTime() < deadline) {
+                    String sid = CampusGenerator.studentId(rnd.nextInt(campus.studentCount()));
+                    String code = CampusGenerator.courseCode(campus.popularCourse(rnd));
+                    int op = rnd.nextInt(100);
+                    long t0 = System.nanoTime();
+                    int status;
+                    if (op < 60) {
+                        status = call("POST", "/enroll", "{\"studentId\":\"" + sid + "\",\"courseCode\":\"" + code
+                                + "\",\"priority\":" + rnd.nextInt(3) + "}");
+                    } else if (op < 75) {
+                        status = call("POST", "/drop", "{\"studentId\":\"" + sid + "\",\"courseCode\":\"" + code + "\"}");
+                    } else if (op < 90) {
+                        status = call("GET", "/courses/" + code, null);
+                    } else {
+                        status = call("GET", "/courses/" + code + "/roster?order=name&limit=50", null);
+                    }
+                    record(System.nanoTime() - t0);
+                    if (status >= 400) errors++;
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private void record(long nanos) {
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = nanos;
+        }
+
+        private int call(String method, String path, String body) {
+            try {
+                HttpURLConnection c = (HttpURLConnection) new URL(base + path).openConnection();
+                c.setRequestMethod(method);
+                if (body != null) {
+                    c.setDoOutput(true);
+                    c.setRequestProperty("Content-Type", "application/json");
+                    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                    c.setFixedLengthStreamingMode(bytes.length);
+                    try (OutputStream out = c.getOutputStream()) {
+                        out.write(bytes);
+                    }
+                }
+                int status = c.getResponseCode();
+                // Drain the body so the connection goes back to the keep-alive pool
+                try (InputStream in = status >= 400 ? c.getErrorStream() : c.getInputStream()) {
+                    drain(in);
+                }
+                return status;
+            } catch (IOException e) {
+                if (firstError.compareAndSet(0, 1)) System.err.println("first request error: " + e);
+                return 599;
+            }
+        }
+
+        private static void drain(InputStream in) throws IOException {
+            if (in == null) return;
+            byte[] buf = new byte[4096];
+            while (in.read(buf) > 0) {
+                // discard
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.registrar.bench;
+
+import com.registrar.service.RegistrarService;
+import com.registrar.service.RegistrarService.EnrollResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of idempotency keys on enroll+drop, 4 threads. {@code plain} passes
+ * no key; {@code freshKeys} sends a new key with every call, so the cache
+ * stays full and evicts on every insert; {@code retries} repeats a small set
+ * of keys, so almost every call is answered from the cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class IdempotencyBenchmark {
+    @Param({"50000"})
+    public int students;
+
+    @Param({"5000"})
+    public int courses;
+
+    private RegistrarService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CampusGenerator campus = new CampusGenerator(42, students, courses);
+        service = campus.build();
+        campus.enrollEveryone(service, 3, 7);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final SplittableRandom rnd = new SplittableRandom(Thread.currentThread().getId());
+        final String prefix = "t" + Thread.currentThread().getId() + "-";
+        long next;
+    }
+
+    @Benchmark
+    public EnrollResult plain(ThreadState t) {
+        String sid = CampusGenerator.studentId(t.rnd.nextInt(students));
+        String code = CampusGenerator.courseCode(t.rnd.nextInt(courses));
+        EnrollResult result = service.enroll(sid, code, 1);
+        if (result == EnrollResult.ENROLLED) service.drop(sid, code);
+        return result;
+    }
+
+    @Benchmark
+    public EnrollResult freshKeys(ThreadState t) {
+        String sid = CampusGenerator.studentId(t.rnd.nextInt(students));
+        String code = CampusGenerator.courseCode(t.rnd.nextInt(courses));
+        long n = t.next++;
+        EnrollResult result = service.enroll(sid, code, 1, t.prefix + "e" + n);
+        if (result == EnrollResult.ENROLLED) service.drop(sid, code, t.prefix + "d" + n);
+        return result;
+    }
+
+    @Benchmark
+    public EnrollResult retries(ThreadState t) {
+        int i = t.rnd.nextInt(1000);
+        return service.enroll(CampusGenerator.studentId(i), CampusGenerator.courseCode(i % courses), 1,
+                t.prefix + i);
+    }
+}
@@ -0,0 +1,39 @@
+package com.registrar.bench;
+
+import com.registrar.persistence.CsvImporter;
+import com.registrar.persistence.ImportReport;
+import com.registrar.service.RegistrarService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Wall-clock time of a bulk CSV import of a generated campus. The CSV files
+ * are written once into the given directory and reused on later runs.
+ *
+ * Run: java -cp benchmarks/target/benchmarks.jar com.registrar.bench.ImportTiming [dir] [students] [courses] [rounds]
+ * Defaults: import-data, 1000000 students, 20000 courses, 3 rounds.
+ */
+public final class ImportTiming {
+    private ImportTiming() { }
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Paths.get(args.length > 0 ? args[0] : "import-data");
+        int students = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int courses = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+        if (!Files.exists(dir.resolve("students.csv"))) {
+            new CampusGenerator(42, students, courses).writeCsv(dir);
+        }
+        for (int round = 1; round <= rounds; round++) {
+            RegistrarService service = new RegistrarService();
+            CsvImporter importer = new CsvImporter(service);
+            ImportReport s = importer.importStudents(dir.resolve("students.csv"));
+            ImportReport c = importer.importCatalog(dir.resolve("courses.csv"), dir.resolve("meeting_times.csv"));
+            System.out.printf("round %d: students %s%n         catalog  %s%n", round, s, c);
+        }
+    }
+}
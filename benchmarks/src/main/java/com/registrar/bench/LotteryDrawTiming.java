@@ -0,0 +1,61 @@
+package com.registrar.bench;
+
+import com.registrar.service.EnrollRequest;
+import com.registrar.service.Lottery;
+import com.registrar.service.RegistrarService;
+import com.registrar.service.RegistrarService.EnrollResult;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Wall-clock time of a lottery draw against enrollAll on the same requests.
+ * Each round builds two fresh campuses; one takes the requests through
+ * enrollAll, the other through enroll() into an open lottery and then draws.
+ * Draws with the same seed must seat exactly the same students, so the
+ * rosters of every round are compared with the first.
+ *
+ * Run: java -cp benchmarks/target/benchmarks.jar com.registrar.bench.LotteryDrawTiming [students] [courses] [requests] [rounds]
+ * Defaults: 200000 students, 10000 courses, 1000000 requests, 3 rounds.
+ */
+public final class LotteryDrawTiming {
+    private LotteryDrawTiming() { }
+
+    public static void main(String[] args) {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int courses = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int count = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+        CampusGenerator campus = new CampusGenerator(42, students, courses);
+        List<EnrollRequest> requests = campus.requests(count, 7);
+        int firstRosters = 0;
+        for (int round = 1; round <= rounds; round++) {
+            RegistrarService direct = campus.build();
+            long t0 = System.nanoTime();
+            direct.enrollAll(requests);
+            long enrollAllMs = (System.nanoTime() - t0) / 1_000_000;
+            direct = null; // let the first campus go before building the second
+
+            RegistrarService service = campus.build();
+            Lottery lottery = service.openLottery(2024);
+            t0 = System.nanoTime();
+            for (EnrollRequest r : requests) service.enroll(r.getStudentId(), r.getCourseCode(), r.getPriority());
+            long submitMs = (System.nanoTime() - t0) / 1_000_000;
+            t0 = System.nanoTime();
+            EnrollResult[] results = lottery.draw();
+            long drawMs = (System.nanoTime() - t0) / 1_000_000;
+
+            int[] outcomes = new int[EnrollResult.values().length];
+            for (EnrollResult r : results) outcomes[r.ordinal()]++;
+            int rosters = 0;
+            for (int c = 0; c < courses; c++) {
+                rosters = 31 * rosters + service.getCourse(CampusGenerator.courseCode(c)).getEnrolledStudentIds().hashCode();
+            }
+            if (round == 1) firstRosters = rosters;
+            System.out.printf("round %d: enrollAll %d ms, lottery submit %d ms + draw %d ms, outcomes %s%s%n",
+                    round, enrollAllMs, submitMs, drawMs, Arrays.toString(outcomes),
+                    rosters == firstRosters ? "" : "  ROSTERS DIFFER");
+        }
+    }
+}
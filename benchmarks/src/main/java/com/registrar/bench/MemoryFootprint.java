@@ -0,0 +1,123 @@
+package com.registrar.bench;
+
+import com.registrar.model.IdInterner;
+import com.registrar.model.IntSet;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Bytes per enrollment of the interned layout (IntSet of handles on both the
+ * course and the student side) against the previous layout (HashSet&lt;String&gt;
+ * on both sides), for the same set of enrollments. ID strings are created up
+ * front and shared by both layouts, as they are in the service.
+ *
+ * Run: java -cp benchmarks/target/benchmarks.jar com.registrar.bench.MemoryFootprint [students] [courses] [perStudent]
+ * Defaults: 200000 students, 5000 courses, 5 courses each = 1M enrollments.
+ */
+public final class MemoryFootprint {
+    private MemoryFootprint() { }
+
+    public static void main(String[] args) {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int courses = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int perStudent = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        String[] studentIds = new String[students];
+        String[] courseCodes = new String[courses];
+        for (int i = 0; i < students; i++) studentIds[i] = CampusGenerator.studentId(i);
+        for (int i = 0; i < courses; i++) courseCodes[i] = CampusGenerator.courseCode(i);
+
+        // Enrollment pairs: each student takes perStudent distinct courses
+        int[][] picks = new int[students][perStudent];
+        SplittableRandom rnd = new SplittableRandom(1);
+        for (int s = 0; s < students; s++) {
+            for (int k = 0; k < perStudent; k++) {
+                int c;
+                do {
+                    c = rnd.nextInt(courses);
+                } while (contains(picks[s], k, c));
+                picks[s][k] = c;
+            }
+        }
+        long enrollments = (long) students * perStudent;
+
+        long before = usedHeap();
+        @SuppressWarnings("unchecked")
+        Set<String>[] legacyCourse = new Set[courses];
+        @SuppressWarnings("unchecked")
+        Set<String>[] legacyStudent = new Set[students];
+        for (int c = 0; c < courses; c++) legacyCourse[c] = new HashSet<>();
+        for (int s = 0; s < students; s++) {
+            legacyStudent[s] = new HashSet<>();
+            for (int c : picks[s]) {
+                legacyCourse[c].add(studentIds[s]);
+                legacyStudent[s].add(courseCodes[c]);
+            }
+        }
+        long legacy = usedHeap() - before;
+        keep(legacyCourse, legacyStudent);
+        legacyCourse = null;
+        legacyStudent = null;
+
+        before = usedHeap();
+        IdInterner studentInterner = new IdInterner();
+        IdInterner courseInterner = new IdInterner();
+        for (String id : studentIds) studentInterner.intern(id);
+        for (String code : courseCodes) courseInterner.intern(code);
+        long interners = usedHeap() - before;
+
+        before = usedHeap();
+        IntSet[] course = new IntSet[courses];
+        IntSet[] student = new IntSet[students];
+        for (int c = 0; c < courses; c++) course[c] = new IntSet();
+        for (int s = 0; s < students; s++) {
+            student[s] = new IntSet();
+            for (int c : picks[s]) {
+                course[c].add(studentInterner.handleOf(studentIds[s]));
+                student[s].add(courseInterner.handleOf(courseCodes[c]));
+            }
+        }
+        long interned = usedHeap() - before;
+        keep(course, student);
+
+        System.out.printf("%,d students, %,d courses, %,d enrollments%n", students, courses, enrollments);
+        System.out.printf("HashSet<String> layout: %,12d bytes  %6.1f bytes/enrollment%n",
+                legacy, (double) legacy / enrollments);
+        System.out.printf("IntSet layout:          %,12d bytes  %6.1f bytes/enrollment%n",
+                interned, (double) interned / enrollments);
+        System.out.printf("  + interners (per ID): %,12d bytes  %6.1f bytes/enrollment amortized%n",
+                interners, (double) interners / enrollments);
+        keep(studentInterner, courseInterner);
+    }
+
+    private static boolean contains(int[] a, int n, int v) {
+        for (int i = 0; i < n; i++) {
+            if (a[i] == v) return true;
+        }
+        return false;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            used = Math.min(used, rt.totalMemory() - rt.freeMemory());
+        }
+        return used;
+    }
+
+    private static volatile Object sink;
+
+    /** Keeps structures reachable until they have been measured. */
+    private static void keep(Object a, Object b) {
+        sink = new Object[] { a, b };
+    }
+}
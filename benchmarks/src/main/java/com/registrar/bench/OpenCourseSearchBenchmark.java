@@ -0,0 +1,79 @@
+package com.registrar.bench;
+
+import com.registrar.model.Course;
+import com.registrar.model.Student;
+import com.registrar.model.TimeSlot.Day;
+import com.registrar.service.CourseFilter;
+import com.registrar.service.RegistrarService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findOpenCourses for a random student with three courses on a 10k-course
+ * campus: no filter, a morning MWF window, and the first 25 results. The
+ * loop baseline is the scan a caller had to write before: every course,
+ * seatsRemaining() and Student.hasConflict().
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OpenCourseSearchBenchmark {
+    private static final CourseFilter MORNING_MWF = CourseFilter.ANY
+            .onDays(Day.MON, Day.WED, Day.FRI).between(8 * 60, 12 * 60);
+
+    @Param({"50000"})
+    public int students;
+
+    @Param({"10000"})
+    public int courses;
+
+    private RegistrarService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CampusGenerator campus = new CampusGenerator(42, students, courses);
+        service = campus.build();
+        campus.enrollEveryone(service, 3, 7);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        final SplittableRandom rnd = new SplittableRandom(Thread.currentThread().getId());
+    }
+
+    private String student(ThreadRandom r) {
+        return CampusGenerator.studentId(r.rnd.nextInt(students));
+    }
+
+    @Benchmark
+    public List<Course> anyOpen(ThreadRandom r) {
+        return service.findOpenCourses(student(r), CourseFilter.ANY);
+    }
+
+    @Benchmark
+    public List<Course> morningMwf(ThreadRandom r) {
+        return service.findOpenCourses(student(r), MORNING_MWF);
+    }
+
+    @Benchmark
+    public List<Course> first25(ThreadRandom r) {
+        return service.findOpenCourses(student(r), CourseFilter.ANY.limit(25));
+    }
+
+    @Benchmark
+    public List<Course> loopBaseline(ThreadRandom r) {
+        Student s = service.getStudent(student(r));
+        List<Course> out = new ArrayList<>();
+        for (Course c : service.listCourses()) {
+            if (c.seatsRemaining() > 0 && !c.isEnrolled(s.getId()) && !s.hasConflict(c)) out.add(c);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,101 @@
+package com.registrar.bench;
+
+import com.registrar.model.Student;
+import com.registrar.model.TimeSlot;
+import com.registrar.service.RegistrarService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Roster rendering for a full lecture hall: the whole-String getRoster(),
+ * streaming writeRoster() into a discarding Writer, and one sorted page.
+ * exportCampus streams every roster of a generated campus as CSV into a
+ * discarding channel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RosterBenchmark {
+    private static final String COURSE = "HALL800";
+
+    @Param({"800"})
+    public int seats;
+
+    private RegistrarService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new RegistrarService();
+        service.addCourse(COURSE, "Lecture Hall", seats,
+                Collections.singletonList(new TimeSlot(TimeSlot.Day.TUE, 13 * 60, 14 * 60 + 15)));
+        for (int i = 0; i < seats; i++) {
+            String sid = CampusGenerator.studentId(i);
+            service.addStudent(sid, "Student " + i);
+            service.enroll(sid, COURSE, 1);
+        }
+    }
+
+    @Benchmark
+    public String roster() {
+        return service.getRoster(COURSE);
+    }
+
+    @Benchmark
+    public void writeRoster() throws IOException {
+        service.writeRoster(COURSE, NullSink.WRITER);
+    }
+
+    @Benchmark
+    public List<Student> rosterPageByName() {
+        return service.rosterPage(COURSE, RegistrarService.RosterOrder.NAME, 100, 50);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Campus {
+        RegistrarService service;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            CampusGenerator gen = new CampusGenerator(42, 50_000, 5_000);
+            service = gen.build();
+            gen.enrollEveryone(service, 4, 7);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void exportCampus(Campus campus) throws IOException {
+        campus.service.exportRostersCsv(NullSink.CHANNEL);
+    }
+
+    /** Sinks that count nothing and keep nothing. */
+    static final class NullSink {
+        static final Writer WRITER = new Writer() {
+            @Override public void write(char[] cbuf, int off, int len) { }
+            @Override public Writer append(CharSequence csq) { return this; }
+            @Override public Writer append(char c) { return this; }
+            @Override public void flush() { }
+            @Override public void close() { }
+        };
+
+        static final WritableByteChannel CHANNEL = new WritableByteChannel() {
+            @Override public int write(ByteBuffer src) {
+                int n = src.remaining();
+                src.position(src.limit());
+                return n;
+            }
+            @Override public boolean isOpen() { return true; }
+            @Override public void close() { }
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package com.registrar.bench;
+
+import com.registrar.model.Course;
+import com.registrar.model.TimeSlot;
+import com.registrar.service.RegistrarService;
+import com.registrar.service.Schedule;
+import com.registrar.service.ScheduleBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ScheduleBuilder on a 10k-course campus: a wishlist of {@code slots} slots
+ * with {@code alternatives} choices each. Measures the first schedule of the
+ * lazy stream, the 5 best, counting every schedule sequentially and in
+ * parallel, and the backtracking a caller had to write before: every
+ * combination, checked pairwise with TimeSlot.conflictsWith.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScheduleBuilderBenchmark {
+    @Param({"6"})
+    public int slots;
+
+    @Param({"5"})
+    public int alternatives;
+
+    private RegistrarService service;
+    private ScheduleBuilder builder;
+    private List<List<Course>> wishlist;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CampusGenerator campus = new CampusGenerator(42, 1000, 10000);
+        service = campus.build();
+        service.addStudent("W", "Wishlist");
+        builder = service.scheduleBuilder("W");
+        wishlist = new ArrayList<>();
+        SplittableRandom rnd = new SplittableRandom(11);
+        for (int s = 0; s < slots; s++) {
+            String[] codes = new String[alternatives];
+            List<Course> slot = new ArrayList<>();
+            for (int a = 0; a < alternatives; a++) {
+                codes[a] = CampusGenerator.courseCode(rnd.nextInt(campus.courseCount()));
+                slot.add(service.getCourse(codes[a]));
+            }
+            builder.want(codes);
+            wishlist.add(slot);
+        }
+    }
+
+    @Benchmark
+    public Optional<Schedule> firstSchedule() {
+        return builder.schedules().findFirst();
+    }
+
+    @Benchmark
+    public List<Schedule> best5() {
+        return builder.best(5);
+    }
+
+    @Benchmark
+    public long countAll() {
+        return builder.schedules().count();
+    }
+
+    @Benchmark
+    public long countAllParallel() {
+        return builder.schedules().parallel().count();
+    }
+
+    @Benchmark
+    public long loopBaseline() {
+        return count(0, new ArrayList<>());
+    }
+
+    private long count(int slot, List<Course> picked) {
+        if (slot == wishlist.size()) return 1;
+        long n = 0;
+        for (Course c : wishlist.get(slot)) {
+            if (c.seatsRemaining() == 0 || picked.contains(c) || clashes(c, picked)) continue;
+            picked.add(c);
+            n += count(slot + 1, picked);
+            picked.remove(picked.size() - 1);
+        }
+        return n;
+    }
+
+    private static boolean clashes(Course c, List<Course> picked) {
+        for (Course p : picked) {
+            for (TimeSlot x : c.getMeetingTimes()) {
+                for (TimeSlot y : p.getMeetingTimes()) {
+                    if (x.conflictsWith(y)) return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,63 @@
+package com.registrar.bench;
+
+import com.registrar.service.CourseView;
+import com.registrar.service.RegistrarService.EnrollResult;
+import com.registrar.service.ShardedRegistrar;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * enroll() followed by drop() on a ShardedRegistrar, 8 client threads, for
+ * 1 to 8 shards. Each shard runs on its own thread, so throughput should
+ * grow with the shard count up to the number of cores. Compare with
+ * EnrollBenchmark for the cost of the two-phase hops. The trial fails if any
+ * course ends up over capacity.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ShardScalingBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    @Param({"50000"})
+    public int students;
+
+    @Param({"5000"})
+    public int courses;
+
+    private ShardedRegistrar registrar;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        registrar = new CampusGenerator(42, students, courses).populate(new ShardedRegistrar(shards));
+    }
+
+    @TearDown(Level.Trial)
+    public void checkInvariants() {
+        for (int i = 0; i < courses; i++) {
+            CourseView c = registrar.course(CampusGenerator.courseCode(i));
+            if (c.enrolledCount() > c.getCapacity()) throw new IllegalStateException("over-enrolled: " + c);
+        }
+        registrar.close();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        final SplittableRandom rnd = new SplittableRandom(Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    public boolean enrollDrop(ThreadRandom r) {
+        String sid = CampusGenerator.studentId(r.rnd.nextInt(students));
+        String code = CampusGenerator.courseCode(r.rnd.nextInt(courses));
+        EnrollResult result = registrar.enroll(sid, code, 1);
+        return result == EnrollResult.ENROLLED && registrar.drop(sid, code);
+    }
+}
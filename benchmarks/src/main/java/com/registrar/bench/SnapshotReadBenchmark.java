@@ -0,0 +1,96 @@
+package com.registrar.bench;
+
+import com.registrar.service.CampusSnapshot;
+import com.registrar.service.CourseView;
+import com.registrar.service.RegistrarService;
+import com.registrar.service.RegistrarService.EnrollResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reporting against live registration. In the "reporting" group three threads
+ * run enroll+drop while a fourth opens a CampusSnapshot, reads 200 random
+ * courses from it and closes it; "writersOnly" runs the same writers alone, so
+ * the two writer scores show what snapshot reads cost enrollment.
+ * openClose is the cost of an empty snapshot on an idle campus.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnapshotReadBenchmark {
+    private static final int COURSES_PER_REPORT = 200;
+
+    @Param({"50000"})
+    public int students;
+
+    @Param({"5000"})
+    public int courses;
+
+    private RegistrarService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CampusGenerator campus = new CampusGenerator(42, students, courses);
+        service = campus.build();
+        campus.enrollEveryone(service, 3, 7);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        final SplittableRandom rnd = new SplittableRandom(Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    @Group("reporting")
+    @GroupThreads(3)
+    public EnrollResult writer(ThreadRandom r) {
+        return enrollDrop(r);
+    }
+
+    @Benchmark
+    @Group("reporting")
+    @GroupThreads(1)
+    public int report(ThreadRandom r) {
+        int seats = 0;
+        try (CampusSnapshot snapshot = service.openSnapshot()) {
+            List<String> codes = snapshot.courseCodes();
+            for (int i = 0; i < COURSES_PER_REPORT; i++) {
+                CourseView c = snapshot.course(codes.get(r.rnd.nextInt(codes.size())));
+                seats += c.enrolledCount() + c.waitlistSize();
+            }
+        }
+        return seats;
+    }
+
+    @Benchmark
+    @Group("writersOnly")
+    @GroupThreads(3)
+    public EnrollResult writerAlone(ThreadRandom r) {
+        return enrollDrop(r);
+    }
+
+    @Benchmark
+    public long openClose() {
+        try (CampusSnapshot snapshot = service.openSnapshot()) {
+            return snapshot.version();
+        }
+    }
+
+    private EnrollResult enrollDrop(ThreadRandom r) {
+        String sid = CampusGenerator.studentId(r.rnd.nextInt(students));
+        String code = CampusGenerator.courseCode(r.rnd.nextInt(courses));
+        EnrollResult result = service.enroll(sid, code, 1);
+        if (result == EnrollResult.ENROLLED) {
+            service.drop(sid, code);
+        } else if (result == EnrollResult.ADDED_TO_WAITLIST) {
+            service.leaveWaitlist(sid, code);
+        }
+        return result;
+    }
+}
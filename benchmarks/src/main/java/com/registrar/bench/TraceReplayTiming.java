@@ -0,0 +1,99 @@
+package com.registrar.bench;
+
+import com.registrar.service.RegistrarService;
+import com.registrar.trace.Trace;
+import com.registrar.trace.TraceRecorder;
+import com.registrar.trace.TraceReplayer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Cost of recording a trace, and how fast and how faithfully it replays.
+ * Runs the same concurrent enroll/drop workload on two fresh campuses, one
+ * plain and one with a TraceRecorder attached, then replays the trace with
+ * one thread and with {@code threads} threads. Every replay must report
+ * identical results and final rosters.
+ *
+ * Run: java -cp benchmarks/target/benchmarks.jar com.registrar.bench.TraceReplayTiming [threads] [callsPerThread] [speed]
+ * Defaults: one thread per core, 200000 calls per thread, unpaced (speed 0).
+ */
+public final class TraceReplayTiming {
+    private TraceReplayTiming() { }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        double speed = args.length > 2 ? Double.parseDouble(args[2]) : 0;
+
+        CampusGenerator campus = new CampusGenerator(42, 20_000, 2_000);
+        System.out.println(campus + ", " + threads + " thread(s) x " + perThread + " calls");
+
+        RegistrarService plain = prepare(campus);
+        long plainNanos = workload(plain, campus, threads, perThread);
+        plain = null;
+
+        Path file = Files.createTempFile("registrar", ".trace");
+        try {
+            RegistrarService service = prepare(campus);
+            TraceRecorder recorder = TraceRecorder.start(service, file);
+            long recordedNanos = workload(service, campus, threads, perThread);
+            service.awaitPromotions();
+            recorder.close();
+            System.out.printf("workload %.0f ms plain, %.0f ms recorded; trace %,d bytes, %.1f bytes/call%n",
+                    plainNanos / 1e6, recordedNanos / 1e6, Files.size(file),
+                    Files.size(file) / (double) recorder.callCount());
+
+            Trace trace = Trace.read(file);
+            System.out.println(trace);
+            System.out.println("replay, 1 thread: " + TraceReplayer.replay(trace, 1, speed));
+            System.out.println("replay, " + threads + " threads: " + TraceReplayer.replay(trace, threads, speed));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** A campus with two requests per student already through enrollAll, so waitlists exist. */
+    private static RegistrarService prepare(CampusGenerator campus) throws InterruptedException {
+        RegistrarService service = campus.build();
+        campus.enrollEveryone(service, 2, 1);
+        service.awaitPromotions();
+        return service;
+    }
+
+    /** Each thread enrolls (70%) in or drops popular courses; returns the wall-clock time. */
+    private static long workload(RegistrarService service, CampusGenerator campus, int threads, int perThread)
+            throws InterruptedException {
+        String[] studentIds = new String[campus.studentCount()];
+        for (int i = 0; i < studentIds.length; i++) studentIds[i] = CampusGenerator.studentId(i);
+        String[] courseCodes = new String[campus.courseCount()];
+        for (int i = 0; i < courseCodes.length; i++) courseCodes[i] = CampusGenerator.courseCode(i);
+
+        CountDownLatch done = new CountDownLatch(threads);
+        long t0 = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom rnd = new SplittableRandom(1_000 + t);
+            Thread worker = new Thread(() -> {
+                try {
+                    for (int i = 0; i < perThread; i++) {
+                        String sid = studentIds[rnd.nextInt(studentIds.length)];
+                        String code = courseCodes[campus.popularCourse(rnd)];
+                        if (rnd.nextInt(100) < 70) {
+                            service.enroll(sid, code, rnd.nextInt(3));
+                        } else {
+                            service.drop(sid, code);
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "workload-" + t);
+            worker.start();
+        }
+        done.await();
+        return System.nanoTime() - t0;
+    }
+}
@@ -1,18 +1,79 @@
 
 package com.registrar;
 
+import com.registrar.http.RegistrarHttpServer;
+import com.registrar.metrics.RegistrarMetrics;
+import com.registrar.metrics.TermAnalytics;
 import com.registrar.model.TimeSlot;
+import com.registrar.persistence.RegistrarPersistence;
+import com.registrar.service.AdmissionControl;
+import com.registrar.service.AdmissionLimits;
 import com.registrar.service.RegistrarService;
 import com.registrar.ui.RegistrarUI;
 
 import javax.swing.*;
+import javax.management.JMException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
-    public static void main(String[] args) {
-        // Create service and seed some sample data
-        RegistrarService service = new RegistrarService();
+    public static void main(String[] args) throws IOException {
+        // Recover state from the data directory (journal + snapshots)
+        RegistrarPersistence persistence = RegistrarPersistence.open(
+            Paths.get(System.getProperty("registrar.dataDir", "registrar-data")), true);
+        persistence.scheduleSnapshots(5, TimeUnit.MINUTES);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                persistence.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close journal: " + e.getMessage());
+            }
+        }));
 
+        RegistrarService service = persistence.getService();
+        if (persistence.isEmpty()) {
+            seed(service);
+        }
+
+        // Metrics over JMX; -Dregistrar.metricsDumpSeconds=N also prints them every N seconds
+        RegistrarMetrics metrics = RegistrarMetrics.attach(service);
+        try {
+            metrics.registerMBean();
+        } catch (JMException e) {
+            System.err.println("Failed to register metrics MBean: " + e.getMessage());
+        }
+        long dumpSeconds = Long.getLong("registrar.metricsDumpSeconds", 0L);
+        if (dumpSeconds > 0) {
+            metrics.scheduleDump(dumpSeconds, TimeUnit.SECONDS, System.out);
+        }
+
+        // Live term analytics; students in fewer than -Dregistrar.minCourses=N courses (default 3) are flagged
+        TermAnalytics analytics = TermAnalytics.attach(service, Integer.getInteger("registrar.minCourses", 3));
+
+        // Optional HTTP/JSON API, e.g. -Dregistrar.httpPort=8080
+        String httpPort = System.getProperty("registrar.httpPort");
+        if (httpPort != null) {
+            RegistrarHttpServer http = RegistrarHttpServer.start(service, new InetSocketAddress(Integer.parseInt(httpPort)));
+            // Rate limits and load shedding for API clients; -Dregistrar.admission=false turns them off
+            if (!"false".equals(System.getProperty("registrar.admission"))) {
+                http.setAdmissionControl(new AdmissionControl(service, AdmissionLimits.DEFAULT));
+            }
+            http.setAnalytics(analytics);
+            System.out.println("HTTP API listening on port " + http.getAddress().getPort());
+        }
+
+        // Start Swing UI on EDT
+        SwingUtilities.invokeLater(() -> {
+            RegistrarUI ui = new RegistrarUI(service);
+            ui.setVisible(true);
+        });
+    }
+
+    /** Seeds some sample data into a fresh data directory. */
+    private static void seed(RegistrarService service) {
         service.addStudent("S001", "Alice");
         service.addStudent("S002", "Bob");
         service.addStudent("S003", "Hamza"); // 👋
@@ -32,11 +93,5 @@ public class Main {
                 new TimeSlot(TimeSlot.Day.THU, 11*60, 12*60+15)
             )
         );
-
-        // Start Swing UI on EDT
-        SwingUtilities.invokeLater(() -> {
-            RegistrarUI ui = new RegistrarUI(service);
-            ui.setVisible(true);
-        });
     }
 }
@@ -0,0 +1,210 @@
+package com.registrar.events;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded, lock-free, multi-producer event queue with a single dispatcher
+ * thread. Publishers claim a slot with one CAS and never take a lock, so
+ * listeners (notifications, audit trails) add no latency to enroll/drop as
+ * long as they keep up. The dispatcher drains up to {@code maxBatch} events
+ * at a time and hands each batch to every listener in registration order.
+ *
+ * What happens when listeners fall behind and the ring fills is the
+ * {@link Backpressure} policy. The ring is Vyukov's bounded queue: each slot
+ * carries a sequence number saying whether it is free for the producer at a
+ * given position or full for the consumer.
+ */
+public final class EventBus implements EventSink, Closeable {
+    /** What publish() does when the ring is full. */
+    public enum Backpressure {
+        /**
+         * Wait for room; nothing is lost. The service call that publishes waits
+         * for the listeners, but holds no locks meanwhile.
+         */
+        BLOCK,
+        /** Discard the new event and count it. The service never waits on listeners. */
+        DROP
+    }
+
+    private static final int IDLE_PARK_MAX_NANOS = 1_000_000;
+
+    private final AtomicReferenceArray<RegistrarEvent> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();   // next position to claim (producers)
+    private volatile long head;                         // next position to read (dispatcher only writes)
+
+    private final Backpressure policy;
+    private final int maxBatch;
+    private final List<EventListener> listeners = new CopyOnWriteArrayList<>();
+    private final Thread dispatcher;
+    private volatile boolean closed;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder blockedPublishes = new LongAdder();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong listenerFailures = new AtomicLong();
+
+    /**
+     * @param capacity ring size, rounded up to a power of two
+     * @param maxBatch most events handed to listeners at once
+     */
+    public EventBus(int capacity, int maxBatch, Backpressure policy) {
+        if (capacity < 2) throw new IllegalArgumentException("capacity must be >= 2");
+        if (maxBatch < 1) throw new IllegalArgumentException("maxBatch must be >= 1");
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+        this.mask = size - 1;
+        this.maxBatch = maxBatch;
+        this.policy = policy;
+        this.dispatcher = new Thread(this::dispatchLoop, "registrar-events");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    public void addListener(EventListener l) { listeners.add(l); }
+
+    public void removeListener(EventListener l) { listeners.remove(l); }
+
+    @Override
+    public void publish(RegistrarEvent e) {
+        if (closed) return;
+        if (tryOffer(e)) {
+            published.increment();
+            return;
+        }
+        if (policy == Backpressure.DROP) {
+            dropped.increment();
+            return;
+        }
+        blockedPublishes.increment();
+        int spins = 0;
+        while (!tryOffer(e)) {
+            if (closed) {
+                dropped.increment();
+                return;
+            }
+            if (++spins < 100) Thread.yield();
+            else LockSupport.parkNanos(10_000);
+        }
+        published.increment();
+    }
+
+    private boolean tryOffer(RegistrarEvent e) {
+        while (true) {
+            long t = tail.get();
+            int i = (int) t & mask;
+            long dif = sequences.get(i) - t;
+            if (dif == 0) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    slots.lazySet(i, e);
+                    sequences.set(i, t + 1);   // publishes the slot to the dispatcher
+                    return true;
+                }
+            } else if (dif < 0) {
+                return false;                  // full: the slot still holds position t - capacity
+            }
+            // else another producer claimed t; retry with the new tail
+        }
+    }
+
+    /** Moves up to max ready events into {@code out}; dispatcher thread only. */
+    private int drainTo(List<RegistrarEvent> out, int max) {
+        long h = head;
+        int n = 0;
+        while (n < max) {
+            int i = (int) h & mask;
+            if (sequences.get(i) != h + 1) break;          // not yet published
+            out.add(slots.get(i));
+            slots.lazySet(i, null);
+            sequences.set(i, h + mask + 1);               // free for position h + capacity
+            h++;
+            n++;
+        }
+        head = h;
+        return n;
+    }
+
+    private void dispatchLoop() {
+        List<RegistrarEvent> batch = new ArrayList<>(maxBatch);
+        int idleNanos = 1_000;
+        while (true) {
+            batch.clear();
+            if (drainTo(batch, maxBatch) == 0) {
+                if (closed && tail.get() == head) return;
+                LockSupport.parkNanos(idleNanos);
+                idleNanos = Math.min(IDLE_PARK_MAX_NANOS, idleNanos * 2);
+                continue;
+            }
+            idleNanos = 1_000;
+            List<RegistrarEvent> view = Collections.unmodifiableList(new ArrayList<>(batch));
+            for (EventListener l : listeners) {
+                try {
+                    l.onEvents(view);
+                } catch (RuntimeException ex) {
+                    if (listenerFailures.getAndIncrement() == 0) {
+                        System.err.println("Event listener " + l + " failed (further failures are only counted): "
+                                + ex);
+                    }
+                }
+            }
+            delivered.addAndGet(view.size());
+            batches.incrementAndGet();
+        }
+    }
+
+    /** Events waiting in the ring (approximate while publishers run). */
+    public int backlog() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    /** Waits until every event published so far has been handed to the listeners. */
+    public void awaitDelivered() throws InterruptedException {
+        long target = published.sum();
+        while (delivered.get() < target && dispatcher.isAlive()) {
+            if (Thread.interrupted()) throw new InterruptedException();
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    /** Stops accepting events, delivers what is queued, and stops the dispatcher. */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Backpressure getPolicy() { return policy; }
+    public int capacity() { return mask + 1; }
+    public long publishedCount() { return published.sum(); }
+    public long droppedCount() { return dropped.sum(); }
+    /** Publishes that found the ring full and had to wait (BLOCK only). */
+    public long blockedCount() { return blockedPublishes.sum(); }
+    public long deliveredCount() { return delivered.get(); }
+    public long batchCount() { return batches.get(); }
+    public long listenerFailureCount() { return listenerFailures.get(); }
+
+    @Override
+    public String toString() {
+        return "EventBus{" + policy + ", capacity=" + capacity() + ", published=" + publishedCount()
+                + ", delivered=" + deliveredCount() + ", dropped=" + droppedCount()
+                + ", blocked=" + blockedCount() + ", batches=" + batchCount() + "}";
+    }
+}
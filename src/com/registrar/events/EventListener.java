@@ -0,0 +1,12 @@
+package com.registrar.events;
+
+import java.util.List;
+
+/**
+ * Consumes events in batches on the EventBus thread. Batches arrive in
+ * publication order. A listener that throws is reported and keeps receiving
+ * later batches.
+ */
+public interface EventListener {
+    void onEvents(List<RegistrarEvent> batch);
+}
@@ -0,0 +1,13 @@
+package com.registrar.events;
+
+/**
+ * Where RegistrarService publishes its events. Called after the service has
+ * released its locks, on the thread whose call raised the event or on one
+ * that raised a later event for the same course; {@link EventBus} hands
+ * events to another thread.
+ */
+public interface EventSink {
+    EventSink NONE = e -> { };
+
+    void publish(RegistrarEvent e);
+}
@@ -0,0 +1,49 @@
+package com.registrar.events;
+
+import java.util.Objects;
+
+/**
+ * Something that happened to a seat or a waitlist entry. Events for one course
+ * are published in the order the service applied them, after the service has
+ * released its locks.
+ */
+public final class RegistrarEvent {
+    public enum Type {
+        /** A student took a seat through enroll/enrollAll. */
+        ENROLLED,
+        /** A student gave up a seat through drop. */
+        DROPPED,
+        /** A student joined a full course's waitlist. */
+        WAITLISTED,
+        /** A waitlisted student was seated after a drop. */
+        PROMOTED_FROM_WAITLIST,
+        /** A waitlisted student was passed over (and removed) because of a schedule conflict. */
+        PROMOTION_SKIPPED_CONFLICT
+    }
+
+    private final Type type;
+    private final String courseCode;
+    private final String studentId;
+    private final int priority;
+    private final long timeMs;
+
+    public RegistrarEvent(Type type, String courseCode, String studentId, int priority, long timeMs) {
+        this.type = Objects.requireNonNull(type);
+        this.courseCode = Objects.requireNonNull(courseCode);
+        this.studentId = Objects.requireNonNull(studentId);
+        this.priority = priority;
+        this.timeMs = timeMs;
+    }
+
+    public Type getType() { return type; }
+    public String getCourseCode() { return courseCode; }
+    public String getStudentId() { return studentId; }
+    /** Request priority for ENROLLED and WAITLISTED, the waitlist entry's priority for promotions, else 0. */
+    public int getPriority() { return priority; }
+    public long getTimeMs() { return timeMs; }
+
+    @Override
+    public String toString() {
+        return type + " " + studentId + "@" + courseCode + " (priority " + priority + ", t=" + timeMs + ")";
+    }
+}
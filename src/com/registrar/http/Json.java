@@ -0,0 +1,206 @@
+package com.registrar.http;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Just enough JSON for the HTTP API: a parser producing Map / List / String /
+ * Long / Double / Boolean / null, and string quoting for hand-written output.
+ * Malformed input raises IllegalArgumentException (reported as 400).
+ */
+final class Json {
+    /** Deepest nesting of objects and arrays accepted; the parser recurses once per level. */
+    static final int MAX_DEPTH = 64;
+
+    private final String s;
+    private int pos;
+    private int depth;
+
+    private Json(String s) {
+        this.s = s;
+    }
+
+    static Object parse(String text) {
+        Json p = new Json(text);
+        p.skipSpace();
+        Object v = p.value();
+        p.skipSpace();
+        if (p.pos != text.length()) throw p.error("trailing characters");
+        return v;
+    }
+
+    /** Parses a JSON object. */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> parseObject(String text) {
+        Object v = parse(text);
+        if (!(v instanceof Map)) throw new IllegalArgumentException("expected a JSON object");
+        return (Map<String, Object>) v;
+    }
+
+    /** Appends a JSON string literal. */
+    static StringBuilder quote(StringBuilder out, String v) {
+        if (v == null) return out.append("null");
+        out.append('"');
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                    else out.append(c);
+            }
+        }
+        return out.append('"');
+    }
+
+    private Object value() {
+        if (pos >= s.length()) throw error("unexpected end");
+        char c = s.charAt(pos);
+        switch (c) {
+            case '{': return object();
+            case '[': return array();
+            case '"': return string();
+            case 't': return literal("true", Boolean.TRUE);
+            case 'f': return literal("false", Boolean.FALSE);
+            case 'n': return literal("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) return number();
+                throw error("unexpected '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> object() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        enter();
+        skipSpace();
+        if (peek() == '}') {
+            pos++;
+            depth--;
+            return out;
+        }
+        while (true) {
+            skipSpace();
+            if (peek() != '"') throw error("expected a member name");
+            String name = string();
+            skipSpace();
+            expect(':');
+            skipSpace();
+            out.put(name, value());
+            skipSpace();
+            if (peek() == ',') {
+                pos++;
+            } else {
+                expect('}');
+                depth--;
+                return out;
+            }
+        }
+    }
+
+    private List<Object> array() {
+        List<Object> out = new ArrayList<>();
+        enter();
+        skipSpace();
+        if (peek() == ']') {
+            pos++;
+            depth--;
+            return out;
+        }
+        while (true) {
+            skipSpace();
+            out.add(value());
+            skipSpace();
+            if (peek() == ',') {
+                pos++;
+            } else {
+                expect(']');
+                depth--;
+                return out;
+            }
+        }
+    }
+
+    /** Steps into an object or array, past its opening bracket. */
+    private void enter() {
+        if (++depth > MAX_DEPTH) throw error("nested deeper than " + MAX_DEPTH);
+        pos++;
+    }
+
+    private String string() {
+        pos++; // opening quote
+        StringBuilder out = new StringBuilder();
+        while (true) {
+            if (pos >= s.length()) throw error("unterminated string");
+            char c = s.charAt(pos++);
+            if (c == '"') return out.toString();
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            if (pos >= s.length()) throw error("unterminated string");
+            char e = s.charAt(pos++);
+            switch (e) {
+                case '"': case '\\': case '/': out.append(e); break;
+                case 'b': out.append('\b'); break;
+                case 'f': out.append('\f'); break;
+                case 'n': out.append('\n'); break;
+                case 'r': out.append('\r'); break;
+                case 't': out.append('\t'); break;
+                case 'u':
+                    if (pos + 4 > s.length()) throw error("bad \\u escape");
+                    try {
+                        out.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException ex) {
+                        throw error("bad \\u escape");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    throw error("bad escape \\" + e);
+            }
+        }
+    }
+
+    private Object number() {
+        int start = pos;
+        if (peek() == '-') pos++;
+        while (pos < s.length() && "0123456789.eE+-".indexOf(s.charAt(pos)) >= 0) pos++;
+        String n = s.substring(start, pos);
+        try {
+            if (n.indexOf('.') < 0 && n.indexOf('e') < 0 && n.indexOf('E') < 0) return Long.parseLong(n);
+            return Double.parseDouble(n);
+        } catch (NumberFormatException e) {
+            throw error("bad number " + n);
+        }
+    }
+
+    private Object literal(String word, Object v) {
+        if (!s.startsWith(word, pos)) throw error("unexpected token");
+        pos += word.length();
+        return v;
+    }
+
+    private char peek() {
+        if (pos >= s.length()) throw error("unexpected end");
+        return s.charAt(pos);
+    }
+
+    private void expect(char c) {
+        if (peek() != c) throw error("expected '" + c + "'");
+        pos++;
+    }
+
+    private void skipSpace() {
+        while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("invalid JSON at " + pos + ": " + message);
+    }
+}
@@ -0,0 +1,606 @@
+package com.registrar.http;
+
+import com.registrar.metrics.TermAnalytics;
+import com.registrar.model.Course;
+import com.registrar.model.Student;
+import com.registrar.model.TimeSlot;
+import com.registrar.model.WaitlistEntry;
+import com.registrar.service.CampusSnapshot;
+import com.registrar.service.CourseFilter;
+import com.registrar.service.CourseView;
+import com.registrar.service.AdmissionControl;
+import com.registrar.service.RegistrarService;
+import com.registrar.service.StudentView;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded HTTP/JSON front end for RegistrarService, on the JDK's
+ * com.sun.net.httpserver. Endpoints:
+ * <pre>
+ *   GET    /students?offset=&amp;limit=              students sorted by ID
+ *   POST   /students                            {"id", "name"}
+ *   GET    /students/{id}                       student with courses and schedule
+ *   GET    /courses?offset=&amp;limit=               courses sorted by code
+ *   POST   /courses                             {"code", "title", "capacity",
+ *                                                "meetingTimes": [{"day": "MON", "start": "09:00", "end": "10:15"}]}
+ *   GET    /courses/{code}                      course with seats, waitlist size, meeting times
+ *   GET    /courses/{code}/roster?order=id|name&amp;offset=&amp;limit=
+ *   GET    /courses/{code}/waitlist?limit=      first entries in queue order
+ *   GET    /courses/{code}/waitlist/{id}        {"position": n}, 1-based
+ *   DELETE /courses/{code}/waitlist/{id}        leave the waitlist
+ *   POST   /enroll                              {"studentId", "courseCode", "priority"} -> {"result": ...}
+ *   POST   /drop                                {"studentId", "courseCode"} -> {"dropped": true|false}
+ *   GET    /analytics?top=                      campus fill and demand, top oversubscribed courses and
+ *                                                conflict pairs (if TermAnalytics is set)
+ * </pre>
+ * POST /enroll and /drop honour an optional Idempotency-Key header: a retry
+ * with the same key gets the first answer (see IdempotencyCache).
+ * Bad input is answered with 400 and {"error": ...}; unknown students or
+ * courses with 404. Pages hold at most {@link #MAX_PAGE} entries.
+ *
+ * Requests run on the given executor. The default is one virtual thread per
+ * request when the JVM has them (Java 21+), looked up reflectively since the
+ * build targets Java 8; otherwise a bounded pool of platform threads.
+ */
+public final class RegistrarHttpServer implements Closeable {
+    public static final int MAX_PAGE = 1000;
+    private static final int DEFAULT_PAGE = 100;
+    private static final int MAX_BODY = 1 << 20;
+
+    private final RegistrarService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile AdmissionControl admission; // null: enroll and drop go straight to the service
+    private volatile TermAnalytics analytics;    // null: GET /analytics is 404
+
+    private RegistrarHttpServer(RegistrarService service, HttpServer server, ExecutorService executor) {
+        this.service = service;
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /** Starts a server on the default executor; port 0 picks a free port. */
+    public static RegistrarHttpServer start(RegistrarService service, InetSocketAddress address) throws IOException {
+        return start(service, address, defaultExecutor());
+    }
+
+    /** Starts a server whose requests run on {@code executor}; close() shuts it down. */
+    public static RegistrarHttpServer start(RegistrarService service, InetSocketAddress address,
+                                            ExecutorService executor) throws IOException {
+        // The JDK server writes headers and body separately; with Nagle on, every
+        // small response waits out the client's delayed ACK (~40 ms). Read once,
+        // when the first server is created, so an explicit -D setting still wins.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        HttpServer server = HttpServer.create(address, 1024);
+        RegistrarHttpServer http = new RegistrarHttpServer(service, server, executor);
+        server.createContext("/", http::handle);
+        server.setExecutor(executor);
+        server.start();
+        return http;
+    }
+
+    /**
+     * Routes enroll and drop through {@code admission} (null to stop);
+     * shed calls get 429 when rate limited and 503 when overloaded.
+     */
+    public void setAdmissionControl(AdmissionControl admission) {
+        this.admission = admission;
+    }
+
+    /** Serves GET /analytics from {@code analytics} (null to stop). */
+    public void setAnalytics(TermAnalytics analytics) {
+        this.analytics = analytics;
+    }
+
+    /** The bound address (useful with port 0). */
+    public InetSocketAddress getAddress() { return server.getAddress(); }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /**
+     * A virtual-thread-per-task executor on Java 21+, else a pool of daemon
+     * threads sized for blocking on journal commits.
+     */
+    public static ExecutorService defaultExecutor() {
+        try {
+            Method m = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            int threads = Math.max(64, Runtime.getRuntime().availableProcessors() * 16);
+            AtomicInteger n = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        Thread t = new Thread(r, "registrar-http-" + n.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    // --- Routing ---
+
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        try {
+            String[] path = segments(ex.getRequestURI().getPath());
+            String method = ex.getRequestMethod();
+            String body = route(ex, method, path);
+            boolean created = method.equals("POST") && path.length == 1
+                    && (path[0].equals("students") || path[0].equals("courses"));
+            send(ex, created ? 201 : 200, body);
+        } catch (HttpError e) {
+            send(ex, e.status, error(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            send(ex, 400, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            System.err.println("HTTP " + ex.getRequestMethod() + " " + ex.getRequestURI().getPath() + " failed: " + e);
+            send(ex, 500, error("internal error"));
+        } finally {
+            ex.close();
+        }
+    }
+
+    private String route(HttpExchange ex, String method, String[] p) throws IOException {
+        if (p.length == 0) throw new HttpError(404, "no such resource");
+        switch (p[0]) {
+            case "students":
+                if (p.length == 1 && method.equals("GET")) return listStudents(query(ex));
+                if (p.length == 1 && method.equals("POST")) return addStudent(body(ex));
+                if (p.length == 2 && method.equals("GET")) return student(p[1]);
+                if (p.length == 3 && p[2].equals("open-courses") && method.equals("GET")) return openCourses(p[1], query(ex));
+                break;
+            case "courses":
+                if (p.length == 1 && method.equals("GET")) return listCourses(query(ex));
+                if (p.length == 1 && method.equals("POST")) return addCourse(body(ex));
+                if (p.length == 2 && method.equals("GET")) return course(p[1]);
+                if (p.length == 3 && p[2].equals("roster") && method.equals("GET")) return roster(p[1], query(ex));
+                if (p.length == 3 && p[2].equals("waitlist") && method.equals("GET")) return waitlist(p[1], query(ex));
+                if (p.length == 4 && p[2].equals("waitlist") && method.equals("GET")) return waitlistPosition(p[1], p[3]);
+                if (p.length == 4 && p[2].equals("waitlist") && method.equals("DELETE")) return leaveWaitlist(p[1], p[3]);
+                break;
+            case "enroll":
+                if (p.length == 1 && method.equals("POST")) return enroll(body(ex), idempotencyKey(ex));
+                break;
+            case "drop":
+                if (p.length == 1 && method.equals("POST")) return drop(body(ex), idempotencyKey(ex));
+                break;
+            case "analytics":
+                if (p.length == 1 && method.equals("GET")) return analytics(query(ex));
+                break;
+            default:
+                throw new HttpError(404, "no such resource");
+        }
+        throw new HttpError(405, method + " not supported on " + ex.getRequestURI().getPath());
+    }
+
+    // --- Endpoints ---
+
+    private String listStudents(Map<String, String> q) {
+        List<String> ids = service.sortedStudentIds();
+        int offset = intParam(q, "offset", 0);
+        int limit = Math.min(MAX_PAGE, intParam(q, "limit", DEFAULT_PAGE));
+        StringBuilder out = new StringBuilder("{\"total\":").append(ids.size()).append(",\"students\":[");
+        boolean first = true;
+        for (int i = offset; i < Math.min(ids.size(), offset + limit); i++) {
+            Student s = service.getStudent(ids.get(i));
+            if (s == null) continue;
+            if (!first) out.append(',');
+            first = false;
+            studentSummary(out, s);
+        }
+        return out.append("]}").toString();
+    }
+
+    private String addStudent(Map<String, Object> body) {
+        String id = str(body, "id");
+        String name = str(body, "name");
+        if (!service.addStudent(id, name)) throw new HttpError(409, "student " + id + " already exists");
+        StringBuilder out = new StringBuilder();
+        studentSummary(out, service.getStudent(id));
+        return out.toString();
+    }
+
+    private String student(String id) {
+        StudentView s = service.viewStudent(id);
+        if (s == null) throw new HttpError(404, "no student " + id);
+        StringBuilder out = new StringBuilder("{\"id\":");
+        Json.quote(out, s.getId()).append(",\"name\":");
+        Json.quote(out, s.getName()).append(",\"courses\":[");
+        boolean first = true;
+        for (String code : s.getEnrolledCourses()) {
+            if (!first) out.append(',');
+            first = false;
+            Json.quote(out, code);
+        }
+        out.append("],\"schedule\":");
+        slots(out, s.getSchedule());
+        return out.append('}').toString();
+    }
+
+    /** ?days=MON,WED&from=09:00&to=13:00&minSeats=&limit= */
+    private String openCourses(String id, Map<String, String> q) {
+        if (service.getStudent(id) == null) throw new HttpError(404, "no student " + id);
+        CourseFilter filter = CourseFilter.ANY
+                .minSeats(intParam(q, "minSeats", 1))
+                .limit(Math.min(MAX_PAGE, intParam(q, "limit", DEFAULT_PAGE)));
+        String days = q.get("days");
+        if (days != null) {
+            String[] names = days.split(",");
+            TimeSlot.Day[] parsed = new TimeSlot.Day[names.length];
+            for (int i = 0; i < names.length; i++) parsed[i] = day(names[i]);
+            filter = filter.onDays(parsed);
+        }
+        if (q.containsKey("from") || q.containsKey("to")) {
+            filter = filter.between(q.containsKey("from") ? clock(q.get("from")) : 0,
+                    q.containsKey("to") ? clock(q.get("to")) : 24 * 60);
+        }
+        StringBuilder out = new StringBuilder("{\"studentId\":");
+        Json.quote(out, id).append(",\"courses\":[");
+        boolean first = true;
+        for (Course c : service.findOpenCourses(id, filter)) {
+            CourseView view = service.viewCourse(c.getCode());
+            if (!first) out.append(',');
+            first = false;
+            courseJson(out, view);
+        }
+        return out.append("]}").toString();
+    }
+
+    private String listCourses(Map<String, String> q) {
+        int offset = intParam(q, "offset", 0);
+        int limit = Math.min(MAX_PAGE, intParam(q, "limit", DEFAULT_PAGE));
+        // One snapshot per page, so the total and every course on it agree
+        try (CampusSnapshot snapshot = service.openSnapshot()) {
+            List<String> codes = snapshot.courseCodes();
+            StringBuilder out = new StringBuilder("{\"total\":").append(codes.size()).append(",\"courses\":[");
+            for (int i = offset; i < Math.min(codes.size(), offset + limit); i++) {
+                if (i > offset) out.append(',');
+                courseJson(out, snapshot.course(codes.get(i)));
+            }
+            return out.append("]}").toString();
+        }
+    }
+
+    private String addCourse(Map<String, Object> body) {
+        String code = str(body, "code");
+        String title = str(body, "title");
+        int capacity = integer(body, "capacity", -1);
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        List<TimeSlot> times = new ArrayList<>();
+        Object raw = body.get("meetingTimes");
+        if (raw != null) {
+            if (!(raw instanceof List)) throw new IllegalArgumentException("meetingTimes must be an array");
+            for (Object o : (List<?>) raw) {
+                if (!(o instanceof Map)) throw new IllegalArgumentException("meeting times must be objects");
+                Map<?, ?> m = (Map<?, ?>) o;
+                times.add(new TimeSlot(day(m.get("day")), clock(m.get("start")), clock(m.get("end"))));
+            }
+        }
+        if (!service.addCourse(code, title, capacity, times)) throw new HttpError(409, "course " + code + " already exists");
+        return course(code);
+    }
+
+    private String course(String code) {
+        StringBuilder out = new StringBuilder();
+        CourseView c = service.viewCourse(code);
+        if (c == null) throw new HttpError(404, "no course " + code);
+        courseJson(out, c);
+        return out.toString();
+    }
+
+    private String roster(String code, Map<String, String> q) {
+        Course c = requireCourse(code);
+        String order = q.getOrDefault("order", "id");
+        RegistrarService.RosterOrder o;
+        if (order.equalsIgnoreCase("id")) o = RegistrarService.RosterOrder.STUDENT_ID;
+        else if (order.equalsIgnoreCase("name")) o = RegistrarService.RosterOrder.NAME;
+        else throw new IllegalArgumentException("order must be id or name");
+        int offset = intParam(q, "offset", 0);
+        int limit = Math.min(MAX_PAGE, intParam(q, "limit", DEFAULT_PAGE));
+        StringBuilder out = new StringBuilder("{\"code\":");
+        Json.quote(out, c.getCode()).append(",\"enrolled\":").append(c.enrolledCount()).append(",\"students\":[");
+        boolean first = true;
+        for (Student s : service.rosterPage(code, o, offset, limit)) {
+            if (!first) out.append(',');
+            first = false;
+            studentSummary(out, s);
+        }
+        return out.append("]}").toString();
+    }
+
+    private String waitlist(String code, Map<String, String> q) {
+        Course c = requireCourse(code);
+        int limit = Math.min(MAX_PAGE, intParam(q, "limit", DEFAULT_PAGE));
+        StringBuilder out = new StringBuilder("{\"code\":");
+        Json.quote(out, c.getCode()).append(",\"size\":").append(c.waitlistSize()).append(",\"entries\":[");
+        int position = 0;
+        for (WaitlistEntry e : service.peekWaitlist(code, limit)) {
+            if (position > 0) out.append(',');
+            out.append("{\"position\":").append(++position).append(",\"studentId\":");
+            Json.quote(out, e.getStudentId()).append(",\"priority\":").append(e.getPriority())
+                    .append(",\"requestTimeMs\":").append(e.getRequestTimeMs()).append('}');
+        }
+        return out.append("]}").toString();
+    }
+
+    /** ?top= rankings length (default 10). */
+    private String analytics(Map<String, String> q) {
+        TermAnalytics a = analytics;
+        if (a == null) throw new HttpError(404, "analytics are not enabled");
+        int top = Math.min(MAX_PAGE, intParam(q, "top", 10));
+        StringBuilder out = new StringBuilder("{\"seatsTaken\":").append(a.seatsTaken())
+                .append(",\"totalCapacity\":").append(a.totalCapacity())
+                .append(",\"fillRate\":").append(ratio(a.campusFillRate()))
+                .append(",\"waiting\":").append(a.totalWaiting())
+                .append(",\"demandRatio\":").append(ratio(a.campusDemandRatio()))
+                .append(",\"fullCourses\":").append(a.fullCourses())
+                .append(",\"waitlistedCourses\":").append(a.waitlistedCourses())
+                .append(",\"conflicts\":").append(a.conflictCount())
+                .append(",\"minimumCourses\":").append(a.getMinimumCourses())
+                .append(",\"studentsBelowMinimum\":").append(a.studentsBelowMinimumCount())
+                .append(",\"mostOversubscribed\":[");
+        boolean first = true;
+        for (TermAnalytics.CourseLoad c : a.mostOversubscribed(top)) {
+            if (!first) out.append(',');
+            first = false;
+            out.append("{\"code\":");
+            Json.quote(out, c.getCode()).append(",\"capacity\":").append(c.getCapacity())
+                    .append(",\"enrolled\":").append(c.getEnrolled()).append(",\"waiting\":").append(c.getWaiting())
+                    .append(",\"demandRatio\":").append(ratio(c.demandRatio())).append('}');
+        }
+        out.append("],\"hottestConflicts\":[");
+        first = true;
+        for (TermAnalytics.ConflictPair p : a.hottestConflicts(top)) {
+            if (!first) out.append(',');
+            first = false;
+            out.append("{\"first\":");
+            Json.quote(out, p.getFirst()).append(",\"second\":");
+            Json.quote(out, p.getSecond()).append(",\"count\":").append(p.getCount()).append('}');
+        }
+        return out.append("]}").toString();
+    }
+
+    /** Four decimals are plenty for a dashboard. */
+    private static double ratio(double v) {
+        return Math.round(v * 10_000) / 10_000.0;
+    }
+
+    private String waitlistPosition(String code, String studentId) {
+        requireCourse(code);
+        int position = service.waitlistPosition(studentId, code);
+        if (position < 0) throw new HttpError(404, studentId + " is not waitlisted for " + code);
+        return "{\"position\":" + position + "}";
+    }
+
+    private String leaveWaitlist(String code, String studentId) {
+        requireCourse(code);
+        if (!service.leaveWaitlist(studentId, code)) throw new HttpError(404, studentId + " is not waitlisted for " + code);
+        return "{\"left\":true}";
+    }
+
+    private String enroll(Map<String, Object> body, String key) {
+        String sid = str(body, "studentId");
+        String code = str(body, "courseCode");
+        int priority = integer(body, "priority", 1);
+        AdmissionControl ac = admission;
+        RegistrarService.EnrollResult r = ac == null
+                ? service.enroll(sid, code, priority, key)
+                : ac.enroll(sid, code, priority, key);
+        if (r == RegistrarService.EnrollResult.RATE_LIMITED) throw new HttpError(429, r.toString());
+        if (r == RegistrarService.EnrollResult.OVERLOADED) throw new HttpError(503, r.toString());
+        if (r == RegistrarService.EnrollResult.NO_SUCH_STUDENT || r == RegistrarService.EnrollResult.NO_SUCH_COURSE) {
+            throw new HttpError(404, r.toString());
+        }
+        return "{\"result\":\"" + r + "\"}";
+    }
+
+    private String drop(Map<String, Object> body, String key) {
+        String sid = str(body, "studentId");
+        String code = str(body, "courseCode");
+        AdmissionControl ac = admission;
+        if (ac == null) return "{\"dropped\":" + service.drop(sid, code, key) + "}";
+        AdmissionControl.DropResult r = ac.drop(sid, code, key);
+        if (r == AdmissionControl.DropResult.RATE_LIMITED) throw new HttpError(429, r.toString());
+        if (r == AdmissionControl.DropResult.OVERLOADED) throw new HttpError(503, r.toString());
+        boolean dropped = r == AdmissionControl.DropResult.DROPPED;
+        return "{\"dropped\":" + dropped + "}";
+    }
+
+    /** The Idempotency-Key header, or null. */
+    private static String idempotencyKey(HttpExchange ex) {
+        String key = ex.getRequestHeaders().getFirst("Idempotency-Key");
+        if (key == null || key.isEmpty()) return null;
+        if (key.length() > 255) throw new HttpError(400, "Idempotency-Key longer than 255 characters");
+        return key;
+    }
+
+    // --- JSON output ---
+
+    private static void studentSummary(StringBuilder out, Student s) {
+        out.append("{\"id\":");
+        Json.quote(out, s.getId()).append(",\"name\":");
+        Json.quote(out, s.getName()).append('}');
+    }
+
+    private static void courseJson(StringBuilder out, CourseView c) {
+        out.append("{\"code\":");
+        Json.quote(out, c.getCode()).append(",\"title\":");
+        Json.quote(out, c.getTitle())
+                .append(",\"capacity\":").append(c.getCapacity())
+                .append(",\"enrolled\":").append(c.enrolledCount())
+                .append(",\"seatsRemaining\":").append(c.seatsRemaining())
+                .append(",\"waitlist\":").append(c.waitlistSize())
+                .append(",\"meetingTimes\":");
+        slots(out, new ArrayList<>(c.getMeetingTimes()));
+        out.append('}');
+    }
+
+    private static void slots(StringBuilder out, List<TimeSlot> slots) {
+        out.append('[');
+        for (int i = 0; i < slots.size(); i++) {
+            TimeSlot t = slots.get(i);
+            if (i > 0) out.append(',');
+            out.append("{\"day\":\"").append(t.getDay()).append("\",\"start\":\"").append(hhmm(t.getStartMin()))
+                    .append("\",\"end\":\"").append(hhmm(t.getEndMin())).append("\"}");
+        }
+        out.append(']');
+    }
+
+    private static String hhmm(int minutes) {
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+
+    private static String error(String message) {
+        return Json.quote(new StringBuilder("{\"error\":"), message).append('}').toString();
+    }
+
+    // --- Request parsing ---
+
+    private Course requireCourse(String code) {
+        Course c = service.getCourse(code);
+        if (c == null) throw new HttpError(404, "no course " + code);
+        return c;
+    }
+
+    private static String[] segments(String path) {
+        List<String> out = new ArrayList<>();
+        for (String s : path.split("/")) {
+            if (!s.isEmpty()) out.add(s);
+        }
+        return out.toArray(new String[0]);
+    }
+
+    private static Map<String, Object> body(HttpExchange ex) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        try (InputStream in = ex.getRequestBody()) {
+            for (int n; (n = in.read(chunk)) > 0; ) {
+                buf.write(chunk, 0, n);
+                if (buf.size() > MAX_BODY) throw new HttpError(413, "request body too large");
+            }
+        }
+        return Json.parseObject(new String(buf.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, String> query(HttpExchange ex) throws UnsupportedEncodingException {
+        Map<String, String> out = new HashMap<>();
+        String q = ex.getRequestURI().getRawQuery();
+        if (q == null) return out;
+        for (String pair : q.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            out.put(URLDecoder.decode(pair.substring(0, eq), "UTF-8"), URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+        }
+        return out;
+    }
+
+    private static int intParam(Map<String, String> q, String name, int dflt) {
+        String v = q.get(name);
+        if (v == null) return dflt;
+        try {
+            int n = Integer.parseInt(v);
+            if (n < 0) throw new IllegalArgumentException(name + " must be >= 0");
+            return n;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+
+    private static String str(Map<String, Object> body, String name) {
+        Object v = body.get(name);
+        if (!(v instanceof String) || ((String) v).trim().isEmpty()) {
+            throw new IllegalArgumentException(name + " must be a non-empty string");
+        }
+        return ((String) v).trim();
+    }
+
+    private static int integer(Map<String, Object> body, String name, int dflt) {
+        Object v = body.get(name);
+        if (v == null) return dflt;
+        if (!(v instanceof Long) || (Long) v < Integer.MIN_VALUE || (Long) v > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(name + " must be an integer");
+        }
+        return ((Long) v).intValue();
+    }
+
+    private static final String[] DAY_NAMES = {
+        "MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY", "SATURDAY", "SUNDAY"
+    };
+
+    /** MON..SUN or the full day name, case-insensitive. */
+    private static TimeSlot.Day day(Object v) {
+        if (v instanceof String) {
+            String d = ((String) v).trim().toUpperCase(Locale.ROOT);
+            for (TimeSlot.Day day : TimeSlot.Day.values()) {
+                if (d.equals(day.name()) || d.equals(DAY_NAMES[day.ordinal()])) return day;
+            }
+        }
+        throw new IllegalArgumentException("day must be MON..SUN");
+    }
+
+    /** "HH:MM" (00:00 to 24:00) or minutes from midnight (0 to 1440). */
+    private static int clock(Object v) {
+        if (v instanceof Long) {
+            long minutes = (Long) v;
+            if (minutes >= 0 && minutes <= TimeSlot.DAY_MINUTES) return (int) minutes;
+        } else if (v instanceof String) {
+            String s = ((String) v).trim();
+            int colon = s.indexOf(':');
+            try {
+                if (colon > 0 && s.length() - colon == 3) {
+                    int h = Integer.parseInt(s.substring(0, colon));
+                    int m = Integer.parseInt(s.substring(colon + 1));
+                    if (h >= 0 && m >= 0 && m <= 59 && h * 60 + m <= TimeSlot.DAY_MINUTES) return h * 60 + m;
+                }
+            } catch (NumberFormatException ignored) {
+                // fall through
+            }
+        }
+        throw new IllegalArgumentException("times must be HH:MM or minutes, within 00:00-24:00");
+    }
+
+    private static void send(HttpExchange ex, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
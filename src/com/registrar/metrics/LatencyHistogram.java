@@ -0,0 +1,113 @@
+package com.registrar.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent log-linear histogram of nanosecond latencies. Each power of two
+ * is split into 8 buckets, so a reported percentile is within 12.5% of the
+ * true value. Recording is two uncontended atomic adds (bucket and sum) on a
+ * stripe picked by thread ID; reads sum the stripes and may miss records in
+ * flight.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB = 1 << SUB_BITS;                   // buckets per power of two
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB;        // covers every long >= 0
+    private static final int SUM = BUCKETS;                          // slot of the sum of values
+    private static final int SLOTS = BUCKETS + 1;
+
+    private final AtomicLongArray[] stripes;
+    private final int mask;
+
+    public LatencyHistogram() {
+        int n = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1) << 1);
+        n = Math.min(n, 64);
+        stripes = new AtomicLongArray[n];
+        for (int i = 0; i < n; i++) stripes[i] = new AtomicLongArray(SLOTS);
+        mask = n - 1;
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        long id = Thread.currentThread().getId();
+        AtomicLongArray s = stripes[(int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask];
+        s.getAndIncrement(bucketOf(nanos));
+        s.getAndAdd(SUM, nanos);
+    }
+
+    /** A consistent-enough copy for reporting. */
+    public Snapshot snapshot() {
+        long[] counts = new long[SLOTS];
+        for (AtomicLongArray s : stripes) {
+            for (int i = 0; i < SLOTS; i++) counts[i] += s.get(i);
+        }
+        return new Snapshot(counts);
+    }
+
+    public void reset() {
+        for (AtomicLongArray s : stripes) {
+            for (int i = 0; i < SLOTS; i++) s.set(i, 0);
+        }
+    }
+
+    static int bucketOf(long v) {
+        if (v < SUB) return (int) v;
+        int e = 63 - Long.numberOfLeadingZeros(v);
+        int mantissa = (int) (v >>> (e - SUB_BITS)) & (SUB - 1);
+        return (e - SUB_BITS + 1) * SUB + mantissa;
+    }
+
+    /** Smallest value that falls in a bucket. */
+    static long lowerBound(int bucket) {
+        if (bucket < SUB) return bucket;
+        int e = bucket / SUB + SUB_BITS - 1;
+        long mantissa = bucket % SUB;
+        return (SUB + mantissa) << (e - SUB_BITS);
+    }
+
+    /** Largest value that falls in a bucket. */
+    static long upperBound(int bucket) {
+        return bucket + 1 < BUCKETS ? lowerBound(bucket + 1) - 1 : Long.MAX_VALUE;
+    }
+
+    /** Point-in-time view of a histogram. */
+    public static final class Snapshot {
+        private final long[] counts;
+
+        private final long count;
+
+        Snapshot(long[] counts) {
+            this.counts = counts;
+            long n = 0;
+            for (int i = 0; i < BUCKETS; i++) n += counts[i];
+            this.count = n;
+        }
+
+        public long count() { return count; }
+
+        public double meanNanos() {
+            return count == 0 ? 0 : (double) counts[SUM] / count;
+        }
+
+        /** Upper bound of the bucket holding the q-quantile (0 &lt; q &lt;= 1); 0 if empty. */
+        public long percentileNanos(double q) {
+            long total = count;
+            if (total == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(q * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) return upperBound(i);
+            }
+            return upperBound(BUCKETS - 1);
+        }
+
+        /** Upper bound of the highest non-empty bucket; 0 if empty. */
+        public long maxNanos() {
+            for (int i = BUCKETS - 1; i >= 0; i--) {
+                if (counts[i] != 0) return upperBound(i);
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.registrar.metrics;
+
+import com.registrar.model.Course;
+import com.registrar.service.OperationMetrics;
+import com.registrar.service.RegistrarService;
+import com.registrar.service.RegistrarService.EnrollResult;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and outcome counters for a RegistrarService, plus
+ * per-course fill and waitlist gauges read from the service on demand; one
+ * scan of the catalog serves every gauge read within {@link #GAUGES_TTL_MILLIS}.
+ * Exposed through JMX ({@link #registerMBean()}) and as a text report
+ * ({@link #dump()}, {@link #scheduleDump}).
+ *
+ * Recording costs one clock read and a few uncontended atomic adds per
+ * operation; see the metrics parameter of EnrollBenchmark.
+ */
+public final class RegistrarMetrics implements OperationMetrics, RegistrarMetricsMBean {
+    public static final String OBJECT_NAME = "com.registrar:type=RegistrarMetrics";
+    /** How long one scan of the catalog answers gauge reads, so a JMX refresh scans once. */
+    public static final long GAUGES_TTL_MILLIS = 1000;
+    private static final int TOP_COURSES = 10;
+
+    private final RegistrarService service;
+    private final LatencyHistogram enrollLatency = new LatencyHistogram();
+    private final LatencyHistogram dropLatency = new LatencyHistogram();
+    private final LatencyHistogram batchLatency = new LatencyHistogram();
+    private final LatencyHistogram leaveLatency = new LatencyHistogram();
+    private final LongAdder[] outcomes = new LongAdder[EnrollResult.values().length];
+    private final LongAdder promotions = new LongAdder();
+    private final LongAdder[] skipped = new LongAdder[SkipReason.values().length];
+    private final Object gaugesLock = new Object();
+    private volatile Gauges gauges;
+
+    private RegistrarMetrics(RegistrarService service) {
+        this.service = service;
+        for (int i = 0; i < outcomes.length; i++) outcomes[i] = new LongAdder();
+        for (int i = 0; i < skipped.length; i++) skipped[i] = new LongAdder();
+    }
+
+    /** Creates metrics for a service and starts recording its operations. */
+    public static RegistrarMetrics attach(RegistrarService service) {
+        RegistrarMetrics m = new RegistrarMetrics(service);
+        service.setMetrics(m);
+        return m;
+    }
+
+    /** Registers with the platform MBean server under {@link #OBJECT_NAME}, replacing an earlier registration. */
+    public void registerMBean() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        try {
+            server.registerMBean(this, name);
+        } catch (InstanceAlreadyExistsException e) {
+            server.unregisterMBean(name);
+            server.registerMBean(this, name);
+        }
+    }
+
+    /** Prints {@link #dump()} to {@code out} every period on a daemon thread; cancel the future to stop. */
+    public ScheduledFuture<?> scheduleDump(long period, TimeUnit unit, PrintStream out) {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "registrar-metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        return timer.scheduleAtFixedRate(() -> out.print(dump()), period, period, unit);
+    }
+
+    // --- OperationMetrics ---
+
+    @Override
+    public void enrollCompleted(EnrollResult result, long nanos) {
+        enrollLatency.record(nanos);
+        outcomes[result.ordinal()].increment();
+    }
+
+    @Override
+    public void enrollBatchCompleted(EnrollResult[] results, long nanos) {
+        batchLatency.record(nanos);
+        for (EnrollResult r : results) outcomes[r.ordinal()].increment();
+    }
+
+    /** Moves each drawn request from IN_LOTTERY to its outcome, so a request is counted once. */
+    @Override
+    public void lotteryDrawn(EnrollResult[] results, long nanos) {
+        batchLatency.record(nanos);
+        for (EnrollResult r : results) {
+            outcomes[EnrollResult.IN_LOTTERY.ordinal()].decrement();
+            outcomes[r.ordinal()].increment();
+        }
+    }
+
+    @Override
+    public void enrollShed(EnrollResult result) {
+        outcomes[result.ordinal()].increment();
+    }
+
+    @Override
+    public void dropCompleted(boolean dropped, long nanos) {
+        dropLatency.record(nanos);
+    }
+
+    @Override
+    public void waitlistLeft(boolean left, long nanos) {
+        leaveLatency.record(nanos);
+    }
+
+    @Override
+    public void promoted(String courseCode) {
+        promotions.increment();
+    }
+
+    @Override
+    public void promotionSkipped(String courseCode, SkipReason reason) {
+        skipped[reason.ordinal()].increment();
+    }
+
+    // --- Accessors ---
+
+    public LatencyHistogram.Snapshot enrollLatency() { return enrollLatency.snapshot(); }
+    public LatencyHistogram.Snapshot dropLatency() { return dropLatency.snapshot(); }
+    public LatencyHistogram.Snapshot batchLatency() { return batchLatency.snapshot(); }
+    public LatencyHistogram.Snapshot leaveWaitlistLatency() { return leaveLatency.snapshot(); }
+
+    /** IN_LOTTERY can dip below zero for a moment when a draw is recorded before its enrolls. */
+    public long outcomeCount(EnrollResult result) { return Math.max(0, outcomes[result.ordinal()].sum()); }
+    public long skippedCount(SkipReason reason) { return skipped[reason.ordinal()].sum(); }
+
+    // --- MBean ---
+
+    @Override public long getEnrollCount() { return enrollLatency.snapshot().count(); }
+    @Override public double getEnrollMeanMicros() { return enrollLatency.snapshot().meanNanos() / 1e3; }
+    @Override public double getEnrollP50Micros() { return micros(enrollLatency, 0.50); }
+    @Override public double getEnrollP99Micros() { return micros(enrollLatency, 0.99); }
+    @Override public double getEnrollP999Micros() { return micros(enrollLatency, 0.999); }
+
+    @Override public long getDropCount() { return dropLatency.snapshot().count(); }
+    @Override public double getDropP50Micros() { return micros(dropLatency, 0.50); }
+    @Override public double getDropP99Micros() { return micros(dropLatency, 0.99); }
+
+    @Override public long getBatchCount() { return batchLatency.snapshot().count(); }
+    @Override public double getBatchP50Micros() { return micros(batchLatency, 0.50); }
+    @Override public double getBatchP99Micros() { return micros(batchLatency, 0.99); }
+
+    @Override public long getLeaveWaitlistCount() { return leaveLatency.snapshot().count(); }
+    @Override public double getLeaveWaitlistP99Micros() { return micros(leaveLatency, 0.99); }
+
+    @Override public long getEnrolled() { return outcomeCount(EnrollResult.ENROLLED); }
+    @Override public long getAddedToWaitlist() { return outcomeCount(EnrollResult.ADDED_TO_WAITLIST); }
+    @Override public long getConflicts() { return outcomeCount(EnrollResult.CONFLICT); }
+    @Override public long getAlreadyEnrolled() { return outcomeCount(EnrollResult.ALREADY_ENROLLED); }
+    @Override public long getAlreadyWaitlisted() { return outcomeCount(EnrollResult.ALREADY_WAITLISTED); }
+    @Override public long getNoSuchStudent() { return outcomeCount(EnrollResult.NO_SUCH_STUDENT); }
+    @Override public long getNoSuchCourse() { return outcomeCount(EnrollResult.NO_SUCH_COURSE); }
+    @Override public long getInLottery() { return outcomeCount(EnrollResult.IN_LOTTERY); }
+    @Override public long getRateLimited() { return outcomeCount(EnrollResult.RATE_LIMITED); }
+    @Override public long getOverloaded() { return outcomeCount(EnrollResult.OVERLOADED); }
+
+    @Override public long getPromotions() { return promotions.sum(); }
+    @Override public long getPromotionsSkippedStale() { return skippedCount(SkipReason.STALE); }
+    @Override public long getPromotionsSkippedConflict() { return skippedCount(SkipReason.CONFLICT); }
+
+    @Override public int getCourseCount() { return gauges().courses; }
+    @Override public int getFullCourses() { return gauges().full; }
+    @Override public long getSeatsTaken() { return gauges().taken; }
+    @Override public long getSeatsTotal() { return gauges().seats; }
+    @Override public long getWaitlistedTotal() { return gauges().waiting; }
+    @Override public int getMaxWaitlistDepth() { return gauges().maxDepth; }
+
+    @Override
+    public String courseGauges(String courseCode) {
+        Course c = service.getCourse(courseCode);
+        if (c == null) return courseCode + " not found";
+        return c.getCode() + " " + c.enrolledCount() + "/" + c.getCapacity() + " seats, "
+                + c.waitlistSize() + " waiting";
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder out = new StringBuilder(1024);
+        out.append("=== registrar metrics ===\n");
+        line(out, "enroll", enrollLatency.snapshot());
+        line(out, "enrollAll", batchLatency.snapshot());
+        line(out, "drop", dropLatency.snapshot());
+        line(out, "leaveWaitlist", leaveLatency.snapshot());
+        out.append("outcomes:");
+        for (EnrollResult r : EnrollResult.values()) {
+            out.append(' ').append(r).append('=').append(outcomeCount(r));
+        }
+        out.append("\npromotions: ").append(getPromotions())
+                .append(" (skipped: stale=").append(getPromotionsSkippedStale())
+                .append(" conflict=").append(getPromotionsSkippedConflict()).append(")\n");
+
+        Gauges g = gauges();
+        out.append(String.format("courses: %d, full %d, seats %d/%d (%.1f%%), waiting %d, deepest waitlist %d%n",
+                g.courses, g.full, g.taken, g.seats, g.seats == 0 ? 0.0 : 100.0 * g.taken / g.seats,
+                g.waiting, g.maxDepth));
+        if (g.top > 0) {
+            out.append("longest waitlists:\n");
+            for (int i = 0; i < g.top; i++) {
+                Course c = g.deepest[i];
+                out.append("  ").append(c.getCode()).append(' ').append(c.enrolledCount()).append('/')
+                        .append(c.getCapacity()).append(" seats, ").append(g.depths[i]).append(" waiting\n");
+            }
+        }
+        return out.toString();
+    }
+
+    @Override
+    public void reset() {
+        enrollLatency.reset();
+        dropLatency.reset();
+        batchLatency.reset();
+        leaveLatency.reset();
+        for (EnrollResult r : EnrollResult.values()) {
+            if (r != EnrollResult.IN_LOTTERY) outcomes[r.ordinal()].reset(); // a level, not a total
+        }
+        promotions.reset();
+        for (LongAdder a : skipped) a.reset();
+    }
+
+    // --- Helpers ---
+
+    private static double micros(LatencyHistogram h, double q) {
+        return h.snapshot().percentileNanos(q) / 1e3;
+    }
+
+    private static void line(StringBuilder out, String op, LatencyHistogram.Snapshot s) {
+        out.append(String.format("%-14s n=%-10d mean=%8.1fus p50=%8.1fus p99=%8.1fus p99.9=%8.1fus max=%8.1fus%n",
+                op, s.count(), s.meanNanos() / 1e3, s.percentileNanos(0.50) / 1e3, s.percentileNanos(0.99) / 1e3,
+                s.percentileNanos(0.999) / 1e3, s.maxNanos() / 1e3));
+    }
+
+    /** Course gauges, computed in one pass over the catalog without locks (values may be slightly stale). */
+    private static final class Gauges {
+        final long takenAtNanos;
+        int courses, full, maxDepth;
+        long taken, seats, waiting;
+        // Longest waitlists, deepest first; depths as read (they keep changing)
+        final Course[] deepest = new Course[TOP_COURSES];
+        final int[] depths = new int[TOP_COURSES];
+        int top;
+
+        Gauges(long takenAtNanos) {
+            this.takenAtNanos = takenAtNanos;
+        }
+
+        boolean fresh(long now) {
+            return now - takenAtNanos < TimeUnit.MILLISECONDS.toNanos(GAUGES_TTL_MILLIS);
+        }
+
+        void offer(Course c, int depth) {
+            if (top == TOP_COURSES && depth <= depths[top - 1]) return;
+            int i = top < TOP_COURSES ? top++ : top - 1;
+            while (i > 0 && depths[i - 1] < depth) {
+                deepest[i] = deepest[i - 1];
+                depths[i] = depths[i - 1];
+                i--;
+            }
+            deepest[i] = c;
+            depths[i] = depth;
+        }
+    }
+
+    /** The last scan if it is recent enough, else a new one; concurrent readers share a scan. */
+    private Gauges gauges() {
+        Gauges g = gauges;
+        if (g != null && g.fresh(System.nanoTime())) return g;
+        synchronized (gaugesLock) {
+            g = gauges;
+            long now = System.nanoTime();
+            if (g == null || !g.fresh(now)) gauges = g = scan(now);
+            return g;
+        }
+    }
+
+    private Gauges scan(long now) {
+        Gauges g = new Gauges(now);
+        for (Course c : service.listCourses()) {
+            int taken = c.enrolledCount();
+            int depth = c.waitlistSize();
+            g.courses++;
+            g.taken += taken;
+            g.seats += c.getCapacity();
+            g.waiting += depth;
+            if (taken >= c.getCapacity()) g.full++;
+            if (depth > g.maxDepth) g.maxDepth = depth;
+            if (depth > 0) g.offer(c, depth);
+        }
+        return g;
+    }
+}
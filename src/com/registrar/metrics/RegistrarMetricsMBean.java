@@ -0,0 +1,58 @@
+package com.registrar.metrics;
+
+/**
+ * JMX view of {@link RegistrarMetrics}. Latencies are in microseconds;
+ * course gauges are computed when read, at most once per
+ * RegistrarMetrics.GAUGES_TTL_MILLIS.
+ */
+public interface RegistrarMetricsMBean {
+    long getEnrollCount();
+    double getEnrollMeanMicros();
+    double getEnrollP50Micros();
+    double getEnrollP99Micros();
+    double getEnrollP999Micros();
+
+    long getDropCount();
+    double getDropP50Micros();
+    double getDropP99Micros();
+
+    long getBatchCount();
+    double getBatchP50Micros();
+    double getBatchP99Micros();
+
+    long getLeaveWaitlistCount();
+    double getLeaveWaitlistP99Micros();
+
+    long getEnrolled();
+    long getAddedToWaitlist();
+    long getConflicts();
+    long getAlreadyEnrolled();
+    long getAlreadyWaitlisted();
+    long getNoSuchStudent();
+    long getNoSuchCourse();
+    /** Requests waiting for a lottery draw; the draw moves each to its outcome. */
+    long getInLottery();
+    /** Enrolls shed by AdmissionControl. */
+    long getRateLimited();
+    long getOverloaded();
+
+    long getPromotions();
+    long getPromotionsSkippedStale();
+    long getPromotionsSkippedConflict();
+
+    int getCourseCount();
+    int getFullCourses();
+    long getSeatsTaken();
+    long getSeatsTotal();
+    long getWaitlistedTotal();
+    int getMaxWaitlistDepth();
+
+    /** Fill and waitlist of one course, e.g. "CS101 28/30 seats, 4 waiting". */
+    String courseGauges(String courseCode);
+
+    /** The same text as the periodic dump. */
+    String dump();
+
+    /** Zeroes histograms and counters (gauges and the IN_LOTTERY level are unaffected). */
+    void reset();
+}
@@ -0,0 +1,352 @@
+package com.registrar.metrics;
+
+import com.registrar.model.Course;
+import com.registrar.model.Student;
+import com.registrar.service.AnalyticsSink;
+import com.registrar.service.RegistrarService;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live term analytics for registrar dashboards: fill rate and waitlist
+ * demand per course and campus-wide, the most oversubscribed courses, the
+ * course pairs that most often make an enroll fail with CONFLICT, and the
+ * students taking fewer than a minimum number of courses.
+ *
+ * Kept up to date from the service's {@link AnalyticsSink} rather than by
+ * scanning every course and schedule. Attaching seeds the aggregates from
+ * the service's state under {@link RegistrarService#runExclusive}; conflict
+ * counts start at zero then.
+ *
+ * Exact under concurrency: a course's numbers change only under its course
+ * lock and a student's load only under the student's lock, and totals are
+ * LongAdders that never lose an update. Per-course reads return an
+ * immutable {@link CourseLoad}, so its numbers are always from one moment.
+ *
+ * Cheap on the write path: a seat or waitlist change costs one small
+ * allocation and a few adds. Only courses with a waitlist are kept ranked,
+ * so the ordinary enroll into a course with room touches no index. Top-k
+ * reads walk the first k entries of a skip list.
+ */
+public final class TermAnalytics implements AnalyticsSink {
+    /** One course's numbers at one moment. */
+    public static final class CourseLoad {
+        private final String code;
+        private final int capacity;
+        private final int enrolled;
+        private final int waiting;
+
+        CourseLoad(String code, int capacity, int enrolled, int waiting) {
+            this.code = code;
+            this.capacity = capacity;
+            this.enrolled = enrolled;
+            this.waiting = waiting;
+        }
+
+        public String getCode() { return code; }
+        public int getCapacity() { return capacity; }
+        public int getEnrolled() { return enrolled; }
+        public int getWaiting() { return waiting; }
+
+        /** Seats taken over capacity; above 1 if capacity was lowered below enrollment. */
+        public double fillRate() { return (double) enrolled / capacity; }
+
+        /** Students enrolled or waiting, over capacity. */
+        public double demandRatio() { return (double) (enrolled + waiting) / capacity; }
+
+        public boolean isFull() { return enrolled >= capacity; }
+
+        @Override
+        public String toString() {
+            return code + " " + enrolled + "/" + capacity + " seats, " + waiting + " waiting";
+        }
+    }
+
+    /** Two courses and how often their overlap made an enroll fail. */
+    public static final class ConflictPair {
+        private final String first;   // first < second
+        private final String second;
+        private final long count;
+
+        ConflictPair(String first, String second, long count) {
+            this.first = first;
+            this.second = second;
+            this.count = count;
+        }
+
+        public String getFirst() { return first; }
+        public String getSecond() { return second; }
+        public long getCount() { return count; }
+
+        @Override
+        public String toString() {
+            return first + " x " + second + ": " + count;
+        }
+    }
+
+    // Highest demand first; each course at most once (keys of one course differ only while being replaced)
+    private static final Comparator<CourseLoad> BY_DEMAND = (a, b) -> {
+        int c = Long.compare((long) (b.enrolled + b.waiting) * a.capacity,
+                (long) (a.enrolled + a.waiting) * b.capacity);
+        return c != 0 ? c : a.code.compareTo(b.code);
+    };
+
+    private static final Comparator<ConflictPair> BY_COUNT = (a, b) -> {
+        int c = Long.compare(b.count, a.count);
+        if (c != 0) return c;
+        c = a.first.compareTo(b.first);
+        return c != 0 ? c : a.second.compareTo(b.second);
+    };
+
+    /** A course's current numbers; replaced under the course lock. */
+    private static final class CourseSlot {
+        volatile CourseLoad load;
+
+        CourseSlot(CourseLoad load) {
+            this.load = load;
+        }
+    }
+
+    /** A student's course count; guarded by the student's lock. */
+    private static final class StudentLoad {
+        int courses;
+    }
+
+    /** A pair's count; guarded by its own monitor, since the two courses' locks differ. */
+    private static final class PairCounter {
+        ConflictPair current;
+
+        PairCounter(String first, String second) {
+            this.current = new ConflictPair(first, second, 0);
+        }
+    }
+
+    private final int minimumCourses;
+    private final Map<String, CourseSlot> courses = new ConcurrentHashMap<>();
+    private final Map<String, StudentLoad> students = new ConcurrentHashMap<>();
+    private final Set<String> belowMinimum = ConcurrentHashMap.newKeySet();
+    private final Map<String, PairCounter> pairs = new ConcurrentHashMap<>();
+    private final NavigableSet<CourseLoad> oversubscribed = new ConcurrentSkipListSet<>(BY_DEMAND);
+    private final NavigableSet<ConflictPair> hotPairs = new ConcurrentSkipListSet<>(BY_COUNT);
+
+    private final LongAdder capacity = new LongAdder();
+    private final LongAdder enrolled = new LongAdder();
+    private final LongAdder waiting = new LongAdder();
+    private final LongAdder fullCourses = new LongAdder();
+    private final LongAdder waitlistedCourses = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    private TermAnalytics(int minimumCourses) {
+        this.minimumCourses = minimumCourses;
+    }
+
+    /**
+     * Seeds analytics from a service's current state and keeps them up to
+     * date from then on. Students enrolled in fewer than
+     * {@code minimumCourses} courses are counted as below the minimum.
+     */
+    public static TermAnalytics attach(RegistrarService service, int minimumCourses) {
+        if (minimumCourses < 0) throw new IllegalArgumentException("minimumCourses must be >= 0");
+        TermAnalytics a = new TermAnalytics(minimumCourses);
+        service.runExclusive(() -> {
+            for (Student s : service.listStudents()) {
+                StudentLoad load = new StudentLoad();
+                load.courses = s.getEnrolledCourses().size();
+                a.students.put(s.getId(), load);
+                if (load.courses < minimumCourses) a.belowMinimum.add(s.getId());
+            }
+            for (Course c : service.listCourses()) {
+                a.courseAdded(c.getCode(), c.getCapacity());
+                a.change(c.getCode(), -1, c.enrolledCount(), c.waitlistSize());
+            }
+            service.setAnalyticsSink(a);
+            return null;
+        });
+        return a;
+    }
+
+    public int getMinimumCourses() { return minimumCourses; }
+
+    // --- AnalyticsSink ---
+
+    @Override
+    public void studentAdded(String studentId) {
+        students.put(studentId, new StudentLoad());
+        if (minimumCourses > 0) belowMinimum.add(studentId);
+    }
+
+    @Override
+    public void courseAdded(String courseCode, int capacity) {
+        courses.put(courseCode, new CourseSlot(new CourseLoad(courseCode, capacity, 0, 0)));
+        this.capacity.add(capacity);
+    }
+
+    @Override
+    public void capacityChanged(String courseCode, int capacity) {
+        change(courseCode, capacity, 0, 0);
+    }
+
+    @Override
+    public void seated(String courseCode, String studentId) {
+        change(courseCode, -1, 1, 0);
+        StudentLoad load = students.get(studentId);
+        if (load != null && ++load.courses == minimumCourses) belowMinimum.remove(studentId);
+    }
+
+    @Override
+    public void unseated(String courseCode, String studentId) {
+        change(courseCode, -1, -1, 0);
+        StudentLoad load = students.get(studentId);
+        if (load != null && load.courses-- == minimumCourses) belowMinimum.add(studentId);
+    }
+
+    @Override
+    public void waitlisted(String courseCode, String studentId) {
+        change(courseCode, -1, 0, 1);
+    }
+
+    @Override
+    public void waitlistRemoved(String courseCode, String studentId) {
+        change(courseCode, -1, 0, -1);
+    }
+
+    @Override
+    public void conflicted(String studentId, String courseCode, String withCourse) {
+        conflicts.increment();
+        if (withCourse == null) return;
+        boolean ordered = courseCode.compareTo(withCourse) < 0;
+        String first = ordered ? courseCode : withCourse;
+        String second = ordered ? withCourse : courseCode;
+        PairCounter p = pairs.computeIfAbsent(first + '\n' + second, k -> new PairCounter(first, second));
+        synchronized (p) {
+            ConflictPair next = new ConflictPair(first, second, p.current.count + 1);
+            hotPairs.add(next);
+            hotPairs.remove(p.current); // after the add, so a reader never misses the pair
+            p.current = next;
+        }
+    }
+
+    /**
+     * Applies a change to one course and to the totals; caller holds the
+     * course lock. {@code newCapacity} is -1 to keep the capacity.
+     */
+    private void change(String code, int newCapacity, int enrolledDelta, int waitingDelta) {
+        CourseSlot slot = courses.get(code);
+        if (slot == null) return;
+        CourseLoad old = slot.load;
+        int cap = newCapacity < 0 ? old.capacity : newCapacity;
+        CourseLoad now = new CourseLoad(code, cap, old.enrolled + enrolledDelta, old.waiting + waitingDelta);
+        slot.load = now;
+
+        if (cap != old.capacity) capacity.add(cap - old.capacity);
+        if (enrolledDelta != 0) enrolled.add(enrolledDelta);
+        if (waitingDelta != 0) waiting.add(waitingDelta);
+        if (now.isFull() != old.isFull()) fullCourses.add(now.isFull() ? 1 : -1);
+
+        if (now.waiting > 0) {
+            if (old.waiting > 0 && BY_DEMAND.compare(old, now) == 0) return; // same rank
+            oversubscribed.add(now);
+            if (old.waiting > 0) {
+                oversubscribed.remove(old);
+            } else {
+                waitlistedCourses.increment();
+            }
+        } else if (old.waiting > 0) {
+            oversubscribed.remove(old);
+            waitlistedCourses.decrement();
+        }
+    }
+
+    // --- Reads ---
+
+    /** A course's current numbers, or null if unknown. */
+    public CourseLoad course(String courseCode) {
+        CourseSlot slot = courses.get(courseCode);
+        return slot == null ? null : slot.load;
+    }
+
+    public long totalCapacity() { return capacity.sum(); }
+    public long seatsTaken() { return enrolled.sum(); }
+    public long totalWaiting() { return waiting.sum(); }
+    public long fullCourses() { return fullCourses.sum(); }
+    /** Courses with anyone on the waitlist. */
+    public long waitlistedCourses() { return waitlistedCourses.sum(); }
+    /** Enrolls that returned CONFLICT since attach. */
+    public long conflictCount() { return conflicts.sum(); }
+
+    /** Seats taken over seats offered, campus-wide. */
+    public double campusFillRate() {
+        long cap = capacity.sum();
+        return cap == 0 ? 0 : (double) enrolled.sum() / cap;
+    }
+
+    /** Students enrolled or waiting over seats offered, campus-wide. */
+    public double campusDemandRatio() {
+        long cap = capacity.sum();
+        return cap == 0 ? 0 : (double) (enrolled.sum() + waiting.sum()) / cap;
+    }
+
+    public int studentsBelowMinimumCount() { return belowMinimum.size(); }
+
+    /** Up to {@code limit} students below the course minimum, in no particular order. */
+    public List<String> studentsBelowMinimum(int limit) {
+        List<String> out = new ArrayList<>(Math.min(limit, 1024));
+        for (Iterator<String> it = belowMinimum.iterator(); it.hasNext() && out.size() < limit; ) out.add(it.next());
+        return out;
+    }
+
+    /** The k courses with a waitlist and the highest demand over capacity, highest first. */
+    public List<CourseLoad> mostOversubscribed(int k) {
+        List<CourseLoad> out = new ArrayList<>(Math.min(k, 1024));
+        Set<String> seen = new HashSet<>();
+        for (Iterator<CourseLoad> it = oversubscribed.iterator(); it.hasNext() && out.size() < k; ) {
+            String code = it.next().code;
+            CourseLoad current = course(code);
+            if (seen.add(code) && current != null && current.waiting > 0) out.add(current);
+        }
+        return out;
+    }
+
+    /** The k course pairs behind the most CONFLICT results, most frequent first. */
+    public List<ConflictPair> hottestConflicts(int k) {
+        List<ConflictPair> out = new ArrayList<>(Math.min(k, 1024));
+        Set<String> seen = new HashSet<>();
+        for (Iterator<ConflictPair> it = hotPairs.iterator(); it.hasNext() && out.size() < k; ) {
+            ConflictPair p = it.next();
+            if (seen.add(p.first + '\n' + p.second)) out.add(p);
+        }
+        return out;
+    }
+
+    /** A text report: campus totals, then the top {@code k} of each ranking. */
+    public String report(int k) {
+        StringBuilder out = new StringBuilder(1024);
+        out.append("=== term analytics ===\n");
+        out.append(String.format("seats %d/%d (%.1f%% full), waiting %d, demand %.2f x capacity%n",
+                seatsTaken(), totalCapacity(), 100 * campusFillRate(), totalWaiting(), campusDemandRatio()));
+        out.append(String.format("courses: %d, full %d, with waitlist %d; conflicts %d;"
+                + " students below %d course(s): %d%n", courses.size(), fullCourses(), waitlistedCourses(),
+                conflictCount(), minimumCourses, studentsBelowMinimumCount()));
+        List<CourseLoad> top = mostOversubscribed(k);
+        if (!top.isEmpty()) {
+            out.append("most oversubscribed:\n");
+            for (CourseLoad c : top) out.append(String.format("  %s (demand %.2f)%n", c, c.demandRatio()));
+        }
+        List<ConflictPair> hot = hottestConflicts(k);
+        if (!hot.isEmpty()) {
+            out.append("hottest conflicts:\n");
+            for (ConflictPair p : hot) out.append("  ").append(p).append('\n');
+        }
+        return out.toString();
+    }
+}
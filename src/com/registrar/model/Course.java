@@ -4,22 +4,39 @@ package com.registrar.model;
 import java.util.*;
 
 /**
- * Course with capacity-limited enrollment and a PriorityQueue waitlist.
+ * Course with capacity-limited enrollment and an indexed waitlist.
  */
 public class Course {
+    private static final int ROSTER_SIZE_HINT = 1 << 10;
+
     private final String code;   // e.g., "CS101"
     private String title;
     private int capacity;
 
     private final Set<TimeSlot> meetingTimes = new HashSet<>();
-    private final Set<String> enrolledStudentIds = new HashSet<>();
-    private final PriorityQueue<WaitlistEntry> waitlist = new PriorityQueue<>();
+    private final WeeklyMask meetingMask = new WeeklyMask();
+    // Summary of meetingTimes for time-window searches
+    private int meetingDays;                          // bit (1 << Day.ordinal()) per meeting day
+    private int earliestStartMin = Integer.MAX_VALUE;
+    private int latestEndMin = Integer.MIN_VALUE;
+    // Enrolled students as interned handles; IDs come back through studentIds
+    private final IdInterner studentIds;
+    private final IntSet enrolled;
+    private final IndexedWaitlist waitlist = new IndexedWaitlist();
 
     public Course(String code, String title, int capacity) {
+        this(code, title, capacity, new IdInterner());
+    }
+
+    /** @param studentIds interner shared with the rest of the campus for student IDs */
+    public Course(String code, String title, int capacity, IdInterner studentIds) {
         this.code = Objects.requireNonNull(code);
         this.title = Objects.requireNonNull(title);
         if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
         this.capacity = capacity;
+        this.studentIds = Objects.requireNonNull(studentIds);
+        // Presize for small sections only; capacity is caller input and may be huge
+        this.enrolled = new IntSet(Math.min(capacity, ROSTER_SIZE_HINT));
     }
 
     public String getCode() { return code; }
@@ -31,27 +48,71 @@ public class Course {
     	}
 
     public Set<TimeSlot> getMeetingTimes() { return Collections.unmodifiableSet(meetingTimes); }
-    public void addMeetingTime(TimeSlot t) { meetingTimes.add(t); }
+    public void addMeetingTime(TimeSlot t) {
+        if (meetingTimes.add(t)) {
+            meetingMask.add(t);
+            meetingDays |= 1 << t.getDay().ordinal();
+            earliestStartMin = Math.min(earliestStartMin, t.getStartMin());
+            latestEndMin = Math.max(latestEndMin, t.getEndMin());
+        }
+    }
+
+    /** Days the course meets on, as bits (1 << Day.ordinal()). */
+    public int getMeetingDays() { return meetingDays; }
+    /** Earliest start over all meeting times (Integer.MAX_VALUE if none). */
+    public int getEarliestStartMin() { return earliestStartMin; }
+    /** Latest end over all meeting times (Integer.MIN_VALUE if none). */
+    public int getLatestEndMin() { return latestEndMin; }
+
+    /** Copy of the occupancy bitmap of all meeting times. */
+    public WeeklyMask getMeetingMask() { return new WeeklyMask(meetingMask); }
 
-    public Set<String> getEnrolledStudentIds() { return Collections.unmodifiableSet(enrolledStudentIds); }
-    public int seatsRemaining() { return Math.max(0, capacity - enrolledStudentIds.size()); }
+    /** The live bitmap, for conflict checks inside the model package. */
+    WeeklyMask meetingMask() { return meetingMask; }
 
-    public boolean isEnrolled(String studentId) { return enrolledStudentIds.contains(studentId); }
+    /** True if any meeting time of this course overlaps one of the other course. */
+    public boolean overlaps(Course other) {
+        WeeklyMask mb = other.meetingMask;
+        if (!meetingMask.intersects(mb)) return false;
+        if (meetingMask.isAligned() && mb.isAligned()) return true;
+        for (TimeSlot x : meetingTimes) {
+            for (TimeSlot y : other.meetingTimes) {
+                if (x.conflictsWith(y)) return true;
+            }
+        }
+        return false;
+    }
+
+    public Set<String> getEnrolledStudentIds() { return new InternedIdSet(enrolled, studentIds); }
+    public int enrolledCount() { return enrolled.size(); }
+    public int seatsRemaining() { return Math.max(0, capacity - enrolled.size()); }
+
+    public boolean isEnrolled(String studentId) {
+        int h = studentIds.handleOf(studentId);
+        return h >= 0 && enrolled.contains(h);
+    }
 
     /** Attempt to enroll; caller should have checked conflicts. */
     public boolean enroll(String studentId) {
-        if (enrolledStudentIds.size() < capacity) {
-            return enrolledStudentIds.add(studentId);
+        if (enrolled.size() < capacity) {
+            return enrolled.add(studentIds.intern(studentId));
         }
         return false;
     }
 
+    /** Re-seats a student during recovery, ignoring capacity (it may have been lowered since). */
+    public boolean restoreEnrollment(String studentId) {
+        return enrolled.add(studentIds.intern(studentId));
+    }
+
     public boolean drop(String studentId) {
-        return enrolledStudentIds.remove(studentId);
+        int h = studentIds.handleOf(studentId);
+        return h >= 0 && enrolled.remove(h);
     }
 
-    public void addToWaitlist(WaitlistEntry entry) {
-        waitlist.add(entry);
+    /** Adds to the waitlist; returns false if the student is already waiting. */
+    public boolean addToWaitlist(WaitlistEntry entry) {
+        return waitlist.add(entry);
     }
 
     /** Pops next candidate from waitlist. */
@@ -59,12 +120,42 @@ public class Course {
         return waitlist.poll();
     }
 
+    /** Pops up to k candidates from the waitlist, in order. */
+    public List<WaitlistEntry> pollWaitlist(int k) {
+        return waitlist.poll(k);
+    }
+
+    /** The first k waitlist entries, in order, without removing them. */
+    public List<WaitlistEntry> peekWaitlist(int k) {
+        return waitlist.peek(k);
+    }
+
+    /** Removes a student's waitlist entry; returns it, or null if not waiting. */
+    public WaitlistEntry removeFromWaitlist(String studentId) {
+        return waitlist.remove(studentId);
+    }
+
+    public boolean isWaitlisted(String studentId) { return waitlist.contains(studentId); }
+
+    public WaitlistEntry getWaitlistEntry(String studentId) { return waitlist.get(studentId); }
+
+    /** 1-based waitlist position, or -1 if the student is not waiting. */
+    public int waitlistPosition(String studentId) {
+        int rank = waitlist.rankOf(studentId);
+        return rank < 0 ? -1 : rank + 1;
+    }
+
+    /** Copy of the waitlist in priority order. */
+    public List<WaitlistEntry> getWaitlistEntries() {
+        return waitlist.peek(waitlist.size());
+    }
+
     public int waitlistSize() {
         return waitlist.size();
     }
 
     @Override
     public String toString() {
-        return code + " - " + title + " (cap " + capacity + ", enrolled " + enrolledStudentIds.size() + ")";
+        return code + " - " + title + " (cap " + capacity + ", enrolled " + enrolled.size() + ")";
     }
 }
@@ -0,0 +1,48 @@
+package com.registrar.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns dense int handles (0, 1, 2, ...) to string IDs such as student IDs
+ * or course codes, so sets of them can be stored as primitive ints. A handle
+ * never changes once assigned. Thread-safe; lookups are lock-free.
+ */
+public final class IdInterner {
+    private final Map<String, Integer> handles = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[16];
+    private int next; // guarded by this
+
+    /** Returns the handle for an ID, assigning the next free one on first use. */
+    public int intern(String id) {
+        Integer h = handles.get(id);
+        if (h != null) return h;
+        synchronized (this) {
+            h = handles.get(id);
+            if (h != null) return h;
+            int n = next++;
+            String[] arr = names;
+            if (n == arr.length) names = arr = Arrays.copyOf(arr, n * 2);
+            arr[n] = id;
+            handles.put(id, n);  // publishes arr[n] to readers that look the handle up
+            return n;
+        }
+    }
+
+    /** Handle of an ID, or -1 if it was never interned. */
+    public int handleOf(String id) {
+        Integer h = handles.get(id);
+        return h == null ? -1 : h;
+    }
+
+    /** The ID behind a handle. */
+    public String name(int handle) {
+        return names[handle];
+    }
+
+    /** Number of handles assigned so far. */
+    public int size() {
+        return handles.size();
+    }
+}
@@ -0,0 +1,193 @@
+package com.registrar.model;
+
+import java.util.*;
+
+/**
+ * Waitlist ordered by WaitlistEntry.compareTo and indexed by student ID.
+ * Backed by a size-augmented treap, so insert, remove-by-student and
+ * rank-of-student are O(log n), and the top k can be read or taken in
+ * O(k + log n). A student can appear at most once.
+ */
+public final class IndexedWaitlist implements Iterable<WaitlistEntry> {
+    private static final class Node {
+        final WaitlistEntry entry;
+        final int heap;
+        Node left, right;
+        int size = 1;
+
+        Node(WaitlistEntry entry, int heap) {
+            this.entry = entry;
+            this.heap = heap;
+        }
+    }
+
+    private final Map<String, WaitlistEntry> byStudent = new HashMap<>();
+    private Node root;
+    private int seed = 0x2545F491;
+
+    /** Adds an entry; returns false (and keeps the old entry) if the student is already waiting. */
+    public boolean add(WaitlistEntry e) {
+        if (byStudent.putIfAbsent(e.getStudentId(), e) != null) return false;
+        Node[] parts = split(root, e);
+        root = merge(merge(parts[0], new Node(e, nextHeap())), parts[1]);
+        return true;
+    }
+
+    /** Removes a student's entry; returns it, or null if the student was not waiting. */
+    public WaitlistEntry remove(String studentId) {
+        WaitlistEntry e = byStudent.remove(studentId);
+        if (e != null) root = delete(root, e);
+        return e;
+    }
+
+    public WaitlistEntry get(String studentId) { return byStudent.get(studentId); }
+
+    public boolean contains(String studentId) { return byStudent.containsKey(studentId); }
+
+    /** Zero-based position of a student in the queue, or -1 if not waiting. */
+    public int rankOf(String studentId) {
+        WaitlistEntry e = byStudent.get(studentId);
+        if (e == null) return -1;
+        int rank = 0;
+        Node n = root;
+        while (n != null) {
+            int c = compare(e, n.entry);
+            if (c < 0) {
+                n = n.left;
+            } else if (c > 0) {
+                rank += size(n.left) + 1;
+                n = n.right;
+            } else {
+                return rank + size(n.left);
+            }
+        }
+        throw new IllegalStateException("index out of sync for " + studentId);
+    }
+
+    public WaitlistEntry peek() {
+        Node n = root;
+        if (n == null) return null;
+        while (n.left != null) n = n.left;
+        return n.entry;
+    }
+
+    public WaitlistEntry poll() {
+        List<WaitlistEntry> first = poll(1);
+        return first.isEmpty() ? null : first.get(0);
+    }
+
+    /** The first k entries in queue order, without removing them. */
+    public List<WaitlistEntry> peek(int k) {
+        List<WaitlistEntry> out = new ArrayList<>(Math.min(Math.max(k, 0), size()));
+        collect(root, out, k);
+        return out;
+    }
+
+    /** Removes and returns the first k entries in queue order. */
+    public List<WaitlistEntry> poll(int k) {
+        if (k <= 0 || root == null) return Collections.emptyList();
+        Node[] parts = splitAt(root, k);
+        root = parts[1];
+        List<WaitlistEntry> out = new ArrayList<>(size(parts[0]));
+        collect(parts[0], out, Integer.MAX_VALUE);
+        for (WaitlistEntry e : out) byStudent.remove(e.getStudentId());
+        return out;
+    }
+
+    public int size() { return size(root); }
+
+    public boolean isEmpty() { return root == null; }
+
+    @Override
+    public Iterator<WaitlistEntry> iterator() {
+        return Collections.unmodifiableList(peek(size())).iterator();
+    }
+
+    // --- Treap internals ---
+
+    /** Total order: queue order, then student ID for entries that tie exactly. */
+    private static int compare(WaitlistEntry a, WaitlistEntry b) {
+        int c = a.compareTo(b);
+        return c != 0 ? c : a.getStudentId().compareTo(b.getStudentId());
+    }
+
+    private static int size(Node n) { return n == null ? 0 : n.size; }
+
+    private static Node update(Node n) {
+        n.size = 1 + size(n.left) + size(n.right);
+        return n;
+    }
+
+    /** Splits into (entries < key, entries >= key). */
+    private static Node[] split(Node n, WaitlistEntry key) {
+        if (n == null) return new Node[2];
+        if (compare(n.entry, key) < 0) {
+            Node[] r = split(n.right, key);
+            n.right = r[0];
+            r[0] = update(n);
+            return r;
+        } else {
+            Node[] l = split(n.left, key);
+            n.left = l[1];
+            l[1] = update(n);
+            return l;
+        }
+    }
+
+    /** Splits into (first k entries, the rest). */
+    private static Node[] splitAt(Node n, int k) {
+        if (n == null) return new Node[2];
+        if (size(n.left) < k) {
+            Node[] r = splitAt(n.right, k - size(n.left) - 1);
+            n.right = r[0];
+            r[0] = update(n);
+            return r;
+        } else {
+            Node[] l = splitAt(n.left, k);
+            n.left = l[1];
+            l[1] = update(n);
+            return l;
+        }
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.heap > b.heap) {
+            a.right = merge(a.right, b);
+            return update(a);
+        } else {
+            b.left = merge(a, b.left);
+            return update(b);
+        }
+    }
+
+    private static Node delete(Node n, WaitlistEntry e) {
+        if (n == null) return null;
+        int c = compare(e, n.entry);
+        if (c < 0) {
+            n.left = delete(n.left, e);
+        } else if (c > 0) {
+            n.right = delete(n.right, e);
+        } else {
+            return merge(n.left, n.right);
+        }
+        return update(n);
+    }
+
+    private static void collect(Node n, List<WaitlistEntry> out, int limit) {
+        if (n == null || out.size() >= limit) return;
+        collect(n.left, out, limit);
+        if (out.size() < limit) out.add(n.entry);
+        collect(n.right, out, limit);
+    }
+
+    private int nextHeap() {
+        // xorshift32; heap priorities only need to be well spread, not secure
+        int x = seed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        return seed = x;
+    }
+}
@@ -0,0 +1,140 @@
+package com.registrar.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of non-negative ints in an open-addressing table with linear probing.
+ * Removal shifts later entries back instead of leaving tombstones. About
+ * 4-7 bytes per element versus ~40 for a HashSet&lt;String&gt; node and slot.
+ * Not thread-safe.
+ */
+public final class IntSet {
+    private static final int FREE = -1;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private int[] table;
+    private int size;
+
+    public IntSet() { this(4); }
+
+    /** @param expected size hint; the table still grows past it */
+    public IntSet(int expected) {
+        if (expected < 0) throw new IllegalArgumentException("negative size hint " + expected);
+        int cap = 4;
+        while ((long) cap * 3 < (long) expected * 4) {  // keep load <= 0.75
+            if (cap == MAX_CAPACITY) throw new IllegalArgumentException("size hint too large: " + expected);
+            cap <<= 1;
+        }
+        table = new int[cap];
+        Arrays.fill(table, FREE);
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public boolean contains(int v) {
+        int mask = table.length - 1;
+        for (int i = mix(v) & mask; ; i = (i + 1) & mask) {
+            int t = table[i];
+            if (t == v) return true;
+            if (t == FREE) return false;
+        }
+    }
+
+    public boolean add(int v) {
+        if (v < 0) throw new IllegalArgumentException("negative value " + v);
+        int mask = table.length - 1;
+        int i = mix(v) & mask;
+        for (; table[i] != FREE; i = (i + 1) & mask) {
+            if (table[i] == v) return false;
+        }
+        table[i] = v;
+        if (++size * 4 > table.length * 3) grow();
+        return true;
+    }
+
+    public boolean remove(int v) {
+        int mask = table.length - 1;
+        int i = mix(v) & mask;
+        while (table[i] != v) {
+            if (table[i] == FREE) return false;
+            i = (i + 1) & mask;
+        }
+        // Backward-shift deletion: pull later entries of the probe run into the gap
+        int gap = i;
+        for (int j = (gap + 1) & mask; table[j] != FREE; j = (j + 1) & mask) {
+            int home = mix(table[j]) & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                table[gap] = table[j];
+                gap = j;
+            }
+        }
+        table[gap] = FREE;
+        size--;
+        return true;
+    }
+
+    /** Iterates values in table order; valid until the set is modified. */
+    public Cursor cursor() { return new Cursor(); }
+
+    /** True if any value is set in the given bitset. */
+    public boolean intersects(BitSet bits) {
+        for (int t : table) {
+            if (t != FREE && bits.get(t)) return true;
+        }
+        return false;
+    }
+
+    public int[] toArray() {
+        int[] out = new int[size];
+        int n = 0;
+        for (int t : table) {
+            if (t != FREE) out[n++] = t;
+        }
+        return out;
+    }
+
+    private void grow() {
+        int[] old = table;
+        if (old.length == MAX_CAPACITY) throw new IllegalStateException("IntSet is full");
+        table = new int[old.length * 2];
+        Arrays.fill(table, FREE);
+        int mask = table.length - 1;
+        for (int t : old) {
+            if (t == FREE) continue;
+            int i = mix(t) & mask;
+            while (table[i] != FREE) i = (i + 1) & mask;
+            table[i] = t;
+        }
+    }
+
+    private static int mix(int v) {
+        int h = v * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** Primitive iterator over the set. */
+    public final class Cursor {
+        private int index = -1;
+
+        private Cursor() { advance(); }
+
+        public boolean hasNext() { return index < table.length; }
+
+        public int next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            int v = table[index];
+            advance();
+            return v;
+        }
+
+        private void advance() {
+            do {
+                index++;
+            } while (index < table.length && table[index] == FREE);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.registrar.model;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+
+/**
+ * Read-only Set&lt;String&gt; view over an IntSet of interned handles, so the
+ * String-based getters keep working on top of the primitive storage.
+ */
+final class InternedIdSet extends AbstractSet<String> {
+    private final IntSet handles;
+    private final IdInterner ids;
+
+    InternedIdSet(IntSet handles, IdInterner ids) {
+        this.handles = handles;
+        this.ids = ids;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String)) return false;
+        int h = ids.handleOf((String) o);
+        return h >= 0 && handles.contains(h);
+    }
+
+    @Override
+    public int size() { return handles.size(); }
+
+    @Override
+    public Iterator<String> iterator() {
+        IntSet.Cursor cursor = handles.cursor();
+        return new Iterator<String>() {
+            @Override
+            public boolean hasNext() { return cursor.hasNext(); }
+
+            @Override
+            public String next() { return ids.name(cursor.next()); }
+        };
+    }
+}
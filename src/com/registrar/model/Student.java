@@ -1,38 +1,67 @@
-
 package com.registrar.model;
 
 import java.util.*;
 
 /**
  * Student with a schedule tracked via a TreeSet of TimeSlot for conflict detection.
+ * A WeeklyMask mirrors the schedule so most conflict checks are a few word ANDs.
  */
 public class Student {
     private final String id;
     private String name;
 
-    // Course codes the student is currently enrolled in
-    private final Set<String> enrolledCourses = new HashSet<>();
+    // Courses the student is currently enrolled in, as interned course-code handles
+    private final IdInterner courseCodes;
+    private final IntSet enrolledCourses = new IntSet();
+
+    // Schedule blocks from enrolled courses, with a count per slot so that two
+    // courses contributing an identical TimeSlot are removed independently
+    private final TreeMap<TimeSlot, Integer> schedule = new TreeMap<>();
 
-    // Schedule blocks from enrolled courses, for conflict detection
-    private final TreeSet<TimeSlot> schedule = new TreeSet<>();
+    // Occupancy bitmap of every slot in the schedule
+    private final WeeklyMask scheduleMask = new WeeklyMask();
 
     public Student(String id, String name) {
+        this(id, name, new IdInterner());
+    }
+
+    /** @param courseCodes interner shared with the rest of the campus for course codes */
+    public Student(String id, String name, IdInterner courseCodes) {
         this.id = Objects.requireNonNull(id);
         this.name = Objects.requireNonNull(name);
+        this.courseCodes = Objects.requireNonNull(courseCodes);
     }
 
     public String getId() { return id; }
     public String getName() { return name; }
     public void setName(String name) { this.name = Objects.requireNonNull(name); }
 
-    public Set<String> getEnrolledCourses() { return Collections.unmodifiableSet(enrolledCourses); }
-    public NavigableSet<TimeSlot> getSchedule() { return Collections.unmodifiableNavigableSet(schedule); }
+    public Set<String> getEnrolledCourses() { return new InternedIdSet(enrolledCourses, courseCodes); }
+
+    /** True if the student is enrolled in any course whose handle is set in the bitset. */
+    public boolean enrolledInAny(BitSet courseHandles) { return enrolledCourses.intersects(courseHandles); }
+    public NavigableSet<TimeSlot> getSchedule() { return Collections.unmodifiableNavigableSet(schedule.navigableKeySet()); }
 
     /** Checks if any meeting time conflicts with the student's existing schedule. */
     public boolean hasConflict(Collection<TimeSlot> meetingTimes) {
+        WeeklyMask meetingMask = WeeklyMask.of(meetingTimes);
+        if (!scheduleMask.intersects(meetingMask)) return false;
+        if (scheduleMask.isAligned() && meetingMask.isAligned()) return true;
+        return overlapsExactly(meetingTimes);
+    }
+
+    /** Allocation-free conflict check against a course's precomputed meeting mask. */
+    public boolean hasConflict(Course course) {
+        WeeklyMask meetingMask = course.meetingMask();
+        if (!scheduleMask.intersects(meetingMask)) return false;
+        if (scheduleMask.isAligned() && meetingMask.isAligned()) return true;
+        return overlapsExactly(course.getMeetingTimes());
+    }
+
+    // Off-grid times: the masks only tell us the blocks overlap, confirm exactly
+    private boolean overlapsExactly(Collection<TimeSlot> meetingTimes) {
         for (TimeSlot t : meetingTimes) {
-            // TreeSet allows efficient navigation, but we’ll do simple iteration here
-            for (TimeSlot existing : schedule) {
+            for (TimeSlot existing : schedule.keySet()) {
                 if (existing.conflictsWith(t)) return true;
             }
         }
@@ -41,16 +70,36 @@ public class Student {
 
     /** Adds time slots to the schedule when enrolled. */
     public void addToSchedule(Collection<TimeSlot> meetingTimes) {
-        schedule.addAll(meetingTimes);
+        for (TimeSlot t : meetingTimes) {
+            schedule.merge(t, 1, Integer::sum);
+            scheduleMask.add(t);
+        }
     }
 
-    /** Removes time slots from the schedule when dropped. */
+    /** Removes one occurrence of each time slot from the schedule when dropped. */
     public void removeFromSchedule(Collection<TimeSlot> meetingTimes) {
-        schedule.removeAll(meetingTimes);
+        boolean changed = false;
+        for (TimeSlot t : meetingTimes) {
+            Integer n = schedule.get(t);
+            if (n == null) continue;
+            if (n == 1) {
+                schedule.remove(t);
+                changed = true;
+            } else {
+                schedule.put(t, n - 1);
+            }
+        }
+        if (changed) {
+            scheduleMask.clear();
+            for (TimeSlot t : schedule.keySet()) scheduleMask.add(t);
+        }
     }
 
-    public void addCourse(String courseCode) { enrolledCourses.add(courseCode); }
-    public void removeCourse(String courseCode) { enrolledCourses.remove(courseCode); }
+    public void addCourse(String courseCode) { enrolledCourses.add(courseCodes.intern(courseCode)); }
+    public void removeCourse(String courseCode) {
+        int h = courseCodes.handleOf(courseCode);
+        if (h >= 0) enrolledCourses.remove(h);
+    }
 
     @Override
     public String toString() {
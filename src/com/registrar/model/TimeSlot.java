@@ -10,6 +10,9 @@ import java.util.Objects;
 public class TimeSlot implements Comparable<TimeSlot> {
     public enum Day { MON, TUE, WED, THU, FRI, SAT, SUN }
 
+    /** Minutes in a day; a slot may end at midnight (24:00) but not run past it. */
+    public static final int DAY_MINUTES = 24 * 60;
+
     private final Day day;
     // Minutes from midnight (e.g., 9:30 AM = 9*60 + 30 = 570)
     private final int startMin;
@@ -17,6 +20,9 @@ public class TimeSlot implements Comparable<TimeSlot> {
 
     public TimeSlot(Day day, int startMin, int endMin) {
         if (endMin <= startMin) throw new IllegalArgumentException("endMin must be > startMin");
+        if (startMin < 0 || endMin > DAY_MINUTES) {
+            throw new IllegalArgumentException("time slot must lie within 00:00-24:00: " + startMin + "-" + endMin);
+        }
         this.day = Objects.requireNonNull(day);
         this.startMin = startMin;
         this.endMin = endMin;
@@ -1,34 +1,43 @@
-
 package com.registrar.model;
 
 /**
  * Entry for the course waitlist. Lower priority value = higher priority.
- * If priority ties, earlier requestTime gets precedence.
+ * If priority ties, earlier requestTime gets precedence; entries stamped in the
+ * same millisecond fall back to their sequence number (issue order).
  */
 public class WaitlistEntry implements Comparable<WaitlistEntry> {
     private final String studentId;
     private final int priority;      // e.g., 0 = highest; 1 = normal; 2 = low
     private final long requestTimeMs; // System.currentTimeMillis() at request
+    private final long sequence;      // monotonically increasing tiebreaker
 
     public WaitlistEntry(String studentId, int priority, long requestTimeMs) {
+        this(studentId, priority, requestTimeMs, 0L);
+    }
+
+    public WaitlistEntry(String studentId, int priority, long requestTimeMs, long sequence) {
         this.studentId = studentId;
         this.priority = priority;
         this.requestTimeMs = requestTimeMs;
+        this.sequence = sequence;
     }
 
     public String getStudentId() { return studentId; }
     public int getPriority() { return priority; }
     public long getRequestTimeMs() { return requestTimeMs; }
+    public long getSequence() { return sequence; }
 
     @Override
     public int compareTo(WaitlistEntry o) {
         int c = Integer.compare(this.priority, o.priority);
         if (c != 0) return c;
-        return Long.compare(this.requestTimeMs, o.requestTimeMs);
+        c = Long.compare(this.requestTimeMs, o.requestTimeMs);
+        if (c != 0) return c;
+        return Long.compare(this.sequence, o.sequence);
     }
 
     @Override
     public String toString() {
-        return "WaitlistEntry{studentId='" + studentId + "', priority=" + priority + ", time=" + requestTimeMs + "}";
+        return "WaitlistEntry{studentId='" + studentId + "', priority=" + priority + ", time=" + requestTimeMs + ", seq=" + sequence + "}";
     }
 }
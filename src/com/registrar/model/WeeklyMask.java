@@ -0,0 +1,90 @@
+package com.registrar.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Weekly occupancy bitmap: one bit per 5-minute block, MON 00:00 through SUN 24:00,
+ * packed into 32 longs. Slots are rounded outward to block boundaries, so two masks
+ * that do not intersect never conflict. If every slot on both sides starts and ends
+ * on a block boundary the masks are exact and an intersection is a real conflict.
+ */
+public final class WeeklyMask {
+    public static final int BLOCK_MIN = 5;
+    private static final int BLOCKS_PER_DAY = 24 * 60 / BLOCK_MIN;          // 288
+    public static final int BLOCKS = 7 * BLOCKS_PER_DAY;                     // 2016
+    private static final int WORDS = (BLOCKS + 63) / 64;                     // 32
+
+    private final long[] bits = new long[WORDS];
+    private boolean aligned = true;
+
+    public WeeklyMask() { }
+
+    /** A copy of another mask. */
+    public WeeklyMask(WeeklyMask other) {
+        System.arraycopy(other.bits, 0, bits, 0, WORDS);
+        aligned = other.aligned;
+    }
+
+    public static WeeklyMask of(Collection<TimeSlot> slots) {
+        WeeklyMask m = new WeeklyMask();
+        for (TimeSlot t : slots) m.add(t);
+        return m;
+    }
+
+    /** Marks the blocks covered by a time slot (TimeSlot keeps it within its day). */
+    public void add(TimeSlot t) {
+        int base = t.getDay().ordinal() * BLOCKS_PER_DAY;
+        int from = base + t.getStartMin() / BLOCK_MIN;
+        int to = base + Math.min(BLOCKS_PER_DAY, (t.getEndMin() + BLOCK_MIN - 1) / BLOCK_MIN);
+        setRange(from, to);
+        if (t.getStartMin() % BLOCK_MIN != 0 || t.getEndMin() % BLOCK_MIN != 0) aligned = false;
+    }
+
+    public void clear() {
+        Arrays.fill(bits, 0L);
+        aligned = true;
+    }
+
+    /** True if any block is occupied in both masks. */
+    public boolean intersects(WeeklyMask other) {
+        long[] a = bits, b = other.bits;
+        for (int i = 0; i < WORDS; i++) {
+            if ((a[i] & b[i]) != 0) return true;
+        }
+        return false;
+    }
+
+    /** True when every slot added lies on block boundaries, i.e. intersection is exact. */
+    public boolean isAligned() { return aligned; }
+
+    public boolean isEmpty() {
+        for (long w : bits) {
+            if (w != 0) return false;
+        }
+        return true;
+    }
+
+    /** Index of the first occupied block at or after {@code from}, or -1 if none. */
+    public int nextBlock(int from) {
+        int word = from >>> 6;
+        if (word >= WORDS) return -1;
+        long w = bits[word] & (-1L << (from & 63));
+        while (true) {
+            if (w != 0) return (word << 6) + Long.numberOfTrailingZeros(w);
+            if (++word == WORDS) return -1;
+            w = bits[word];
+        }
+    }
+
+    private void setRange(int from, int to) {
+        for (int i = from; i < to; ) {
+            int word = i >>> 6;
+            int bit = i & 63;
+            int n = Math.min(64 - bit, to - i);
+            long run = (n == 64) ? -1L : ((1L << n) - 1) << bit;
+            bits[word] |= run;
+            i += n;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.registrar.persistence;
+
+import com.registrar.model.TimeSlot;
+import com.registrar.service.CourseDefinition;
+import com.registrar.service.RegistrarService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Bulk loader for CSV files into a RegistrarService. Files are parsed in
+ * parallel chunks through memory maps, then loaded in one
+ * {@link RegistrarService#batch} so journaling pays a single durability wait;
+ * courses go in through {@link RegistrarService#addCourses} so the conflict
+ * graph is built once.
+ * Bad rows are skipped and reported with file and line number.
+ *
+ * Formats (first line is a header and is skipped):
+ * <pre>
+ *   students.csv        id,name
+ *   courses.csv         code,title,capacity
+ *   meeting_times.csv   course_code,day,start,end     e.g. CS101,MON,09:00,10:15
+ * </pre>
+ * Times are HH:MM or minutes from midnight; days are MON..SUN.
+ */
+public final class CsvImporter {
+    private final RegistrarService service;
+
+    public CsvImporter(RegistrarService service) {
+        this.service = Objects.requireNonNull(service);
+    }
+
+    private static final class CourseRow {
+        final String code, title;
+        final int capacity;
+
+        CourseRow(String code, String title, int capacity) {
+            this.code = code;
+            this.title = title;
+            this.capacity = capacity;
+        }
+    }
+
+    private static final class MeetingRow {
+        final String code;
+        final TimeSlot slot;
+
+        MeetingRow(String code, TimeSlot slot) {
+            this.code = code;
+            this.slot = slot;
+        }
+    }
+
+    /** Imports students (id,name). Existing IDs are reported as duplicates. */
+    public ImportReport importStudents(Path students) throws IOException {
+        long t0 = System.nanoTime();
+        ImportReport report = new ImportReport();
+        MappedCsvReader.Result<String[]> rows = MappedCsvReader.read(students, true,
+                f -> new String[] { f.string(0), f.string(1) });
+        String name = students.getFileName().toString();
+        collectErrors(report, name, rows);
+
+        service.batch(() -> {
+            for (int i = 0; i < rows.rows.size(); i++) {
+                String[] r = rows.rows.get(i);
+                if (service.addStudent(r[0], r[1])) {
+                    report.loaded();
+                } else {
+                    report.error(name, rows.rowLines.get(i), "duplicate student id " + r[0]);
+                }
+            }
+        });
+        report.elapsed((System.nanoTime() - t0) / 1_000_000);
+        return report;
+    }
+
+    /**
+     * Imports courses (code,title,capacity) and, optionally, their meeting times.
+     * Meeting times for unknown courses are reported. A duplicate code within
+     * the file is reported on its later rows; its meeting times all go to the
+     * first definition.
+     */
+    public ImportReport importCatalog(Path courses, Path meetingTimes) throws IOException {
+        long t0 = System.nanoTime();
+        ImportReport report = new ImportReport();
+        MappedCsvReader.Result<CourseRow> courseRows = MappedCsvReader.read(courses, true, f -> {
+            int capacity = f.integer(2);
+            if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+            return new CourseRow(f.string(0), f.string(1), capacity);
+        });
+        String coursesName = courses.getFileName().toString();
+        collectErrors(report, coursesName, courseRows);
+
+        Map<String, List<TimeSlot>> slotsByCourse = new HashMap<>();
+        Map<String, List<Integer>> slotLines = new HashMap<>();
+        String meetingName = meetingTimes != null ? meetingTimes.getFileName().toString() : null;
+        if (meetingTimes != null) {
+            MappedCsvReader.Result<MeetingRow> meetingRows = MappedCsvReader.read(meetingTimes, true, f -> {
+                TimeSlot.Day day = f.day(1);
+                int start = f.clock(2);
+                int end = f.clock(3);
+                return new MeetingRow(f.string(0), new TimeSlot(day, start, end));
+            });
+            collectErrors(report, meetingName, meetingRows);
+
+            Set<String> known = new HashSet<>();
+            for (CourseRow c : courseRows.rows) known.add(c.code);
+            for (int i = 0; i < meetingRows.rows.size(); i++) {
+                MeetingRow m = meetingRows.rows.get(i);
+                if (!known.contains(m.code) && service.getCourse(m.code) == null) {
+                    report.error(meetingName, meetingRows.rowLines.get(i), "unknown course " + m.code);
+                    continue;
+                }
+                slotsByCourse.computeIfAbsent(m.code, k -> new ArrayList<>()).add(m.slot);
+                slotLines.computeIfAbsent(m.code, k -> new ArrayList<>()).add(meetingRows.rowLines.get(i));
+            }
+        }
+
+        List<CourseDefinition> definitions = new ArrayList<>(courseRows.rows.size());
+        for (CourseRow c : courseRows.rows) {
+            definitions.add(new CourseDefinition(c.code, c.title, c.capacity, slotsByCourse.get(c.code)));
+        }
+        service.batch(() -> {
+            boolean[] added = service.addCourses(definitions);
+            for (int i = 0; i < added.length; i++) {
+                String code = definitions.get(i).getCode();
+                if (added[i]) {
+                    report.loaded();
+                    List<TimeSlot> slots = slotsByCourse.remove(code);
+                    if (slots != null) {
+                        for (int k = 0; k < slots.size(); k++) report.loaded();
+                    }
+                } else {
+                    report.error(coursesName, courseRows.rowLines.get(i), "duplicate course code " + code);
+                }
+            }
+            // Meeting times for courses that already existed before this import
+            for (Map.Entry<String, List<TimeSlot>> e : slotsByCourse.entrySet()) {
+                List<Integer> lines = slotLines.get(e.getKey());
+                for (int k = 0; k < e.getValue().size(); k++) {
+                    try {
+                        service.addMeetingTime(e.getKey(), e.getValue().get(k));
+                        report.loaded();
+                    } catch (IllegalStateException ex) {
+                        report.error(meetingName, lines.get(k), ex.getMessage());
+                    }
+                }
+            }
+        });
+        report.elapsed((System.nanoTime() - t0) / 1_000_000);
+        return report;
+    }
+
+    private static void collectErrors(ImportReport report, String file, MappedCsvReader.Result<?> result) {
+        report.read(result.rows.size() + result.errorLines.size());
+        for (int i = 0; i < result.errorLines.size(); i++) {
+            report.error(file, result.errorLines.get(i), result.errorMessages.get(i));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.registrar.persistence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: how many rows were read and loaded, and which rows
+ * were rejected and why. At most {@link #MAX_ERRORS} errors are kept in detail;
+ * {@link #getErrorCount()} always counts all of them.
+ */
+public final class ImportReport {
+    public static final int MAX_ERRORS = 1000;
+
+    /** One rejected row. */
+    public static final class RowError {
+        private final String file;
+        private final int line;
+        private final String message;
+
+        RowError(String file, int line, String message) {
+            this.file = file;
+            this.line = line;
+            this.message = message;
+        }
+
+        public String getFile() { return file; }
+        public int getLine() { return line; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return file + ":" + line + ": " + message;
+        }
+    }
+
+    private final List<RowError> errors = new ArrayList<>();
+    private int errorCount;
+    private int rowsRead;
+    private int rowsLoaded;
+    private long elapsedMs;
+
+    void error(String file, int line, String message) {
+        errorCount++;
+        if (errors.size() < MAX_ERRORS) errors.add(new RowError(file, line, message));
+    }
+
+    void read(int rows) { rowsRead += rows; }
+    void loaded() { rowsLoaded++; }
+    void elapsed(long ms) { elapsedMs = ms; }
+
+    public int getRowsRead() { return rowsRead; }
+    public int getRowsLoaded() { return rowsLoaded; }
+    public int getErrorCount() { return errorCount; }
+    public long getElapsedMs() { return elapsedMs; }
+    public List<RowError> getErrors() { return Collections.unmodifiableList(errors); }
+
+    @Override
+    public String toString() {
+        return "Imported " + rowsLoaded + " of " + rowsRead + " rows in " + elapsedMs + " ms, "
+                + errorCount + " error(s)";
+    }
+}
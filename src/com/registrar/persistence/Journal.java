@@ -0,0 +1,366 @@
+package com.registrar.persistence;
+
+import com.registrar.model.Course;
+import com.registrar.model.Student;
+import com.registrar.model.TimeSlot;
+import com.registrar.model.WaitlistEntry;
+import com.registrar.service.StateLog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary journal of registrar state changes, written through a
+ * FileChannel with group commit: appenders only copy their record into a shared
+ * buffer, and a single flusher thread writes and forces whatever has piled up
+ * since its last pass. In sync mode {@link #awaitDurable()} blocks the caller
+ * until its records are on disk, so one fsync covers every caller in the group.
+ *
+ * The journal is split into numbered segments; {@link #rotate()} closes the
+ * current segment so a snapshot can stand in for everything before it.
+ *
+ * Record layout: int bodyLength, body (type byte + fields), int CRC32 of body.
+ *
+ * Once a write fails or the journal is closed, {@link #checkWritable()}
+ * refuses new service calls. Records from calls already past that check are
+ * dropped rather than thrown back into the service mid-change, and their
+ * {@link #awaitDurable()} fails instead.
+ */
+public class Journal implements StateLog, Closeable {
+    static final byte STUDENT_ADDED = 1;
+    static final byte COURSE_ADDED = 2;
+    static final byte MEETING_TIME_ADDED = 3;
+    static final byte SEATED = 4;
+    static final byte UNSEATED = 5;
+    static final byte WAITLISTED = 6;
+    static final byte WAITLIST_REMOVED = 7;
+    static final byte CAPACITY_CHANGED = 8;
+
+    private final Path dir;
+    private final boolean syncCommits;
+    private final Object ioLock = new Object();  // taken before the monitor, never after
+    private final CRC32 crc = new CRC32();       // guarded by the monitor
+    private final Thread flusher;
+
+    // guarded by ioLock
+    private FileChannel channel;
+    private long segment;
+
+    // guarded by the monitor
+    private ByteBuffer pending = ByteBuffer.allocate(1 << 16);
+    private ByteBuffer spare = ByteBuffer.allocate(1 << 16);
+    private long appendedBytes;
+    private long durableBytes;
+    private boolean closed;
+    private boolean dropped;   // a record arrived after a failure or close
+    private IOException failure;
+
+    /**
+     * Opens a fresh segment after any existing ones.
+     *
+     * @param syncCommits if true, mutating service calls wait for their records to be forced
+     */
+    public Journal(Path dir, long segment, boolean syncCommits) throws IOException {
+        this.dir = dir;
+        this.segment = segment;
+        this.syncCommits = syncCommits;
+        this.channel = openSegment(segment);
+        this.flusher = new Thread(this::flushLoop, "registrar-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /** Segment currently being appended to. */
+    public long currentSegment() {
+        synchronized (ioLock) {
+            return segment;
+        }
+    }
+
+    static Path segmentPath(Path dir, long segment) {
+        return dir.resolve(String.format("journal-%08d.log", segment));
+    }
+
+    private FileChannel openSegment(long n) throws IOException {
+        return FileChannel.open(segmentPath(dir, n),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    // --- StateLog ---
+
+    @Override
+    public void studentAdded(Student s) {
+        synchronized (this) {
+            int at = begin(STUDENT_ADDED);
+            putString(s.getId());
+            putString(s.getName());
+            end(at);
+        }
+    }
+
+    @Override
+    public void courseAdded(Course c) {
+        synchronized (this) {
+            int at = begin(COURSE_ADDED);
+            putString(c.getCode());
+            putString(c.getTitle());
+            putInt(c.getCapacity());
+            putInt(c.getMeetingTimes().size());
+            for (TimeSlot t : c.getMeetingTimes()) putSlot(t);
+            end(at);
+        }
+    }
+
+    @Override
+    public void meetingTimeAdded(String courseCode, TimeSlot t) {
+        synchronized (this) {
+            int at = begin(MEETING_TIME_ADDED);
+            putString(courseCode);
+            putSlot(t);
+            end(at);
+        }
+    }
+
+    @Override
+    public void capacityChanged(String courseCode, int capacity) {
+        synchronized (this) {
+            int at = begin(CAPACITY_CHANGED);
+            putString(courseCode);
+            putInt(capacity);
+            end(at);
+        }
+    }
+
+    @Override
+    public void seated(String courseCode, String studentId) {
+        seatRecord(SEATED, courseCode, studentId);
+    }
+
+    @Override
+    public void unseated(String courseCode, String studentId) {
+        seatRecord(UNSEATED, courseCode, studentId);
+    }
+
+    @Override
+    public void waitlisted(String courseCode, WaitlistEntry e) {
+        synchronized (this) {
+            int at = begin(WAITLISTED);
+            putString(courseCode);
+            putString(e.getStudentId());
+            putInt(e.getPriority());
+            putLong(e.getRequestTimeMs());
+            putLong(e.getSequence());
+            end(at);
+        }
+    }
+
+    @Override
+    public void waitlistRemoved(String courseCode, WaitlistEntry e) {
+        synchronized (this) {
+            int at = begin(WAITLIST_REMOVED);
+            putString(courseCode);
+            putString(e.getStudentId());
+            putLong(e.getSequence());
+            end(at);
+        }
+    }
+
+    @Override
+    public void checkWritable() {
+        synchronized (this) {
+            checkFailure();
+            if (closed) throw new IllegalStateException("journal closed");
+        }
+    }
+
+    @Override
+    public void awaitDurable() {
+        if (!syncCommits) return;
+        synchronized (this) {
+            long target = appendedBytes;
+            notifyAll();
+            if (dropped) {
+                checkFailure();
+                throw new IllegalStateException("journal closed");
+            }
+            while (durableBytes < target) {
+                checkFailure();
+                if (closed) throw new IllegalStateException("journal closed");
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new UncheckedIOException(
+                            new InterruptedIOException("interrupted before the journal was forced"));
+                }
+            }
+        }
+    }
+
+    private void seatRecord(byte type, String courseCode, String studentId) {
+        synchronized (this) {
+            int at = begin(type);
+            putString(courseCode);
+            putString(studentId);
+            end(at);
+        }
+    }
+
+    // --- Encoding (caller holds the monitor) ---
+
+    private int begin(byte type) {
+        ensure(5);
+        int at = pending.position();
+        pending.putInt(0);           // length, patched in end()
+        pending.put(type);
+        return at;
+    }
+
+    private void end(int at) {
+        int bodyStart = at + 4;
+        int bodyLen = pending.position() - bodyStart;
+        if (failure != null || closed) {
+            // Too late to refuse the call; drop the record so its awaitDurable fails
+            pending.position(at);
+            dropped = true;
+            return;
+        }
+        pending.putInt(at, bodyLen);
+        crc.reset();
+        crc.update(pending.array(), bodyStart, bodyLen);
+        ensure(4);
+        pending.putInt((int) crc.getValue());
+        appendedBytes += bodyLen + 8;
+        notifyAll();
+    }
+
+    private void putString(String s) {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        ensure(4 + b.length);
+        pending.putInt(b.length);
+        pending.put(b);
+    }
+
+    private void putInt(int v) {
+        ensure(4);
+        pending.putInt(v);
+    }
+
+    private void putLong(long v) {
+        ensure(8);
+        pending.putLong(v);
+    }
+
+    private void putSlot(TimeSlot t) {
+        ensure(9);
+        pending.put((byte) t.getDay().ordinal());
+        pending.putInt(t.getStartMin());
+        pending.putInt(t.getEndMin());
+    }
+
+    private void ensure(int bytes) {
+        if (pending.remaining() >= bytes) return;
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+        pending.flip();
+        bigger.put(pending);
+        pending = bigger;
+    }
+
+    private void checkFailure() {
+        if (failure != null) throw new UncheckedIOException("journal write failed", failure);
+    }
+
+    // --- Flushing ---
+
+    private void flushLoop() {
+        while (true) {
+            synchronized (this) {
+                while (pending.position() == 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed && pending.position() == 0) return;
+            }
+            try {
+                flushPending();
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    /** Writes and forces everything appended so far to the current segment. */
+    private void flushPending() throws IOException {
+        synchronized (ioLock) {
+            ByteBuffer batch;
+            long target;
+            synchronized (this) {
+                batch = pending;
+                pending = spare;
+                spare = batch;
+                target = appendedBytes;
+            }
+            batch.flip();
+            while (batch.hasRemaining()) channel.write(batch);
+            channel.force(false);
+            batch.clear();
+            synchronized (this) {
+                durableBytes = target;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Forces all pending records into the current segment and starts the next one.
+     * The caller must ensure no state changes happen concurrently (see
+     * RegistrarService.runExclusive) if it wants the cut to line up with a snapshot.
+     *
+     * @return the number of the new segment
+     */
+    public long rotate() throws IOException {
+        synchronized (ioLock) {
+            flushPending();
+            channel.close();
+            segment++;
+            channel = openSegment(segment);
+            return segment;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (ioLock) {
+            flushPending();
+            channel.close();
+        }
+        synchronized (this) {
+            checkFailure();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.registrar.persistence;
+
+import com.registrar.model.TimeSlot;
+import com.registrar.model.WaitlistEntry;
+import com.registrar.service.RegistrarService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Replays journal segments into a RegistrarService. Each segment is memory-mapped
+ * and read record by record; a record that is truncated or fails its CRC marks a
+ * torn tail from a crash, and the rest of that segment is ignored.
+ */
+final class JournalReader {
+    private final RegistrarService service;
+    private final CRC32 crc = new CRC32();
+    private long records;
+
+    JournalReader(RegistrarService service) {
+        this.service = service;
+    }
+
+    long recordsApplied() { return records; }
+
+    /** Applies every intact record of one segment, in order. */
+    void replay(Path segment) throws IOException {
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size == 0) return;
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            while (map.remaining() >= 4) {
+                int start = map.position();
+                int len = map.getInt();
+                if (len <= 0 || map.remaining() < len + 4) break;
+                ByteBuffer body = map.slice();
+                body.limit(len);
+                map.position(start + 4 + len);
+                int stored = map.getInt();
+                crc.reset();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != stored) break;
+                apply(body);
+                records++;
+            }
+        }
+    }
+
+    private void apply(ByteBuffer b) {
+        byte type = b.get();
+        switch (type) {
+            case Journal.STUDENT_ADDED:
+                service.addStudent(getString(b), getString(b));
+                break;
+            case Journal.COURSE_ADDED: {
+                String code = getString(b);
+                String title = getString(b);
+                int capacity = b.getInt();
+                int n = b.getInt();
+                List<TimeSlot> slots = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) slots.add(getSlot(b));
+                service.addCourse(code, title, capacity, slots);
+                break;
+            }
+            case Journal.MEETING_TIME_ADDED:
+                service.addMeetingTime(getString(b), getSlot(b));
+                break;
+            case Journal.CAPACITY_CHANGED:
+                service.restoreCapacity(getString(b), b.getInt());
+                break;
+            case Journal.SEATED:
+                service.restoreSeat(getString(b), getString(b));
+                break;
+            case Journal.UNSEATED:
+                service.restoreUnseat(getString(b), getString(b));
+                break;
+            case Journal.WAITLISTED: {
+                String code = getString(b);
+                String sid = getString(b);
+                int priority = b.getInt();
+                long time = b.getLong();
+                long seq = b.getLong();
+                service.restoreWaitlistEntry(code, new WaitlistEntry(sid, priority, time, seq));
+                break;
+            }
+            case Journal.WAITLIST_REMOVED:
+                service.restoreWaitlistRemoval(getString(b), getString(b), b.getLong());
+                break;
+            default:
+                throw new IllegalStateException("unknown journal record type " + type);
+        }
+    }
+
+    static String getString(ByteBuffer b) {
+        byte[] bytes = new byte[b.getInt()];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static TimeSlot getSlot(ByteBuffer b) {
+        TimeSlot.Day day = TimeSlot.Day.values()[b.get()];
+        int start = b.getInt();
+        int end = b.getInt();
+        return new TimeSlot(day, start, end);
+    }
+}
@@ -0,0 +1,288 @@
+package com.registrar.persistence;
+
+import com.registrar.model.TimeSlot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Parses a CSV file in parallel: the file is cut into chunks at line
+ * boundaries, each chunk is memory-mapped and scanned byte by byte on the
+ * common fork-join pool, and rows are handed to a {@link RowParser} as field
+ * offsets. Numbers, clock times and days are decoded straight from the bytes;
+ * only fields the parser asks for as strings become Strings.
+ *
+ * Supports quoted fields with doubled quotes, but not line breaks inside quotes
+ * (a chunk boundary could split them). Empty lines are skipped.
+ */
+final class MappedCsvReader {
+    private static final int MIN_CHUNK = 1 << 20;
+    private static final int MAX_CHUNK = 1 << 30;
+    private static final int MAX_FIELDS = 32;
+
+    /** Converts one row; throw IllegalArgumentException to reject it with a message. */
+    interface RowParser<T> {
+        T parse(Fields f);
+    }
+
+    /** Parsed rows and rejected lines of a file, both with 1-based line numbers. */
+    static final class Result<T> {
+        final List<T> rows = new ArrayList<>();
+        final List<Integer> rowLines = new ArrayList<>();
+        final List<Integer> errorLines = new ArrayList<>();
+        final List<String> errorMessages = new ArrayList<>();
+        int lines;
+    }
+
+    private MappedCsvReader() { }
+
+    static <T> Result<T> read(Path file, boolean header, RowParser<T> parser) throws IOException {
+        List<long[]> chunks;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            chunks = split(ch);
+        }
+        List<Result<T>> parts = IntStream.range(0, chunks.size()).parallel()
+                .mapToObj(i -> parseChunk(file, chunks.get(i), header && i == 0, parser))
+                .collect(Collectors.toList());
+
+        // Stitch chunk-local line numbers into file line numbers
+        Result<T> all = new Result<>();
+        int base = 0;
+        for (Result<T> part : parts) {
+            all.rows.addAll(part.rows);
+            for (int line : part.rowLines) all.rowLines.add(base + line);
+            for (int line : part.errorLines) all.errorLines.add(base + line);
+            all.errorMessages.addAll(part.errorMessages);
+            base += part.lines;
+        }
+        all.lines = base;
+        return all;
+    }
+
+    /** Chunk boundaries [start, end) that each end just after a newline (or at EOF). */
+    private static List<long[]> split(FileChannel ch) throws IOException {
+        long size = ch.size();
+        int workers = ForkJoinPool.getCommonPoolParallelism();
+        long target = Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, size / (workers * 4L) + 1));
+        List<long[]> out = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + target);
+            while (end < size) {
+                probe.clear();
+                int n = ch.read(probe, end);
+                if (n <= 0) {
+                    end = size;
+                    break;
+                }
+                int i = 0;
+                while (i < n && probe.get(i) != '\n') i++;
+                end += i;
+                if (i < n) {
+                    end++;          // include the newline
+                    break;
+                }
+            }
+            if (end - start > Integer.MAX_VALUE) throw new IOException("line too long near offset " + start);
+            out.add(new long[] { start, end });
+            start = end;
+        }
+        return out;
+    }
+
+    private static <T> Result<T> parseChunk(Path file, long[] range, boolean skipHeader, RowParser<T> parser) {
+        Result<T> r = new Result<>();
+        MappedByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, range[0], range[1] - range[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Fields f = new Fields(buf);
+        int limit = buf.limit();
+        int pos = 0;
+        int line = 0;
+        while (pos < limit) {
+            line++;
+            int next = f.scanRow(pos);
+            boolean blank = f.count == 1 && f.end[0] == f.start[0] && !f.quoted[0];
+            if (!(skipHeader && line == 1) && !blank) {
+                try {
+                    if (f.overflow) throw new IllegalArgumentException("more than " + MAX_FIELDS + " fields");
+                    r.rows.add(parser.parse(f));
+                    r.rowLines.add(line);
+                } catch (IllegalArgumentException e) {
+                    r.errorLines.add(line);
+                    r.errorMessages.add(e.getMessage());
+                }
+            }
+            pos = next;
+        }
+        r.lines = line;
+        return r;
+    }
+
+    /** Field offsets of the current row, with typed decoders. */
+    static final class Fields {
+        private final ByteBuffer buf;
+        private final int[] start = new int[MAX_FIELDS];
+        private final int[] end = new int[MAX_FIELDS];
+        private final boolean[] quoted = new boolean[MAX_FIELDS];
+        private byte[] scratch = new byte[256];
+        private int count;
+        private boolean overflow;
+
+        Fields(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        int count() { return count; }
+
+        /** Records the fields of the row at {@code pos}; returns the start of the next row. */
+        int scanRow(int pos) {
+            int limit = buf.limit();
+            count = 0;
+            overflow = false;
+            while (true) {
+                boolean q = pos < limit && buf.get(pos) == '"';
+                int s, e;
+                if (q) {
+                    s = ++pos;
+                    while (pos < limit) {
+                        if (buf.get(pos) == '"') {
+                            if (pos + 1 < limit && buf.get(pos + 1) == '"') {
+                                pos += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        pos++;
+                    }
+                    e = pos;
+                    if (pos < limit) pos++; // closing quote
+                    while (pos < limit && buf.get(pos) != ',' && buf.get(pos) != '\n' && buf.get(pos) != '\r') pos++;
+                } else {
+                    s = pos;
+                    while (pos < limit && buf.get(pos) != ',' && buf.get(pos) != '\n' && buf.get(pos) != '\r') pos++;
+                    e = pos;
+                }
+                if (count < MAX_FIELDS) {
+                    start[count] = s;
+                    end[count] = e;
+                    quoted[count] = q;
+                    count++;
+                } else {
+                    overflow = true;
+                }
+                if (pos < limit && buf.get(pos) == ',') {
+                    pos++;
+                    continue;
+                }
+                if (pos < limit && buf.get(pos) == '\r') pos++;
+                if (pos < limit && buf.get(pos) == '\n') pos++;
+                return pos;
+            }
+        }
+
+        private void require(int i) {
+            if (i >= count) throw new IllegalArgumentException("expected at least " + (i + 1) + " fields, got " + count);
+        }
+
+        /** Field as a String (trimmed unless quoted); must not be empty. */
+        String string(int i) {
+            require(i);
+            int s = start[i], e = end[i];
+            if (!quoted[i]) {
+                while (s < e && buf.get(s) == ' ') s++;
+                while (e > s && buf.get(e - 1) == ' ') e--;
+            }
+            if (s == e) throw new IllegalArgumentException("field " + (i + 1) + " is empty");
+            int len = e - s;
+            if (scratch.length < len) scratch = new byte[Math.max(len, scratch.length * 2)];
+            int n = 0;
+            for (int p = s; p < e; p++) {
+                byte b = buf.get(p);
+                scratch[n++] = b;
+                if (quoted[i] && b == '"') p++; // "" -> "
+            }
+            return new String(scratch, 0, n, StandardCharsets.UTF_8);
+        }
+
+        /** Non-negative decimal integer. */
+        int integer(int i) {
+            require(i);
+            int s = start[i], e = end[i];
+            while (s < e && buf.get(s) == ' ') s++;
+            while (e > s && buf.get(e - 1) == ' ') e--;
+            if (s == e) throw new IllegalArgumentException("field " + (i + 1) + " is empty");
+            long v = 0;
+            for (int p = s; p < e; p++) {
+                int d = buf.get(p) - '0';
+                if (d < 0 || d > 9) throw new IllegalArgumentException("field " + (i + 1) + " is not a number");
+                v = v * 10 + d;
+                if (v > Integer.MAX_VALUE) throw new IllegalArgumentException("field " + (i + 1) + " is too large");
+            }
+            return (int) v;
+        }
+
+        /** Minutes from midnight, given as H:MM / HH:MM or as plain minutes. */
+        int clock(int i) {
+            require(i);
+            int s = start[i], e = end[i];
+            while (s < e && buf.get(s) == ' ') s++;
+            while (e > s && buf.get(e - 1) == ' ') e--;
+            int colon = -1;
+            for (int p = s; p < e; p++) {
+                if (buf.get(p) == ':') colon = p;
+            }
+            if (colon < 0) return integer(i);
+            int h = digits(s, colon, i);
+            int m = digits(colon + 1, e, i);
+            if (h > 24 || m > 59 || e - colon != 3) throw new IllegalArgumentException("field " + (i + 1) + " is not a valid time");
+            return h * 60 + m;
+        }
+
+        /** Day name (MON..SUN, case-insensitive; longer names like Monday also accepted). */
+        TimeSlot.Day day(int i) {
+            require(i);
+            int s = start[i], e = end[i];
+            while (s < e && buf.get(s) == ' ') s++;
+            while (e > s && buf.get(e - 1) == ' ') e--;
+            if (e - s >= 3) {
+                int a = upper(buf.get(s)), b = upper(buf.get(s + 1)), c = upper(buf.get(s + 2));
+                for (TimeSlot.Day d : TimeSlot.Day.values()) {
+                    String n = d.name();
+                    if (n.charAt(0) == a && n.charAt(1) == b && n.charAt(2) == c) return d;
+                }
+            }
+            throw new IllegalArgumentException("field " + (i + 1) + " is not a day (MON..SUN)");
+        }
+
+        private int digits(int s, int e, int field) {
+            if (s == e || e - s > 2) throw new IllegalArgumentException("field " + (field + 1) + " is not a valid time");
+            int v = 0;
+            for (int p = s; p < e; p++) {
+                int d = buf.get(p) - '0';
+                if (d < 0 || d > 9) throw new IllegalArgumentException("field " + (field + 1) + " is not a valid time");
+                v = v * 10 + d;
+            }
+            return v;
+        }
+
+        private static int upper(byte b) {
+            return (b >= 'a' && b <= 'z') ? b - 32 : b;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.registrar.persistence;
+
+import com.registrar.model.Student;
+import com.registrar.service.CampusSnapshot;
+import com.registrar.service.RegistrarService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable registrar state: a snapshot plus the journal segments written after it.
+ *
+ * {@link #open} recovers a RegistrarService from a data directory (latest intact
+ * snapshot, then the journal tail) and attaches a fresh journal segment to it.
+ * {@link #snapshot()} cuts a new snapshot and deletes what the one before it
+ * superseded. The previous snapshot and the segments after it are kept, so a
+ * damaged newest snapshot can be recovered from the one before.
+ */
+public final class RegistrarPersistence implements Closeable {
+    private final Path dir;
+    private final RegistrarService service;
+    private final Journal journal;
+    private ScheduledExecutorService snapshotter;
+
+    private RegistrarPersistence(Path dir, RegistrarService service, Journal journal) {
+        this.dir = dir;
+        this.service = service;
+        this.journal = journal;
+    }
+
+    /**
+     * Recovers state from {@code dir} (created if missing) and starts journaling.
+     *
+     * @param syncCommits if true, mutating calls return only once their changes are forced to disk
+     */
+    public static RegistrarPersistence open(Path dir, boolean syncCommits) throws IOException {
+        Files.createDirectories(dir);
+        List<Long> snapshots = numbered(dir, "snapshot-", ".bin");
+        List<Long> segments = numbered(dir, "journal-", ".log");
+
+        RegistrarService service = null;
+        long firstSegment = 0;
+        List<Path> damaged = new ArrayList<>();
+        for (int i = snapshots.size() - 1; i >= 0 && service == null; i--) {
+            Path file = Snapshots.path(dir, snapshots.get(i));
+            RegistrarService candidate = new RegistrarService();
+            try {
+                firstSegment = Snapshots.load(file, candidate);
+                service = candidate;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Skipping damaged snapshot " + file.getFileName() + ": " + e);
+                damaged.add(file);
+            }
+        }
+        if (service == null) {
+            if (!snapshots.isEmpty()) {
+                throw new IOException("no intact snapshot in " + dir + "; refusing to start from an empty registrar");
+            }
+            service = new RegistrarService();
+        }
+        // Set damaged snapshots aside so the next snapshot never counts one as its predecessor
+        for (Path file : damaged) {
+            Files.move(file, file.resolveSibling(file.getFileName() + ".damaged"), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        JournalReader reader = new JournalReader(service);
+        long lastSegment = firstSegment;
+        for (long seg : segments) {
+            if (seg >= firstSegment) reader.replay(Journal.segmentPath(dir, seg));
+            lastSegment = Math.max(lastSegment, seg);
+        }
+
+        Journal journal = new Journal(dir, lastSegment + 1, syncCommits);
+        service.setStateLog(journal);
+        // A drop may have been logged without the promotions that followed it
+        service.promoteWaitlists();
+        return new RegistrarPersistence(dir, service, journal);
+    }
+
+    public RegistrarService getService() { return service; }
+
+    /** True if recovery found no students and no courses. */
+    public boolean isEmpty() {
+        return service.listStudents().isEmpty() && service.listCourses().isEmpty();
+    }
+
+    /**
+     * Writes a snapshot of the current state. Registration pauses only while the
+     * journal is rotated, the student list is copied and a CampusSnapshot is
+     * opened. Encoding, the file write and cleanup happen after the locks are
+     * released. Cleanup removes only what the previous snapshot superseded.
+     */
+    public synchronized void snapshot() throws IOException {
+        final long[] segment = new long[1];
+        final List<Student> students = new ArrayList<>();
+        CampusSnapshot campus;
+        try {
+            // No write section can be open while every course stripe is held, so opening does not wait
+            campus = service.runExclusive(() -> {
+                try {
+                    segment[0] = journal.rotate();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                students.addAll(service.listStudents());
+                return service.openSnapshot();
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        byte[] data;
+        try {
+            data = Snapshots.encode(students, campus, segment[0]);
+        } finally {
+            campus.close();
+        }
+        Snapshots.write(dir, segment[0], data);
+
+        long previous = -1;
+        for (long n : numbered(dir, "snapshot-", ".bin")) {
+            if (n < segment[0]) previous = Math.max(previous, n);
+        }
+        if (previous < 0) return;
+        for (long n : numbered(dir, "snapshot-", ".bin")) {
+            if (n < previous) Files.deleteIfExists(Snapshots.path(dir, n));
+        }
+        for (long n : numbered(dir, "journal-", ".log")) {
+            if (n < previous) Files.deleteIfExists(Journal.segmentPath(dir, n));
+        }
+    }
+
+    /** Takes a snapshot every {@code period} on a background thread. */
+    public synchronized void scheduleSnapshots(long period, TimeUnit unit) {
+        if (snapshotter != null) snapshotter.shutdownNow();
+        snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "registrar-snapshotter");
+            t.setDaemon(true);
+            return t;
+        });
+        snapshotter.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                System.err.println("Snapshot failed: " + e.getMessage());
+            }
+        }, period, period, unit);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (snapshotter != null) snapshotter.shutdownNow();
+        }
+        service.setStateLog(null);
+        journal.close();
+    }
+
+    /** Sorted sequence numbers of files named prefix + number + suffix. */
+    private static List<Long> numbered(Path dir, String prefix, String suffix) throws IOException {
+        List<Long> out = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*" + suffix)) {
+            for (Path p : files) {
+                String name = p.getFileName().toString();
+                try {
+                    out.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                } catch (NumberFormatException ignored) {
+                    // not one of ours
+                }
+            }
+        }
+        Collections.sort(out);
+        return out;
+    }
+}
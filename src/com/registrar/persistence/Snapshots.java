@@ -0,0 +1,161 @@
+package com.registrar.persistence;
+
+import com.registrar.model.Student;
+import com.registrar.model.TimeSlot;
+import com.registrar.model.WaitlistEntry;
+import com.registrar.service.CampusSnapshot;
+import com.registrar.service.CourseView;
+import com.registrar.service.RegistrarService;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compact binary snapshot of the whole registrar state. A snapshot numbered N
+ * holds everything journaled before segment N, so recovery loads it and then
+ * replays segments N, N+1, ... Waitlist entries keep their priority, request
+ * time and sequence, so the restored queues order exactly as before.
+ *
+ * Strings are an int byte length and UTF-8, as in the journal, so IDs and
+ * titles are not capped at writeUTF's 64 KB. Version 1 files used writeUTF
+ * and still load.
+ */
+final class Snapshots {
+    private static final int MAGIC = 0x52534e50;      // "RSNP"
+    private static final int END_MAGIC = 0x454e4421;  // "END!"
+    private static final int VERSION = 2;
+    private static final int VERSION_WRITE_UTF = 1;
+    private static final int MAX_STRING_BYTES = 1 << 24; // longer means a damaged file
+
+    private Snapshots() { }
+
+    static Path path(Path dir, long segment) {
+        return dir.resolve(String.format("snapshot-%08d.bin", segment));
+    }
+
+    /**
+     * Serializes a cut of the service: the students that existed at the cut and
+     * the courses as {@code campus} saw them. Runs without any service locks.
+     */
+    static byte[] encode(List<Student> students, CampusSnapshot campus, long segment) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(segment);
+
+        out.writeInt(students.size());
+        for (Student s : students) {
+            writeString(out, s.getId());
+            writeString(out, s.getName());
+        }
+
+        List<String> codes = campus.courseCodes();
+        out.writeInt(codes.size());
+        for (String code : codes) {
+            CourseView c = campus.course(code);
+            writeString(out, c.getCode());
+            writeString(out, c.getTitle());
+            out.writeInt(c.getCapacity());
+            Set<TimeSlot> slots = c.getMeetingTimes();
+            out.writeInt(slots.size());
+            for (TimeSlot t : slots) {
+                out.writeByte(t.getDay().ordinal());
+                out.writeInt(t.getStartMin());
+                out.writeInt(t.getEndMin());
+            }
+            List<String> enrolled = c.getEnrolledStudentIds();
+            out.writeInt(enrolled.size());
+            for (String sid : enrolled) writeString(out, sid);
+            List<WaitlistEntry> waitlist = c.getWaitlist();
+            out.writeInt(waitlist.size());
+            for (WaitlistEntry e : waitlist) {
+                writeString(out, e.getStudentId());
+                out.writeInt(e.getPriority());
+                out.writeLong(e.getRequestTimeMs());
+                out.writeLong(e.getSequence());
+            }
+        }
+        out.writeInt(END_MAGIC);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInputStream in, int version) throws IOException {
+        if (version == VERSION_WRITE_UTF) return in.readUTF();
+        int n = in.readInt();
+        if (n < 0 || n > MAX_STRING_BYTES) throw new IOException("bad string length " + n);
+        byte[] b = new byte[n];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /** Writes to a temp file, forces it, then renames it into place. */
+    static void write(Path dir, long segment, byte[] data) throws IOException {
+        Path target = path(dir, segment);
+        Path tmp = dir.resolve(target.getFileName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp.toFile())) {
+            out.write(data);
+            out.getFD().sync();
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Loads a snapshot into an empty service; returns the segment it precedes. */
+    static long load(Path file, RegistrarService service) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) throw new IOException("not a snapshot: " + file);
+            int version = in.readInt();
+            if (version != VERSION && version != VERSION_WRITE_UTF) {
+                throw new IOException("unsupported snapshot version " + version);
+            }
+            long segment = in.readLong();
+
+            int students = in.readInt();
+            for (int i = 0; i < students; i++) {
+                service.addStudent(readString(in, version), readString(in, version));
+            }
+
+            int courses = in.readInt();
+            for (int i = 0; i < courses; i++) {
+                String code = readString(in, version);
+                String title = readString(in, version);
+                int capacity = in.readInt();
+                int n = in.readInt();
+                List<TimeSlot> slots = new ArrayList<>(n);
+                for (int k = 0; k < n; k++) {
+                    TimeSlot.Day day = TimeSlot.Day.values()[in.readByte()];
+                    slots.add(new TimeSlot(day, in.readInt(), in.readInt()));
+                }
+                service.addCourse(code, title, capacity, slots);
+
+                int enrolled = in.readInt();
+                for (int k = 0; k < enrolled; k++) service.restoreSeat(code, readString(in, version));
+
+                int waiting = in.readInt();
+                for (int k = 0; k < waiting; k++) {
+                    String sid = readString(in, version);
+                    int priority = in.readInt();
+                    long time = in.readLong();
+                    long seq = in.readLong();
+                    service.restoreWaitlistEntry(code, new WaitlistEntry(sid, priority, time, seq));
+                }
+            }
+            if (in.readInt() != END_MAGIC) throw new IOException("truncated snapshot: " + file);
+            return segment;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.registrar.service;
+
+import com.registrar.service.RegistrarService.EnrollResult;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Admission layer in front of a RegistrarService's enroll and drop. A call
+ * is let through only if
+ * <ol>
+ *   <li>the student's token bucket has a token, else RATE_LIMITED, and</li>
+ *   <li>one of {@code maxConcurrent} slots is free, or frees up within
+ *       {@code maxWaitMillis} while the call waits in a bounded first-come,
+ *       first-served queue; else OVERLOADED.</li>
+ * </ol>
+ * Shed calls return at once, so one script hammering enroll() uses up its
+ * own bucket, and a flood that exceeds capacity is turned away instead of
+ * slowing every admitted call down. A keyed retry whose answer the service
+ * still remembers gets that answer without either check. A thread that is
+ * interrupted while waiting for a slot is shed, and keeps its interrupt
+ * status.
+ *
+ * Lock-free: each bucket is one AtomicLong (a GCRA "theoretical arrival
+ * time"), slots are a CAS counter, and waiters park on a concurrent queue
+ * and are woken in turn as slots free up. Buckets exist only for known
+ * students.
+ */
+public final class AdmissionControl {
+    /** Outcome of an admitted or shed drop. */
+    public enum DropResult { DROPPED, NOT_ENROLLED, RATE_LIMITED, OVERLOADED }
+
+    /**
+     * Thrown by a shed call so that, for a keyed call, the service forgets
+     * the key. Stackless and immutable, so the two instances are shared.
+     */
+    private static final class Shed extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        static final Shed RATE_LIMITED = new Shed(false);
+        static final Shed OVERLOADED = new Shed(true);
+
+        final boolean overloaded;
+
+        private Shed(boolean overloaded) {
+            super(null, null, false, false);
+            this.overloaded = overloaded;
+        }
+    }
+
+    private final RegistrarService service;
+    private final AdmissionLimits limits;
+    private final long intervalNanos;    // one token
+    private final long burstNanos;       // a full bucket
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder overloaded = new LongAdder();
+
+    public AdmissionControl(RegistrarService service, AdmissionLimits limits) {
+        this.service = service;
+        this.limits = limits;
+        this.intervalNanos = Math.max(1, (long) (1e9 / limits.getRatePerSecond()));
+        this.burstNanos = intervalNanos * limits.getBurst();
+    }
+
+    public AdmissionLimits getLimits() { return limits; }
+
+    /** RegistrarService.enroll, or RATE_LIMITED / OVERLOADED if shed. */
+    public EnrollResult enroll(String studentId, String courseCode, int priority) {
+        return enroll(studentId, courseCode, priority, null);
+    }
+
+    /**
+     * Keyed enroll. A retry of a remembered call gets its answer without
+     * using a token; a shed call is not remembered, so its retry runs.
+     */
+    public EnrollResult enroll(String studentId, String courseCode, int priority, String idempotencyKey) {
+        Supplier<EnrollResult> call = () -> admit(studentId, () -> service.enroll(studentId, courseCode, priority));
+        try {
+            if (idempotencyKey == null) return call.get();
+            return service.idempotencyCache().execute(idempotencyKey,
+                    RegistrarService.enrollFingerprint(studentId, courseCode, priority), call);
+        } catch (Shed shed) {
+            EnrollResult result = shed.overloaded ? EnrollResult.OVERLOADED : EnrollResult.RATE_LIMITED;
+            service.enrollShed(result);
+            return result;
+        }
+    }
+
+    public DropResult drop(String studentId, String courseCode) {
+        return drop(studentId, courseCode, null);
+    }
+
+    /** Keyed drop; see {@link #enroll(String, String, int, String)}. */
+    public DropResult drop(String studentId, String courseCode, String idempotencyKey) {
+        Supplier<Boolean> call = () -> admit(studentId, () -> service.drop(studentId, courseCode));
+        try {
+            boolean dropped = idempotencyKey == null ? call.get()
+                    : service.idempotencyCache().execute(idempotencyKey,
+                            RegistrarService.dropFingerprint(studentId, courseCode), call);
+            return dropped ? DropResult.DROPPED : DropResult.NOT_ENROLLED;
+        } catch (Shed shed) {
+            return shed.overloaded ? DropResult.OVERLOADED : DropResult.RATE_LIMITED;
+        }
+    }
+
+    /** Runs {@code call} in a slot, or throws Shed. */
+    private <T> T admit(String studentId, Supplier<T> call) {
+        if (!takeToken(studentId)) throw Shed.RATE_LIMITED;
+        if (!acquire()) throw Shed.OVERLOADED;
+        try {
+            return call.get();
+        } finally {
+            release();
+        }
+    }
+
+    // --- Counters ---
+
+    public long admittedCount() { return admitted.sum(); }
+    public long rateLimitedCount() { return rateLimited.sum(); }
+    public long overloadedCount() { return overloaded.sum(); }
+    /** Calls in the service right now. */
+    public int running() { return running.get(); }
+    /** Calls waiting for a slot right now. */
+    public int queued() { return queued.get(); }
+
+    // --- Token buckets ---
+
+    /**
+     * GCRA: the bucket holds the time at which it would be full again. A call
+     * pushes that time one interval further; it is allowed while the time
+     * stays within one full bucket of now. Unknown students are not limited
+     * here (the service answers NO_SUCH_STUDENT cheaply) so they cannot grow
+     * the map.
+     */
+    private boolean takeToken(String studentId) {
+        AtomicLong bucket = buckets.get(studentId);
+        if (bucket == null) {
+            if (service.getStudent(studentId) == null) return true;
+            bucket = buckets.computeIfAbsent(studentId, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+        long now = System.nanoTime();
+        while (true) {
+            long full = bucket.get();
+            long next = (full == Long.MIN_VALUE || full - now < 0 ? now : full) + intervalNanos;
+            if (next - now > burstNanos) {
+                rateLimited.increment();
+                return false;
+            }
+            if (bucket.compareAndSet(full, next)) return true;
+        }
+    }
+
+    // --- Concurrency slots ---
+
+    private boolean tryAcquire() {
+        int max = limits.getMaxConcurrent();
+        while (true) {
+            int n = running.get();
+            if (n >= max) return false;
+            if (running.compareAndSet(n, n + 1)) return true;
+        }
+    }
+
+    /**
+     * Takes a slot, waiting in line if need be; false if the call is shed,
+     * including when the thread is interrupted while it waits.
+     * Only the head of the line competes for a freed slot, so waiters are
+     * served in arrival order. A new call may still take a slot that is free
+     * at that moment, as with a non-fair lock: handing each slot to a parked
+     * waiter would leave it idle until that thread is scheduled, and under
+     * overload that is when threads are slowest to run.
+     */
+    private boolean acquire() {
+        if (tryAcquire()) {
+            admitted.increment();
+            return true;
+        }
+        if (queued.incrementAndGet() > limits.getMaxQueued()) {
+            queued.decrementAndGet();
+            overloaded.increment();
+            return false;
+        }
+        Thread me = Thread.currentThread();
+        waiters.add(me);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(limits.getMaxWaitMillis());
+        try {
+            while (true) {
+                if (waiters.peek() == me && tryAcquire()) {
+                    admitted.increment();
+                    return true;
+                }
+                long left = deadline - System.nanoTime();
+                if (left <= 0 || Thread.interrupted()) {
+                    // parkNanos returns at once while interrupted, so give up rather than spin
+                    if (left > 0) me.interrupt();
+                    overloaded.increment();
+                    return false;
+                }
+                LockSupport.parkNanos(this, left);
+            }
+        } finally {
+            waiters.remove(me);
+            queued.decrementAndGet();
+            wakeHead(); // the next in line may be able to go now
+        }
+    }
+
+    private void release() {
+        running.decrementAndGet();
+        wakeHead();
+    }
+
+    private void wakeHead() {
+        Thread head = waiters.peek();
+        if (head != null) LockSupport.unpark(head);
+    }
+}
@@ -0,0 +1,69 @@
+package com.registrar.service;
+
+/**
+ * Limits for an {@link AdmissionControl}: a per-student token bucket
+ * (sustained rate and burst), the number of enroll/drop calls allowed to run
+ * at once, and how many more may wait, and for how long. Immutable; each
+ * method returns a changed copy, starting from {@link #DEFAULT}, e.g.
+ * {@code AdmissionLimits.DEFAULT.perStudent(2, 5).maxConcurrent(16)}.
+ */
+public final class AdmissionLimits {
+    /**
+     * 5 calls/s per student with bursts of 10; 4 x cores (at least 16)
+     * running, 1024 waiting up to 100 ms. Far fewer slots than that and a
+     * thread descheduled while holding one stalls everyone queued behind it.
+     */
+    public static final AdmissionLimits DEFAULT = new AdmissionLimits(5.0, 10,
+            Math.max(16, Runtime.getRuntime().availableProcessors() * 4), 1024, 100);
+
+    private final double ratePerSecond;
+    private final int burst;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitMillis;
+
+    private AdmissionLimits(double ratePerSecond, int burst, int maxConcurrent, int maxQueued, long maxWaitMillis) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /** Each student may make {@code ratePerSecond} calls per second on average, {@code burst} at once. */
+    public AdmissionLimits perStudent(double ratePerSecond, int burst) {
+        if (!(ratePerSecond > 0)) throw new IllegalArgumentException("ratePerSecond must be > 0");
+        if (burst <= 0) throw new IllegalArgumentException("burst must be > 0");
+        return new AdmissionLimits(ratePerSecond, burst, maxConcurrent, maxQueued, maxWaitMillis);
+    }
+
+    /** Calls running in the service at once. */
+    public AdmissionLimits maxConcurrent(int n) {
+        if (n <= 0) throw new IllegalArgumentException("maxConcurrent must be > 0");
+        return new AdmissionLimits(ratePerSecond, burst, n, maxQueued, maxWaitMillis);
+    }
+
+    /** Calls waiting for a slot, first come first served; 0 sheds as soon as all slots are busy. */
+    public AdmissionLimits maxQueued(int n) {
+        if (n < 0) throw new IllegalArgumentException("maxQueued must be >= 0");
+        return new AdmissionLimits(ratePerSecond, burst, maxConcurrent, n, maxWaitMillis);
+    }
+
+    /** Longest a call waits for a slot before it is shed. */
+    public AdmissionLimits maxWaitMillis(long ms) {
+        if (ms < 0) throw new IllegalArgumentException("maxWaitMillis must be >= 0");
+        return new AdmissionLimits(ratePerSecond, burst, maxConcurrent, maxQueued, ms);
+    }
+
+    public double getRatePerSecond() { return ratePerSecond; }
+    public int getBurst() { return burst; }
+    public int getMaxConcurrent() { return maxConcurrent; }
+    public int getMaxQueued() { return maxQueued; }
+    public long getMaxWaitMillis() { return maxWaitMillis; }
+
+    @Override
+    public String toString() {
+        return "AdmissionLimits{" + ratePerSecond + "/s burst " + burst + ", concurrent " + maxConcurrent
+                + ", queued " + maxQueued + " for " + maxWaitMillis + " ms}";
+    }
+}
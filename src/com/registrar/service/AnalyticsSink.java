@@ -0,0 +1,28 @@
+package com.registrar.service;
+
+/**
+ * Receives the seat, waitlist and capacity changes RegistrarService makes,
+ * plus the course pair behind each CONFLICT, for incrementally maintained
+ * aggregates (e.g. TermAnalytics).
+ *
+ * Each callback runs while the service holds the lock of the course it
+ * names, and seat callbacks also hold the student's lock, so the changes
+ * to any one course or student arrive one at a time and in order.
+ * Recovery (the restore* methods) is not reported; attach afterwards and
+ * seed from the service's state. Callbacks must be cheap and must not
+ * call back into the service. All methods default to no-ops.
+ */
+public interface AnalyticsSink {
+    AnalyticsSink NONE = new AnalyticsSink() { };
+
+    default void studentAdded(String studentId) { }
+    default void courseAdded(String courseCode, int capacity) { }
+    default void capacityChanged(String courseCode, int capacity) { }
+    default void seated(String courseCode, String studentId) { }
+    default void unseated(String courseCode, String studentId) { }
+    default void waitlisted(String courseCode, String studentId) { }
+    default void waitlistRemoved(String courseCode, String studentId) { }
+
+    /** An enroll in courseCode returned CONFLICT because the student holds {@code withCourse}. */
+    default void conflicted(String studentId, String courseCode, String withCourse) { }
+}
@@ -0,0 +1,82 @@
+package com.registrar.service;
+
+import com.registrar.model.Student;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Point-in-time view of every course, roster and waitlist, opened with
+ * {@link RegistrarService#openSnapshot()}. Opening one copies nothing;
+ * enrollments keep running, and a course's state is saved only when it is
+ * first written after the snapshot. Reading a course takes its lock just long
+ * enough to find (or, once, copy) the right state.
+ *
+ * Student records are not versioned: students are only ever added, so IDs in a
+ * roster always resolve, but {@link #student} returns the live record.
+ *
+ * Close snapshots promptly; saved states are kept while any snapshot that
+ * needs them is open. Safe to share between threads.
+ */
+public final class CampusSnapshot implements AutoCloseable {
+    private final RegistrarService service;
+    private final long version;
+    // Reads share it; close() takes it exclusively so no read sees saved states go away
+    private final ReadWriteLock guard = new ReentrantReadWriteLock();
+    private volatile List<String> codes;
+    private boolean closed; // guarded by guard
+
+    CampusSnapshot(RegistrarService service, long version) {
+        this.service = service;
+        this.version = version;
+    }
+
+    /** Snapshot version; later snapshots have higher versions. */
+    public long version() { return version; }
+
+    /** Codes of the courses that existed at the snapshot, sorted. */
+    public List<String> courseCodes() {
+        List<String> c = codes;
+        if (c != null) return c;
+        guard.readLock().lock();
+        try {
+            checkOpen();
+            return codes = service.courseCodesAt(version);
+        } finally {
+            guard.readLock().unlock();
+        }
+    }
+
+    /** A course as of the snapshot, or null if it did not exist then. */
+    public CourseView course(String code) {
+        guard.readLock().lock();
+        try {
+            checkOpen();
+            return service.courseAt(code, version);
+        } finally {
+            guard.readLock().unlock();
+        }
+    }
+
+    /** The live student record for an ID, or null if unknown. */
+    public Student student(String id) {
+        return service.getStudent(id);
+    }
+
+    @Override
+    public void close() {
+        guard.writeLock().lock();
+        try {
+            if (closed) return;
+            closed = true;
+        } finally {
+            guard.writeLock().unlock();
+        }
+        service.closeSnapshot(version);
+    }
+
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException("snapshot closed");
+    }
+}
@@ -0,0 +1,191 @@
+package com.registrar.service;
+
+import com.registrar.model.Course;
+import com.registrar.model.IdInterner;
+import com.registrar.model.Student;
+import com.registrar.model.TimeSlot;
+import com.registrar.model.WeeklyMask;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Course-to-course conflict graph. Every course is indexed by its interned
+ * course-code handle (the same handles Student stores its courses as); each
+ * course's neighbours (courses whose meeting times overlap it) are a BitSet
+ * over those indices. Edges are found through a per-block occupancy index,
+ * so registering a course only compares it with courses sharing a block.
+ *
+ * Neighbour BitSets are updated in place, so readers and writers both hold
+ * the graph's monitor. It is a leaf lock: nothing is called out while it is
+ * held, and every hold is a few word operations per course.
+ */
+final class ConflictGraph {
+    private final IdInterner courseIds;
+    private final List<Course> byIndex = new ArrayList<>();
+    private final Map<String, BitSet> neighbours = new ConcurrentHashMap<>();
+
+    // For each 5-minute block of the week, indices of courses meeting in it
+    private final BitSet[] blockOccupants = new BitSet[WeeklyMask.BLOCKS];
+
+    ConflictGraph(IdInterner courseIds) {
+        this.courseIds = courseIds;
+    }
+
+    /** Adds a course, or recomputes its edges if its meeting times changed. */
+    synchronized void register(Course c) {
+        int idx = courseIds.intern(c.getCode());
+        while (byIndex.size() <= idx) byIndex.add(null);
+        if (byIndex.get(idx) == null) {
+            byIndex.set(idx, c);
+        } else {
+            unlink(idx);
+        }
+
+        BitSet candidates = new BitSet();
+        WeeklyMask mask = c.getMeetingMask();
+        for (int b = mask.nextBlock(0); b >= 0; b = mask.nextBlock(b + 1)) {
+            BitSet occ = blockOccupants[b];
+            if (occ == null) occ = blockOccupants[b] = new BitSet();
+            else candidates.or(occ);
+            occ.set(idx);
+        }
+        candidates.clear(idx);
+
+        BitSet adj = new BitSet();
+        for (int o = candidates.nextSetBit(0); o >= 0; o = candidates.nextSetBit(o + 1)) {
+            Course other = byIndex.get(o);
+            if (c.overlaps(other)) {
+                adj.set(o);
+                neighbours.get(other.getCode()).set(idx);
+            }
+        }
+        neighbours.put(c.getCode(), adj);
+    }
+
+    /**
+     * Adds a meeting time to a registered course and recomputes its edges,
+     * unless the time overlaps another course one of {@code enrolled} takes.
+     * The course's times change under the graph's monitor, so register() for
+     * another course never reads them mid-update. Caller holds the course's
+     * lock and the students' locks.
+     *
+     * @return IDs of the students the time would double-book; empty if it was added
+     */
+    synchronized List<String> addMeetingTime(Course c, TimeSlot t, Collection<Student> enrolled) {
+        List<String> clashing = new ArrayList<>();
+        for (Student s : enrolled) {
+            for (String other : s.getEnrolledCourses()) {
+                if (!other.equals(c.getCode()) && meetsDuring(byIndex.get(courseIds.handleOf(other)), t)) {
+                    clashing.add(s.getId());
+                    break;
+                }
+            }
+        }
+        if (clashing.isEmpty()) {
+            c.addMeetingTime(t);
+            register(c);
+        }
+        return clashing;
+    }
+
+    /**
+     * Adds many courses at once. New courses are indexed first; then every
+     * course that shares a block with one of them has its neighbour set rebuilt
+     * once. Courses already in the graph are re-registered one by one.
+     */
+    synchronized void registerAll(Collection<Course> added) {
+        BitSet fresh = new BitSet();
+        for (Course c : added) {
+            int idx = courseIds.intern(c.getCode());
+            while (byIndex.size() <= idx) byIndex.add(null);
+            if (byIndex.get(idx) != null) {
+                register(c);
+                continue;
+            }
+            byIndex.set(idx, c);
+            WeeklyMask mask = c.getMeetingMask();
+            for (int b = mask.nextBlock(0); b >= 0; b = mask.nextBlock(b + 1)) {
+                BitSet occ = blockOccupants[b];
+                if (occ == null) occ = blockOccupants[b] = new BitSet();
+                occ.set(idx);
+            }
+            fresh.set(idx);
+        }
+
+        BitSet touched = (BitSet) fresh.clone();
+        for (BitSet occ : blockOccupants) {
+            if (occ != null && occ.intersects(fresh)) touched.or(occ);
+        }
+        for (int idx = touched.nextSetBit(0); idx >= 0; idx = touched.nextSetBit(idx + 1)) {
+            Course c = byIndex.get(idx);
+            BitSet candidates = new BitSet();
+            WeeklyMask mask = c.getMeetingMask();
+            for (int b = mask.nextBlock(0); b >= 0; b = mask.nextBlock(b + 1)) {
+                candidates.or(blockOccupants[b]);
+            }
+            candidates.clear(idx);
+            BitSet adj = new BitSet();
+            for (int o = candidates.nextSetBit(0); o >= 0; o = candidates.nextSetBit(o + 1)) {
+                if (c.overlaps(byIndex.get(o))) adj.set(o);
+            }
+            neighbours.put(c.getCode(), adj);
+        }
+    }
+
+    private static boolean meetsDuring(Course c, TimeSlot t) {
+        for (TimeSlot x : c.getMeetingTimes()) {
+            if (x.conflictsWith(t)) return true;
+        }
+        return false;
+    }
+
+    /** Drops all edges and block entries of a course before re-registering it. */
+    private void unlink(int idx) {
+        Course c = byIndex.get(idx);
+        for (BitSet occ : blockOccupants) {
+            if (occ != null) occ.clear(idx);
+        }
+        BitSet adj = neighbours.get(c.getCode());
+        for (int o = adj.nextSetBit(0); o >= 0; o = adj.nextSetBit(o + 1)) {
+            neighbours.get(byIndex.get(o).getCode()).clear(idx);
+        }
+    }
+
+    /** True if the course conflicts with any course the student is enrolled in. */
+    synchronized boolean conflictsWithAny(String code, Student s) {
+        BitSet adj = neighbours.get(code);
+        return adj != null && !adj.isEmpty() && s.enrolledInAny(adj);
+    }
+
+    /** A course the student is enrolled in that overlaps the given course, or null. */
+    String firstConflict(String code, Student s) {
+        for (String other : s.getEnrolledCourses()) {
+            if (conflicts(code, other)) return other;
+        }
+        return null;
+    }
+
+    /** Clears the bits of all courses that overlap the given course. */
+    synchronized void clearNeighbours(String code, BitSet from) {
+        BitSet adj = neighbours.get(code);
+        if (adj != null) from.andNot(adj);
+    }
+
+    synchronized boolean conflicts(String a, String b) {
+        BitSet adj = neighbours.get(a);
+        int o = courseIds.handleOf(b);
+        return adj != null && o >= 0 && adj.get(o);
+    }
+
+    /** Codes of all courses whose meeting times overlap the given course. */
+    synchronized Set<String> neighboursOf(String code) {
+        BitSet adj = neighbours.get(code);
+        if (adj == null) return Collections.emptySet();
+        Set<String> out = new TreeSet<>();
+        for (int o = adj.nextSetBit(0); o >= 0; o = adj.nextSetBit(o + 1)) {
+            out.add(byIndex.get(o).getCode());
+        }
+        return out;
+    }
+}
@@ -0,0 +1,39 @@
+package com.registrar.service;
+
+import com.registrar.model.TimeSlot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One course for {@link RegistrarService#addCourses(java.util.List)}.
+ */
+public final class CourseDefinition {
+    private final String code;
+    private final String title;
+    private final int capacity;
+    private final List<TimeSlot> meetingTimes;
+
+    public CourseDefinition(String code, String title, int capacity, Collection<TimeSlot> meetingTimes) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        this.code = Objects.requireNonNull(code);
+        this.title = Objects.requireNonNull(title);
+        this.capacity = capacity;
+        this.meetingTimes = meetingTimes == null || meetingTimes.isEmpty()
+                ? Collections.<TimeSlot>emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(meetingTimes));
+    }
+
+    public String getCode() { return code; }
+    public String getTitle() { return title; }
+    public int getCapacity() { return capacity; }
+    public List<TimeSlot> getMeetingTimes() { return meetingTimes; }
+
+    @Override
+    public String toString() {
+        return "CourseDefinition{" + code + ", capacity=" + capacity + ", " + meetingTimes + "}";
+    }
+}
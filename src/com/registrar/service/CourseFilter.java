@@ -0,0 +1,89 @@
+package com.registrar.service;
+
+import com.registrar.model.Course;
+import com.registrar.model.TimeSlot.Day;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Constraints for {@link RegistrarService#findOpenCourses}: meeting days, a
+ * daily time window, a minimum number of open seats and a result limit.
+ * Immutable; each method returns a changed copy, starting from {@link #ANY},
+ * e.g. {@code CourseFilter.ANY.onDays(MON, WED, FRI).between(9 * 60, 13 * 60)}.
+ */
+public final class CourseFilter {
+    private static final int DAY_END = 24 * 60;
+
+    /** Every course with at least one open seat, no limit. */
+    public static final CourseFilter ANY = new CourseFilter(EnumSet.allOf(Day.class), 0, DAY_END, 1, Integer.MAX_VALUE);
+
+    private final Set<Day> days;
+    private final int fromMin;
+    private final int toMin;
+    private final int minSeats;
+    private final int limit;
+    private final int dayBits; // 1 << Day.ordinal() per allowed day
+
+    private CourseFilter(Set<Day> days, int fromMin, int toMin, int minSeats, int limit) {
+        this.days = Collections.unmodifiableSet(days);
+        this.fromMin = fromMin;
+        this.toMin = toMin;
+        this.minSeats = minSeats;
+        this.limit = limit;
+        int bits = 0;
+        for (Day d : days) bits |= 1 << d.ordinal();
+        this.dayBits = bits;
+    }
+
+    /** Only courses that meet on no other days than these. */
+    public CourseFilter onDays(Day... days) {
+        if (days.length == 0) throw new IllegalArgumentException("at least one day required");
+        return new CourseFilter(EnumSet.copyOf(Arrays.asList(days)), fromMin, toMin, minSeats, limit);
+    }
+
+    /** Only courses whose every meeting lies inside [fromMin, toMin] (minutes from midnight). */
+    public CourseFilter between(int fromMin, int toMin) {
+        if (fromMin < 0 || toMin > DAY_END || toMin <= fromMin) {
+            throw new IllegalArgumentException("window must satisfy 0 <= from < to <= 1440");
+        }
+        return new CourseFilter(EnumSet.copyOf(days), fromMin, toMin, minSeats, limit);
+    }
+
+    /** Only courses with at least this many open seats (default 1). */
+    public CourseFilter minSeats(int seats) {
+        if (seats <= 0) throw new IllegalArgumentException("minSeats must be > 0");
+        return new CourseFilter(EnumSet.copyOf(days), fromMin, toMin, seats, limit);
+    }
+
+    /** At most this many results, the first in course-code order. */
+    public CourseFilter limit(int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("limit must be > 0");
+        return new CourseFilter(EnumSet.copyOf(days), fromMin, toMin, minSeats, limit);
+    }
+
+    public Set<Day> getDays() { return days; }
+    public int getFromMin() { return fromMin; }
+    public int getToMin() { return toMin; }
+    public int getMinSeats() { return minSeats; }
+    public int getLimit() { return limit; }
+
+    /** True if days or window rule anything out. */
+    boolean restrictsTime() {
+        return days.size() < Day.values().length || fromMin > 0 || toMin < DAY_END;
+    }
+
+    /** Exact day and window check, from the course's meeting-time summary. */
+    boolean admitsTimes(Course c) {
+        return (c.getMeetingDays() & ~dayBits) == 0
+                && c.getEarliestStartMin() >= fromMin && c.getLatestEndMin() <= toMin;
+    }
+
+    @Override
+    public String toString() {
+        return "CourseFilter{days=" + days + ", " + fromMin + "-" + toMin + ", minSeats=" + minSeats
+                + (limit == Integer.MAX_VALUE ? "" : ", limit=" + limit) + "}";
+    }
+}
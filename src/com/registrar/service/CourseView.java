@@ -0,0 +1,69 @@
+package com.registrar.service;
+
+import com.registrar.model.Course;
+import com.registrar.model.TimeSlot;
+import com.registrar.model.WaitlistEntry;
+
+import java.util.*;
+
+/**
+ * Immutable copy of a course as seen by a {@link CampusSnapshot}: its details,
+ * roster (sorted by student ID) and waitlist (in promotion order).
+ *
+ * Copies are often made by writers under the course lock, so the constructor
+ * does no sorting; the roster is sorted the first time a reader asks for it.
+ */
+public final class CourseView {
+    private final String code;
+    private final String title;
+    private final int capacity;
+    private final Set<TimeSlot> meetingTimes;
+    private final String[] enrolled;          // table order
+    private volatile List<String> sortedIds;  // built on first use
+    private final List<WaitlistEntry> waitlist;
+
+    /** Copies the course; caller holds its lock. */
+    CourseView(Course c) {
+        this.code = c.getCode();
+        this.title = c.getTitle();
+        this.capacity = c.getCapacity();
+        this.meetingTimes = Collections.unmodifiableSet(new HashSet<>(c.getMeetingTimes()));
+        String[] ids = new String[c.enrolledCount()];
+        int n = 0;
+        for (String sid : c.getEnrolledStudentIds()) ids[n++] = sid;
+        this.enrolled = ids;
+        this.waitlist = Collections.unmodifiableList(c.getWaitlistEntries());
+    }
+
+    public String getCode() { return code; }
+    public String getTitle() { return title; }
+    public int getCapacity() { return capacity; }
+    public Set<TimeSlot> getMeetingTimes() { return meetingTimes; }
+
+    /** Enrolled student IDs in ID order. */
+    public List<String> getEnrolledStudentIds() {
+        List<String> ids = sortedIds;
+        if (ids == null) {
+            String[] sorted = enrolled.clone();
+            Arrays.sort(sorted);
+            sortedIds = ids = Collections.unmodifiableList(Arrays.asList(sorted));
+        }
+        return ids;
+    }
+
+    public int enrolledCount() { return enrolled.length; }
+    public int seatsRemaining() { return Math.max(0, capacity - enrolled.length); }
+
+    public boolean isEnrolled(String studentId) {
+        return Collections.binarySearch(getEnrolledStudentIds(), studentId) >= 0;
+    }
+
+    /** Waitlist entries in promotion order. */
+    public List<WaitlistEntry> getWaitlist() { return waitlist; }
+    public int waitlistSize() { return waitlist.size(); }
+
+    @Override
+    public String toString() {
+        return code + " - " + title + " (cap " + capacity + ", enrolled " + enrolled.length + ")";
+    }
+}
@@ -0,0 +1,75 @@
+package com.registrar.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Minimal RFC 4180 CSV writer that UTF-8 encodes fields straight into a
+ * reusable direct buffer and drains it to a channel when full. No per-row
+ * Strings or char arrays are created.
+ */
+final class CsvChannelWriter {
+    private final WritableByteChannel out;
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16);
+    private boolean rowStarted;
+
+    CsvChannelWriter(WritableByteChannel out) {
+        this.out = out;
+    }
+
+    CsvChannelWriter field(String value) throws IOException {
+        if (rowStarted) put((byte) ',');
+        rowStarted = true;
+        boolean quote = needsQuotes(value);
+        if (quote) put((byte) '"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"') put((byte) '"');
+            if (ch < 0x80) {
+                put((byte) ch);
+            } else if (ch < 0x800) {
+                put((byte) (0xC0 | (ch >> 6)));
+                put((byte) (0x80 | (ch & 0x3F)));
+            } else if (Character.isHighSurrogate(ch) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(ch, value.charAt(++i));
+                put((byte) (0xF0 | (cp >> 18)));
+                put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                put((byte) (0x80 | (cp & 0x3F)));
+            } else {
+                put((byte) (0xE0 | (ch >> 12)));
+                put((byte) (0x80 | ((ch >> 6) & 0x3F)));
+                put((byte) (0x80 | (ch & 0x3F)));
+            }
+        }
+        if (quote) put((byte) '"');
+        return this;
+    }
+
+    void endRow() throws IOException {
+        put((byte) '\r');
+        put((byte) '\n');
+        rowStarted = false;
+    }
+
+    void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) out.write(buf);
+        buf.clear();
+    }
+
+    private void put(byte b) throws IOException {
+        if (!buf.hasRemaining()) flush();
+        buf.put(b);
+    }
+
+    private static boolean needsQuotes(String v) {
+        for (int i = 0; i < v.length(); i++) {
+            char ch = v.charAt(i);
+            if (ch == ',' || ch == '"' || ch == '\n' || ch == '\r') return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,27 @@
+package com.registrar.service;
+
+import java.util.Objects;
+
+/**
+ * One enrollment request for {@link RegistrarService#enrollAll(java.util.List)}.
+ */
+public final class EnrollRequest {
+    private final String studentId;
+    private final String courseCode;
+    private final int priority;
+
+    public EnrollRequest(String studentId, String courseCode, int priority) {
+        this.studentId = Objects.requireNonNull(studentId);
+        this.courseCode = Objects.requireNonNull(courseCode);
+        this.priority = priority;
+    }
+
+    public String getStudentId() { return studentId; }
+    public String getCourseCode() { return courseCode; }
+    public int getPriority() { return priority; }
+
+    @Override
+    public String toString() {
+        return "EnrollRequest{" + studentId + " -> " + courseCode + ", priority=" + priority + "}";
+    }
+}
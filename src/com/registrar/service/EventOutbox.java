@@ -0,0 +1,39 @@
+package com.registrar.service;
+
+import com.registrar.events.EventSink;
+import com.registrar.events.RegistrarEvent;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One course's events, queued under the course lock and published after it
+ * is released, so a sink that blocks (an EventBus with BLOCK) stalls only the
+ * publishing thread, never the lock.
+ *
+ * Events leave in the order they were queued: one thread at a time publishes,
+ * and a thread that finds events left after another's pass publishes them.
+ */
+final class EventOutbox {
+    private final Queue<RegistrarEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean publishing = new AtomicBoolean();
+
+    /** Caller holds the course lock, so the queue is in the order the events happened. */
+    void add(RegistrarEvent e) {
+        queue.add(e);
+    }
+
+    /** Publishes queued events unless another thread is already doing so; no locks may be held. */
+    void flush(EventSink sink) {
+        while (!queue.isEmpty() && publishing.compareAndSet(false, true)) {
+            try {
+                RegistrarEvent e;
+                while ((e = queue.poll()) != null) sink.publish(e);
+            } finally {
+                publishing.set(false);
+            }
+            // Events queued after our last poll but before the reset are ours to publish
+        }
+    }
+}
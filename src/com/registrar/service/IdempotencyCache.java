@@ -0,0 +1,129 @@
+package com.registrar.service;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of recent operations by client-supplied idempotency
+ * key, so a retried enroll or drop returns the first answer instead of
+ * running again. A retry that arrives while the first call is still running
+ * waits for it. If the operation throws, the key is forgotten and the next
+ * retry runs it.
+ *
+ * Bounded two ways: a key is forgotten {@code ttlMillis} after it was first
+ * seen, and when more than {@code maxKeys} are held the oldest go first.
+ * Keys sit in a concurrent map and, in arrival order, in a lock-free queue
+ * that callers trim as they insert, so there is no cleaner thread. A key
+ * whose call is still running is never forgotten, or a retry would run the
+ * call a second time; trimming passes it over until the call finishes.
+ */
+public final class IdempotencyCache {
+    /** Keys kept by a default cache. */
+    public static final int DEFAULT_MAX_KEYS = 100_000;
+    /** How long a default cache keeps a key: 10 minutes. */
+    public static final long DEFAULT_TTL_MILLIS = 10 * 60 * 1000L;
+
+    private static final class Entry {
+        final String key;
+        final String fingerprint;
+        final long expiresAtNanos;
+        final CompletableFuture<Object> outcome = new CompletableFuture<>();
+
+        Entry(String key, String fingerprint, long expiresAtNanos) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean expired(long now) { return now - expiresAtNanos >= 0; }
+    }
+
+    private final int maxKeys;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> arrivals = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public IdempotencyCache(int maxKeys, long ttlMillis) {
+        if (maxKeys <= 0) throw new IllegalArgumentException("maxKeys must be > 0");
+        if (ttlMillis <= 0) throw new IllegalArgumentException("ttlMillis must be > 0");
+        this.maxKeys = maxKeys;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+    }
+
+    public int getMaxKeys() { return maxKeys; }
+    public long getTtlMillis() { return ttlNanos / 1_000_000L; }
+
+    /** Keys currently remembered (including ones whose call is still running). */
+    public int size() { return entries.size(); }
+
+    /**
+     * Runs {@code op} once per key, returning the remembered result to any
+     * later call with the same key. {@code fingerprint} identifies the
+     * request; reusing a key for a different request is an error.
+     *
+     * @throws IllegalArgumentException if the key was used for another request
+     */
+    @SuppressWarnings("unchecked")
+    <T> T execute(String key, String fingerprint, Supplier<T> op) {
+        long now = System.nanoTime();
+        while (true) {
+            Entry e = entries.get(key);
+            if (e != null && e.expired(now) && e.outcome.isDone()) {
+                entries.remove(key, e);
+                continue;
+            }
+            if (e == null) {
+                Entry mine = new Entry(key, fingerprint, now + ttlNanos);
+                if (entries.putIfAbsent(key, mine) != null) continue;
+                arrivals.add(mine);
+                queued.incrementAndGet();
+                trim(now);
+                T result;
+                try {
+                    result = op.get();
+                } catch (RuntimeException | Error t) {
+                    entries.remove(key, mine);
+                    mine.outcome.completeExceptionally(t);
+                    throw t;
+                }
+                mine.outcome.complete(result);
+                return result;
+            }
+            if (!e.fingerprint.equals(fingerprint)) {
+                throw new IllegalArgumentException("idempotency key " + key + " was used for a different request");
+            }
+            try {
+                return (T) e.outcome.join();
+            } catch (RuntimeException failed) {
+                // The first call failed and forgot the key; run it again
+                now = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Drops expired keys from the head of the queue, and the oldest while over
+     * the bound. A running call's key goes back to the tail instead; each
+     * queued key is looked at most once per trim.
+     */
+    private void trim(long now) {
+        for (int budget = queued.get(); budget > 0; budget--) {
+            Entry head = arrivals.peek();
+            if (head == null || (queued.get() <= maxKeys && !head.expired(now))) return;
+            Entry oldest = arrivals.poll();
+            if (oldest == null) return;
+            if (!oldest.outcome.isDone()) {
+                arrivals.add(oldest);
+                continue;
+            }
+            queued.decrementAndGet();
+            entries.remove(oldest.key, oldest);
+        }
+    }
+}
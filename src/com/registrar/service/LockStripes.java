@@ -0,0 +1,34 @@
+package com.registrar.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of ReentrantLocks selected by key hash (lock striping).
+ * Two keys that land on the same stripe simply share a lock; callers that
+ * need several stripes at once must take them in ascending index order.
+ */
+final class LockStripes {
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    LockStripes(int stripes) {
+        if (stripes <= 0) throw new IllegalArgumentException("stripes must be > 0");
+        int size = Integer.highestOneBit(stripes - 1 == 0 ? 1 : (stripes - 1) << 1);
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) locks[i] = new ReentrantLock();
+        this.mask = size - 1;
+    }
+
+    /** Stripe index for a key; equal keys always map to the same index. */
+    int indexFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+
+    ReentrantLock lockAt(int index) { return locks[index]; }
+
+    ReentrantLock lockFor(Object key) { return locks[indexFor(key)]; }
+
+    int size() { return locks.length; }
+}
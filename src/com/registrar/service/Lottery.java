@@ -0,0 +1,87 @@
+package com.registrar.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A registration window run as a lottery, opened with
+ * {@link RegistrarService#openLottery(long)}. While it is open, enroll()
+ * seats nobody: it records the request here and returns
+ * {@link RegistrarService.EnrollResult#IN_LOTTERY}. {@link #draw()} closes the
+ * window and assigns every recorded request in one pass, so arriving first
+ * within the window buys nothing. An enroll() that arrives during the draw
+ * waits for it to finish, so it cannot take a seat ahead of the entrants.
+ *
+ * Requests are not journaled until the draw seats or waitlists them; a
+ * restart before the draw loses them.
+ */
+public final class Lottery {
+    private final RegistrarService service;
+    private final long seed;
+    private final List<EnrollRequest> requests = new ArrayList<>(); // guarded by this
+    private boolean open = true;                                    // guarded by this
+    private boolean drawing;                                        // guarded by this
+
+    Lottery(RegistrarService service, long seed) {
+        this.service = service;
+        this.seed = seed;
+    }
+
+    public long getSeed() { return seed; }
+
+    public synchronized boolean isOpen() { return open; }
+
+    /** Number of requests recorded so far. */
+    public synchronized int size() { return requests.size(); }
+
+    /** Recorded requests in arrival order; results of {@link #draw()} line up with them. */
+    public synchronized List<EnrollRequest> getRequests() {
+        return Collections.unmodifiableList(new ArrayList<>(requests));
+    }
+
+    /**
+     * Closes the window and assigns seats; see {@link RegistrarService#openLottery(long)}.
+     * Returns one result per request, in arrival order.
+     *
+     * @throws IllegalStateException if already drawn
+     */
+    public RegistrarService.EnrollResult[] draw() {
+        return service.drawLottery(this);
+    }
+
+    /**
+     * False once the window is closed; the caller then enrolls normally. While
+     * the draw is running it waits for the draw to finish first.
+     */
+    synchronized boolean submit(EnrollRequest r) {
+        if (open) {
+            requests.add(r);
+            return true;
+        }
+        boolean interrupted = false;
+        while (drawing) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        return false;
+    }
+
+    /** Closes the window and hands over the requests; pair with {@link #drawn()}. */
+    synchronized List<EnrollRequest> close() {
+        if (!open) throw new IllegalStateException("lottery already drawn");
+        open = false;
+        drawing = true;
+        return requests;
+    }
+
+    /** The draw has placed every request; releases enrolls waiting in submit(). */
+    synchronized void drawn() {
+        drawing = false;
+        notifyAll();
+    }
+}
@@ -0,0 +1,55 @@
+package com.registrar.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * One bit per course handle: set while the course has a free seat. Updated by
+ * the service after every write to a course, under that course's lock; bits of
+ * different courses share words, so updates are CAS loops. Readers copy the
+ * words without locking and may see a course a moment late.
+ */
+final class OpenSeatIndex {
+    private static final int CHUNK_SHIFT = 16;                    // 65536 courses per chunk
+    private static final int CHUNK_WORDS = (1 << CHUNK_SHIFT) >>> 6;
+
+    // Chunks are never replaced, only appended, so a set() can't be lost to a resize
+    private volatile AtomicLongArray[] chunks = new AtomicLongArray[0];
+
+    void set(int handle, boolean open) {
+        AtomicLongArray words = chunk(handle >>> CHUNK_SHIFT);
+        int w = (handle & ((1 << CHUNK_SHIFT) - 1)) >>> 6;
+        long bit = 1L << handle;
+        while (true) {
+            long cur = words.get(w);
+            long next = open ? cur | bit : cur & ~bit;
+            if (cur == next || words.compareAndSet(w, cur, next)) return;
+        }
+    }
+
+    /** Copy of the current bits. */
+    BitSet toBitSet() {
+        AtomicLongArray[] cs = chunks;
+        long[] all = new long[cs.length * CHUNK_WORDS];
+        int n = 0;
+        for (AtomicLongArray words : cs) {
+            for (int i = 0; i < CHUNK_WORDS; i++) all[n++] = words.get(i);
+        }
+        return BitSet.valueOf(all);
+    }
+
+    private AtomicLongArray chunk(int index) {
+        AtomicLongArray[] cs = chunks;
+        if (index < cs.length) return cs[index];
+        synchronized (this) {
+            cs = chunks;
+            if (index >= cs.length) {
+                AtomicLongArray[] grown = Arrays.copyOf(cs, index + 1);
+                for (int i = cs.length; i <= index; i++) grown[i] = new AtomicLongArray(CHUNK_WORDS);
+                chunks = cs = grown;
+            }
+            return cs[index];
+        }
+    }
+}
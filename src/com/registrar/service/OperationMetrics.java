@@ -0,0 +1,45 @@
+package com.registrar.service;
+
+/**
+ * Receives timings and outcomes of RegistrarService operations. Latencies are
+ * wall-clock nanoseconds including lock waits and the durability wait.
+ *
+ * The service only reads the clock when a real sink is attached, so
+ * {@link #NONE} costs nothing on the hot path. Implementations are called from
+ * many threads at once, sometimes with course locks held, and must be cheap
+ * and non-blocking. All methods default to no-ops.
+ */
+public interface OperationMetrics {
+    OperationMetrics NONE = new OperationMetrics() { };
+
+    /** Why a waitlist entry was passed over when a seat opened. */
+    enum SkipReason {
+        /** The student no longer exists. */
+        STALE,
+        /** The student has since enrolled in a conflicting course. */
+        CONFLICT
+    }
+
+    /** One enroll call; IN_LOTTERY means the request waits for {@link #lotteryDrawn}. */
+    default void enrollCompleted(RegistrarService.EnrollResult result, long nanos) { }
+
+    /** One enrollAll call; per-request outcomes are in {@code results}. */
+    default void enrollBatchCompleted(RegistrarService.EnrollResult[] results, long nanos) { }
+
+    /**
+     * One lottery draw. Each result settles a request already reported as
+     * IN_LOTTERY by {@link #enrollCompleted}, not a new request.
+     */
+    default void lotteryDrawn(RegistrarService.EnrollResult[] results, long nanos) { }
+
+    /** An enroll shed by AdmissionControl (RATE_LIMITED or OVERLOADED) before it reached the service. */
+    default void enrollShed(RegistrarService.EnrollResult result) { }
+
+    default void dropCompleted(boolean dropped, long nanos) { }
+
+    default void waitlistLeft(boolean left, long nanos) { }
+
+    default void promoted(String courseCode) { }
+
+    default void promotionSkipped(String courseCode, SkipReason reason) { }
+}
@@ -0,0 +1,128 @@
+package com.registrar.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Background waitlist promotion for a {@link RegistrarService}. Whatever
+ * frees seats (a drop, a capacity raise) only signals the course here and
+ * returns; one worker thread fills the seats later.
+ *
+ * Signals coalesce: a course already queued is not queued again, so a burst
+ * of drops on one course costs one pass. The worker hands courses to the
+ * service up to {@link #MAX_BATCH} at a time, and the service waits for
+ * durability once per batch. A course is taken off the pending set before
+ * its pass starts, so a seat freed during the pass queues it again.
+ *
+ * Every queued course takes a ticket. Passes finish in queue order, so
+ * {@link #awaitIdle} waits for the tickets issued before it was called and
+ * not for signals that arrive while it waits.
+ *
+ * The worker thread starts on the first signal and exits after a second of
+ * idleness, so an idle service holds no thread.
+ */
+final class PromotionEngine {
+    /** Courses handed to the service per pass. */
+    static final int MAX_BATCH = 256;
+
+    private final Consumer<List<String>> promoter;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final Object enqueue = new Object();      // makes pending, ticket and queue order agree
+    private volatile long issued;                     // tickets handed out; written under enqueue
+    private final AtomicLong passed = new AtomicLong(); // tickets whose pass has finished
+    private final Object idle = new Object();
+    private final ThreadPoolExecutor worker;
+
+    /** @param promoter fills the given courses' free seats from their waitlists */
+    PromotionEngine(Consumer<List<String>> promoter) {
+        this.promoter = promoter;
+        this.worker = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "registrar-promotions");
+            t.setDaemon(true);
+            return t;
+        });
+        worker.allowCoreThreadTimeOut(true);
+    }
+
+    /** Queues a course for a promotion pass unless it is already queued. */
+    void signal(String courseCode) {
+        synchronized (enqueue) {
+            if (!pending.add(courseCode)) return;
+            issued++;
+            queue.add(courseCode);
+        }
+        if (draining.compareAndSet(false, true)) worker.execute(this::drain);
+    }
+
+    /** Courses queued or being promoted. */
+    int pending() {
+        return (int) (issued - passed.get());
+    }
+
+    /**
+     * Blocks until every course signalled before the call has had its pass.
+     * Signals that arrive later do not hold it up, so it returns even while
+     * other clients keep freeing seats.
+     */
+    void awaitIdle() throws InterruptedException {
+        long ticket = issued;
+        if (passed.get() >= ticket) return;
+        synchronized (idle) {
+            while (passed.get() < ticket) idle.wait();
+        }
+    }
+
+    private void drain() {
+        boolean finished = false;
+        try {
+            drainQueue();
+            finished = true;
+        } finally {
+            if (!finished) {
+                // An Error escaped the promoter; hand the queue to a fresh worker thread
+                draining.set(false);
+                if (!queue.isEmpty() && draining.compareAndSet(false, true)) worker.execute(this::drain);
+            }
+        }
+    }
+
+    private void drainQueue() {
+        List<String> batch = new ArrayList<>();
+        while (true) {
+            String code;
+            while (batch.size() < MAX_BATCH && (code = queue.poll()) != null) {
+                pending.remove(code);
+                batch.add(code);
+            }
+            if (batch.isEmpty()) {
+                draining.set(false);
+                // A signal that saw draining still set relies on us to take its course
+                if (queue.isEmpty() || !draining.compareAndSet(false, true)) return;
+                continue;
+            }
+            try {
+                promoter.accept(batch);
+            } catch (RuntimeException e) {
+                System.err.println("Waitlist promotion failed for " + batch.size() + " course(s): " + e);
+            } finally {
+                passed.addAndGet(batch.size());
+                synchronized (idle) {
+                    idle.notifyAll();
+                }
+                batch.clear();
+            }
+        }
+    }
+}
@@ -1,124 +1,1635 @@
-
 package com.registrar.service;
 
+import com.registrar.events.EventSink;
+import com.registrar.events.RegistrarEvent;
 import com.registrar.model.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
- * Core service layer that uses HashMaps to store students & courses.
+ * Core service layer that keeps students and courses in concurrent maps.
  * Provides APIs for add, enroll, drop, and waitlist processing.
+ *
+ * Thread-safe: course and student state is guarded by striped locks keyed by
+ * course code and student ID, so enroll/drop on different courses run in
+ * parallel. Lock order, which rules out deadlock:
+ * <ol>
+ *   <li>course stripes, several only in ascending stripe order
+ *       (enrollSchedule, addCourses, runExclusive);</li>
+ *   <li>then student stripes, several only in ascending stripe order
+ *       (addMeetingTime, runExclusive); enroll, drop and promotion hold one
+ *       student stripe at a time under their course stripe;</li>
+ *   <li>then short monitors that never call back out: the ConflictGraph's,
+ *       and the StateLog's and sinks' own.</li>
+ * </ol>
+ * No stripe is taken while a later one in this order is held. Events are
+ * published, and durability awaited, only after every lock is released.
  */
 public class RegistrarService {
-    private final Map<String, Student> students = new HashMap<>();
-    private final Map<String, Course> courses = new HashMap<>();
+    /** Default number of lock stripes for courses and for students. */
+    public static final int DEFAULT_LOCK_STRIPES = 64;
+
+    private final Map<String, Student> students = new ConcurrentHashMap<>();
+    private final Map<String, Course> courses = new ConcurrentHashMap<>();
+
+    // Tiebreaker for waitlist entries stamped in the same millisecond
+    private final AtomicLong waitlistSequence = new AtomicLong();
+
+    // Dense int handles for IDs; enrollment sets in Course/Student store these
+    private final IdInterner studentIds = new IdInterner();
+    private final IdInterner courseIds = new IdInterner();
+
+    private final ConflictGraph conflictGraph = new ConflictGraph(courseIds);
+
+    // Versions for CampusSnapshot; a course's History is guarded by its lock
+    private final SnapshotVersions versions = new SnapshotVersions();
+    private final Map<String, SnapshotVersions.History> histories = new ConcurrentHashMap<>();
+    private final Set<String> retained = ConcurrentHashMap.newKeySet(); // courses keeping saved states
+    private volatile CodeIndex codeIndex = new CodeIndex(new String[0], new long[0], new int[0], new Course[0]);
+    private volatile List<String> studentIndex = Collections.emptyList(); // see sortedStudentIds
+
+    // Courses with a free seat, by handle; see findOpenCourses
+    private final OpenSeatIndex openSeats = new OpenSeatIndex();
+
+    private final LockStripes courseLocks;
+    private final LockStripes studentLocks;
+
+    private volatile StateLog stateLog = StateLog.NONE;
+    private volatile OperationMetrics metrics = OperationMetrics.NONE;
+    private volatile EventSink events = EventSink.NONE;
+    private final Map<String, EventOutbox> outboxes = new ConcurrentHashMap<>(); // see emit
+    private volatile TraceSink trace = TraceSink.NONE;
+    private volatile AnalyticsSink analytics = AnalyticsSink.NONE;
+    private volatile IdempotencyCache idempotency =
+            new IdempotencyCache(IdempotencyCache.DEFAULT_MAX_KEYS, IdempotencyCache.DEFAULT_TTL_MILLIS);
+
+    // Fills seats freed by drops and capacity raises, off the caller's thread
+    private final PromotionEngine promotions = new PromotionEngine(this::promoteCourses);
+    private volatile boolean manualPromotion; // see setManualPromotion
+
+    // The open registration lottery, if any; enroll() feeds it
+    private final AtomicReference<Lottery> lottery = new AtomicReference<>();
+
+    // > 0 while the current thread is inside batch(); defers durability waits
+    private final ThreadLocal<int[]> batchDepth = ThreadLocal.withInitial(() -> new int[1]);
+
+    public RegistrarService() {
+        this(DEFAULT_LOCK_STRIPES);
+    }
+
+    /** @param lockStripes stripes per lock pool (rounded up to a power of two) */
+    public RegistrarService(int lockStripes) {
+        this.courseLocks = new LockStripes(lockStripes);
+        this.studentLocks = new LockStripes(lockStripes);
+    }
+
+    /** Routes every subsequent state change to the given log (e.g. a journal). */
+    public void setStateLog(StateLog log) {
+        this.stateLog = log != null ? log : StateLog.NONE;
+    }
+
+    /** Reports operation timings and outcomes to the given sink (e.g. RegistrarMetrics). */
+    public void setMetrics(OperationMetrics metrics) {
+        this.metrics = metrics != null ? metrics : OperationMetrics.NONE;
+    }
+
+    /**
+     * Publishes seat and waitlist events (enrolled, dropped, waitlisted,
+     * promoted, skipped) to the given sink, typically an EventBus. Events are
+     * queued per course under the course lock and published once the call
+     * has released its locks, so a sink may block (EventBus BLOCK): that
+     * slows the publishing call, not other callers' locks.
+     */
+    public void setEventSink(EventSink sink) {
+        this.events = sink != null ? sink : EventSink.NONE;
+    }
+
+    /** Reports every call and its outcome to the given sink, e.g. a TraceRecorder. */
+    public void setTraceSink(TraceSink sink) {
+        this.trace = sink != null ? sink : TraceSink.NONE;
+    }
+
+    /** Reports seat, waitlist and capacity changes and conflicts to the given sink, e.g. TermAnalytics. */
+    public void setAnalyticsSink(AnalyticsSink sink) {
+        this.analytics = sink != null ? sink : AnalyticsSink.NONE;
+    }
+
+    /**
+     * Replaces the cache of idempotency keys used by the keyed enroll and
+     * drop (by default 100k keys for 10 minutes). Keys held by the old cache
+     * are forgotten.
+     */
+    public void setIdempotencyCache(IdempotencyCache cache) {
+        this.idempotency = Objects.requireNonNull(cache);
+    }
+
+    /**
+     * Queues an event for the course if a sink is attached; caller holds the
+     * course lock and calls publishEvents once it has released every lock.
+     */
+    private void emit(RegistrarEvent.Type type, String courseCode, String studentId, int priority) {
+        EventSink sink = events;
+        if (sink != EventSink.NONE) {
+            outboxes.computeIfAbsent(courseCode, k -> new EventOutbox())
+                    .add(new RegistrarEvent(type, courseCode, studentId, priority, System.currentTimeMillis()));
+        }
+    }
+
+    /** Publishes the course's queued events; no locks may be held. */
+    private void publishEvents(String courseCode) {
+        EventOutbox box = outboxes.get(courseCode);
+        if (box != null) box.flush(events);
+    }
+
+    /**
+     * Runs many service calls as one bulk operation: inside {@code ops} the
+     * calls do not wait for the state log to become durable; a single wait
+     * covers all of them when the outermost batch ends.
+     */
+    public void batch(Runnable ops) {
+        int[] depth = batchDepth.get();
+        depth[0]++;
+        try {
+            ops.run();
+        } finally {
+            depth[0]--;
+        }
+        commit();
+    }
+
+    /** Waits for durability of everything logged so far, unless inside a batch. */
+    private void commit() {
+        if (batchDepth.get()[0] == 0) stateLog.awaitDurable();
+    }
 
     // --- Student APIs ---
     public boolean addStudent(String id, String name) {
+        stateLog.checkWritable();
         if (students.containsKey(id)) return false;
-        students.put(id, new Student(id, name));
+        Student s = new Student(id, name, courseIds);
+        // Held so the add is logged before any enrollment of this student can be
+        Lock studentLock = studentLocks.lockFor(id);
+        studentLock.lock();
+        try {
+            if (students.putIfAbsent(id, s) != null) return false;
+            stateLog.studentAdded(s);
+            analytics.studentAdded(id);
+            trace.studentAdded(s);
+        } finally {
+            studentLock.unlock();
+        }
+        commit();
         return true;
     }
 
     public Student getStudent(String id) { return students.get(id); }
 
+    /** A consistent copy of a student's courses and schedule, or null if unknown. */
+    public StudentView viewStudent(String id) {
+        Student s = students.get(id);
+        if (s == null) return null;
+        Lock studentLock = studentLocks.lockFor(id);
+        studentLock.lock();
+        try {
+            return new StudentView(s);
+        } finally {
+            studentLock.unlock();
+        }
+    }
+
+    /**
+     * IDs of all students in sorted order, cached between student adds, so
+     * paging through them does not copy and sort every ID per page.
+     */
+    public List<String> sortedStudentIds() {
+        List<String> index = studentIndex;
+        if (index.size() != students.size()) {
+            // Students are only ever added, so equal sizes mean the index is complete
+            String[] ids = students.keySet().toArray(new String[0]);
+            Arrays.sort(ids);
+            studentIndex = index = Collections.unmodifiableList(Arrays.asList(ids));
+        }
+        return index;
+    }
+
     // --- Course APIs ---
     public boolean addCourse(String code, String title, int capacity, Collection<TimeSlot> meetingTimes) {
+        stateLog.checkWritable();
         if (courses.containsKey(code)) return false;
-        Course c = new Course(code, title, capacity);
+        Course c = new Course(code, title, capacity, studentIds);
         if (meetingTimes != null) {
             for (TimeSlot t : meetingTimes) c.addMeetingTime(t);
         }
-        courses.put(code, c);
+        // Register in the conflict graph before anyone can lock the course for enroll
+        Lock courseLock = courseLocks.lockFor(code);
+        courseLock.lock();
+        try {
+            long e = versions.enter();
+            try {
+                if (courses.putIfAbsent(code, c) != null) return false;
+                histories.put(code, new SnapshotVersions.History(e));
+                conflictGraph.register(c);
+                openSeats.set(courseIds.intern(code), true);
+                stateLog.courseAdded(c);
+                trace.courseAdded(c);
+                analytics.courseAdded(c.getCode(), c.getCapacity());
+            } finally {
+                versions.exit(e);
+            }
+        } finally {
+            courseLock.unlock();
+        }
+        commit();
+        return true;
+    }
+
+    /**
+     * Adds many courses as one bulk operation: every course stripe is held while
+     * the courses are published, so the conflict graph is built once for the
+     * whole set (see ConflictGraph.registerAll) and no enroll sees a course
+     * before its edges. Returns, per definition, whether it was added; codes
+     * that already exist or repeat earlier in the list are not.
+     */
+    public boolean[] addCourses(List<CourseDefinition> definitions) {
+        stateLog.checkWritable();
+        boolean[] added = new boolean[definitions.size()];
+        List<Course> fresh = new ArrayList<>(definitions.size());
+        int nc = courseLocks.size();
+        for (int i = 0; i < nc; i++) courseLocks.lockAt(i).lock();
+        long e = versions.enter();
+        try {
+            for (int i = 0; i < definitions.size(); i++) {
+                CourseDefinition d = definitions.get(i);
+                if (courses.containsKey(d.getCode())) continue;
+                Course c = new Course(d.getCode(), d.getTitle(), d.getCapacity(), studentIds);
+                for (TimeSlot t : d.getMeetingTimes()) c.addMeetingTime(t);
+                courses.put(d.getCode(), c);
+                histories.put(d.getCode(), new SnapshotVersions.History(e));
+                fresh.add(c);
+                added[i] = true;
+            }
+            conflictGraph.registerAll(fresh);
+            for (Course c : fresh) {
+                openSeats.set(courseIds.intern(c.getCode()), true);
+                stateLog.courseAdded(c);
+                trace.courseAdded(c);
+                analytics.courseAdded(c.getCode(), c.getCapacity());
+            }
+        } finally {
+            versions.exit(e);
+            for (int i = nc - 1; i >= 0; i--) courseLocks.lockAt(i).unlock();
+        }
+        commit();
+        return added;
+    }
+
+    /**
+     * Adds a meeting time to an existing course, updating the conflict graph and
+     * the schedules of students already enrolled. Returns false if the course is
+     * unknown or already meets at that time.
+     *
+     * @throws IllegalStateException if the time overlaps another course of an
+     *         enrolled student (the message names them); nothing is changed
+     */
+    public boolean addMeetingTime(String code, TimeSlot t) {
+        stateLog.checkWritable();
+        Course c = courses.get(code);
+        if (c == null) return false;
+        Lock courseLock = courseLocks.lockFor(code);
+        courseLock.lock();
+        long e = beginWrite(c);
+        try {
+            if (c.getMeetingTimes().contains(t)) return false;
+            List<Student> enrolled = new ArrayList<>(c.enrolledCount());
+            for (String sid : c.getEnrolledStudentIds()) {
+                Student s = students.get(sid);
+                if (s != null) enrolled.add(s);
+            }
+            // Hold every enrolled student's stripe (in stripe order) so none of them
+            // enrolls in a clashing course between the check and the new edges
+            int[] stripes = new int[enrolled.size()];
+            for (int i = 0; i < stripes.length; i++) stripes[i] = studentLocks.indexFor(enrolled.get(i).getId());
+            Arrays.sort(stripes);
+            int distinct = 0;
+            for (int i = 0; i < stripes.length; i++) {
+                if (i == 0 || stripes[i] != stripes[i - 1]) stripes[distinct++] = stripes[i];
+            }
+            int locked = 0;
+            try {
+                for (; locked < distinct; locked++) studentLocks.lockAt(stripes[locked]).lock();
+                List<String> clashing = conflictGraph.addMeetingTime(c, t, enrolled);
+                if (!clashing.isEmpty()) {
+                    throw new IllegalStateException(t + " would double-book students enrolled in " + code + ": "
+                            + (clashing.size() <= 10 ? clashing : clashing.subList(0, 10) + " and "
+                            + (clashing.size() - 10) + " more"));
+                }
+                stateLog.meetingTimeAdded(code, t);
+                trace.meetingTimeAdded(code, t);
+                for (Student s : enrolled) s.addToSchedule(Collections.singleton(t));
+            } finally {
+                while (locked > 0) studentLocks.lockAt(stripes[--locked]).unlock();
+            }
+        } finally {
+            endWrite(c, e);
+            courseLock.unlock();
+        }
+        commit();
+        return true;
+    }
+
+    /**
+     * Changes a course's capacity; false if the course is unknown. Raising
+     * it fills the new seats from the waitlist in the background. Lowering
+     * it below the current enrollment keeps everyone enrolled; no new seats
+     * open until enough students drop.
+     */
+    public boolean setCapacity(String code, int capacity) {
+        stateLog.checkWritable();
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        Course c = courses.get(code);
+        if (c == null) return false;
+        Lock courseLock = courseLocks.lockFor(code);
+        courseLock.lock();
+        long e = beginWrite(c);
+        try {
+            if (c.getCapacity() == capacity) return true;
+            c.setCapacity(capacity);
+            stateLog.capacityChanged(code, capacity);
+            analytics.capacityChanged(code, capacity);
+            trace.capacityChanged(code, capacity);
+            if (c.seatsRemaining() > 0 && c.waitlistSize() > 0) signalPromotion(code);
+        } finally {
+            endWrite(c, e);
+            courseLock.unlock();
+        }
+        commit();
         return true;
     }
 
     public Course getCourse(String code) { return courses.get(code); }
 
+    /** A consistent copy of a course, roster and waitlist, or null if unknown. */
+    public CourseView viewCourse(String code) {
+        Course c = courses.get(code);
+        if (c == null) return null;
+        Lock courseLock = courseLocks.lockFor(code);
+        courseLock.lock();
+        try {
+            return new CourseView(c);
+        } finally {
+            courseLock.unlock();
+        }
+    }
+
+    /** Codes of courses whose meeting times overlap the given course (empty if unknown). */
+    public Set<String> conflictingCourses(String code) {
+        return conflictGraph.neighboursOf(code);
+    }
+
+    // --- Open-course search ---
+
+    /** Candidate count from which findOpenCourses scans in parallel. */
+    static final int PARALLEL_SEARCH_THRESHOLD = 4096;
+
+    /**
+     * Courses a student could enroll in right now: at least
+     * {@code filter.getMinSeats()} open seats, no overlap with the student's
+     * current courses, and every meeting inside the filter's days and window.
+     * Results come in course-code order, at most {@code filter.getLimit()}.
+     * Empty for an unknown student.
+     *
+     * Starts from the open-seat index and removes the student's courses and
+     * their conflict-graph neighbours with a few word-wise BitSet operations,
+     * so only open, non-conflicting courses are looked at. Seat counts are
+     * read without locks, so a result can be a seat out of date by the time
+     * the caller enrolls; enroll() still decides.
+     */
+    public List<Course> findOpenCourses(String studentId, CourseFilter filter) {
+        Student s = students.get(studentId);
+        if (s == null) return Collections.emptyList();
+        BitSet candidates = openSeats.toBitSet();
+        Lock studentLock = studentLocks.lockFor(studentId);
+        studentLock.lock();
+        try {
+            for (String code : s.getEnrolledCourses()) {
+                candidates.clear(courseIds.handleOf(code));
+                conflictGraph.clearNeighbours(code, candidates);
+            }
+        } finally {
+            studentLock.unlock();
+        }
+
+        CodeIndex index = codeIndex();
+        int n = index.codes.length;
+        int count = candidates.cardinality();
+        if (count < PARALLEL_SEARCH_THRESHOLD || n < 2) {
+            return scanOpen(index, 0, n, candidates, filter, Math.min(count, filter.getLimit()));
+        }
+        int chunks = Math.min(n, ForkJoinPool.getCommonPoolParallelism() * 4);
+        List<List<Course>> parts = IntStream.range(0, chunks).parallel()
+                .mapToObj(k -> scanOpen(index, (int) ((long) n * k / chunks), (int) ((long) n * (k + 1) / chunks),
+                        candidates, filter, Math.min(count / chunks, filter.getLimit())))
+                .collect(Collectors.toList());
+        List<Course> out = new ArrayList<>(Math.min(count, filter.getLimit()));
+        for (List<Course> part : parts) {
+            for (Course c : part) {
+                if (out.size() == filter.getLimit()) return out;
+                out.add(c);
+            }
+        }
+        return out;
+    }
+
+    /** Checks courses [from, to) of the code index against the candidates and filter. */
+    private List<Course> scanOpen(CodeIndex index, int from, int to, BitSet candidates, CourseFilter filter,
+                                  int expected) {
+        List<Course> out = new ArrayList<>(expected);
+        boolean timed = filter.restrictsTime();
+        int minSeats = filter.getMinSeats();
+        for (int i = from; i < to && out.size() < filter.getLimit(); i++) {
+            if (!candidates.get(index.handles[i])) continue;
+            Course c = index.courses[i];
+            // The open bit already means one seat; only look at the course when the filter needs it
+            if (minSeats > 1 && c.seatsRemaining() < minSeats) continue;
+            if (timed && !filter.admitsTimes(c)) continue;
+            out.add(c);
+        }
+        return out;
+    }
+
     public Collection<Student> listStudents() { return Collections.unmodifiableCollection(students.values()); }
     public Collection<Course> listCourses() { return Collections.unmodifiableCollection(courses.values()); }
 
     // --- Enrollment ---
     public enum EnrollResult {
-        ENROLLED, ADDED_TO_WAITLIST, CONFLICT, ALREADY_ENROLLED, NO_SUCH_STUDENT, NO_SUCH_COURSE
+        ENROLLED, ADDED_TO_WAITLIST, CONFLICT, ALREADY_ENROLLED, ALREADY_WAITLISTED, NO_SUCH_STUDENT, NO_SUCH_COURSE,
+        /** Recorded for an open Lottery; the draw decides. */
+        IN_LOTTERY,
+        /** Shed by AdmissionControl: the student is over their request rate. */
+        RATE_LIMITED,
+        /** Shed by AdmissionControl: no slot freed up in time. */
+        OVERLOADED
     }
 
     /**
      * Tries to enroll student into course. If seat unavailable, adds to waitlist.
-     * Uses PriorityQueue in Course. Checks Student schedule conflicts.
+     * Uses the indexed waitlist in Course. Checks Student schedule conflicts.
+     * The seat check and the seat grab happen under the course lock.
+     * While a lottery is open, only records the request (IN_LOTTERY); while
+     * one is being drawn, waits for the draw.
      */
     public EnrollResult enroll(String studentId, String courseCode, int priority) {
+        OperationMetrics m = metrics;
+        if (m == OperationMetrics.NONE) return doEnroll(studentId, courseCode, priority);
+        long t0 = System.nanoTime();
+        EnrollResult result = doEnroll(studentId, courseCode, priority);
+        m.enrollCompleted(result, System.nanoTime() - t0);
+        return result;
+    }
+
+    /**
+     * enroll() with a client-chosen idempotency key: the first call with a
+     * key runs, later calls with the same key (while it is remembered) get
+     * the first call's result without enrolling again. A null key is a
+     * plain enroll().
+     *
+     * @throws IllegalArgumentException if the key was used for a different request
+     */
+    public EnrollResult enroll(String studentId, String courseCode, int priority, String idempotencyKey) {
+        if (idempotencyKey == null) return enroll(studentId, courseCode, priority);
+        return idempotency.execute(idempotencyKey, enrollFingerprint(studentId, courseCode, priority),
+                () -> enroll(studentId, courseCode, priority));
+    }
+
+    /** The idempotency cache in use; AdmissionControl checks it before shedding. */
+    IdempotencyCache idempotencyCache() { return idempotency; }
+
+    /** Reports an enroll that AdmissionControl shed without calling enroll(). */
+    void enrollShed(EnrollResult result) { metrics.enrollShed(result); }
+
+    static String enrollFingerprint(String studentId, String courseCode, int priority) {
+        return "enroll\n" + studentId + "\n" + courseCode + "\n" + priority;
+    }
+
+    static String dropFingerprint(String studentId, String courseCode) {
+        return "drop\n" + studentId + "\n" + courseCode;
+    }
+
+    private EnrollResult doEnroll(String studentId, String courseCode, int priority) {
+        stateLog.checkWritable();
         Student s = students.get(studentId);
-        if (s == null) return EnrollResult.NO_SUCH_STUDENT;
+        if (s == null) return notFound(studentId, courseCode, priority, EnrollResult.NO_SUCH_STUDENT);
         Course c = courses.get(courseCode);
-        if (c == null) return EnrollResult.NO_SUCH_COURSE;
-        if (c.isEnrolled(studentId)) return EnrollResult.ALREADY_ENROLLED;
+        if (c == null) return notFound(studentId, courseCode, priority, EnrollResult.NO_SUCH_COURSE);
+        Lottery open = lottery.get();
+        if (open != null && open.submit(new EnrollRequest(studentId, courseCode, priority))) {
+            return EnrollResult.IN_LOTTERY;
+        }
+        return enrollAt(s, c, priority, System.currentTimeMillis());
+    }
 
-        // Conflict check
-        if (s.hasConflict(c.getMeetingTimes())) return EnrollResult.CONFLICT;
+    /** Reports an enroll that named an unknown student or course; no locks are held. */
+    private EnrollResult notFound(String studentId, String courseCode, int priority, EnrollResult result) {
+        trace.enrolled(studentId, courseCode, priority, 0, result);
+        return result;
+    }
 
-        // Try to enroll
-        if (c.seatsRemaining() > 0) {
-            if (c.enroll(studentId)) {
-                s.addCourse(courseCode);
+    /** Enrolls under the course and student locks, stamping a waitlist entry with requestTimeMs. */
+    private EnrollResult enrollAt(Student s, Course c, int priority, long requestTimeMs) {
+        EnrollResult result;
+        Lock courseLock = courseLocks.lockFor(c.getCode());
+        Lock studentLock = studentLocks.lockFor(s.getId());
+        courseLock.lock();
+        long e = beginWrite(c);
+        try {
+            studentLock.lock();
+            try {
+                result = enrollLocked(s, c, priority, requestTimeMs);
+            } finally {
+                studentLock.unlock();
+            }
+        } finally {
+            endWrite(c, e);
+            courseLock.unlock();
+        }
+        publishEvents(c.getCode());
+        if (result == EnrollResult.ENROLLED || result == EnrollResult.ADDED_TO_WAITLIST) {
+            commit();
+        }
+        return result;
+    }
+
+    /** Enrollment body; caller holds the course lock and the student lock. */
+    private EnrollResult enrollLocked(Student s, Course c, int priority, long requestTimeMs) {
+        EnrollResult result = seatOrWaitlist(s, c, priority, requestTimeMs);
+        trace.enrolled(s.getId(), c.getCode(), priority, requestTimeMs, result);
+        return result;
+    }
+
+    private EnrollResult seatOrWaitlist(Student s, Course c, int priority, long requestTimeMs) {
+        if (c.isEnrolled(s.getId())) return EnrollResult.ALREADY_ENROLLED;
+        if (c.isWaitlisted(s.getId())) return EnrollResult.ALREADY_WAITLISTED;
+
+        // Conflict check: does any enrolled course neighbour this one in the graph?
+        if (hasConflict(s, c)) {
+            AnalyticsSink a = analytics;
+            if (a != AnalyticsSink.NONE) {
+                a.conflicted(s.getId(), c.getCode(), conflictGraph.firstConflict(c.getCode(), s));
+            }
+            return EnrollResult.CONFLICT;
+        }
+
+        // Try to enroll; a free seat goes to the waitlist first if anyone is on it
+        if (c.seatsRemaining() > 0 && c.waitlistSize() == 0) {
+            if (c.enroll(s.getId())) {
+                s.addCourse(c.getCode());
                 s.addToSchedule(c.getMeetingTimes());
+                stateLog.seated(c.getCode(), s.getId());
+                analytics.seated(c.getCode(), s.getId());
+                emit(RegistrarEvent.Type.ENROLLED, c.getCode(), s.getId(), priority);
                 return EnrollResult.ENROLLED;
             }
         }
 
         // Add to waitlist with priority & timestamp
-        c.addToWaitlist(new WaitlistEntry(studentId, priority, System.currentTimeMillis()));
+        WaitlistEntry entry = new WaitlistEntry(s.getId(), priority, requestTimeMs, waitlistSequence.incrementAndGet());
+        c.addToWaitlist(entry);
+        stateLog.waitlisted(c.getCode(), entry);
+        analytics.waitlisted(c.getCode(), s.getId());
+        emit(RegistrarEvent.Type.WAITLISTED, c.getCode(), s.getId(), priority);
+        if (c.seatsRemaining() > 0) signalPromotion(c.getCode()); // a pass is normally queued already
         return EnrollResult.ADDED_TO_WAITLIST;
     }
 
-    /** Drops a student from a course and attempts to auto-fill from waitlist. */
+    /**
+     * Batch enrollment. Requests are grouped by course and the groups run in
+     * parallel on the common fork-join pool; each group takes its course lock
+     * once. Within a course, requests are served by priority, then by their
+     * position in the list. Returns one result per request, in request order.
+     */
+    public EnrollResult[] enrollAll(List<EnrollRequest> requests) {
+        OperationMetrics m = metrics;
+        if (m == OperationMetrics.NONE) return doEnrollAll(requests);
+        long t0 = System.nanoTime();
+        EnrollResult[] results = doEnrollAll(requests);
+        m.enrollBatchCompleted(results, System.nanoTime() - t0);
+        return results;
+    }
+
+    private EnrollResult[] doEnrollAll(List<EnrollRequest> requests) {
+        stateLog.checkWritable();
+        int n = requests.size();
+        EnrollResult[] results = new EnrollResult[n];
+        Student[] resolved = new Student[n];
+        int[] groupOf = new int[n];
+        Map<String, Integer> groupIds = new HashMap<>();
+        List<Course> groupCourses = new ArrayList<>();
+        int[] counts = new int[16];
+
+        for (int i = 0; i < n; i++) {
+            EnrollRequest r = requests.get(i);
+            groupOf[i] = -1;
+            resolved[i] = students.get(r.getStudentId());
+            Course c;
+            if (resolved[i] == null) {
+                results[i] = EnrollResult.NO_SUCH_STUDENT;
+            } else if ((c = courses.get(r.getCourseCode())) == null) {
+                results[i] = EnrollResult.NO_SUCH_COURSE;
+            } else {
+                Integer g = groupIds.get(c.getCode());
+                if (g == null) {
+                    g = groupCourses.size();
+                    groupIds.put(c.getCode(), g);
+                    groupCourses.add(c);
+                    if (g == counts.length) counts = Arrays.copyOf(counts, g * 2);
+                }
+                groupOf[i] = g;
+                counts[g]++;
+            }
+        }
+
+        // Counting sort into one array of (priority << 32 | index) keys, one slice per course
+        int groups = groupCourses.size();
+        int[] start = new int[groups + 1];
+        for (int g = 0; g < groups; g++) start[g + 1] = start[g] + counts[g];
+        int[] fill = Arrays.copyOf(start, groups);
+        long[] keys = new long[start[groups]];
+        for (int i = 0; i < n; i++) {
+            if (groupOf[i] >= 0) {
+                keys[fill[groupOf[i]]++] = ((long) requests.get(i).getPriority() << 32) | i;
+            }
+        }
+
+        long requestTimeMs = System.currentTimeMillis();
+        IntStream.range(0, groups).parallel().forEach(g -> {
+            Arrays.sort(keys, start[g], start[g + 1]);
+            enrollGroup(groupCourses.get(g), keys, start[g], start[g + 1],
+                    requests, resolved, results, requestTimeMs);
+        });
+        commit();
+        return results;
+    }
+
+    // --- Lottery ---
+
+    /**
+     * Opens a registration lottery: until its {@link Lottery#draw()}, enroll()
+     * records requests instead of seating anyone, and an enroll() that
+     * arrives while the draw runs waits for it to finish. enrollAll and
+     * enrollSchedule are not affected.
+     *
+     * The draw shuffles all requests with the seed and assigns them in rounds:
+     * round r holds every student's r-th request (in the order that student
+     * sent them), so everybody's first choice is placed before anybody's
+     * second. Within a round, each course takes its requests by priority
+     * (lower first), then by shuffled position, checking conflicts and seats
+     * as enroll() does; the rest go to the waitlist, stamped with the draw
+     * time so that waitlist order follows the draw. Courses are assigned in
+     * parallel; a student has at most one request per round, so the outcome
+     * depends only on the campus, the requests and the seed.
+     *
+     * @throws IllegalStateException if a lottery is already open
+     */
+    public Lottery openLottery(long seed) {
+        Lottery l = new Lottery(this, seed);
+        if (!lottery.compareAndSet(null, l)) throw new IllegalStateException("a lottery is already open");
+        return l;
+    }
+
+    EnrollResult[] drawLottery(Lottery l) {
+        List<EnrollRequest> submitted = l.close();
+        try {
+            return draw(l, submitted);
+        } finally {
+            // Only now may enroll() seat first-come; until here it waits in Lottery.submit
+            lottery.compareAndSet(l, null);
+            l.drawn();
+        }
+    }
+
+    private EnrollResult[] draw(Lottery l, List<EnrollRequest> submitted) {
+        stateLog.checkWritable();
+        OperationMetrics m = metrics;
+        long t0 = m == OperationMetrics.NONE ? 0 : System.nanoTime();
+        int n = submitted.size();
+
+        // Canonical order (student ID, then that student's own order), independent of interleaving.
+        // Each student's requests are chained in arrival order; {first, last} per student.
+        Map<String, int[]> chains = new HashMap<>();
+        int[] next = new int[n];
+        for (int i = 0; i < n; i++) {
+            int[] chain = chains.get(submitted.get(i).getStudentId());
+            if (chain == null) {
+                chains.put(submitted.get(i).getStudentId(), new int[] {i, i});
+            } else {
+                next[chain[1]] = i;
+                chain[1] = i;
+            }
+        }
+        String[] ids = chains.keySet().toArray(new String[0]);
+        Arrays.parallelSort(ids);
+        int[] order = new int[n];
+        int[] round = new int[n];
+        int rounds = 0;
+        int p = 0;
+        for (String id : ids) {
+            int[] chain = chains.get(id);
+            for (int i = chain[0], r = 0; ; i = next[i], r++) {
+                order[p++] = i;
+                round[i] = r;
+                rounds = Math.max(rounds, r + 1);
+                if (i == chain[1]) break;
+            }
+        }
+
+        // Shuffle into ticket order; from here on a request's index is its ticket
+        SplittableRandom rnd = new SplittableRandom(l.getSeed());
+        for (p = n - 1; p > 0; p--) {
+            int q = rnd.nextInt(p + 1);
+            int t = order[p];
+            order[p] = order[q];
+            order[q] = t;
+        }
+        Student[] studentOf = new Student[n];
+        Course[] courseOf = new Course[n];
+        for (int i = 0; i < n; i++) {
+            EnrollRequest r = submitted.get(i);
+            studentOf[i] = students.get(r.getStudentId());
+            courseOf[i] = courses.get(r.getCourseCode());
+        }
+        List<EnrollRequest> tickets = new ArrayList<>(n);
+        Student[] resolved = new Student[n];
+        Course[] target = new Course[n];
+        int[] roundOf = new int[n];
+        EnrollResult[] results = new EnrollResult[n];
+        int[] perRound = new int[rounds + 1];
+        for (int t = 0; t < n; t++) {
+            int i = order[t];
+            tickets.add(submitted.get(i));
+            resolved[t] = studentOf[i];
+            target[t] = courseOf[i];
+            roundOf[t] = round[i];
+            if (resolved[t] == null) results[t] = EnrollResult.NO_SUCH_STUDENT;
+            else if (target[t] == null) results[t] = EnrollResult.NO_SUCH_COURSE;
+            else perRound[roundOf[t] + 1]++;
+        }
+
+        // Tickets of each round, in ticket order
+        for (int r = 0; r < rounds; r++) perRound[r + 1] += perRound[r];
+        int[] byRound = new int[perRound[rounds]];
+        int[] fill = Arrays.copyOf(perRound, rounds);
+        for (int t = 0; t < n; t++) {
+            if (results[t] == null) byRound[fill[roundOf[t]]++] = t;
+        }
+
+        long requestTimeMs = System.currentTimeMillis();
+        for (int r = 0; r < rounds; r++) {
+            drawRound(byRound, perRound[r], perRound[r + 1], tickets, resolved, target, results, requestTimeMs);
+        }
+
+        EnrollResult[] out = new EnrollResult[n];
+        for (int t = 0; t < n; t++) out[order[t]] = results[t];
+        commit();
+        if (m != OperationMetrics.NONE) m.lotteryDrawn(out, System.nanoTime() - t0);
+        return out;
+    }
+
+    /** One lottery round: tickets[from, to) of byRound grouped by course, courses in parallel. */
+    private void drawRound(int[] byRound, int from, int to, List<EnrollRequest> tickets, Student[] resolved,
+                           Course[] target, EnrollResult[] results, long requestTimeMs) {
+        Map<Course, Integer> groupIds = new HashMap<>();
+        List<Course> groupCourses = new ArrayList<>();
+        int[] groupOf = new int[to - from];
+        int[] counts = new int[16];
+        for (int k = from; k < to; k++) {
+            Course c = target[byRound[k]];
+            Integer g = groupIds.get(c);
+            if (g == null) {
+                g = groupCourses.size();
+                groupIds.put(c, g);
+                groupCourses.add(c);
+                if (g == counts.length) counts = Arrays.copyOf(counts, g * 2);
+            }
+            groupOf[k - from] = g;
+            counts[g]++;
+        }
+        int groups = groupCourses.size();
+        int[] start = new int[groups + 1];
+        for (int g = 0; g < groups; g++) start[g + 1] = start[g] + counts[g];
+        int[] next = Arrays.copyOf(start, groups);
+        long[] keys = new long[to - from];
+        for (int k = from; k < to; k++) {
+            int t = byRound[k];
+            keys[next[groupOf[k - from]]++] = ((long) tickets.get(t).getPriority() << 32) | t;
+        }
+        IntStream.range(0, groups).parallel().forEach(g -> {
+            Arrays.sort(keys, start[g], start[g + 1]);
+            enrollGroup(groupCourses.get(g), keys, start[g], start[g + 1], tickets, resolved, results, requestTimeMs);
+        });
+    }
+
+    /** Runs one course's slice of a batch under a single hold of the course lock. */
+    private void enrollGroup(Course c, long[] keys, int from, int to, List<EnrollRequest> requests,
+                             Student[] resolved, EnrollResult[] results, long requestTimeMs) {
+        Lock courseLock = courseLocks.lockFor(c.getCode());
+        courseLock.lock();
+        long e = beginWrite(c);
+        try {
+            for (int k = from; k < to; k++) {
+                int i = (int) keys[k];
+                Student s = resolved[i];
+                Lock studentLock = studentLocks.lockFor(s.getId());
+                studentLock.lock();
+                try {
+                    results[i] = enrollLocked(s, c, requests.get(i).getPriority(), requestTimeMs);
+                } finally {
+                    studentLock.unlock();
+                }
+            }
+        } finally {
+            endWrite(c, e);
+            courseLock.unlock();
+        }
+        publishEvents(c.getCode());
+    }
+
+    // --- Schedules ---
+
+    /** Starts a wishlist of conflict-free schedules for a student; see ScheduleBuilder. */
+    public ScheduleBuilder scheduleBuilder(String studentId) {
+        return new ScheduleBuilder(this, studentId);
+    }
+
+    /**
+     * Enrolls a student in all of the given courses or in none of them.
+     * Returns false, changing nothing, if the student or a course is unknown,
+     * a code repeats, a course is full, the student is already in it or on
+     * its waitlist, or two courses (or a course and the student's schedule)
+     * overlap. Never waitlists.
+     *
+     * Holds every course stripe involved (in ascending order), then the
+     * student stripe, and writes all courses in one snapshot section, so
+     * other threads and snapshots see either the whole schedule or none of
+     * it. The state log still records the seats one by one.
+     */
+    public boolean enrollSchedule(String studentId, Collection<String> courseCodes) {
+        stateLog.checkWritable();
+        Student s = students.get(studentId);
+        if (s == null || courseCodes.isEmpty()) {
+            trace.scheduleEnrolled(studentId, courseCodes, false);
+            return false;
+        }
+        Course[] cs = new Course[courseCodes.size()];
+        Set<String> seen = new HashSet<>();
+        int n = 0;
+        for (String code : courseCodes) {
+            Course c = courses.get(code);
+            if (c == null || !seen.add(code)) {
+                trace.scheduleEnrolled(studentId, courseCodes, false);
+                return false;
+            }
+            cs[n++] = c;
+        }
+        int[] stripes = new int[n];
+        for (int i = 0; i < n; i++) stripes[i] = courseLocks.indexFor(cs[i].getCode());
+        Arrays.sort(stripes);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || stripes[i] != stripes[i - 1]) stripes[distinct++] = stripes[i];
+        }
+
+        boolean enrolled = false;
+        int locked = 0;
+        try {
+            for (; locked < distinct; locked++) courseLocks.lockAt(stripes[locked]).lock();
+            long e = versions.enter();
+            try {
+                for (Course c : cs) saveForSnapshots(c, e);
+                Lock studentLock = studentLocks.lockFor(studentId);
+                studentLock.lock();
+                try {
+                    if (scheduleFits(s, cs)) {
+                        for (Course c : cs) {
+                            c.enroll(studentId);
+                            s.addCourse(c.getCode());
+                            s.addToSchedule(c.getMeetingTimes());
+                            stateLog.seated(c.getCode(), studentId);
+                            analytics.seated(c.getCode(), studentId);
+                            emit(RegistrarEvent.Type.ENROLLED, c.getCode(), studentId, 0);
+                        }
+                        enrolled = true;
+                    }
+                    trace.scheduleEnrolled(studentId, courseCodes, enrolled);
+                } finally {
+                    studentLock.unlock();
+                }
+            } finally {
+                for (Course c : cs) refreshOpenSeat(c);
+                versions.exit(e);
+            }
+        } finally {
+            while (locked > 0) courseLocks.lockAt(stripes[--locked]).unlock();
+        }
+        if (enrolled) {
+            for (Course c : cs) publishEvents(c.getCode());
+            commit();
+        }
+        return enrolled;
+    }
+
+    /** Caller holds every course's lock and the student's lock. */
+    private boolean scheduleFits(Student s, Course[] cs) {
+        for (int i = 0; i < cs.length; i++) {
+            Course c = cs[i];
+            if (c.seatsRemaining() == 0 || c.waitlistSize() > 0 || c.isEnrolled(s.getId()) || c.isWaitlisted(s.getId())
+                    || hasConflict(s, c)) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (conflictGraph.conflicts(c.getCode(), cs[j].getCode())) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * For each course: could the student take it, i.e. not already in it and
+     * no overlap with the student's schedule. Null for an unknown student.
+     * Seats and waitlists are course state and are not looked at.
+     */
+    boolean[] fitsStudent(String studentId, List<Course> candidates) {
+        Student s = students.get(studentId);
+        if (s == null) return null;
+        boolean[] fits = new boolean[candidates.size()];
+        Lock studentLock = studentLocks.lockFor(studentId);
+        studentLock.lock();
+        try {
+            Set<String> enrolled = s.getEnrolledCourses();
+            for (int i = 0; i < fits.length; i++) {
+                Course c = candidates.get(i);
+                fits[i] = !enrolled.contains(c.getCode()) && !hasConflict(s, c);
+            }
+        } finally {
+            studentLock.unlock();
+        }
+        return fits;
+    }
+
+    /** True if the two courses' meeting times overlap. */
+    boolean coursesConflict(String a, String b) {
+        return conflictGraph.conflicts(a, b);
+    }
+
+    /** Caller holds the student's lock. */
+    private boolean hasConflict(Student s, Course c) {
+        return conflictGraph.conflictsWithAny(c.getCode(), s);
+    }
+
+    /**
+     * Drops a student from a course. The freed seat is filled from the
+     * waitlist in the background (see {@link #awaitPromotions()}), so the
+     * call costs the same however long the waitlist is.
+     */
     public boolean drop(String studentId, String courseCode) {
+        OperationMetrics m = metrics;
+        if (m == OperationMetrics.NONE) return doDrop(studentId, courseCode);
+        long t0 = System.nanoTime();
+        boolean dropped = doDrop(studentId, courseCode);
+        m.dropCompleted(dropped, System.nanoTime() - t0);
+        return dropped;
+    }
+
+    /**
+     * drop() with a client-chosen idempotency key; a retry gets the first
+     * call's answer. See {@link #enroll(String, String, int, String)}.
+     */
+    public boolean drop(String studentId, String courseCode, String idempotencyKey) {
+        if (idempotencyKey == null) return drop(studentId, courseCode);
+        return idempotency.execute(idempotencyKey, dropFingerprint(studentId, courseCode),
+                () -> drop(studentId, courseCode));
+    }
+
+    private boolean doDrop(String studentId, String courseCode) {
+        stateLog.checkWritable();
         Student s = students.get(studentId);
         Course c = courses.get(courseCode);
-        if (s == null || c == null) return false;
+        if (s == null || c == null) {
+            trace.dropped(studentId, courseCode, false);
+            return false;
+        }
 
-        if (!c.drop(studentId)) return false;
+        Lock courseLock = courseLocks.lockFor(courseCode);
+        courseLock.lock();
+        long e = beginWrite(c);
+        try {
+            Lock studentLock = studentLocks.lockFor(studentId);
+            studentLock.lock();
+            try {
+                boolean dropped = c.drop(studentId);
+                trace.dropped(studentId, courseCode, dropped);
+                if (!dropped) return false;
+
+                s.removeCourse(courseCode);
+                s.removeFromSchedule(c.getMeetingTimes());
+                stateLog.unseated(courseCode, studentId);
+                analytics.unseated(courseCode, studentId);
+                emit(RegistrarEvent.Type.DROPPED, courseCode, studentId, 0);
+            } finally {
+                studentLock.unlock();
+            }
+
+            if (c.waitlistSize() > 0) signalPromotion(courseCode);
+        } finally {
+            endWrite(c, e);
+            courseLock.unlock();
+        }
+        publishEvents(courseCode);
+        commit();
+        return true;
+    }
+
+    /**
+     * Promotion pass over a batch of courses, run by the PromotionEngine
+     * worker: each course is filled under its own lock, and one durability
+     * wait covers the whole batch.
+     */
+    private void promoteCourses(List<String> courseCodes) {
+        stateLog.checkWritable();
+        for (String code : courseCodes) {
+            Course c = courses.get(code);
+            Lock courseLock = courseLocks.lockFor(code);
+            courseLock.lock();
+            long e = beginWrite(c);
+            try {
+                fillFromWaitlist(c);
+            } finally {
+                endWrite(c, e);
+                courseLock.unlock();
+            }
+            publishEvents(code);
+        }
+        commit();
+    }
+
+    /**
+     * Blocks until every seat freed before the call has been offered to the
+     * waitlist, e.g. before reading a roster that a drop should have refilled.
+     * Seats freed by other callers meanwhile do not make it wait longer.
+     */
+    public void awaitPromotions() throws InterruptedException {
+        promotions.awaitIdle();
+    }
+
+    /** Courses waiting for a promotion pass. */
+    public int pendingPromotions() {
+        return promotions.pending();
+    }
+
+    /**
+     * Queues a promotion pass for every course with free seats and a
+     * waitlist, e.g. after recovery replayed drops whose promotions were not
+     * logged yet.
+     */
+    public void promoteWaitlists() {
+        stateLog.checkWritable();
+        for (Course c : courses.values()) {
+            Lock courseLock = courseLocks.lockFor(c.getCode());
+            courseLock.lock();
+            try {
+                if (c.seatsRemaining() > 0 && c.waitlistSize() > 0) signalPromotion(c.getCode());
+            } finally {
+                courseLock.unlock();
+            }
+        }
+    }
 
-        s.removeCourse(courseCode);
-        s.removeFromSchedule(c.getMeetingTimes());
+    /**
+     * Seats waitlisted students in waitlist order while the course has room.
+     * Caller holds the course lock; each candidate's lock is taken only while
+     * it is examined.
+     */
+    private void fillFromWaitlist(Course c) {
+        OperationMetrics m = metrics;
+        int open;
+        while ((open = c.seatsRemaining()) > 0 && c.waitlistSize() > 0) {
+            // Take as many candidates as there are seats; skipped ones leave room for another round
+            for (WaitlistEntry next : c.pollWaitlist(open)) {
+                promoteCandidate(c, next, m);
+            }
+        }
+    }
 
-        // Try to seat next from waitlist
-        while (c.seatsRemaining() > 0 && c.waitlistSize() > 0) {
-            WaitlistEntry next = c.pollWaitlist();
-            if (next == null) break;
+    /**
+     * Offers a seat to a candidate just taken off the course's waitlist;
+     * skips them if they are gone or now have a conflict. Caller holds the
+     * course lock.
+     */
+    private void promoteCandidate(Course c, WaitlistEntry next, OperationMetrics m) {
+        stateLog.waitlistRemoved(c.getCode(), next);
+        analytics.waitlistRemoved(c.getCode(), next.getStudentId());
 
-            Student candidate = students.get(next.getStudentId());
-            if (candidate == null) continue; // stale entry
+        Student candidate = students.get(next.getStudentId());
+        if (candidate == null) { // stale entry
+            m.promotionSkipped(c.getCode(), OperationMetrics.SkipReason.STALE);
+            trace.promotionTried(c.getCode(), next.getStudentId(), false);
+            return;
+        }
 
+        Lock candidateLock = studentLocks.lockFor(candidate.getId());
+        candidateLock.lock();
+        try {
             // Skip if candidate has conflict now
-            if (candidate.hasConflict(c.getMeetingTimes())) {
-                // Optionally: notify candidate; for now, ignore
-                continue;
+            if (hasConflict(candidate, c)) {
+                m.promotionSkipped(c.getCode(), OperationMetrics.SkipReason.CONFLICT);
+                emit(RegistrarEvent.Type.PROMOTION_SKIPPED_CONFLICT, c.getCode(), candidate.getId(),
+                        next.getPriority());
+                trace.promotionTried(c.getCode(), candidate.getId(), false);
+                return;
             }
 
             // Enroll candidate
-            if (c.enroll(candidate.getId())) {
-                candidate.addCourse(courseCode);
+            boolean seated = c.enroll(candidate.getId());
+            if (seated) {
+                candidate.addCourse(c.getCode());
                 candidate.addToSchedule(c.getMeetingTimes());
+                stateLog.seated(c.getCode(), candidate.getId());
+                analytics.seated(c.getCode(), candidate.getId());
+                m.promoted(c.getCode());
+                emit(RegistrarEvent.Type.PROMOTED_FROM_WAITLIST, c.getCode(), candidate.getId(),
+                        next.getPriority());
             }
+            trace.promotionTried(c.getCode(), candidate.getId(), seated);
+        } finally {
+            candidateLock.unlock();
         }
+    }
+
+    /** Queues a promotion pass for a course, unless a replay drives promotions itself. */
+    private void signalPromotion(String courseCode) {
+        if (!manualPromotion) promotions.signal(courseCode);
+    }
+
+    // --- Waitlist APIs ---
 
+    /** Withdraws a student from a course's waitlist; false if they were not waiting. */
+    public boolean leaveWaitlist(String studentId, String courseCode) {
+        OperationMetrics m = metrics;
+        if (m == OperationMetrics.NONE) return doLeaveWaitlist(studentId, courseCode);
+        long t0 = System.nanoTime();
+        boolean left = doLeaveWaitlist(studentId, courseCode);
+        m.waitlistLeft(left, System.nanoTime() - t0);
+        return left;
+    }
+
+    private boolean doLeaveWaitlist(String studentId, String courseCode) {
+        stateLog.checkWritable();
+        Course c = courses.get(courseCode);
+        if (c == null) {
+            trace.leftWaitlist(studentId, courseCode, false);
+            return false;
+        }
+        Lock courseLock = courseLocks.lockFor(courseCode);
+        courseLock.lock();
+        long e = beginWrite(c);
+        try {
+            WaitlistEntry removed = c.removeFromWaitlist(studentId);
+            trace.leftWaitlist(studentId, courseCode, removed != null);
+            if (removed == null) return false;
+            stateLog.waitlistRemoved(courseCode, removed);
+            analytics.waitlistRemoved(courseCode, studentId);
+        } finally {
+            endWrite(c, e);
+            courseLock.unlock();
+        }
+        commit();
         return true;
     }
 
+    /** 1-based waitlist position of a student, or -1 if not waiting (or unknown course). */
+    public int waitlistPosition(String studentId, String courseCode) {
+        Course c = courses.get(courseCode);
+        if (c == null) return -1;
+        Lock courseLock = courseLocks.lockFor(courseCode);
+        courseLock.lock();
+        try {
+            return c.waitlistPosition(studentId);
+        } finally {
+            courseLock.unlock();
+        }
+    }
+
+    /** The next k waitlist entries of a course, in promotion order. */
+    public List<WaitlistEntry> peekWaitlist(String courseCode, int k) {
+        Course c = courses.get(courseCode);
+        if (c == null) return Collections.emptyList();
+        Lock courseLock = courseLocks.lockFor(courseCode);
+        courseLock.lock();
+        try {
+            return c.peekWaitlist(k);
+        } finally {
+            courseLock.unlock();
+        }
+    }
+
+    // --- Persistence hooks ---
+    // Used by recovery to rebuild state without re-running business rules.
+    // They are not logged; attach the StateLog after recovery finishes.
+
+    /** Seats a student without conflict or capacity checks (recovery only). */
+    public void restoreSeat(String courseCode, String studentId) {
+        Course c = courses.get(courseCode);
+        Student s = students.get(studentId);
+        if (c == null || s == null) throw new IllegalStateException("unknown seat " + studentId + "@" + courseCode);
+        runLocked(courseCode, studentId, () -> {
+            if (c.restoreEnrollment(studentId)) {
+                s.addCourse(courseCode);
+                s.addToSchedule(c.getMeetingTimes());
+            }
+        });
+    }
+
+    /** Removes a seat without refilling from the waitlist (recovery only). */
+    public void restoreUnseat(String courseCode, String studentId) {
+        Course c = courses.get(courseCode);
+        Student s = students.get(studentId);
+        if (c == null || s == null) throw new IllegalStateException("unknown seat " + studentId + "@" + courseCode);
+        runLocked(courseCode, studentId, () -> {
+            if (c.drop(studentId)) {
+                s.removeCourse(courseCode);
+                s.removeFromSchedule(c.getMeetingTimes());
+            }
+        });
+    }
+
+    /** Sets a course's capacity without promoting anyone (recovery only). */
+    public void restoreCapacity(String courseCode, int capacity) {
+        Course c = courses.get(courseCode);
+        if (c == null) throw new IllegalStateException("unknown course " + courseCode);
+        Lock courseLock = courseLocks.lockFor(courseCode);
+        courseLock.lock();
+        long e = beginWrite(c);
+        try {
+            c.setCapacity(capacity);
+        } finally {
+            endWrite(c, e);
+            courseLock.unlock();
+        }
+    }
+
+    /** Re-inserts a waitlist entry with its original timestamp and sequence (recovery only). */
+    public void restoreWaitlistEntry(String courseCode, WaitlistEntry e) {
+        Course c = courses.get(courseCode);
+        if (c == null) throw new IllegalStateException("unknown course " + courseCode);
+        runLocked(courseCode, e.getStudentId(), () -> c.addToWaitlist(e));
+        waitlistSequence.accumulateAndGet(e.getSequence(), Math::max);
+    }
+
+    /** Removes the waitlist entry with the given sequence number (recovery only). */
+    public void restoreWaitlistRemoval(String courseCode, String studentId, long sequence) {
+        Course c = courses.get(courseCode);
+        if (c == null) throw new IllegalStateException("unknown course " + courseCode);
+        runLocked(courseCode, studentId, () -> {
+            WaitlistEntry e = c.getWaitlistEntry(studentId);
+            if (e != null && e.getSequence() == sequence) c.removeFromWaitlist(studentId);
+        });
+    }
+
+    // --- Replay hooks ---
+    // Used by com.registrar.trace to re-run a recorded workload call by call.
+
+    /**
+     * Turns background promotion off (or back on): freed seats are then
+     * filled only through replayPromotion, so a replay seats candidates at
+     * the points where the recording did (replay only).
+     */
+    public void setManualPromotion(boolean manual) {
+        this.manualPromotion = manual;
+    }
+
+    /**
+     * enroll() with a recorded request time; skips the lottery, metrics and
+     * idempotency keys (replay only).
+     */
+    public EnrollResult replayEnroll(String studentId, String courseCode, int priority, long requestTimeMs) {
+        stateLog.checkWritable();
+        Student s = students.get(studentId);
+        if (s == null) return notFound(studentId, courseCode, priority, EnrollResult.NO_SUCH_STUDENT);
+        Course c = courses.get(courseCode);
+        if (c == null) return notFound(studentId, courseCode, priority, EnrollResult.NO_SUCH_COURSE);
+        return enrollAt(s, c, priority, requestTimeMs);
+    }
+
+    /**
+     * Takes the head of a course's waitlist and offers them a seat, as one
+     * step of a promotion pass; returns their ID, or null if nobody is
+     * waiting. Whether they got the seat shows in the course's roster
+     * (replay only).
+     */
+    public String replayPromotion(String courseCode) {
+        stateLog.checkWritable();
+        Course c = courses.get(courseCode);
+        if (c == null) return null;
+        WaitlistEntry next;
+        Lock courseLock = courseLocks.lockFor(courseCode);
+        courseLock.lock();
+        long e = beginWrite(c);
+        try {
+            next = c.pollWaitlist();
+            if (next == null) return null;
+            promoteCandidate(c, next, metrics);
+        } finally {
+            endWrite(c, e);
+            courseLock.unlock();
+        }
+        publishEvents(courseCode);
+        commit();
+        return next.getStudentId();
+    }
+
+    /**
+     * Runs an action with every course and student stripe held, so nothing can
+     * change underneath it. Used to cut consistent snapshots; keep it short.
+     */
+    public <T> T runExclusive(Supplier<T> action) {
+        int nc = courseLocks.size(), ns = studentLocks.size();
+        for (int i = 0; i < nc; i++) courseLocks.lockAt(i).lock();
+        try {
+            for (int i = 0; i < ns; i++) studentLocks.lockAt(i).lock();
+            try {
+                return action.get();
+            } finally {
+                for (int i = ns - 1; i >= 0; i--) studentLocks.lockAt(i).unlock();
+            }
+        } finally {
+            for (int i = nc - 1; i >= 0; i--) courseLocks.lockAt(i).unlock();
+        }
+    }
+
+    private void runLocked(String courseCode, String studentId, Runnable action) {
+        Course c = courses.get(courseCode);
+        Lock courseLock = courseLocks.lockFor(courseCode);
+        Lock studentLock = studentLocks.lockFor(studentId);
+        courseLock.lock();
+        long e = beginWrite(c);
+        try {
+            studentLock.lock();
+            try {
+                action.run();
+            } finally {
+                studentLock.unlock();
+            }
+        } finally {
+            endWrite(c, e);
+            courseLock.unlock();
+        }
+    }
+
+    /**
+     * Starts a write section on a course (see SnapshotVersions); caller holds
+     * the course lock and passes the result to endWrite before releasing it.
+     * endWrite also refreshes the course's bit in the open-seat index.
+     */
+    private long beginWrite(Course c) {
+        long e = versions.enter();
+        saveForSnapshots(c, e);
+        return e;
+    }
+
+    private void endWrite(Course c, long e) {
+        refreshOpenSeat(c);
+        versions.exit(e);
+    }
+
+    /** Saves the course's state for open snapshots if needed; caller holds its lock inside section e. */
+    private void saveForSnapshots(Course c, long e) {
+        if (versions.beforeWrite(histories.get(c.getCode()), e, c)) retained.add(c.getCode());
+    }
+
+    private void refreshOpenSeat(Course c) {
+        openSeats.set(courseIds.handleOf(c.getCode()), c.seatsRemaining() > 0 && c.waitlistSize() == 0);
+    }
+
+    // --- Snapshot reads ---
+
+    /**
+     * Opens a point-in-time view of all courses, rosters and waitlists. Costs
+     * O(1) plus a wait for write sections already in progress; writers are not
+     * blocked. Must not be called while holding a course or student lock.
+     * Close it when done.
+     */
+    public CampusSnapshot openSnapshot() {
+        return new CampusSnapshot(this, versions.openSnapshot());
+    }
+
+    /** Sorted codes of the courses that existed at snapshot version {@code at}. */
+    List<String> courseCodesAt(long at) {
+        CodeIndex index = codeIndex();
+        if (index.newest <= at) return index.all;
+        List<String> codes = new ArrayList<>(index.codes.length);
+        for (int i = 0; i < index.codes.length; i++) {
+            if (index.created[i] <= at) codes.add(index.codes[i]);
+        }
+        return Collections.unmodifiableList(codes);
+    }
+
+    /** All courses in code order, rebuilt after courses were added. */
+    private CodeIndex codeIndex() {
+        CodeIndex index = codeIndex;
+        if (index.codes.length != histories.size()) {
+            // Courses are only ever added, so equal sizes mean the index is complete
+            codeIndex = index = CodeIndex.of(histories, courses, courseIds);
+        }
+        return index;
+    }
+
+    /**
+     * Course codes in sorted order with their creation epochs, handles and
+     * Course objects, cached between course adds.
+     */
+    private static final class CodeIndex {
+        final String[] codes;
+        final long[] created;
+        final int[] handles;
+        final Course[] courses;
+        final long newest;
+        final List<String> all;
+
+        CodeIndex(String[] codes, long[] created, int[] handles, Course[] courses) {
+            this.codes = codes;
+            this.created = created;
+            this.handles = handles;
+            this.courses = courses;
+            long max = Long.MIN_VALUE;
+            for (long e : created) max = Math.max(max, e);
+            this.newest = max;
+            this.all = Collections.unmodifiableList(Arrays.asList(codes));
+        }
+
+        static CodeIndex of(Map<String, SnapshotVersions.History> histories, Map<String, Course> courses,
+                            IdInterner courseIds) {
+            String[] codes = histories.keySet().toArray(new String[0]);
+            Arrays.sort(codes);
+            long[] created = new long[codes.length];
+            int[] handles = new int[codes.length];
+            Course[] byCode = new Course[codes.length];
+            for (int i = 0; i < codes.length; i++) {
+                created[i] = histories.get(codes[i]).created;
+                handles[i] = courseIds.intern(codes[i]);
+                byCode[i] = courses.get(codes[i]);
+            }
+            return new CodeIndex(codes, created, handles, byCode);
+        }
+    }
+
+    /** A course as of snapshot version {@code at}, or null if it did not exist then. */
+    CourseView courseAt(String code, long at) {
+        Course c = courses.get(code);
+        if (c == null) return null;
+        Lock courseLock = courseLocks.lockFor(code);
+        courseLock.lock();
+        try {
+            SnapshotVersions.History h = histories.get(code);
+            return h == null ? null : versions.read(h, at, c);
+        } finally {
+            courseLock.unlock();
+        }
+    }
+
+    /** Releases a snapshot and drops saved course states nothing needs any more. */
+    void closeSnapshot(long version) {
+        versions.closeSnapshot(version);
+        for (String code : retained) {
+            Lock courseLock = courseLocks.lockFor(code);
+            courseLock.lock();
+            try {
+                if (!versions.prune(histories.get(code))) retained.remove(code);
+            } finally {
+                courseLock.unlock();
+            }
+        }
+    }
+
     /** Utility: Returns a simple roster string for UI display. */
     public String getRoster(String courseCode) {
-        Course c = courses.get(courseCode);
-        if (c == null) return "Course not found.";
         StringBuilder sb = new StringBuilder();
-        sb.append(c).append("\n");
-        sb.append("Meeting Times: ").append(c.getMeetingTimes()).append("\n");
-        sb.append("Enrolled:\n");
-        for (String sid : c.getEnrolledStudentIds()) {
-            Student s = students.get(sid);
-            sb.append(" - ").append(s != null ? s : sid).append("\n");
+        try {
+            writeRoster(courseCode, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
         }
-        sb.append("Waitlist size: ").append(c.waitlistSize()).append("\n");
         return sb.toString();
     }
+
+    // --- Roster streaming & export ---
+
+    /** Sort orders for {@link #rosterPage}. */
+    public enum RosterOrder { STUDENT_ID, NAME }
+
+    /**
+     * Writes the same text as getRoster() straight to an Appendable (a Writer,
+     * a StringBuilder, ...). The roster is copied as ID references under the
+     * course lock and written after it is released, so a slow sink never
+     * blocks enrollment.
+     */
+    public void writeRoster(String courseCode, Appendable out) throws IOException {
+        Course c = courses.get(courseCode);
+        if (c == null) {
+            out.append("Course not found.");
+            return;
+        }
+        String header;
+        String meetingTimes;
+        int waitlistSize;
+        String[] ids;
+        Lock courseLock = courseLocks.lockFor(courseCode);
+        courseLock.lock();
+        try {
+            header = c.toString();
+            meetingTimes = c.getMeetingTimes().toString();
+            waitlistSize = c.waitlistSize();
+            ids = rosterIds(c);
+        } finally {
+            courseLock.unlock();
+        }
+        out.append(header).append('\n');
+        out.append("Meeting Times: ").append(meetingTimes).append('\n');
+        out.append("Enrolled:\n");
+        for (String sid : ids) {
+            Student s = students.get(sid);
+            out.append(" - ").append(sid);
+            if (s != null) out.append(" - ").append(s.getName());
+            out.append('\n');
+        }
+        out.append("Waitlist size: ").append(String.valueOf(waitlistSize)).append('\n');
+    }
+
+    /**
+     * One page of a course roster, sorted by student ID or by name (ties by ID).
+     * Returns an empty list for an unknown course or an offset past the end.
+     */
+    public List<Student> rosterPage(String courseCode, RosterOrder order, int offset, int limit) {
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("offset and limit must be >= 0");
+        Course c = courses.get(courseCode);
+        if (c == null) return Collections.emptyList();
+        String[] ids;
+        Lock courseLock = courseLocks.lockFor(courseCode);
+        courseLock.lock();
+        try {
+            ids = rosterIds(c);
+        } finally {
+            courseLock.unlock();
+        }
+        if (offset >= ids.length) return Collections.emptyList();
+
+        List<Student> roster = new ArrayList<>(ids.length);
+        for (String sid : ids) {
+            Student s = students.get(sid);
+            if (s != null) roster.add(s);
+        }
+        Comparator<Student> byId = Comparator.comparing(Student::getId);
+        roster.sort(order == RosterOrder.NAME ? Comparator.comparing(Student::getName).thenComparing(byId) : byId);
+        int end = (int) Math.min((long) offset + limit, roster.size());
+        return offset >= end ? Collections.emptyList() : new ArrayList<>(roster.subList(offset, end));
+    }
+
+    /**
+     * Streams every roster as CSV (course_code,student_id,student_name) to a
+     * channel, one course at a time, courses and students in ID order. The
+     * rosters all come from one snapshot, so the export is consistent even
+     * while enrollment runs. Memory use is bounded by the largest course plus
+     * any courses written to during the export, not the campus.
+     */
+    public void exportRostersCsv(WritableByteChannel out) throws IOException {
+        CsvChannelWriter csv = new CsvChannelWriter(out);
+        csv.field("course_code").field("student_id").field("student_name").endRow();
+        try (CampusSnapshot snapshot = openSnapshot()) {
+            for (String code : snapshot.courseCodes()) {
+                CourseView c = snapshot.course(code);
+                for (String sid : c.getEnrolledStudentIds()) {
+                    Student s = students.get(sid);
+                    csv.field(code).field(sid).field(s != null ? s.getName() : "").endRow();
+                }
+            }
+        }
+        csv.flush();
+    }
+
+    /** Enrolled IDs as shared references; caller holds the course lock. */
+    private static String[] rosterIds(Course c) {
+        String[] ids = new String[c.enrolledCount()];
+        int n = 0;
+        for (String sid : c.getEnrolledStudentIds()) ids[n++] = sid;
+        return ids;
+    }
 }
@@ -0,0 +1,223 @@
+package com.registrar.service;
+
+import com.registrar.model.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * One partition of a {@link ShardedRegistrar}: the students and courses whose
+ * IDs hash to it, owned by a single executor thread. Every method except
+ * {@link #call} must run on that thread, so the state needs no locks.
+ *
+ * Enrollment across shards is two-phase. The course side reserves a seat (or
+ * a waitlist place) in prepare and turns it into an enrollment in commit, or
+ * gives it back in abort. The student side holds the course's meeting times
+ * in the schedule while the enrollment is pending, so two pending
+ * enrollments of one student cannot both pass the conflict check.
+ */
+final class RegistrarShard implements AutoCloseable {
+    /** Course-side state: the course plus seats promised to pending enrollments. */
+    private static final class CourseState {
+        final Course course;
+        final List<TimeSlot> times;
+        final Set<String> pending = new HashSet<>(); // students with a reserved seat or waitlist place
+        int reserved;                                // seats among them
+
+        CourseState(Course course) {
+            this.course = course;
+            this.times = Collections.unmodifiableList(new ArrayList<>(course.getMeetingTimes()));
+        }
+
+        int freeSeats() { return course.seatsRemaining() - reserved; }
+    }
+
+    /** Course-side vote on an enrollment; {@code rejected} is null when the course agrees. */
+    static final class Prepared {
+        final RegistrarService.EnrollResult rejected;
+        final boolean seat;          // a seat is reserved; otherwise a waitlist place
+        final List<TimeSlot> times;
+
+        Prepared(RegistrarService.EnrollResult rejected, boolean seat, List<TimeSlot> times) {
+            this.rejected = rejected;
+            this.seat = seat;
+            this.times = times;
+        }
+    }
+
+    /** A waitlisted student picked for a freed seat, which is now reserved. */
+    static final class Promotion {
+        final WaitlistEntry entry;
+        final List<TimeSlot> times;
+
+        Promotion(WaitlistEntry entry, List<TimeSlot> times) {
+            this.entry = entry;
+            this.times = times;
+        }
+    }
+
+    private final ExecutorService executor;
+    private final IdInterner studentIds = new IdInterner();
+    private final IdInterner courseIds = new IdInterner();
+    private final Map<String, Student> students = new HashMap<>();
+    private final Map<String, CourseState> courses = new HashMap<>();
+    private final Map<String, Set<String>> holds = new HashMap<>(); // student -> courses pending
+
+    RegistrarShard(int index) {
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "registrar-shard-" + index);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Runs an operation on the shard's thread. */
+    <T> CompletableFuture<T> call(Supplier<T> op) {
+        return CompletableFuture.supplyAsync(op, executor);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    // --- Setup and reads ---
+
+    boolean addStudent(String id, String name) {
+        if (students.containsKey(id)) return false;
+        students.put(id, new Student(id, name, courseIds));
+        return true;
+    }
+
+    boolean addCourse(String code, String title, int capacity, Collection<TimeSlot> meetingTimes) {
+        if (courses.containsKey(code)) return false;
+        Course c = new Course(code, title, capacity, studentIds);
+        for (TimeSlot t : meetingTimes) c.addMeetingTime(t);
+        courses.put(code, new CourseState(c));
+        return true;
+    }
+
+    CourseView view(String code) {
+        CourseState cs = courses.get(code);
+        return cs == null ? null : new CourseView(cs.course);
+    }
+
+    /** Null for an unknown student. */
+    Set<String> enrolledCourses(String studentId) {
+        Student s = students.get(studentId);
+        return s == null ? null : new TreeSet<>(s.getEnrolledCourses());
+    }
+
+    int waitlistPosition(String code, String studentId) {
+        CourseState cs = courses.get(code);
+        return cs == null ? -1 : cs.course.waitlistPosition(studentId);
+    }
+
+    // --- Course side ---
+
+    /**
+     * Reserves a seat, or a waitlist place if there is no free seat or others
+     * are already waiting (they come first).
+     */
+    Prepared prepareEnroll(String code, String studentId) {
+        CourseState cs = courses.get(code);
+        if (cs == null) return new Prepared(RegistrarService.EnrollResult.NO_SUCH_COURSE, false, null);
+        Course c = cs.course;
+        if (c.isEnrolled(studentId) || cs.pending.contains(studentId)) {
+            return new Prepared(RegistrarService.EnrollResult.ALREADY_ENROLLED, false, null);
+        }
+        if (c.isWaitlisted(studentId)) return new Prepared(RegistrarService.EnrollResult.ALREADY_WAITLISTED, false, null);
+        cs.pending.add(studentId);
+        boolean seat = cs.freeSeats() > 0 && c.waitlistSize() == 0;
+        if (seat) cs.reserved++;
+        return new Prepared(null, seat, cs.times);
+    }
+
+    /** Turns a reserved seat into an enrollment. */
+    void commitSeat(String code, String studentId) {
+        CourseState cs = courses.get(code);
+        cs.pending.remove(studentId);
+        cs.reserved--;
+        cs.course.enroll(studentId);
+    }
+
+    /** Turns a reserved waitlist place into an entry; true if a seat should now be filled. */
+    boolean commitWaitlist(String code, WaitlistEntry entry) {
+        CourseState cs = courses.get(code);
+        cs.pending.remove(entry.getStudentId());
+        cs.course.addToWaitlist(entry);
+        return needsFill(cs);
+    }
+
+    /** Gives back what prepareEnroll or nextPromotion reserved; true if a seat should now be filled. */
+    boolean abort(String code, String studentId, boolean seat) {
+        CourseState cs = courses.get(code);
+        cs.pending.remove(studentId);
+        if (seat) cs.reserved--;
+        return needsFill(cs);
+    }
+
+    /** Removes a student; returns the meeting times, or null if not enrolled. */
+    List<TimeSlot> dropSeat(String code, String studentId) {
+        CourseState cs = courses.get(code);
+        if (cs == null || !cs.course.drop(studentId)) return null;
+        return cs.times;
+    }
+
+    /** Takes the next waitlisted student for a free seat and reserves it; null if none. */
+    Promotion nextPromotion(String code) {
+        CourseState cs = courses.get(code);
+        if (!needsFill(cs)) return null;
+        WaitlistEntry next = cs.course.pollWaitlist();
+        cs.pending.add(next.getStudentId());
+        cs.reserved++;
+        return new Promotion(next, cs.times);
+    }
+
+    private static boolean needsFill(CourseState cs) {
+        return cs.freeSeats() > 0 && cs.course.waitlistSize() > 0;
+    }
+
+    // --- Student side ---
+
+    /**
+     * Checks the student can take the course. With {@code hold}, also puts
+     * its meeting times in the schedule until commitHold or releaseHold.
+     * Returns null if the student agrees, else the reason.
+     */
+    RegistrarService.EnrollResult prepareStudent(String studentId, String code, List<TimeSlot> times, boolean hold) {
+        Student s = students.get(studentId);
+        if (s == null) return RegistrarService.EnrollResult.NO_SUCH_STUDENT;
+        Set<String> pending = holds.get(studentId);
+        if (s.getEnrolledCourses().contains(code) || (pending != null && pending.contains(code))) {
+            return RegistrarService.EnrollResult.ALREADY_ENROLLED;
+        }
+        if (s.hasConflict(times)) return RegistrarService.EnrollResult.CONFLICT;
+        if (hold) {
+            s.addToSchedule(times);
+            holds.computeIfAbsent(studentId, k -> new HashSet<>()).add(code);
+        }
+        return null;
+    }
+
+    void commitHold(String studentId, String code) {
+        releasePending(studentId, code);
+        students.get(studentId).addCourse(code);
+    }
+
+    void dropCourse(String studentId, String code, List<TimeSlot> times) {
+        Student s = students.get(studentId);
+        if (s == null) return;
+        s.removeCourse(code);
+        s.removeFromSchedule(times);
+    }
+
+    private void releasePending(String studentId, String code) {
+        Set<String> pending = holds.get(studentId);
+        pending.remove(code);
+        if (pending.isEmpty()) holds.remove(studentId);
+    }
+}
@@ -0,0 +1,41 @@
+package com.registrar.service;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One conflict-free pick from a {@link ScheduleBuilder} wishlist: a course
+ * code per wishlist slot, in slot order. Seat counts are those seen when the
+ * schedule was built; {@link ScheduleBuilder#enroll} re-checks everything.
+ */
+public final class Schedule {
+    /** Lowest preference cost first, then most seats to spare, then by codes. */
+    public static final Comparator<Schedule> BY_PREFERENCE = Comparator
+            .comparingInt(Schedule::getPreferenceCost)
+            .thenComparing(Comparator.comparingInt(Schedule::getMinSeatsRemaining).reversed())
+            .thenComparing(s -> String.join(",", s.courseCodes));
+
+    private final List<String> courseCodes;
+    private final int preferenceCost;
+    private final int minSeatsRemaining;
+
+    Schedule(List<String> courseCodes, int preferenceCost, int minSeatsRemaining) {
+        this.courseCodes = courseCodes;
+        this.preferenceCost = preferenceCost;
+        this.minSeatsRemaining = minSeatsRemaining;
+    }
+
+    /** One code per wishlist slot, in the order the slots were added. */
+    public List<String> getCourseCodes() { return courseCodes; }
+
+    /** Sum over slots of the chosen alternative's position (0 = first choice everywhere). */
+    public int getPreferenceCost() { return preferenceCost; }
+
+    /** Fewest open seats among the chosen courses. */
+    public int getMinSeatsRemaining() { return minSeatsRemaining; }
+
+    @Override
+    public String toString() {
+        return courseCodes + " (cost " + preferenceCost + ", seats >= " + minSeatsRemaining + ")";
+    }
+}
@@ -0,0 +1,356 @@
+package com.registrar.service;
+
+import com.registrar.model.Course;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Finds conflict-free schedules for one student from a wishlist. Each
+ * {@link #want} call adds a slot: a list of alternative course codes, best
+ * first, of which exactly one is taken. Obtain one from
+ * {@link RegistrarService#scheduleBuilder}, e.g.
+ * {@code service.scheduleBuilder("S1").want("CS101", "CS102").want("MA201").best(5)}.
+ *
+ * Only alternatives that have an open seat, that the student is not already
+ * in, and that fit the student's current schedule are considered. Each call to {@link #schedules} or {@link #best} looks at the
+ * current seats and schedule; the results are suggestions, and
+ * {@link #enroll} re-checks them atomically.
+ *
+ * Not thread-safe while slots are being added; the streams it returns may be
+ * consumed by any thread.
+ */
+public final class ScheduleBuilder {
+    /** Search-space estimate from which {@link #best} searches in parallel. */
+    static final long PARALLEL_THRESHOLD = 4096;
+
+    private final RegistrarService service;
+    private final String studentId;
+    private final List<List<String>> slots = new ArrayList<>();
+
+    ScheduleBuilder(RegistrarService service, String studentId) {
+        this.service = service;
+        this.studentId = studentId;
+    }
+
+    /** Adds a slot filled by one of these courses, in order of preference. */
+    public ScheduleBuilder want(String... alternatives) {
+        if (alternatives.length == 0) throw new IllegalArgumentException("at least one course required");
+        slots.add(Collections.unmodifiableList(new ArrayList<>(Arrays.asList(alternatives))));
+        return this;
+    }
+
+    public String getStudentId() { return studentId; }
+
+    /**
+     * Every conflict-free schedule, produced lazily by a depth-first search, so
+     * the first ones arrive without enumerating the rest. Sequential streams
+     * yield schedules roughly best-first (slots with fewer alternatives are
+     * decided first, each in preference order). The stream splits the search
+     * tree and can run in parallel; parallel streams are unordered. Empty if
+     * the student is unknown or some slot has no usable alternative.
+     */
+    public Stream<Schedule> schedules() {
+        Plan plan = plan();
+        if (plan == null) return Stream.empty();
+        return StreamSupport.stream(new Search(plan), false);
+    }
+
+    /**
+     * The {@code k} best schedules by {@link Schedule#BY_PREFERENCE}. Has to
+     * see every schedule; large wishlists are searched in parallel on the
+     * common fork-join pool.
+     */
+    public List<Schedule> best(int k) {
+        if (k <= 0) throw new IllegalArgumentException("k must be > 0");
+        Plan plan = plan();
+        if (plan == null) return Collections.emptyList();
+        Search search = new Search(plan);
+        return StreamSupport.stream(search, search.estimateSize() >= PARALLEL_THRESHOLD)
+                .collect(Collector.of(() -> new TopK(k), TopK::add, TopK::merge, TopK::sorted));
+    }
+
+    /**
+     * Enrolls the student in every course of the schedule or in none; see
+     * {@link RegistrarService#enrollSchedule}.
+     */
+    public boolean enroll(Schedule schedule) {
+        return service.enrollSchedule(studentId, schedule.getCourseCodes());
+    }
+
+    // --- Search ---
+
+    /**
+     * Search input. Every usable alternative gets a local index; each has a
+     * bitmask (over local indices) of the alternatives it rules out: itself,
+     * and every course whose meeting times overlap it. Slots are reordered
+     * fewest alternatives first so dead ends show up near the root.
+     */
+    private static final class Plan {
+        final int words;
+        final String[] codes;        // by local index
+        final int[] seats;
+        final long[][] excludes;     // by local index
+        final int[] slotOf;          // search depth -> wishlist slot
+        final int[][] candidates;    // search depth -> local indices, best first
+        final int[][] preference;    // search depth -> position in the slot's list
+        final long[][] slotBits;     // search depth -> candidates as a mask
+
+        Plan(String[] codes, int[] seats, long[][] excludes, int[] slotOf,
+             int[][] candidates, int[][] preference) {
+            this.words = excludes.length == 0 ? 0 : excludes[0].length;
+            this.codes = codes;
+            this.seats = seats;
+            this.excludes = excludes;
+            this.slotOf = slotOf;
+            this.candidates = candidates;
+            this.preference = preference;
+            this.slotBits = new long[candidates.length][words];
+            for (int d = 0; d < candidates.length; d++) {
+                for (int c : candidates[d]) slotBits[d][c >>> 6] |= 1L << c;
+            }
+        }
+
+        int depth() { return candidates.length; }
+    }
+
+    /** Resolves the wishlist against current seats and the student's schedule; null if hopeless. */
+    private Plan plan() {
+        int n = slots.size();
+        if (n == 0) return null;
+        Map<String, Integer> local = new LinkedHashMap<>();
+        List<Course> courses = new ArrayList<>();
+        for (List<String> slot : slots) {
+            for (String code : slot) {
+                Course c = service.getCourse(code);
+                if (c != null && !local.containsKey(code)) {
+                    local.put(code, courses.size());
+                    courses.add(c);
+                }
+            }
+        }
+        boolean[] usable = service.fitsStudent(studentId, courses);
+        if (usable == null) return null;
+
+        int k = courses.size();
+        String[] codes = new String[k];
+        int[] seats = new int[k];
+        for (int i = 0; i < k; i++) {
+            codes[i] = courses.get(i).getCode();
+            seats[i] = courses.get(i).seatsRemaining();
+            if (seats[i] == 0) usable[i] = false;
+        }
+
+        Integer[] order = new Integer[n];
+        int[][] bySlot = new int[n][];
+        int[][] prefBySlot = new int[n][];
+        for (int s = 0; s < n; s++) {
+            List<String> slot = slots.get(s);
+            int[] cand = new int[slot.size()];
+            int[] pref = new int[slot.size()];
+            int m = 0;
+            for (int p = 0; p < slot.size(); p++) {
+                Integer i = local.get(slot.get(p));
+                if (i == null || !usable[i] || contains(cand, m, i)) continue;
+                cand[m] = i;
+                pref[m++] = p;
+            }
+            if (m == 0) return null;
+            bySlot[s] = Arrays.copyOf(cand, m);
+            prefBySlot[s] = Arrays.copyOf(pref, m);
+            order[s] = s;
+        }
+        Arrays.sort(order, Comparator.comparingInt(s -> bySlot[s].length));
+
+        int words = (k + 63) >>> 6;
+        long[][] excludes = new long[k][words];
+        for (int i = 0; i < k; i++) {
+            if (!usable[i]) continue;
+            excludes[i][i >>> 6] |= 1L << i;
+            for (int j = i + 1; j < k; j++) {
+                if (usable[j] && service.coursesConflict(codes[i], codes[j])) {
+                    excludes[i][j >>> 6] |= 1L << j;
+                    excludes[j][i >>> 6] |= 1L << i;
+                }
+            }
+        }
+
+        int[] slotOf = new int[n];
+        int[][] candidates = new int[n][];
+        int[][] preference = new int[n][];
+        for (int d = 0; d < n; d++) {
+            slotOf[d] = order[d];
+            candidates[d] = bySlot[order[d]];
+            preference[d] = prefBySlot[order[d]];
+        }
+        return new Plan(codes, seats, excludes, slotOf, candidates, preference);
+    }
+
+    private static boolean contains(int[] a, int len, int v) {
+        for (int i = 0; i < len; i++) if (a[i] == v) return true;
+        return false;
+    }
+
+    /**
+     * Depth-first search as a Spliterator. Level d picks an alternative for the
+     * d-th slot in [pos[d], limit[d]); blocked[d] holds what the picks above it
+     * ruled out. After a pick, every deeper slot must still have an alternative
+     * left (forward checking), or the pick is skipped.
+     *
+     * trySplit hands off the untried upper half of the shallowest level that
+     * has more than one alternative left; the new Search keeps the picks above
+     * it fixed (limit = pos + 1), so the two never produce the same schedule.
+     */
+    private static final class Search implements Spliterator<Schedule> {
+        private final Plan plan;
+        private final int[] pos;
+        private final int[] limit;
+        private final long[][] blocked;
+        private int depth;      // current level; -1 when done
+        private long estimate;
+
+        Search(Plan plan) {
+            int n = plan.depth();
+            this.plan = plan;
+            this.pos = new int[n];
+            this.limit = new int[n];
+            this.blocked = new long[n][plan.words];
+            this.limit[0] = plan.candidates[0].length;
+            long est = 1;
+            for (int[] c : plan.candidates) est = est > Long.MAX_VALUE / c.length ? Long.MAX_VALUE : est * c.length;
+            this.estimate = est;
+        }
+
+        private Search(Search from, int level, int start) {
+            this.plan = from.plan;
+            int n = plan.depth();
+            this.pos = new int[n];
+            this.limit = new int[n];
+            this.blocked = new long[n][];
+            for (int d = 0; d < level; d++) {
+                pos[d] = from.pos[d];
+                limit[d] = from.pos[d] + 1;
+            }
+            for (int d = 0; d <= level; d++) blocked[d] = from.blocked[d].clone();
+            for (int d = level + 1; d < n; d++) blocked[d] = new long[plan.words];
+            pos[level] = start;
+            limit[level] = from.limit[level];
+            this.depth = level;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Schedule> action) {
+            int last = plan.depth() - 1;
+            while (depth >= 0) {
+                int d = depth;
+                if (pos[d] == limit[d]) {
+                    if (--depth >= 0) pos[depth]++;
+                    continue;
+                }
+                int c = plan.candidates[d][pos[d]];
+                long[] b = blocked[d];
+                if ((b[c >>> 6] & (1L << c)) != 0) {
+                    pos[d]++;
+                    continue;
+                }
+                if (d == last) {
+                    action.accept(toSchedule());
+                    pos[d]++;
+                    return true;
+                }
+                long[] next = blocked[d + 1];
+                long[] ex = plan.excludes[c];
+                for (int w = 0; w < next.length; w++) next[w] = b[w] | ex[w];
+                if (!deeperSlotsOpen(d + 1, next)) {
+                    pos[d]++;
+                    continue;
+                }
+                depth = d + 1;
+                pos[depth] = 0;
+                limit[depth] = plan.candidates[depth].length;
+            }
+            return false;
+        }
+
+        private boolean deeperSlotsOpen(int from, long[] blockedNow) {
+            for (int d = from; d < plan.depth(); d++) {
+                long[] bits = plan.slotBits[d];
+                boolean open = false;
+                for (int w = 0; w < bits.length && !open; w++) open = (bits[w] & ~blockedNow[w]) != 0;
+                if (!open) return false;
+            }
+            return true;
+        }
+
+        private Schedule toSchedule() {
+            int n = plan.depth();
+            String[] codes = new String[n];
+            int cost = 0;
+            int seats = Integer.MAX_VALUE;
+            for (int d = 0; d < n; d++) {
+                int c = plan.candidates[d][pos[d]];
+                codes[plan.slotOf[d]] = plan.codes[c];
+                cost += plan.preference[d][pos[d]];
+                seats = Math.min(seats, plan.seats[c]);
+            }
+            return new Schedule(Collections.unmodifiableList(Arrays.asList(codes)), cost, seats);
+        }
+
+        @Override
+        public Spliterator<Schedule> trySplit() {
+            for (int d = 0; d <= depth; d++) {
+                // Above the current level pos[d] is in progress; at it, pos[d] is not yet tried
+                int first = d < depth ? pos[d] + 1 : pos[d];
+                int untried = limit[d] - first;
+                if (untried < 2 && !(d < depth && untried == 1)) continue;
+                int mid = limit[d] - (untried + 1) / 2;
+                Search upper = new Search(this, d, mid);
+                limit[d] = mid;
+                estimate >>>= 1;
+                upper.estimate = estimate;
+                return upper;
+            }
+            return null;
+        }
+
+        @Override
+        public long estimateSize() { return estimate; }
+
+        @Override
+        public int characteristics() { return NONNULL | IMMUTABLE; }
+    }
+
+    /** Bounded best-k collector state. */
+    private static final class TopK {
+        private final int k;
+        private final PriorityQueue<Schedule> worstFirst;
+
+        TopK(int k) {
+            this.k = k;
+            this.worstFirst = new PriorityQueue<>(Schedule.BY_PREFERENCE.reversed());
+        }
+
+        void add(Schedule s) {
+            if (worstFirst.size() < k) {
+                worstFirst.add(s);
+            } else if (Schedule.BY_PREFERENCE.compare(s, worstFirst.peek()) < 0) {
+                worstFirst.poll();
+                worstFirst.add(s);
+            }
+        }
+
+        TopK merge(TopK other) {
+            for (Schedule s : other.worstFirst) add(s);
+            return this;
+        }
+
+        List<Schedule> sorted() {
+            List<Schedule> out = new ArrayList<>(worstFirst);
+            out.sort(Schedule.BY_PREFERENCE);
+            return out;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.registrar.service;
+
+import com.registrar.model.TimeSlot;
+import com.registrar.model.WaitlistEntry;
+import com.registrar.service.RegistrarService.EnrollResult;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Partitioned registrar: students and courses are hash-partitioned across N
+ * {@link RegistrarShard}s, each owning its maps and a single executor
+ * thread. All shards live in this JVM; the point is that no shard needs
+ * another's state, only messages, so a shard is the unit to move out.
+ *
+ * The calling thread coordinates. enroll() asks the course shard to reserve
+ * a seat or a waitlist place (prepare), then the student shard to check
+ * conflicts and hold the time (prepare), then commits both or gives the
+ * reservation back. drop() frees the seat on the course shard, clears the
+ * student's schedule, then promotes waitlisted students one at a time with
+ * the same two steps. Reserved seats count against capacity and held times
+ * count against conflicts, so both invariants hold at every step.
+ *
+ * Covers the enrollment core only: no journal, snapshots, events or
+ * metrics. Safe to call from many threads, but never from a shard thread.
+ */
+public final class ShardedRegistrar implements AutoCloseable {
+    private final RegistrarShard[] shards;
+    private final AtomicLong waitlistSequence = new AtomicLong();
+
+    public ShardedRegistrar(int shardCount) {
+        if (shardCount <= 0) throw new IllegalArgumentException("shardCount must be > 0");
+        this.shards = new RegistrarShard[shardCount];
+        for (int i = 0; i < shardCount; i++) shards[i] = new RegistrarShard(i);
+    }
+
+    public int shardCount() { return shards.length; }
+
+    /** Shard index owning a student ID or course code. */
+    public int shardOf(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return Math.floorMod(h, shards.length);
+    }
+
+    private RegistrarShard shard(String key) { return shards[shardOf(key)]; }
+
+    private static <T> T await(RegistrarShard shard, Supplier<T> op) {
+        return shard.call(op).join();
+    }
+
+    public boolean addStudent(String id, String name) {
+        RegistrarShard s = shard(id);
+        return await(s, () -> s.addStudent(id, name));
+    }
+
+    public boolean addCourse(String code, String title, int capacity, Collection<TimeSlot> meetingTimes) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        RegistrarShard s = shard(code);
+        return await(s, () -> s.addCourse(code, title, capacity, meetingTimes));
+    }
+
+    /** Copy of a course, roster and waitlist; null if unknown. */
+    public CourseView course(String code) {
+        RegistrarShard s = shard(code);
+        return await(s, () -> s.view(code));
+    }
+
+    /** Courses a student is enrolled in, sorted; empty if unknown. */
+    public Set<String> enrolledCourses(String studentId) {
+        RegistrarShard s = shard(studentId);
+        Set<String> codes = await(s, () -> s.enrolledCourses(studentId));
+        return codes == null ? Collections.emptySet() : Collections.unmodifiableSet(codes);
+    }
+
+    /** 1-based waitlist position, or -1 if not waiting. */
+    public int waitlistPosition(String studentId, String courseCode) {
+        RegistrarShard s = shard(courseCode);
+        return await(s, () -> s.waitlistPosition(courseCode, studentId));
+    }
+
+    /**
+     * Same outcomes as {@link RegistrarService#enroll}, except that
+     * NO_SUCH_COURSE wins when both IDs are unknown.
+     */
+    public EnrollResult enroll(String studentId, String courseCode, int priority) {
+        RegistrarShard cs = shard(courseCode), ss = shard(studentId);
+        long requestTimeMs = System.currentTimeMillis();
+
+        RegistrarShard.Prepared course = await(cs, () -> cs.prepareEnroll(courseCode, studentId));
+        if (course.rejected != null) return course.rejected;
+        EnrollResult rejected = await(ss, () -> ss.prepareStudent(studentId, courseCode, course.times, course.seat));
+        if (rejected != null) {
+            if (await(cs, () -> cs.abort(courseCode, studentId, course.seat))) fill(cs, courseCode);
+            return rejected;
+        }
+        if (course.seat) {
+            CompletableFuture<Object> seated = cs.call(() -> { cs.commitSeat(courseCode, studentId); return null; });
+            ss.call(() -> { ss.commitHold(studentId, courseCode); return null; }).join();
+            seated.join();
+            return EnrollResult.ENROLLED;
+        }
+        WaitlistEntry entry = new WaitlistEntry(studentId, priority, requestTimeMs, waitlistSequence.incrementAndGet());
+        if (await(cs, () -> cs.commitWaitlist(courseCode, entry))) fill(cs, courseCode);
+        return EnrollResult.ADDED_TO_WAITLIST;
+    }
+
+    /** Drops a student from a course and fills the seat from the waitlist. */
+    public boolean drop(String studentId, String courseCode) {
+        RegistrarShard cs = shard(courseCode), ss = shard(studentId);
+        List<TimeSlot> times = await(cs, () -> cs.dropSeat(courseCode, studentId));
+        if (times == null) return false;
+        await(ss, () -> { ss.dropCourse(studentId, courseCode, times); return null; });
+        fill(cs, courseCode);
+        return true;
+    }
+
+    /**
+     * Promotes waitlisted students while the course has free seats. Each
+     * candidate's seat is reserved first; a candidate who is gone or now has
+     * a conflict loses the entry, as in RegistrarService.
+     */
+    private void fill(RegistrarShard cs, String courseCode) {
+        while (true) {
+            RegistrarShard.Promotion p = await(cs, () -> cs.nextPromotion(courseCode));
+            if (p == null) return;
+            String sid = p.entry.getStudentId();
+            RegistrarShard ss = shard(sid);
+            if (await(ss, () -> ss.prepareStudent(sid, courseCode, p.times, true)) == null) {
+                CompletableFuture<Object> seated = cs.call(() -> { cs.commitSeat(courseCode, sid); return null; });
+                ss.call(() -> { ss.commitHold(sid, courseCode); return null; }).join();
+                seated.join();
+            } else {
+                cs.call(() -> cs.abort(courseCode, sid, true)).join();
+            }
+        }
+    }
+
+    /** Stops the shard threads; pending calls finish first. */
+    @Override
+    public void close() {
+        for (RegistrarShard s : shards) s.close();
+    }
+}
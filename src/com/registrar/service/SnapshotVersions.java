@@ -0,0 +1,145 @@
+package com.registrar.service;
+
+import com.registrar.model.Course;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Epoch bookkeeping behind {@link CampusSnapshot}.
+ *
+ * Every write to a course runs inside a write section stamped with the current
+ * epoch. Opening a snapshot registers the current epoch as its version, moves
+ * the epoch on and waits for the (short) write sections still stamped with the
+ * old one, so the snapshot sees exactly the writes stamped at or below its
+ * version. Nothing is copied up front: the first write to a course after a
+ * snapshot saves the course's previous state as a {@link CourseView}, and only
+ * while some open snapshot still needs it. Courses nobody writes to are read
+ * straight from the live state.
+ *
+ * Per-course state ({@link History}) is guarded by that course's lock.
+ */
+final class SnapshotVersions {
+    private volatile long epoch;
+    // Write sections in progress, by epoch parity; an epoch only drains while the next one runs
+    private final LongAdder[] inFlight = { new LongAdder(), new LongAdder() };
+    private final ConcurrentSkipListSet<Long> open = new ConcurrentSkipListSet<>();
+
+    /** Version information for one course. */
+    static final class History {
+        final long created;
+        long version;       // epoch of the last write
+        CourseView live;    // view of the current state, if a reader already built one
+        Saved saved;        // earlier states still needed by open snapshots, newest first
+
+        History(long created) {
+            this.created = created;
+            this.version = created;
+        }
+    }
+
+    /** A course state that was current for snapshots in [from, to). */
+    private static final class Saved {
+        final long from;
+        final long to;
+        final CourseView view;
+        final Saved older;
+
+        Saved(long from, long to, CourseView view, Saved older) {
+            this.from = from;
+            this.to = to;
+            this.view = view;
+            this.older = older;
+        }
+    }
+
+    /**
+     * Starts a write section and returns its epoch; pair with {@link #exit}.
+     * Call it after taking the course lock, so a course's stamps never go back.
+     */
+    long enter() {
+        while (true) {
+            long e = epoch;
+            LongAdder writers = inFlight[(int) (e & 1)];
+            writers.increment();
+            if (epoch == e) return e;
+            writers.decrement(); // a snapshot moved the epoch on; join the new one
+        }
+    }
+
+    void exit(long e) {
+        inFlight[(int) (e & 1)].decrement();
+    }
+
+    /**
+     * Registers a snapshot and returns its version. Waits only for write
+     * sections that started before the call.
+     */
+    synchronized long openSnapshot() {
+        long s = epoch;
+        open.add(s);        // visible to every writer that sees the new epoch
+        epoch = s + 1;
+        LongAdder writers = inFlight[(int) (s & 1)];
+        while (writers.sum() != 0) Thread.yield();
+        return s;
+    }
+
+    void closeSnapshot(long s) {
+        open.remove(s);
+    }
+
+    /**
+     * Prepares a course for a write stamped {@code e}: saves its current state
+     * if an open snapshot still needs it. Caller holds the course lock.
+     *
+     * @return true if the course now keeps a saved state
+     */
+    boolean beforeWrite(History h, long e, Course c) {
+        if (h.version != e) {
+            Saved kept = prune(h.saved);
+            if (needed(h.version, e)) {
+                kept = new Saved(h.version, e, h.live != null ? h.live : new CourseView(c), kept);
+            }
+            h.saved = kept;
+            h.version = e;
+        }
+        h.live = null;
+        return h.saved != null;
+    }
+
+    /** The course as of snapshot {@code s}, or null if it did not exist then. Caller holds the course lock. */
+    CourseView read(History h, long s, Course c) {
+        if (h.created > s) return null;
+        if (h.version <= s) {
+            if (h.live == null) h.live = new CourseView(c);
+            return h.live;
+        }
+        for (Saved p = h.saved; p != null; p = p.older) {
+            if (p.from <= s && s < p.to) return p.view;
+        }
+        throw new IllegalStateException("no saved state of " + c.getCode() + " for snapshot " + s);
+    }
+
+    /**
+     * Drops saved states no open snapshot needs. Caller holds the course lock.
+     *
+     * @return true if the course still keeps a saved state
+     */
+    boolean prune(History h) {
+        h.saved = prune(h.saved);
+        return h.saved != null;
+    }
+
+    private Saved prune(Saved p) {
+        if (p == null) return null;
+        Saved older = prune(p.older);
+        if (!needed(p.from, p.to)) return older;
+        return older == p.older ? p : new Saved(p.from, p.to, p.view, older);
+    }
+
+    /** True if some open snapshot has a version in [from, to). */
+    private boolean needed(long from, long to) {
+        Long s = open.ceiling(from);
+        return s != null && s < to;
+    }
+}
@@ -0,0 +1,45 @@
+package com.registrar.service;
+
+import com.registrar.model.Course;
+import com.registrar.model.Student;
+import com.registrar.model.TimeSlot;
+import com.registrar.model.WaitlistEntry;
+
+/**
+ * Receives every state change RegistrarService makes, in the order it makes them
+ * for any one course or student. Seat and waitlist changes are reported as the
+ * physical edits they are (a waitlist promotion is a removal plus a seat), so
+ * replaying the log needs no business logic and cannot diverge.
+ *
+ * Callbacks run while the service holds the affected locks and must not call
+ * back into the service. They must not throw once the change is made: the
+ * service calls {@link #checkWritable()} before it changes anything, and a log
+ * that fails after that reports it from {@link #awaitDurable()}. All methods
+ * default to no-ops.
+ */
+public interface StateLog {
+    StateLog NONE = new StateLog() { };
+
+    default void studentAdded(Student s) { }
+    default void courseAdded(Course c) { }
+    default void meetingTimeAdded(String courseCode, TimeSlot t) { }
+    default void capacityChanged(String courseCode, int capacity) { }
+    default void seated(String courseCode, String studentId) { }
+    default void unseated(String courseCode, String studentId) { }
+    default void waitlisted(String courseCode, WaitlistEntry e) { }
+    default void waitlistRemoved(String courseCode, WaitlistEntry e) { }
+
+    /**
+     * Throws (e.g. UncheckedIOException) if changes can no longer be logged.
+     * Called with no locks held before a call changes any state, so a refused
+     * call leaves memory as the log has it.
+     */
+    default void checkWritable() { }
+
+    /**
+     * Blocks until every change logged so far is durable. Called with no locks
+     * held. Throws (e.g. UncheckedIOException) rather than return early if the
+     * changes may not be durable.
+     */
+    default void awaitDurable() { }
+}
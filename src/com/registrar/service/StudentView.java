@@ -0,0 +1,38 @@
+package com.registrar.service;
+
+import com.registrar.model.Student;
+import com.registrar.model.TimeSlot;
+
+import java.util.*;
+
+/**
+ * Immutable copy of a student: details, enrolled course codes (sorted) and
+ * weekly schedule (in time order), taken under the student's lock so the
+ * courses and the schedule agree.
+ */
+public final class StudentView {
+    private final String id;
+    private final String name;
+    private final List<String> courses;
+    private final List<TimeSlot> schedule;
+
+    /** Copies the student; caller holds its lock. */
+    StudentView(Student s) {
+        this.id = s.getId();
+        this.name = s.getName();
+        String[] codes = s.getEnrolledCourses().toArray(new String[0]);
+        Arrays.sort(codes);
+        this.courses = Collections.unmodifiableList(Arrays.asList(codes));
+        this.schedule = Collections.unmodifiableList(new ArrayList<>(s.getSchedule()));
+    }
+
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public List<String> getEnrolledCourses() { return courses; }
+    public List<TimeSlot> getSchedule() { return schedule; }
+
+    @Override
+    public String toString() {
+        return id + " - " + name;
+    }
+}
@@ -0,0 +1,39 @@
+package com.registrar.service;
+
+import com.registrar.model.Course;
+import com.registrar.model.Student;
+import com.registrar.model.TimeSlot;
+
+import java.util.Collection;
+
+/**
+ * Receives every RegistrarService call that changes or could change state,
+ * with its outcome, for workload capture (see com.registrar.trace). Unlike
+ * {@link StateLog}, which gets the physical edits, this gets the calls: an
+ * enroll that ends in CONFLICT is reported too.
+ *
+ * Callbacks that touch a course or student run while the service holds its
+ * lock, so calls sharing a course or a student are reported in the order
+ * they took effect. A waitlist promotion is reported per candidate. Calls
+ * naming an unknown student or course are reported without locks. Callbacks
+ * must not call back into the service. All methods default to no-ops.
+ */
+public interface TraceSink {
+    TraceSink NONE = new TraceSink() { };
+
+    default void studentAdded(Student s) { }
+    default void courseAdded(Course c) { }
+    default void meetingTimeAdded(String courseCode, TimeSlot t) { }
+    default void capacityChanged(String courseCode, int capacity) { }
+
+    /** An enroll, or one request of enrollAll or a lottery draw; requestTimeMs orders the waitlist. */
+    default void enrolled(String studentId, String courseCode, int priority, long requestTimeMs,
+                          RegistrarService.EnrollResult result) { }
+
+    default void scheduleEnrolled(String studentId, Collection<String> courseCodes, boolean enrolled) { }
+    default void dropped(String studentId, String courseCode, boolean dropped) { }
+    default void leftWaitlist(String studentId, String courseCode, boolean left) { }
+
+    /** The head of a course's waitlist was offered a freed seat; false if skipped. */
+    default void promotionTried(String courseCode, String studentId, boolean seated) { }
+}
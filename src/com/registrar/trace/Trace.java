@@ -0,0 +1,251 @@
+package com.registrar.trace;
+
+import com.registrar.model.TimeSlot;
+import com.registrar.model.WaitlistEntry;
+import com.registrar.service.CourseDefinition;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A trace written by {@link TraceRecorder}, read into memory. A trace whose
+ * recorder was never closed (or that was cut short) ends at its last
+ * complete call and has no final state to check against.
+ */
+public final class Trace {
+    /** A seat or waitlist entry in the baseline. */
+    static final class Placement {
+        final String courseCode;
+        final String studentId;
+        final WaitlistEntry entry; // null for a seat
+
+        Placement(String courseCode, String studentId, WaitlistEntry entry) {
+            this.courseCode = courseCode;
+            this.studentId = studentId;
+            this.entry = entry;
+        }
+    }
+
+    /** A course's roster (sorted) and waitlist (in promotion order). */
+    static final class CourseState {
+        final List<String> roster;
+        final List<String> waitlist;
+
+        CourseState(List<String> roster, List<String> waitlist) {
+            this.roster = roster;
+            this.waitlist = waitlist;
+        }
+    }
+
+    final long startMs;
+    final Map<String, String> students = new LinkedHashMap<>();  // ID -> name
+    final List<CourseDefinition> courses = new ArrayList<>();
+    final List<Placement> placements = new ArrayList<>();
+    final List<TraceEvent> events = new ArrayList<>();
+    final Map<String, CourseState> finalState;                   // null if the trace was cut short
+
+    private final List<String> strings = new ArrayList<>();
+
+    private Trace(ByteBuffer b) {
+        if (b.getInt() != TraceRecorder.MAGIC) throw new IllegalArgumentException("not a registrar trace");
+        int version = b.get();
+        if (version != TraceRecorder.VERSION) throw new IllegalArgumentException("unsupported trace version " + version);
+        startMs = varint(b);
+        readBaseline(b);
+        finalState = readCalls(b);
+    }
+
+    /** Reads a whole trace file. */
+    public static Trace read(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new Trace(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        } catch (BufferUnderflowException e) {
+            throw new IOException("trace truncated inside its baseline: " + file);
+        }
+    }
+
+    /** Calls recorded. */
+    public int callCount() {
+        return events.size();
+    }
+
+    /** Time from the start of recording to the last call. */
+    public long durationMicros() {
+        return events.isEmpty() ? 0 : events.get(events.size() - 1).atMicros;
+    }
+
+    /** False if the recorder was not closed, so there is no final state to compare. */
+    public boolean isComplete() {
+        return finalState != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Trace{" + students.size() + " students, " + courses.size() + " courses, " + placements.size()
+                + " seats/waiting, " + events.size() + " calls over " + durationMicros() / 1000 + " ms"
+                + (isComplete() ? "" : ", incomplete") + "}";
+    }
+
+    private void readBaseline(ByteBuffer b) {
+        while (true) {
+            byte type = b.get();
+            switch (type) {
+                case TraceRecorder.BASE_STUDENT:
+                    students.put(string(b), string(b));
+                    break;
+                case TraceRecorder.BASE_COURSE:
+                    courses.add(course(b));
+                    break;
+                case TraceRecorder.BASE_SEAT:
+                    placements.add(new Placement(string(b), string(b), null));
+                    break;
+                case TraceRecorder.BASE_WAITING: {
+                    String code = string(b);
+                    String sid = string(b);
+                    int priority = (int) TraceRecorder.unzigzag(varint(b));
+                    long requestTimeMs = startMs + TraceRecorder.unzigzag(varint(b));
+                    placements.add(new Placement(code, sid, new WaitlistEntry(sid, priority, requestTimeMs, varint(b))));
+                    break;
+                }
+                case TraceRecorder.BASE_END:
+                    return;
+                default:
+                    throw new IllegalArgumentException("unknown baseline record " + type);
+            }
+        }
+    }
+
+    /** Reads calls up to the final state, which is returned (null if the trace stops first). */
+    private Map<String, CourseState> readCalls(ByteBuffer b) {
+        long at = 0;
+        while (b.hasRemaining()) {
+            int start = b.position();
+            try {
+                byte type = b.get();
+                if (type == TraceRecorder.FINAL_COURSE || type == TraceRecorder.END) {
+                    b.position(start);
+                    return readFinalState(b);
+                }
+                at += varint(b);
+                events.add(call(type, at, b));
+            } catch (BufferUnderflowException e) {
+                return null; // torn tail
+            }
+        }
+        return null;
+    }
+
+    private TraceEvent call(byte type, long at, ByteBuffer b) {
+        TraceEvent e = new TraceEvent(type, at);
+        switch (type) {
+            case TraceRecorder.STUDENT_ADDED:
+                e.studentId = string(b);
+                e.name = string(b);
+                break;
+            case TraceRecorder.COURSE_ADDED:
+                e.course = course(b);
+                e.courseCode = e.course.getCode();
+                break;
+            case TraceRecorder.MEETING_TIME_ADDED:
+                e.courseCode = string(b);
+                e.slot = slot(b);
+                break;
+            case TraceRecorder.CAPACITY_CHANGED:
+                e.courseCode = string(b);
+                e.number = (int) varint(b);
+                break;
+            case TraceRecorder.ENROLLED:
+                e.studentId = string(b);
+                e.courseCode = string(b);
+                e.number = (int) TraceRecorder.unzigzag(varint(b));
+                e.requestTimeMs = startMs + TraceRecorder.unzigzag(varint(b));
+                e.outcome = b.get();
+                break;
+            case TraceRecorder.SCHEDULE_ENROLLED: {
+                e.studentId = string(b);
+                e.courseCodes = new String[(int) varint(b)];
+                for (int i = 0; i < e.courseCodes.length; i++) e.courseCodes[i] = string(b);
+                e.outcome = b.get();
+                break;
+            }
+            case TraceRecorder.DROPPED:
+            case TraceRecorder.LEFT_WAITLIST:
+                e.studentId = string(b);
+                e.courseCode = string(b);
+                e.outcome = b.get();
+                break;
+            case TraceRecorder.PROMOTION:
+                e.courseCode = string(b);
+                e.studentId = string(b);
+                e.outcome = b.get();
+                break;
+            default:
+                throw new IllegalArgumentException("unknown call record " + type);
+        }
+        return e;
+    }
+
+    private Map<String, CourseState> readFinalState(ByteBuffer b) {
+        Map<String, CourseState> state = new LinkedHashMap<>();
+        while (true) {
+            byte type = b.get();
+            if (type == TraceRecorder.END) return state;
+            if (type != TraceRecorder.FINAL_COURSE) throw new IllegalArgumentException("unknown final record " + type);
+            String code = string(b);
+            List<String> roster = strings(b);
+            state.put(code, new CourseState(roster, strings(b)));
+        }
+    }
+
+    private CourseDefinition course(ByteBuffer b) {
+        String code = string(b);
+        String title = string(b);
+        int capacity = (int) varint(b);
+        int slots = (int) varint(b);
+        List<TimeSlot> times = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) times.add(slot(b));
+        return new CourseDefinition(code, title, capacity, times);
+    }
+
+    private static TimeSlot slot(ByteBuffer b) {
+        TimeSlot.Day day = TimeSlot.Day.values()[b.get()];
+        return new TimeSlot(day, (int) varint(b), (int) varint(b));
+    }
+
+    private List<String> strings(ByteBuffer b) {
+        int n = (int) varint(b);
+        if (n == 0) return Collections.emptyList();
+        List<String> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) list.add(string(b));
+        return list;
+    }
+
+    private String string(ByteBuffer b) {
+        int ref = (int) varint(b);
+        if (ref > 0) return strings.get(ref - 1);
+        byte[] bytes = new byte[(int) varint(b)];
+        b.get(bytes);
+        String s = new String(bytes, StandardCharsets.UTF_8);
+        strings.add(s);
+        return s;
+    }
+
+    private static long varint(ByteBuffer b) {
+        long v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte x = b.get();
+            v |= (long) (x & 0x7F) << shift;
+            if (x >= 0) return v;
+        }
+    }
+}
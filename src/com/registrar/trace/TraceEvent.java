@@ -0,0 +1,49 @@
+package com.registrar.trace;
+
+import com.registrar.model.TimeSlot;
+import com.registrar.service.CourseDefinition;
+
+/**
+ * One recorded call. Which fields are set depends on the type (one of the
+ * call types in {@link TraceRecorder}); the rest are null or 0.
+ */
+final class TraceEvent {
+    final byte type;
+    final long atMicros;           // since the recording started
+    String studentId;
+    String courseCode;
+    String name;                   // STUDENT_ADDED
+    CourseDefinition course;       // COURSE_ADDED
+    TimeSlot slot;                 // MEETING_TIME_ADDED
+    String[] courseCodes;          // SCHEDULE_ENROLLED
+    int number;                    // priority, or the new capacity
+    long requestTimeMs;            // ENROLLED
+    int outcome;                   // EnrollResult ordinal, or 1/0 for true/false
+
+    TraceEvent(byte type, long atMicros) {
+        this.type = type;
+        this.atMicros = atMicros;
+    }
+
+    /** Adding a meeting time changes conflicts for every student, so it runs alone. */
+    boolean isBarrier() {
+        return type == TraceRecorder.MEETING_TIME_ADDED;
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case TraceRecorder.STUDENT_ADDED: return "addStudent(" + studentId + ")";
+            case TraceRecorder.COURSE_ADDED: return "addCourse(" + courseCode + ")";
+            case TraceRecorder.MEETING_TIME_ADDED: return "addMeetingTime(" + courseCode + ", " + slot + ")";
+            case TraceRecorder.CAPACITY_CHANGED: return "setCapacity(" + courseCode + ", " + number + ")";
+            case TraceRecorder.ENROLLED: return "enroll(" + studentId + ", " + courseCode + ", " + number + ")";
+            case TraceRecorder.SCHEDULE_ENROLLED:
+                return "enrollSchedule(" + studentId + ", " + String.join(",", courseCodes) + ")";
+            case TraceRecorder.DROPPED: return "drop(" + studentId + ", " + courseCode + ")";
+            case TraceRecorder.LEFT_WAITLIST: return "leaveWaitlist(" + studentId + ", " + courseCode + ")";
+            case TraceRecorder.PROMOTION: return "promotion(" + courseCode + " -> " + studentId + ")";
+            default: return "event " + type;
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.registrar.trace;
+
+import com.registrar.model.Course;
+import com.registrar.model.Student;
+import com.registrar.model.TimeSlot;
+import com.registrar.model.WaitlistEntry;
+import com.registrar.service.RegistrarService;
+import com.registrar.service.RegistrarService.EnrollResult;
+import com.registrar.service.TraceSink;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records every call made to a RegistrarService, with its outcome, into a
+ * compact binary trace that {@link TraceReplayer} can run again.
+ *
+ * A trace holds three parts: a baseline (every student, course, seat and
+ * waitlist entry when recording started), the calls in the order they took
+ * effect, and the final rosters and waitlists when it was closed. The
+ * baseline and the final state are each cut under
+ * {@link RegistrarService#runExclusive}, so the calls in between are exactly
+ * the ones that led from one to the other.
+ *
+ * Each call is a type byte, the time since the previous call in
+ * microseconds, and its fields. Numbers are varints. A string is a varint
+ * reference into the strings seen so far; 0 is followed by a new string,
+ * so an ID costs its bytes once and one or two bytes after that. A typical
+ * enroll takes about a dozen bytes.
+ *
+ * Appending copies the record into a buffer under the recorder's monitor,
+ * on the calling thread and while it holds the service's locks; the buffer
+ * goes to disk every 256 KB. An I/O error stops the recording and is thrown
+ * by {@link #close()}.
+ */
+public final class TraceRecorder implements TraceSink, Closeable {
+    static final int MAGIC = 0x52545243; // "RTRC"
+    static final int VERSION = 1;
+
+    // Baseline
+    static final byte BASE_STUDENT = 1;
+    static final byte BASE_COURSE = 2;
+    static final byte BASE_SEAT = 3;
+    static final byte BASE_WAITING = 4;
+    static final byte BASE_END = 5;
+
+    // Calls
+    static final byte STUDENT_ADDED = 10;
+    static final byte COURSE_ADDED = 11;
+    static final byte MEETING_TIME_ADDED = 12;
+    static final byte CAPACITY_CHANGED = 13;
+    static final byte ENROLLED = 14;
+    static final byte SCHEDULE_ENROLLED = 15;
+    static final byte DROPPED = 16;
+    static final byte LEFT_WAITLIST = 17;
+    static final byte PROMOTION = 18;
+
+    // Final state
+    static final byte FINAL_COURSE = 30;
+    static final byte END = 31;
+
+    private static final int FLUSH_BYTES = 1 << 18;
+
+    private final RegistrarService service;
+    private final OutputStream out;
+    private final Object closing = new Object();
+
+    // guarded by the monitor
+    private final Map<String, Integer> strings = new HashMap<>();
+    private byte[] buf = new byte[FLUSH_BYTES + (1 << 12)];
+    private int len;
+    private final long startNanos = System.nanoTime();
+    private long startMs;     // request times are stored relative to this
+    private long lastMicros;
+    private long calls;
+    private boolean closed;
+    private IOException failure;
+
+    private TraceRecorder(RegistrarService service, OutputStream out) {
+        this.service = service;
+        this.out = out;
+    }
+
+    /**
+     * Starts recording a service's calls into a new file (replacing any old
+     * one). The baseline is written and the recorder attached while the
+     * service is held still, which blocks its callers for as long as that
+     * takes.
+     */
+    public static TraceRecorder start(RegistrarService service, Path file) throws IOException {
+        TraceRecorder r = new TraceRecorder(service, new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        service.runExclusive(() -> {
+            synchronized (r) {
+                r.writeBaseline();
+            }
+            service.setTraceSink(r);
+            return null;
+        });
+        synchronized (r) {
+            if (r.failure != null) {
+                service.setTraceSink(null);
+                r.closed = true;
+                r.out.close();
+                throw r.failure;
+            }
+        }
+        return r;
+    }
+
+    /** Calls recorded so far. */
+    public synchronized long callCount() {
+        return calls;
+    }
+
+    // --- TraceSink ---
+
+    @Override
+    public synchronized void studentAdded(Student s) {
+        if (!call(STUDENT_ADDED)) return;
+        putString(s.getId());
+        putString(s.getName());
+    }
+
+    @Override
+    public synchronized void courseAdded(Course c) {
+        if (!call(COURSE_ADDED)) return;
+        putCourse(c);
+    }
+
+    @Override
+    public synchronized void meetingTimeAdded(String courseCode, TimeSlot t) {
+        if (!call(MEETING_TIME_ADDED)) return;
+        putString(courseCode);
+        putSlot(t);
+    }
+
+    @Override
+    public synchronized void capacityChanged(String courseCode, int capacity) {
+        if (!call(CAPACITY_CHANGED)) return;
+        putString(courseCode);
+        putVarint(capacity);
+    }
+
+    @Override
+    public synchronized void enrolled(String studentId, String courseCode, int priority, long requestTimeMs,
+                                      EnrollResult result) {
+        if (!call(ENROLLED)) return;
+        putString(studentId);
+        putString(courseCode);
+        putVarint(zigzag(priority));
+        putVarint(zigzag(requestTimeMs - startMs));
+        put((byte) result.ordinal());
+    }
+
+    @Override
+    public synchronized void scheduleEnrolled(String studentId, Collection<String> courseCodes, boolean enrolled) {
+        if (!call(SCHEDULE_ENROLLED)) return;
+        putString(studentId);
+        putVarint(courseCodes.size());
+        for (String code : courseCodes) putString(code);
+        putBoolean(enrolled);
+    }
+
+    @Override
+    public synchronized void dropped(String studentId, String courseCode, boolean dropped) {
+        if (!call(DROPPED)) return;
+        putString(studentId);
+        putString(courseCode);
+        putBoolean(dropped);
+    }
+
+    @Override
+    public synchronized void leftWaitlist(String studentId, String courseCode, boolean left) {
+        if (!call(LEFT_WAITLIST)) return;
+        putString(studentId);
+        putString(courseCode);
+        putBoolean(left);
+    }
+
+    @Override
+    public synchronized void promotionTried(String courseCode, String studentId, boolean seated) {
+        if (!call(PROMOTION)) return;
+        putString(courseCode);
+        putString(studentId);
+        putBoolean(seated);
+    }
+
+    /**
+     * Stops recording: detaches from the service and writes every course's
+     * roster and waitlist as they stand, again with the service held still.
+     */
+    @Override
+    public void close() throws IOException {
+        // Not under the monitor: service threads take it while holding stripes
+        synchronized (closing) {
+            synchronized (this) {
+                if (closed) return;
+            }
+            service.runExclusive(() -> {
+                service.setTraceSink(null);
+                synchronized (this) {
+                    if (failure == null) writeFinalState();
+                    closed = true;
+                }
+                return null;
+            });
+            synchronized (this) {
+                try {
+                    if (failure == null) flush();
+                } finally {
+                    out.close();
+                }
+                if (failure != null) throw failure;
+            }
+        }
+    }
+
+    // --- Sections ---
+
+    private void writeBaseline() {
+        putInt(MAGIC);
+        put((byte) VERSION);
+        startMs = System.currentTimeMillis();
+        putVarint(startMs);
+        for (Student s : service.listStudents()) {
+            put(BASE_STUDENT);
+            putString(s.getId());
+            putString(s.getName());
+        }
+        for (Course c : service.listCourses()) {
+            put(BASE_COURSE);
+            putCourse(c);
+        }
+        for (Course c : service.listCourses()) {
+            for (String sid : c.getEnrolledStudentIds()) {
+                put(BASE_SEAT);
+                putString(c.getCode());
+                putString(sid);
+            }
+            for (WaitlistEntry e : c.getWaitlistEntries()) {
+                put(BASE_WAITING);
+                putString(c.getCode());
+                putString(e.getStudentId());
+                putVarint(zigzag(e.getPriority()));
+                putVarint(zigzag(e.getRequestTimeMs() - startMs));
+                putVarint(e.getSequence());
+            }
+            flushIfFull();
+        }
+        put(BASE_END);
+    }
+
+    private void writeFinalState() {
+        List<Course> all = new ArrayList<>(service.listCourses());
+        all.sort((a, b) -> a.getCode().compareTo(b.getCode()));
+        for (Course c : all) {
+            put(FINAL_COURSE);
+            putString(c.getCode());
+            List<String> roster = new ArrayList<>(c.getEnrolledStudentIds());
+            roster.sort(null);
+            putVarint(roster.size());
+            for (String sid : roster) putString(sid);
+            List<WaitlistEntry> waiting = c.getWaitlistEntries();
+            putVarint(waiting.size());
+            for (WaitlistEntry e : waiting) putString(e.getStudentId());
+            flushIfFull();
+        }
+        put(END);
+    }
+
+    // --- Encoding; caller holds the monitor ---
+
+    /** Starts a call record; false once the recorder is closed or has failed. */
+    private boolean call(byte type) {
+        if (closed || failure != null) return false;
+        flushIfFull();
+        long at = (System.nanoTime() - startNanos) / 1000;
+        long delta = Math.max(0, at - lastMicros);
+        lastMicros += delta;
+        calls++;
+        put(type);
+        putVarint(delta);
+        return true;
+    }
+
+    private void putCourse(Course c) {
+        putString(c.getCode());
+        putString(c.getTitle());
+        putVarint(c.getCapacity());
+        putVarint(c.getMeetingTimes().size());
+        for (TimeSlot t : c.getMeetingTimes()) putSlot(t);
+    }
+
+    private void putSlot(TimeSlot t) {
+        put((byte) t.getDay().ordinal());
+        putVarint(t.getStartMin());
+        putVarint(t.getEndMin());
+    }
+
+    private void putString(String s) {
+        Integer ref = strings.get(s);
+        if (ref != null) {
+            putVarint(ref);
+            return;
+        }
+        strings.put(s, strings.size() + 1);
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        putVarint(0);
+        putVarint(b.length);
+        ensure(b.length);
+        System.arraycopy(b, 0, buf, len, b.length);
+        len += b.length;
+    }
+
+    private void putBoolean(boolean b) {
+        put((byte) (b ? 1 : 0));
+    }
+
+    private void putInt(int v) {
+        put((byte) (v >>> 24));
+        put((byte) (v >>> 16));
+        put((byte) (v >>> 8));
+        put((byte) v);
+    }
+
+    /** Unsigned LEB128. */
+    private void putVarint(long v) {
+        ensure(10);
+        while ((v & ~0x7FL) != 0) {
+            buf[len++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[len++] = (byte) v;
+    }
+
+    private void put(byte b) {
+        ensure(1);
+        buf[len++] = b;
+    }
+
+    private void ensure(int bytes) {
+        if (len + bytes > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + bytes));
+        }
+    }
+
+    private void flushIfFull() {
+        if (len >= FLUSH_BYTES && failure == null) {
+            try {
+                flush();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        out.write(buf, 0, len);
+        len = 0;
+        out.flush();
+    }
+
+    /** Maps small negative numbers to small varints. */
+    static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
@@ -0,0 +1,325 @@
+package com.registrar.trace;
+
+import com.registrar.model.Course;
+import com.registrar.model.WaitlistEntry;
+import com.registrar.service.CourseDefinition;
+import com.registrar.service.RegistrarService;
+import com.registrar.service.RegistrarService.EnrollResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a recorded {@link Trace} against a fresh RegistrarService and checks
+ * that every call returns what it returned when recorded, and that the
+ * rosters and waitlists end up the same. Used as a regression test (record
+ * real traffic once, replay it after any change to the model or the
+ * service) and as a load test that is the same every run.
+ *
+ * Calls run on {@code threads} threads, in trace order except that a call
+ * only waits for the earlier calls on its course(s) and its student, so
+ * calls that did not touch each other when recorded run in parallel; with
+ * one thread the replay is strictly sequential. Adding a meeting time
+ * waits for, and holds up, everything. Waitlist promotions are replayed
+ * where they happened instead of by the background worker (see
+ * {@link RegistrarService#setManualPromotion}).
+ *
+ * {@code speed} paces the calls: 1 replays them at the recorded rate, 10
+ * ten times faster, 0 as fast as possible.
+ *
+ * Two things are not reproduced exactly. Lotteries appear as the enrolls
+ * of their draw; the draw runs at the point it did. A call naming a student
+ * or course that was being added at the same moment may be ordered either
+ * way relative to the add, so it can report a mismatch that was a race in
+ * the recording, not in the replay.
+ */
+public final class TraceReplayer {
+    /** Mismatches kept for the report; the rest are only counted. */
+    static final int MAX_REPORTED = 10;
+
+    private final Trace trace;
+    private final RegistrarService service;
+    private final List<TraceEvent> events;
+    private final int[][] waitsFor;           // per call: earlier calls it must follow
+    private final AtomicIntegerArray done;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger finished = new AtomicInteger();
+    private final AtomicLong mismatches = new AtomicLong();
+    private final List<String> reported = new ArrayList<>(); // guarded by itself
+
+    private TraceReplayer(Trace trace, RegistrarService service) {
+        this.trace = trace;
+        this.service = service;
+        this.events = trace.events;
+        this.waitsFor = dependencies(events);
+        this.done = new AtomicIntegerArray(events.size());
+    }
+
+    /** Reads a trace file and replays it into a new RegistrarService. */
+    public static Report replay(Path file, int threads, double speed) throws IOException {
+        return replay(Trace.read(file), threads, speed);
+    }
+
+    public static Report replay(Trace trace, int threads, double speed) {
+        return replay(trace, new RegistrarService(), threads, speed);
+    }
+
+    /**
+     * Replays into the given service, which must be empty, e.g. one with a
+     * different number of lock stripes or with a StateLog attached.
+     */
+    public static Report replay(Trace trace, RegistrarService service, int threads, double speed) {
+        if (threads <= 0) throw new IllegalArgumentException("threads must be > 0");
+        if (speed < 0) throw new IllegalArgumentException("speed must be >= 0");
+        if (!service.listCourses().isEmpty() || !service.listStudents().isEmpty()) {
+            throw new IllegalArgumentException("replay needs an empty service");
+        }
+        return new TraceReplayer(trace, service).run(threads, speed);
+    }
+
+    private Report run(int threads, double speed) {
+        service.setManualPromotion(true);
+        try {
+            applyBaseline();
+            long t0 = System.nanoTime();
+            Thread[] workers = new Thread[threads];
+            for (int i = 0; i < threads; i++) {
+                workers[i] = new Thread(() -> work(t0, speed), "trace-replay-" + i);
+                workers[i].start();
+            }
+            for (Thread w : workers) {
+                try {
+                    w.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted during replay", e);
+                }
+            }
+            long elapsed = System.nanoTime() - t0;
+            List<String> differences = trace.finalState != null ? compareFinalState() : null;
+            return new Report(events.size(), mismatches.get(), new ArrayList<>(reported), differences, elapsed);
+        } finally {
+            service.setManualPromotion(false);
+        }
+    }
+
+    private void applyBaseline() {
+        for (Map.Entry<String, String> s : trace.students.entrySet()) service.addStudent(s.getKey(), s.getValue());
+        service.addCourses(trace.courses);
+        for (Trace.Placement p : trace.placements) {
+            if (p.entry == null) {
+                service.restoreSeat(p.courseCode, p.studentId);
+            } else {
+                service.restoreWaitlistEntry(p.courseCode, p.entry);
+            }
+        }
+    }
+
+    private void work(long t0, double speed) {
+        int i;
+        while ((i = next.getAndIncrement()) < events.size()) {
+            TraceEvent e = events.get(i);
+            int at = i;
+            if (e.isBarrier()) await(() -> finished.get() >= at); // later calls all wait for this one
+            for (int d : waitsFor[i]) await(() -> done.get(d) != 0);
+            if (speed > 0) {
+                long due = t0 + (long) (e.atMicros * 1000 / speed);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) LockSupport.parkNanos(wait);
+            }
+            try {
+                String problem = apply(e);
+                if (problem != null) mismatch("#" + i + " " + e + ": " + problem);
+            } catch (RuntimeException ex) {
+                mismatch("#" + i + " " + e + ": threw " + ex);
+            }
+            done.set(i, 1);
+            finished.incrementAndGet();
+        }
+    }
+
+    /** Runs one call; returns how its outcome differs from the recording, or null. */
+    private String apply(TraceEvent e) {
+        switch (e.type) {
+            case TraceRecorder.STUDENT_ADDED:
+                return expect(true, service.addStudent(e.studentId, e.name));
+            case TraceRecorder.COURSE_ADDED: {
+                CourseDefinition c = e.course;
+                return expect(true, service.addCourse(c.getCode(), c.getTitle(), c.getCapacity(), c.getMeetingTimes()));
+            }
+            case TraceRecorder.MEETING_TIME_ADDED:
+                return expect(true, service.addMeetingTime(e.courseCode, e.slot));
+            case TraceRecorder.CAPACITY_CHANGED:
+                return expect(true, service.setCapacity(e.courseCode, e.number));
+            case TraceRecorder.ENROLLED: {
+                EnrollResult expected = EnrollResult.values()[e.outcome];
+                EnrollResult actual = service.replayEnroll(e.studentId, e.courseCode, e.number, e.requestTimeMs);
+                return actual == expected ? null : "expected " + expected + ", got " + actual;
+            }
+            case TraceRecorder.SCHEDULE_ENROLLED:
+                return expect(e.outcome != 0, service.enrollSchedule(e.studentId, Arrays.asList(e.courseCodes)));
+            case TraceRecorder.DROPPED:
+                return expect(e.outcome != 0, service.drop(e.studentId, e.courseCode));
+            case TraceRecorder.LEFT_WAITLIST:
+                return expect(e.outcome != 0, service.leaveWaitlist(e.studentId, e.courseCode));
+            case TraceRecorder.PROMOTION: {
+                String candidate = service.replayPromotion(e.courseCode);
+                if (!e.studentId.equals(candidate)) return "expected candidate " + e.studentId + ", got " + candidate;
+                boolean seated = service.getCourse(e.courseCode).isEnrolled(candidate);
+                return seated == (e.outcome != 0) ? null : (seated ? "seated, was skipped" : "skipped, was seated");
+            }
+            default:
+                throw new IllegalStateException("unknown call " + e.type);
+        }
+    }
+
+    private static String expect(boolean expected, boolean actual) {
+        return actual == expected ? null : "expected " + expected + ", got " + actual;
+    }
+
+    private void mismatch(String message) {
+        mismatches.incrementAndGet();
+        synchronized (reported) {
+            if (reported.size() < MAX_REPORTED) reported.add(message);
+        }
+    }
+
+    private List<String> compareFinalState() {
+        List<String> differences = new ArrayList<>();
+        Map<String, Trace.CourseState> expected = trace.finalState;
+        for (Course c : service.listCourses()) {
+            if (!expected.containsKey(c.getCode())) differences.add(c.getCode() + ": not in the recording");
+        }
+        for (Map.Entry<String, Trace.CourseState> x : expected.entrySet()) {
+            Course c = service.getCourse(x.getKey());
+            if (c == null) {
+                differences.add(x.getKey() + ": missing");
+                continue;
+            }
+            List<String> roster = new ArrayList<>(c.getEnrolledStudentIds());
+            roster.sort(null);
+            if (!roster.equals(x.getValue().roster)) {
+                differences.add(x.getKey() + ": roster " + roster + ", recorded " + x.getValue().roster);
+            }
+            List<String> waitlist = new ArrayList<>();
+            for (WaitlistEntry e : c.getWaitlistEntries()) waitlist.add(e.getStudentId());
+            if (!waitlist.equals(x.getValue().waitlist)) {
+                differences.add(x.getKey() + ": waitlist " + waitlist + ", recorded " + x.getValue().waitlist);
+            }
+        }
+        return differences;
+    }
+
+    // --- Scheduling ---
+
+    /**
+     * For each call, the latest earlier call on each of its courses and its
+     * student, and the latest barrier; a barrier follows everything.
+     */
+    private static int[][] dependencies(List<TraceEvent> events) {
+        Map<String, Integer> lastOnCourse = new HashMap<>();
+        Map<String, Integer> lastOfStudent = new HashMap<>();
+        int lastBarrier = -1;
+        int[][] deps = new int[events.size()][];
+        int[] scratch = new int[16];
+        for (int i = 0; i < events.size(); i++) {
+            TraceEvent e = events.get(i);
+            int n = 0;
+            if (lastBarrier >= 0) scratch[n++] = lastBarrier;
+            if (e.studentId != null) {
+                Integer d = lastOfStudent.put(e.studentId, i);
+                if (d != null) scratch[n++] = d;
+            }
+            String[] codes = e.courseCodes != null ? e.courseCodes
+                    : e.courseCode != null ? new String[] {e.courseCode} : new String[0];
+            for (String code : codes) {
+                Integer d = lastOnCourse.put(code, i);
+                if (d != null && d != i) { // a schedule may repeat a code
+                    if (n == scratch.length) scratch = Arrays.copyOf(scratch, n * 2);
+                    scratch[n++] = d;
+                }
+            }
+            deps[i] = Arrays.copyOf(scratch, n);
+            if (e.isBarrier()) lastBarrier = i;
+        }
+        return deps;
+    }
+
+    private interface Condition {
+        boolean holds();
+    }
+
+    /** Spins briefly, then parks in short naps; waits are usually a few microseconds. */
+    private static void await(Condition c) {
+        for (int spins = 0; !c.holds(); spins++) {
+            if (spins < 64) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(20_000);
+            }
+        }
+    }
+
+    /** Outcome of a replay. */
+    public static final class Report {
+        private final int calls;
+        private final long mismatches;
+        private final List<String> firstMismatches;
+        private final List<String> finalDifferences;
+        private final long elapsedNanos;
+
+        Report(int calls, long mismatches, List<String> firstMismatches, List<String> finalDifferences,
+               long elapsedNanos) {
+            this.calls = calls;
+            this.mismatches = mismatches;
+            this.firstMismatches = Collections.unmodifiableList(firstMismatches);
+            this.finalDifferences = finalDifferences == null ? null : Collections.unmodifiableList(finalDifferences);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getCalls() { return calls; }
+        /** Calls whose result differed from the recording. */
+        public long getMismatches() { return mismatches; }
+        /** The first few mismatches, described. */
+        public List<String> getFirstMismatches() { return firstMismatches; }
+        /** Courses whose roster or waitlist ended differently; null if the trace has no final state. */
+        public List<String> getFinalDifferences() { return finalDifferences; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public double callsPerSecond() {
+            return elapsedNanos == 0 ? 0 : calls * 1e9 / elapsedNanos;
+        }
+
+        /** Every call matched and the final state (if recorded) is the same. */
+        public boolean isIdentical() {
+            return mismatches == 0 && (finalDifferences == null || finalDifferences.isEmpty());
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%,d calls in %.1f ms (%,.0f/s): %s", calls, elapsedNanos / 1e6, callsPerSecond(),
+                    isIdentical() ? "identical" : mismatches + " mismatched call(s)"));
+            if (finalDifferences == null) {
+                sb.append(", no final state recorded");
+            } else if (!finalDifferences.isEmpty()) {
+                sb.append(", ").append(finalDifferences.size()).append(" course(s) ended differently");
+            }
+            for (String m : firstMismatches) sb.append("\n  ").append(m);
+            for (int i = 0; finalDifferences != null && i < Math.min(MAX_REPORTED, finalDifferences.size()); i++) {
+                sb.append("\n  ").append(finalDifferences.get(i));
+            }
+            return sb.toString();
+        }
+    }
+}
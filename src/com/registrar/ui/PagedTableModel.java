@@ -0,0 +1,174 @@
+package com.registrar.ui;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Table model that fetches rows a page at a time, off the Event Dispatch Thread.
+ * The table asks only for visible cells; a cell on a page not yet loaded shows
+ * a placeholder and triggers a background load of that page, and the rows are
+ * repainted when it arrives. Only the most recently used pages are kept.
+ *
+ * Rows are arrays of cell values copied by the {@link Source}, so painting
+ * never touches live model objects. All methods must be called on the EDT;
+ * Source methods run on SwingWorker threads.
+ */
+final class PagedTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    static final int PAGE_SIZE = 200;
+    private static final int MAX_PAGES = 32;
+    private static final String LOADING = "...";
+
+    /** Where rows come from. Called off the EDT. */
+    interface Source {
+        /** Prepares a new view (e.g. takes a sorted snapshot of keys) and returns its row count. */
+        int open();
+
+        /** Rows [offset, offset + limit) of the view prepared by the last open(); may be short. */
+        List<Object[]> page(int offset, int limit);
+
+        /**
+         * Brings the view prepared by the last open() up to date for changes
+         * that keep its rows (e.g. seat counts), without rebuilding it.
+         */
+        default void update() {}
+    }
+
+    private final String[] columns;
+    private Source source;
+
+    private int rowCount;
+    private int generation;
+    private boolean opening;
+    private final Set<Integer> requested = new HashSet<>();
+    private final Map<Integer, List<Object[]>> pages = new LinkedHashMap<Integer, List<Object[]>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Object[]>> eldest) {
+            if (size() <= MAX_PAGES) return false;
+            requested.remove(eldest.getKey());
+            return true;
+        }
+    };
+
+    PagedTableModel(Source source, String... columns) {
+        this.columns = columns.clone();
+        this.source = source;
+    }
+
+    /** Switches to another source (e.g. another course's roster) and reloads. */
+    void setSource(Source source) {
+        this.source = source;
+        refresh();
+    }
+
+    /** Drops cached pages and reopens the source in the background. */
+    void refresh() {
+        int gen = ++generation;
+        opening = true;
+        Source src = source;
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() {
+                return src.open();
+            }
+
+            @Override
+            protected void done() {
+                if (gen != generation) return;
+                opening = false;
+                Integer count = result(this);
+                pages.clear();
+                requested.clear();
+                rowCount = count != null ? count : 0;
+                fireTableDataChanged();
+            }
+        }.execute();
+    }
+
+    /**
+     * Reloads just the pages being looked at, for changes that keep the rows
+     * of the current view; cheaper than {@link #refresh()}, which reopens the
+     * source.
+     */
+    void reloadPages() {
+        if (opening) return; // the pending refresh reloads everything anyway
+        int gen = ++generation;
+        Source src = source;
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                src.update();
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                if (gen != generation) return;
+                result(this);
+                pages.clear();
+                requested.clear();
+                if (rowCount > 0) fireTableRowsUpdated(0, rowCount - 1);
+            }
+        }.execute();
+    }
+
+    @Override
+    public int getRowCount() { return rowCount; }
+
+    @Override
+    public int getColumnCount() { return columns.length; }
+
+    @Override
+    public String getColumnName(int column) { return columns[column]; }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int pageNo = row / PAGE_SIZE;
+        List<Object[]> page = pages.get(pageNo);
+        if (page == null) {
+            load(pageNo);
+            return LOADING;
+        }
+        int i = row % PAGE_SIZE;
+        // A short page means rows went away since open(); show them blank until the next refresh
+        return i < page.size() ? page.get(i)[column] : null;
+    }
+
+    /** Loads a page once; a failed load is not retried until the next refresh. */
+    private void load(int pageNo) {
+        if (!requested.add(pageNo)) return;
+        int gen = generation;
+        Source src = source;
+        new SwingWorker<List<Object[]>, Void>() {
+            @Override
+            protected List<Object[]> doInBackground() {
+                return src.page(pageNo * PAGE_SIZE, PAGE_SIZE);
+            }
+
+            @Override
+            protected void done() {
+                if (gen != generation) return;
+                List<Object[]> rows = result(this);
+                if (rows == null) return;
+                pages.put(pageNo, rows);
+                int first = pageNo * PAGE_SIZE;
+                int last = Math.min(rowCount, first + PAGE_SIZE) - 1;
+                if (first <= last) fireTableRowsUpdated(first, last);
+            }
+        }.execute();
+    }
+
+    private static <V> V result(SwingWorker<V, ?> worker) {
+        try {
+            return worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            System.err.println("Table load failed: " + e.getCause());
+            return null;
+        }
+    }
+}
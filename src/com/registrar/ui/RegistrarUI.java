@@ -1,32 +1,58 @@
 
 package com.registrar.ui;
 
+import com.registrar.model.Course;
+import com.registrar.model.Student;
 import com.registrar.model.TimeSlot;
+import com.registrar.service.CampusSnapshot;
+import com.registrar.service.CourseView;
 import com.registrar.service.RegistrarService;
 
 import javax.swing.*;
+import javax.swing.text.BadLocationException;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 /**
  * Minimal Swing UI to interact with RegistrarService.
  * Tabs: Students, Courses, Enrollments.
+ *
+ * Service calls never run on the Event Dispatch Thread: commands go through
+ * {@link #runInBackground} and lists are JTables over {@link PagedTableModel}s,
+ * which load only the pages being looked at.
  */
 public class RegistrarUI extends JFrame {
+    private static final int MAX_OUTPUT_LINES = 1000;
+
     private final RegistrarService service;
     private final JTextArea outputArea = new JTextArea(12, 50);
+    private final PagedTableModel studentsModel;
+    private final PagedTableModel coursesModel;
+    private final PagedTableModel rosterModel;
+    private String rosterCode; // course shown in the roster table; EDT only
 
     public RegistrarUI(RegistrarService service) {
         super("Campus Registrar");
         this.service = service;
+        this.studentsModel = new PagedTableModel(new StudentSource(), "ID", "Name", "Courses");
+        this.coursesModel = new PagedTableModel(new CourseSource(),
+                "Code", "Title", "Capacity", "Enrolled", "Waitlist", "Meeting Times");
+        this.rosterModel = new PagedTableModel(new RosterSource(null, RegistrarService.RosterOrder.STUDENT_ID),
+                "Student ID", "Name");
         initUI();
+        studentsModel.refresh();
+        coursesModel.refresh();
     }
 
     private void initUI() {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        setSize(800, 600);
+        setSize(900, 700);
         setLocationRelativeTo(null);
 
         JTabbedPane tabs = new JTabbedPane();
@@ -55,7 +81,7 @@ public class RegistrarUI extends JFrame {
         JTextField idField = new JTextField(10);
         JTextField nameField = new JTextField(15);
         JButton addBtn = new JButton("Add Student");
-        JButton listBtn = new JButton("List Students");
+        JButton listBtn = new JButton("Refresh List");
 
         gbc.gridx = 0; gbc.gridy = 0; p.add(new JLabel("ID:"), gbc);
         gbc.gridx = 1; p.add(idField, gbc);
@@ -67,17 +93,17 @@ public class RegistrarUI extends JFrame {
         gbc.gridx = 1; p.add(listBtn, gbc);
 
         addBtn.addActionListener((ActionEvent e) -> {
-            boolean ok = service.addStudent(idField.getText().trim(), nameField.getText().trim());
-            appendOutput(ok ? "Student added.\n" : "Student already exists or invalid.\n");
+            String id = idField.getText().trim();
+            String name = nameField.getText().trim();
+            runInBackground(() -> service.addStudent(id, name), ok -> {
+                appendOutput(ok ? "Student added.\n" : "Student already exists or invalid.\n");
+                if (ok) studentsModel.refresh();
+            });
         });
 
-        listBtn.addActionListener((ActionEvent e) -> {
-            StringBuilder sb = new StringBuilder("Students:\n");
-            service.listStudents().forEach(s -> sb.append(" - ").append(s).append("\n"));
-            appendOutput(sb.toString());
-        });
+        listBtn.addActionListener((ActionEvent e) -> studentsModel.refresh());
 
-        return p;
+        return withTable(p, studentsModel);
     }
 
     private JPanel buildCoursesPanel() {
@@ -97,7 +123,7 @@ public class RegistrarUI extends JFrame {
         List<TimeSlot> tmpTimes = new ArrayList<>();
         JButton addTimeBtn = new JButton("Add Meeting Time");
         JButton addCourseBtn = new JButton("Add Course");
-        JButton listCoursesBtn = new JButton("List Courses");
+        JButton listCoursesBtn = new JButton("Refresh List");
 
         gbc.gridx = 0; gbc.gridy = 0; p.add(new JLabel("Code:"), gbc);
         gbc.gridx = 1; p.add(codeField, gbc);
@@ -141,23 +167,20 @@ public class RegistrarUI extends JFrame {
         });
 
         addCourseBtn.addActionListener((ActionEvent e) -> {
-            boolean ok = service.addCourse(
-                codeField.getText().trim(),
-                titleField.getText().trim(),
-                (Integer) capSpinner.getValue(),
-                tmpTimes
-            );
-            appendOutput(ok ? "Course added.\n" : "Course exists or invalid.\n");
+            String code = codeField.getText().trim();
+            String title = titleField.getText().trim();
+            int capacity = (Integer) capSpinner.getValue();
+            List<TimeSlot> times = new ArrayList<>(tmpTimes);
             tmpTimes.clear();
+            runInBackground(() -> service.addCourse(code, title, capacity, times), ok -> {
+                appendOutput(ok ? "Course added.\n" : "Course exists or invalid.\n");
+                if (ok) coursesModel.refresh();
+            });
         });
 
-        listCoursesBtn.addActionListener((ActionEvent e) -> {
-            StringBuilder sb = new StringBuilder("Courses:\n");
-            service.listCourses().forEach(c -> sb.append(" - ").append(c).append("\n"));
-            appendOutput(sb.toString());
-        });
+        listCoursesBtn.addActionListener((ActionEvent e) -> coursesModel.refresh());
 
-        return p;
+        return withTable(p, coursesModel);
     }
 
     private JPanel buildEnrollmentPanel() {
@@ -171,6 +194,7 @@ public class RegistrarUI extends JFrame {
         JButton enrollBtn = new JButton("Enroll");
         JButton dropBtn = new JButton("Drop");
         JButton rosterBtn = new JButton("Show Roster");
+        JComboBox<RegistrarService.RosterOrder> orderCombo = new JComboBox<>(RegistrarService.RosterOrder.values());
 
         gbc.gridx = 0; gbc.gridy = 0; p.add(new JLabel("Student ID:"), gbc);
         gbc.gridx = 1; p.add(studentIdField, gbc);
@@ -182,29 +206,86 @@ public class RegistrarUI extends JFrame {
 
         gbc.gridx = 0; gbc.gridy = 3; p.add(enrollBtn, gbc);
         gbc.gridx = 1; p.add(dropBtn, gbc);
-        gbc.gridx = 1; gbc.gridy = 4; p.add(rosterBtn, gbc);
+        gbc.gridx = 0; gbc.gridy = 4; p.add(orderCombo, gbc);
+        gbc.gridx = 1; p.add(rosterBtn, gbc);
 
         enrollBtn.addActionListener((ActionEvent e) -> {
             String sid = studentIdField.getText().trim();
             String code = courseCodeField.getText().trim();
             int priority = (Integer) prioritySpinner.getValue();
-            RegistrarService.EnrollResult result = service.enroll(sid, code, priority);
-            appendOutput("Enroll result: " + result + "\n");
+            runInBackground(() -> service.enroll(sid, code, priority), result -> {
+                appendOutput("Enroll result: " + result + "\n");
+                enrollmentChanged(code);
+            });
         });
 
         dropBtn.addActionListener((ActionEvent e) -> {
             String sid = studentIdField.getText().trim();
             String code = courseCodeField.getText().trim();
-            boolean ok = service.drop(sid, code);
-            appendOutput(ok ? "Dropped.\n" : "Drop failed.\n");
+            runInBackground(() -> {
+                boolean ok = service.drop(sid, code);
+                if (ok) service.awaitPromotions(); // show the refilled seat, not the gap
+                return ok;
+            }, ok -> {
+                appendOutput(ok ? "Dropped.\n" : "Drop failed.\n");
+                if (ok) enrollmentChanged(code);
+            });
         });
 
         rosterBtn.addActionListener((ActionEvent e) -> {
             String code = courseCodeField.getText().trim();
-            appendOutput(service.getRoster(code) + "\n");
+            RegistrarService.RosterOrder order = (RegistrarService.RosterOrder) orderCombo.getSelectedItem();
+            rosterCode = code;
+            rosterModel.setSource(new RosterSource(code, order));
+            runInBackground(() -> service.getCourse(code), c ->
+                    appendOutput(c == null ? "Course not found.\n" : "Roster for " + c + "\n"));
         });
 
-        return p;
+        return withTable(p, rosterModel);
+    }
+
+    /**
+     * Seat counts and course counts on screen may have changed, and so may the
+     * roster if it shows this course; the sets of students and courses have not.
+     */
+    private void enrollmentChanged(String code) {
+        if (code.equals(rosterCode)) rosterModel.refresh();
+        coursesModel.reloadPages();
+        studentsModel.reloadPages();
+    }
+
+    /** Form on top, scrolling table below. */
+    private static JPanel withTable(JPanel form, PagedTableModel model) {
+        JTable table = new JTable(model);
+        table.setFillsViewportHeight(true);
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(form, BorderLayout.NORTH);
+        panel.add(new JScrollPane(table), BorderLayout.CENTER);
+        return panel;
+    }
+
+    /**
+     * Runs a service call on a SwingWorker thread and hands its result to
+     * {@code onDone} on the EDT; failures are reported in the output area.
+     */
+    private <T> void runInBackground(Callable<T> call, Consumer<T> onDone) {
+        new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return call.call();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    onDone.accept(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    appendOutput("Error: " + e.getCause() + "\n");
+                }
+            }
+        }.execute();
     }
 
     private GridBagConstraints baseGbc() {
@@ -216,6 +297,130 @@ public class RegistrarUI extends JFrame {
 
     private void appendOutput(String text) {
         outputArea.append(text);
+        // Keep the log bounded; old lines fall off the top
+        int excess = outputArea.getLineCount() - MAX_OUTPUT_LINES;
+        if (excess > 0) {
+            try {
+                outputArea.replaceRange("", 0, outputArea.getLineEndOffset(excess - 1));
+            } catch (BadLocationException e) {
+                outputArea.setText("");
+            }
+        }
         outputArea.setCaretPosition(outputArea.getDocument().getLength());
     }
+
+    // --- Table sources (run on SwingWorker threads) ---
+
+    /** All students sorted by ID; open() snapshots the IDs, pages look up the rest. */
+    private final class StudentSource implements PagedTableModel.Source {
+        private volatile List<String> ids = Collections.emptyList();
+
+        @Override
+        public int open() {
+            List<String> sorted = service.sortedStudentIds();
+            ids = sorted;
+            return sorted.size();
+        }
+
+        @Override
+        public List<Object[]> page(int offset, int limit) {
+            List<String> sorted = ids;
+            List<Object[]> rows = new ArrayList<>(limit);
+            for (int i = offset; i < Math.min(sorted.size(), offset + limit); i++) {
+                Student s = service.getStudent(sorted.get(i));
+                if (s == null) break;
+                rows.add(new Object[] { s.getId(), s.getName(), s.getEnrolledCourses().size() });
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * All courses sorted by code, read from one CampusSnapshot per open() so
+     * every page shows the same moment; the previous snapshot is closed then.
+     * update() moves to a newer snapshot but keeps the sorted codes.
+     */
+    private final class CourseSource implements PagedTableModel.Source {
+        private CampusSnapshot snapshot; // guarded by this
+        private List<String> codes = Collections.emptyList(); // guarded by this
+
+        @Override
+        public int open() {
+            CampusSnapshot next = service.openSnapshot();
+            List<String> nextCodes = next.courseCodes();
+            swap(next, nextCodes);
+            return nextCodes.size();
+        }
+
+        @Override
+        public void update() {
+            CampusSnapshot next = service.openSnapshot();
+            List<String> sameCodes;
+            synchronized (this) {
+                sameCodes = codes;
+            }
+            swap(next, sameCodes);
+        }
+
+        private void swap(CampusSnapshot next, List<String> nextCodes) {
+            CampusSnapshot previous;
+            synchronized (this) {
+                previous = snapshot;
+                snapshot = next;
+                codes = nextCodes;
+            }
+            if (previous != null) previous.close();
+        }
+
+        @Override
+        public List<Object[]> page(int offset, int limit) {
+            CampusSnapshot snap;
+            List<String> codes;
+            synchronized (this) {
+                snap = snapshot;
+                codes = this.codes;
+            }
+            if (snap == null) return Collections.emptyList();
+            List<Object[]> rows = new ArrayList<>(limit);
+            try {
+                for (int i = offset; i < Math.min(codes.size(), offset + limit); i++) {
+                    CourseView c = snap.course(codes.get(i));
+                    if (c == null) break; // removed since open(); blank until the next refresh
+                    rows.add(new Object[] { c.getCode(), c.getTitle(), c.getCapacity(), c.enrolledCount(),
+                            c.waitlistSize(), new ArrayList<>(c.getMeetingTimes()).toString() });
+                }
+            } catch (IllegalStateException closed) {
+                // A newer open() replaced this snapshot; the model discards this page anyway
+                return Collections.emptyList();
+            }
+            return rows;
+        }
+    }
+
+    /** One course's roster, paged by the service in the chosen order. */
+    private final class RosterSource implements PagedTableModel.Source {
+        private final String code;
+        private final RegistrarService.RosterOrder order;
+
+        RosterSource(String code, RegistrarService.RosterOrder order) {
+            this.code = code;
+            this.order = order;
+        }
+
+        @Override
+        public int open() {
+            Course c = code == null ? null : service.getCourse(code);
+            return c == null ? 0 : c.enrolledCount();
+        }
+
+        @Override
+        public List<Object[]> page(int offset, int limit) {
+            if (code == null) return Collections.emptyList();
+            List<Object[]> rows = new ArrayList<>(limit);
+            for (Student s : service.rosterPage(code, order, offset, limit)) {
+                rows.add(new Object[] { s.getId(), s.getName() });
+            }
+            return rows;
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package com.registrar.events;
+
+import com.registrar.model.Course;
+import com.registrar.model.TimeSlot;
+import com.registrar.service.RegistrarService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A BLOCK bus with a tiny ring and a slow listener that calls back into the
+ * service: enroll and drop must neither deadlock nor lose events, and each
+ * course's events must arrive in the order they happened, so replaying them
+ * rebuilds the final rosters.
+ */
+class EventOrderTest {
+    private static final int THREADS = 4;
+    private static final int STUDENTS = 60;
+    private static final int COURSES = 6;
+
+    @Test
+    void blockingBusKeepsPerCourseOrder() throws InterruptedException {
+        RegistrarService service = new RegistrarService(4);
+        for (int i = 0; i < STUDENTS; i++) service.addStudent("S" + i, "Student " + i);
+        for (int i = 0; i < COURSES; i++) {
+            // Distinct days, so no conflicts: every event is a seat, a drop, a waitlisting or a promotion
+            service.addCourse("C" + i, "Course " + i, 3,
+                    Collections.singletonList(new TimeSlot(TimeSlot.Day.values()[i % 5], 60 * i, 60 * i + 50)));
+        }
+
+        Map<String, Set<String>> seats = new HashMap<>();
+        List<String> violations = new ArrayList<>();
+        EventBus bus = new EventBus(2, 1, EventBus.Backpressure.BLOCK);
+        bus.addListener(batch -> {
+            for (RegistrarEvent e : batch) {
+                // Calls back into the service; publishers hold no locks, so this cannot deadlock
+                service.viewCourse(e.getCourseCode());
+                Set<String> roster = seats.computeIfAbsent(e.getCourseCode(), k -> new HashSet<>());
+                switch (e.getType()) {
+                    case ENROLLED:
+                    case PROMOTED_FROM_WAITLIST:
+                        if (!roster.add(e.getStudentId())) violations.add("seated twice: " + e);
+                        break;
+                    case DROPPED:
+                        if (!roster.remove(e.getStudentId())) violations.add("dropped without a seat: " + e);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            LockSupport.parkNanos(20_000);
+        });
+        service.setEventSink(bus);
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            SplittableRandom rnd = new SplittableRandom(t);
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 1_500; i++) {
+                        String sid = "S" + rnd.nextInt(STUDENTS);
+                        String code = "C" + rnd.nextInt(COURSES);
+                        if (rnd.nextInt(3) < 2) service.enroll(sid, code, rnd.nextInt(3));
+                        else service.drop(sid, code);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }, "publisher-" + t);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) thread.join();
+        assertNull(failure.get());
+        service.awaitPromotions();
+        bus.awaitDelivered();
+        bus.close();
+
+        assertEquals(0, bus.droppedCount());
+        assertTrue(bus.blockedCount() > 0, "the ring should have filled up");
+        assertEquals(Collections.emptyList(), violations);
+        for (int i = 0; i < COURSES; i++) {
+            Course c = service.getCourse("C" + i);
+            assertEquals(new HashSet<>(c.getEnrolledStudentIds()),
+                    seats.getOrDefault(c.getCode(), Collections.emptySet()), c.getCode());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.registrar.metrics;
+
+import com.registrar.service.AdmissionControl;
+import com.registrar.service.AdmissionLimits;
+import com.registrar.service.Lottery;
+import com.registrar.service.RegistrarService;
+import com.registrar.service.RegistrarService.EnrollResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RegistrarMetricsTest {
+
+    @Test
+    void lotteryRequestIsCountedOnce() {
+        RegistrarService service = new RegistrarService();
+        service.addCourse("C", "Course", 2, Collections.emptyList());
+        for (int i = 0; i < 5; i++) service.addStudent("S" + i, "Student " + i);
+        RegistrarMetrics metrics = RegistrarMetrics.attach(service);
+
+        Lottery lottery = service.openLottery(7);
+        for (int i = 0; i < 5; i++) service.enroll("S" + i, "C", 1);
+        assertEquals(5, metrics.getInLottery());
+        assertEquals(0, metrics.getEnrolled());
+
+        lottery.draw();
+        assertEquals(0, metrics.getInLottery());
+        assertEquals(2, metrics.getEnrolled());
+        assertEquals(3, metrics.getAddedToWaitlist());
+        long total = 0;
+        for (EnrollResult r : EnrollResult.values()) total += metrics.outcomeCount(r);
+        assertEquals(5, total);
+    }
+
+    @Test
+    void shedEnrollsAreCounted() {
+        RegistrarService service = new RegistrarService();
+        service.addCourse("C", "Course", 10, Collections.emptyList());
+        service.addStudent("S1", "Student 1");
+        RegistrarMetrics metrics = RegistrarMetrics.attach(service);
+        // One token, refilled only after about 1000 s
+        AdmissionControl admission = new AdmissionControl(service, AdmissionLimits.DEFAULT.perStudent(0.001, 1));
+
+        assertEquals(EnrollResult.ENROLLED, admission.enroll("S1", "C", 1));
+        assertEquals(EnrollResult.RATE_LIMITED, admission.enroll("S1", "C", 1));
+        assertEquals(EnrollResult.RATE_LIMITED, admission.enroll("S1", "C", 1));
+        assertEquals(1, metrics.getEnrolled());
+        assertEquals(2, metrics.getRateLimited());
+        assertEquals(0, metrics.getOverloaded());
+        assertEquals(1, metrics.getEnrollCount());
+    }
+}
@@ -0,0 +1,218 @@
+package com.registrar.metrics;
+
+import com.registrar.metrics.TermAnalytics.ConflictPair;
+import com.registrar.metrics.TermAnalytics.CourseLoad;
+import com.registrar.model.Course;
+import com.registrar.model.Student;
+import com.registrar.model.TimeSlot;
+import com.registrar.model.TimeSlot.Day;
+import com.registrar.service.RegistrarService;
+import com.registrar.service.RegistrarService.EnrollResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/** Incremental analytics must equal a recount of the service's state. */
+class TermAnalyticsTest {
+
+    private static List<String> codes(List<CourseLoad> loads) {
+        List<String> out = new ArrayList<>();
+        for (CourseLoad l : loads) out.add(l.getCode());
+        return out;
+    }
+
+    @Test
+    void exactCountsForAKnownSequence() throws InterruptedException {
+        RegistrarService service = new RegistrarService();
+        service.addCourse("A", "A", 2, Collections.singletonList(new TimeSlot(Day.MON, 540, 600)));
+        service.addCourse("B", "B", 1, Collections.singletonList(new TimeSlot(Day.MON, 570, 630)));
+        service.addCourse("C", "C", 4, Collections.singletonList(new TimeSlot(Day.TUE, 540, 600)));
+        for (int i = 1; i <= 5; i++) service.addStudent("S" + i, "Student " + i);
+        service.enroll("S1", "A", 1);
+        // Attached mid-term: seeded from the service, conflicts start at zero
+        TermAnalytics a = TermAnalytics.attach(service, 2);
+        assertEquals(1, a.seatsTaken());
+        assertEquals(7, a.totalCapacity());
+        assertEquals(5, a.studentsBelowMinimumCount());
+
+        service.enroll("S2", "A", 1);
+        service.enroll("S3", "A", 2);                                   // waitlisted
+        service.enroll("S4", "A", 1);                                   // waitlisted, ahead of S3
+        service.enroll("S3", "B", 1);
+        service.enroll("S5", "B", 1);                                   // waitlisted
+        assertEquals(EnrollResult.CONFLICT, service.enroll("S1", "B", 1));
+        assertEquals(EnrollResult.CONFLICT, service.enroll("S2", "B", 1));
+        service.enroll("S1", "C", 1);
+        service.enroll("S2", "C", 1);
+        service.addStudent("S6", "Student 6");
+        service.addCourse("D", "D", 3, Collections.emptyList());
+
+        CourseLoad loadA = a.course("A");
+        assertEquals(2, loadA.getEnrolled());
+        assertEquals(2, loadA.getWaiting());
+        assertEquals(2.0, loadA.demandRatio(), 1e-9);
+        assertEquals(1, a.course("B").getEnrolled());
+        assertEquals(1, a.course("B").getWaiting());
+        assertEquals(0, a.course("D").getEnrolled());
+        assertNull(a.course("nope"));
+        assertEquals(5, a.seatsTaken());
+        assertEquals(3, a.totalWaiting());
+        assertEquals(10, a.totalCapacity());
+        assertEquals(2, a.fullCourses());
+        assertEquals(2, a.waitlistedCourses());
+        assertEquals(0.5, a.campusFillRate(), 1e-9);
+        assertEquals(0.8, a.campusDemandRatio(), 1e-9);
+        assertEquals(2, a.conflictCount());
+        assertEquals(Collections.singletonList(new Pair("A", "B", 2)), pairs(a.hottestConflicts(10)));
+        // A: 4 over 2 seats, B: 2 over 1; equal demand goes by code
+        assertEquals(Arrays.asList("A", "B"), codes(a.mostOversubscribed(10)));
+        // S1 and S2 hold two courses each
+        assertEquals(new HashSet<>(Arrays.asList("S3", "S4", "S5", "S6")),
+                new HashSet<>(a.studentsBelowMinimum(100)));
+
+        // A drop seats the waitlist head (S4, priority 1) in the background
+        service.drop("S1", "A");
+        service.awaitPromotions();
+        assertEquals(2, a.course("A").getEnrolled());
+        assertEquals(1, a.course("A").getWaiting());
+        service.setCapacity("B", 3);
+        service.awaitPromotions();
+        assertEquals(2, a.course("B").getEnrolled());
+        assertEquals(0, a.course("B").getWaiting());
+        assertEquals(Collections.singletonList("A"), codes(a.mostOversubscribed(10)));
+        assertEquals(1, a.waitlistedCourses());
+        assertEquals(1, a.fullCourses());
+        assertEquals(12, a.totalCapacity());
+        assertRecount(service, a);
+    }
+
+    @Test
+    void concurrentWorkloadMatchesRecount() throws InterruptedException {
+        RegistrarService service = new RegistrarService();
+        Random setup = new Random(3);
+        for (int c = 0; c < 30; c++) {
+            int start = 8 * 60 + 30 * setup.nextInt(12);
+            service.addCourse("C" + c, "Course " + c, 2 + setup.nextInt(5),
+                    Collections.singletonList(new TimeSlot(Day.values()[setup.nextInt(3)], start, start + 75)));
+        }
+        for (int s = 0; s < 200; s++) service.addStudent("S" + s, "Student " + s);
+        for (int i = 0; i < 150; i++) service.enroll("S" + setup.nextInt(200), "C" + setup.nextInt(30), 1);
+        TermAnalytics a = TermAnalytics.attach(service, 3);
+
+        LongAdder conflicts = new LongAdder();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            Random rnd = new Random(t);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 4_000; i++) {
+                    String s = "S" + rnd.nextInt(200);
+                    String c = "C" + rnd.nextInt(30);
+                    int op = rnd.nextInt(100);
+                    if (op < 60) {
+                        if (service.enroll(s, c, rnd.nextInt(3)) == EnrollResult.CONFLICT) conflicts.increment();
+                    } else if (op < 85) {
+                        service.drop(s, c);
+                    } else if (op < 95) {
+                        service.leaveWaitlist(s, c);
+                    } else {
+                        service.setCapacity(c, 1 + rnd.nextInt(7));
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+        service.awaitPromotions();
+
+        assertEquals(conflicts.sum(), a.conflictCount());
+        long paired = 0;
+        for (ConflictPair p : a.hottestConflicts(Integer.MAX_VALUE)) paired += p.getCount();
+        assertEquals(conflicts.sum(), paired);
+        assertRecount(service, a);
+    }
+
+    /** Recomputes every aggregate from the service and compares. */
+    private static void assertRecount(RegistrarService service, TermAnalytics a) {
+        long capacity = 0, taken = 0, waiting = 0, full = 0, waitlisted = 0;
+        List<Course> byDemand = new ArrayList<>();
+        for (Course c : service.listCourses()) {
+            CourseLoad load = a.course(c.getCode());
+            assertEquals(c.getCapacity(), load.getCapacity(), c.getCode());
+            assertEquals(c.enrolledCount(), load.getEnrolled(), c.getCode());
+            assertEquals(c.waitlistSize(), load.getWaiting(), c.getCode());
+            capacity += c.getCapacity();
+            taken += c.enrolledCount();
+            waiting += c.waitlistSize();
+            if (c.enrolledCount() >= c.getCapacity()) full++;
+            if (c.waitlistSize() > 0) {
+                waitlisted++;
+                byDemand.add(c);
+            }
+        }
+        assertEquals(capacity, a.totalCapacity());
+        assertEquals(taken, a.seatsTaken());
+        assertEquals(waiting, a.totalWaiting());
+        assertEquals(full, a.fullCourses());
+        assertEquals(waitlisted, a.waitlistedCourses());
+
+        byDemand.sort((x, y) -> {
+            int c = Long.compare((long) (y.enrolledCount() + y.waitlistSize()) * x.getCapacity(),
+                    (long) (x.enrolledCount() + x.waitlistSize()) * y.getCapacity());
+            return c != 0 ? c : x.getCode().compareTo(y.getCode());
+        });
+        List<String> expected = new ArrayList<>();
+        for (Course c : byDemand) expected.add(c.getCode());
+        assertEquals(expected, codes(a.mostOversubscribed(Integer.MAX_VALUE)));
+
+        Set<String> below = new HashSet<>();
+        for (Student s : service.listStudents()) {
+            if (s.getEnrolledCourses().size() < a.getMinimumCourses()) below.add(s.getId());
+        }
+        assertEquals(below, new HashSet<>(a.studentsBelowMinimum(Integer.MAX_VALUE)));
+        assertEquals(below.size(), a.studentsBelowMinimumCount());
+    }
+
+    private static List<Pair> pairs(List<ConflictPair> ps) {
+        List<Pair> out = new ArrayList<>();
+        for (ConflictPair p : ps) out.add(new Pair(p.getFirst(), p.getSecond(), p.getCount()));
+        return out;
+    }
+
+    private static final class Pair {
+        final String first, second;
+        final long count;
+
+        Pair(String first, String second, long count) {
+            this.first = first;
+            this.second = second;
+            this.count = count;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Pair)) return false;
+            Pair p = (Pair) o;
+            return first.equals(p.first) && second.equals(p.second) && count == p.count;
+        }
+
+        @Override
+        public int hashCode() {
+            return first.hashCode() * 31 + second.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return first + "/" + second + "=" + count;
+        }
+    }
+}
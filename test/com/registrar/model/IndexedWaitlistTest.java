@@ -0,0 +1,131 @@
+package com.registrar.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks IndexedWaitlist against a plain list kept sorted by
+ * {@link WaitlistEntry#compareTo} (then student ID) under random operations.
+ */
+class IndexedWaitlistTest {
+    private static final Comparator<WaitlistEntry> ORDER =
+            Comparator.<WaitlistEntry>naturalOrder().thenComparing(WaitlistEntry::getStudentId);
+
+    @Test
+    void ordersByPriorityThenTimeThenSequence() {
+        IndexedWaitlist w = new IndexedWaitlist();
+        w.add(new WaitlistEntry("late", 1, 200, 1));
+        w.add(new WaitlistEntry("second", 1, 100, 7));
+        w.add(new WaitlistEntry("first", 1, 100, 3));   // same priority and time as "second"
+        w.add(new WaitlistEntry("urgent", 0, 900, 9));
+        w.add(new WaitlistEntry("low", 2, 0, 0));
+
+        assertEquals(Arrays.asList("urgent", "first", "second", "late", "low"), ids(w.peek(10)));
+        assertEquals(1, w.rankOf("first"));
+        assertEquals(2, w.rankOf("second"));
+        assertEquals(-1, w.rankOf("nobody"));
+    }
+
+    @Test
+    void exactTiesFallBackToStudentId() {
+        IndexedWaitlist w = new IndexedWaitlist();
+        for (String id : new String[] {"c", "a", "b"}) assertTrue(w.add(new WaitlistEntry(id, 1, 5)));
+        assertEquals(Arrays.asList("a", "b", "c"), ids(w.peek(3)));
+        assertSame(w.get("b"), w.remove("b"));
+        assertEquals(Arrays.asList("a", "c"), ids(w.poll(5)));
+        assertTrue(w.isEmpty());
+    }
+
+    @Test
+    void duplicateStudentKeepsTheFirstEntry() {
+        IndexedWaitlist w = new IndexedWaitlist();
+        WaitlistEntry first = new WaitlistEntry("s", 2, 10, 1);
+        assertTrue(w.add(first));
+        assertFalse(w.add(new WaitlistEntry("s", 0, 0, 2)));
+        assertEquals(1, w.size());
+        assertSame(first, w.peek());
+    }
+
+    @Test
+    void randomOperationsMatchASortedList() {
+        SplittableRandom rnd = new SplittableRandom(42);
+        for (int round = 0; round < 20; round++) {
+            IndexedWaitlist w = new IndexedWaitlist();
+            List<WaitlistEntry> model = new ArrayList<>();
+            long sequence = 0;
+            for (int step = 0; step < 3_000; step++) {
+                int op = rnd.nextInt(10);
+                String sid = "S" + rnd.nextInt(400);
+                if (op < 5) {
+                    // Few priorities and times, so ties on both are common and sequence decides
+                    WaitlistEntry e = new WaitlistEntry(sid, rnd.nextInt(3), rnd.nextInt(4), ++sequence);
+                    boolean fresh = find(model, sid) == null;
+                    assertEquals(fresh, w.add(e));
+                    if (fresh) insert(model, e);
+                } else if (op < 7) {
+                    WaitlistEntry expected = find(model, sid);
+                    assertSame(expected, w.remove(sid));
+                    model.remove(expected);
+                } else if (op < 8) {
+                    int k = rnd.nextInt(5);
+                    List<WaitlistEntry> head = new ArrayList<>(model.subList(0, Math.min(k, model.size())));
+                    assertEquals(head, w.poll(k));
+                    model.subList(0, head.size()).clear();
+                } else if (op < 9) {
+                    WaitlistEntry expected = model.isEmpty() ? null : model.remove(0);
+                    assertSame(expected, w.poll());
+                } else {
+                    WaitlistEntry expected = find(model, sid);
+                    assertEquals(expected == null ? -1 : model.indexOf(expected), w.rankOf(sid));
+                    assertSame(expected, w.get(sid));
+                    assertEquals(expected != null, w.contains(sid));
+                }
+                assertEquals(model.size(), w.size());
+            }
+            assertEquals(model, w.peek(model.size()));
+            List<WaitlistEntry> iterated = new ArrayList<>();
+            for (WaitlistEntry e : w) iterated.add(e);
+            assertEquals(model, iterated);
+        }
+    }
+
+    @Test
+    void emptyWaitlist() {
+        IndexedWaitlist w = new IndexedWaitlist();
+        assertNull(w.peek());
+        assertNull(w.poll());
+        assertNull(w.remove("x"));
+        assertTrue(w.poll(3).isEmpty());
+        assertEquals(0, w.size());
+    }
+
+    private static void insert(List<WaitlistEntry> model, WaitlistEntry e) {
+        int i = 0;
+        while (i < model.size() && ORDER.compare(model.get(i), e) < 0) i++;
+        model.add(i, e);
+    }
+
+    private static WaitlistEntry find(List<WaitlistEntry> model, String sid) {
+        for (WaitlistEntry e : model) {
+            if (e.getStudentId().equals(sid)) return e;
+        }
+        return null;
+    }
+
+    private static List<String> ids(List<WaitlistEntry> entries) {
+        List<String> out = new ArrayList<>();
+        for (WaitlistEntry e : entries) out.add(e.getStudentId());
+        return out;
+    }
+}
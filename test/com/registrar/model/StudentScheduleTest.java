@@ -0,0 +1,82 @@
+package com.registrar.model;
+
+import com.registrar.model.TimeSlot.Day;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The schedule mask must keep the bits of courses still on the schedule after a drop. */
+class StudentScheduleTest {
+
+    private static final int BLOCKS_PER_DAY = 24 * 60 / WeeklyMask.BLOCK_MIN;
+
+    private static int block(Day day, int minute) {
+        return day.ordinal() * BLOCKS_PER_DAY + minute / WeeklyMask.BLOCK_MIN;
+    }
+
+    @Test
+    void droppingOneOfTwoCoursesOnTheSameSlotKeepsTheOther() {
+        Student s = new Student("S1", "Student 1");
+        TimeSlot shared = new TimeSlot(Day.MON, 9 * 60, 10 * 60);
+        List<TimeSlot> a = Collections.singletonList(shared);
+        List<TimeSlot> b = Arrays.asList(new TimeSlot(Day.MON, 9 * 60, 10 * 60), new TimeSlot(Day.TUE, 14 * 60, 15 * 60));
+        s.addToSchedule(a);
+        s.addToSchedule(b);
+
+        s.removeFromSchedule(b);
+
+        assertEquals(Collections.singleton(shared), s.getSchedule());
+        assertTrue(s.hasConflict(Collections.singletonList(new TimeSlot(Day.MON, 9 * 60 + 30, 9 * 60 + 45))));
+        assertFalse(s.hasConflict(Collections.singletonList(new TimeSlot(Day.TUE, 14 * 60, 15 * 60))));
+
+        s.removeFromSchedule(a);
+        assertTrue(s.getSchedule().isEmpty());
+        assertFalse(s.hasConflict(a));
+    }
+
+    @Test
+    void droppingACourseThatSharesABlockKeepsTheNeighbour() {
+        // 9:00-9:58 and 9:58-11:00 do not overlap but both cover the 9:55 block
+        Student s = new Student("S1", "Student 1");
+        List<TimeSlot> early = Collections.singletonList(new TimeSlot(Day.WED, 9 * 60, 9 * 60 + 58));
+        List<TimeSlot> late = Collections.singletonList(new TimeSlot(Day.WED, 9 * 60 + 58, 11 * 60));
+        assertFalse(WeeklyMask.of(early).isAligned());
+        assertTrue(WeeklyMask.of(early).intersects(WeeklyMask.of(late)));
+        s.addToSchedule(early);
+        assertFalse(s.hasConflict(late));
+        s.addToSchedule(late);
+
+        s.removeFromSchedule(late);
+
+        // 9:56-9:57 lies only in the early course; the shared block must still be set for it
+        assertTrue(s.hasConflict(Collections.singletonList(new TimeSlot(Day.WED, 9 * 60 + 56, 9 * 60 + 57))));
+        assertTrue(s.hasConflict(Collections.singletonList(new TimeSlot(Day.WED, 9 * 60, 9 * 60 + 5))));
+        assertFalse(s.hasConflict(late));
+    }
+
+    @Test
+    void maskCoversBlocksRoundedOutward() {
+        WeeklyMask m = WeeklyMask.of(Arrays.asList(
+                new TimeSlot(Day.MON, 9 * 60, 10 * 60),
+                new TimeSlot(Day.FRI, 13 * 60 + 2, 13 * 60 + 8)));
+
+        assertEquals(block(Day.MON, 9 * 60), m.nextBlock(0));
+        assertEquals(block(Day.MON, 9 * 60 + 5), m.nextBlock(block(Day.MON, 9 * 60 + 5)));
+        assertEquals(block(Day.FRI, 13 * 60), m.nextBlock(block(Day.MON, 10 * 60)));
+        assertEquals(block(Day.FRI, 13 * 60 + 5), m.nextBlock(block(Day.FRI, 13 * 60) + 1));
+        assertEquals(-1, m.nextBlock(block(Day.FRI, 13 * 60 + 10)));
+        assertFalse(m.isAligned());
+
+        WeeklyMask copy = new WeeklyMask(m);
+        m.clear();
+        assertTrue(m.isEmpty());
+        assertTrue(m.isAligned());
+        assertFalse(copy.isEmpty());
+    }
+}
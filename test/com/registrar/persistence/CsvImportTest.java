@@ -0,0 +1,163 @@
+package com.registrar.persistence;
+
+import com.registrar.model.TimeSlot;
+import com.registrar.model.TimeSlot.Day;
+import com.registrar.service.RegistrarService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Bad rows are skipped and reported by line; rows that straddle a chunk boundary load whole. */
+class CsvImportTest {
+    // MappedCsvReader cuts files of a few MiB into 1 MiB chunks
+    private static final int CHUNK = 1 << 20;
+
+    @TempDir
+    Path dir;
+
+    private Path write(String name, String content) throws IOException {
+        Path p = dir.resolve(name);
+        Files.write(p, content.getBytes(StandardCharsets.UTF_8));
+        return p;
+    }
+
+    private static Map<Integer, String> errors(ImportReport report) {
+        Map<Integer, String> out = new TreeMap<>();
+        for (ImportReport.RowError e : report.getErrors()) out.put(e.getLine(), e.getMessage());
+        return out;
+    }
+
+    @Test
+    void studentsAcrossChunksWithMalformedRows() throws IOException {
+        RegistrarService service = new RegistrarService();
+        service.addStudent("S0000007", "Already here");
+
+        StringBuilder csv = new StringBuilder("id,name\n");
+        Map<String, String> expected = new TreeMap<>();
+        List<Integer> badLines = new ArrayList<>();
+        int line = 1;
+        long bytes = csv.length();
+        boolean straddled = false;
+        for (int i = 0; bytes < 3 * CHUNK; i++) {
+            line++;
+            String id = String.format("S%07d", i);
+            if (i % 9973 == 500) {
+                csv.append(id).append('\n');                                   // no name
+                bytes += id.length() + 1;
+                badLines.add(line);
+            } else if (i % 9973 == 900) {
+                csv.append('\n');                                             // blank, skipped
+                bytes++;
+            } else if (i % 9973 == 1300) {
+                csv.append(" ,Nobody\r\n");                                  // empty id
+                bytes += 10;
+                badLines.add(line);
+            } else {
+                String name = i % 5 == 0 ? "Zoë \"Z\", " + i : "Student " + i;
+                String row = id + "," + (i % 5 == 0 ? "\"" + name.replace("\"", "\"\"") + "\"" : name) + "\n";
+                int rowBytes = row.getBytes(StandardCharsets.UTF_8).length;
+                if (!straddled && bytes < CHUNK && bytes + rowBytes > CHUNK) {
+                    // This row crosses the first chunk's nominal end; make it a quoted one
+                    name = "Split, \"across\" chunks";
+                    row = id + ",\"" + name.replace("\"", "\"\"") + "\"\n";
+                    rowBytes = row.length();
+                    straddled = bytes + rowBytes > CHUNK;
+                }
+                csv.append(row);
+                bytes += rowBytes;
+                if (i != 7) expected.put(id, name);
+            }
+        }
+        assertTrue(straddled);
+
+        ImportReport report = new CsvImporter(service).importStudents(write("students.csv", csv.toString()));
+
+        Map<Integer, String> errors = errors(report);
+        List<Integer> parseErrors = new ArrayList<>(errors.keySet());
+        parseErrors.remove(Integer.valueOf(9)); // S0000007, the duplicate, is on line 9
+        assertEquals(badLines, parseErrors);
+        assertTrue(errors.get(9).contains("duplicate student id S0000007"));
+        assertTrue(errors.get(badLines.get(0)).contains("expected at least 2 fields"));
+        assertTrue(errors.get(badLines.get(1)).contains("field 1 is empty"));
+        assertEquals(expected.size(), report.getRowsLoaded());
+        assertEquals(expected.size() + 1 + badLines.size(), report.getRowsRead());
+        assertEquals(1 + badLines.size(), report.getErrorCount());
+
+        for (Map.Entry<String, String> e : expected.entrySet()) {
+            assertEquals(e.getValue(), service.getStudent(e.getKey()).getName(), e.getKey());
+        }
+        assertEquals("Already here", service.getStudent("S0000007").getName());
+        assertEquals(expected.size() + 1, service.listStudents().size());
+    }
+
+    @Test
+    void catalogWithMalformedRows() throws IOException {
+        RegistrarService service = new RegistrarService();
+        service.addCourse("OLD1", "Existing", 5, Collections.emptyList());
+        Path courses = write("courses.csv", String.join("\n",
+                "code,title,capacity",
+                "CS101,Intro,30",
+                "CS102,\"Data, Structures\",abc",      // 3: not a number
+                "CS103,Zero,0",                        // 4: capacity must be > 0
+                "CS104,Short",                         // 5: missing capacity
+                "CS105,Algorithms,25",
+                "CS101,Again,10",                      // 7: duplicate
+                ""));
+        Path times = write("meeting_times.csv", String.join("\r\n",
+                "course_code,day,start,end",
+                "CS101,MON,09:00,10:15",
+                "CS101,Wednesday,540,615",
+                "CS105,XYZ,09:00,10:00",               // 4: bad day
+                "CS105,TUE,25:00,26:00",               // 5: bad time
+                "CS105,TUE,11:00,10:00",               // 6: ends before it starts
+                "NOPE,FRI,09:00,10:00",                // 7: unknown course
+                "OLD1,fri,13:00,14:00",
+                "CS105,THU,9:30,10:45",
+                ""));
+
+        ImportReport report = new CsvImporter(service).importCatalog(courses, times);
+
+        Map<String, String> errors = new TreeMap<>();
+        for (ImportReport.RowError e : report.getErrors()) errors.put(e.getFile() + ":" + e.getLine(), e.getMessage());
+        assertEquals(Arrays.asList("courses.csv:3", "courses.csv:4", "courses.csv:5", "courses.csv:7",
+                "meeting_times.csv:4", "meeting_times.csv:5", "meeting_times.csv:6", "meeting_times.csv:7"),
+                new ArrayList<>(errors.keySet()));
+        assertTrue(errors.get("courses.csv:3").contains("not a number"));
+        assertTrue(errors.get("courses.csv:4").contains("capacity must be > 0"));
+        assertTrue(errors.get("courses.csv:5").contains("expected at least 3 fields"));
+        assertTrue(errors.get("courses.csv:7").contains("duplicate course code CS101"));
+        assertTrue(errors.get("meeting_times.csv:4").contains("not a day"));
+        assertTrue(errors.get("meeting_times.csv:5").contains("not a valid time"));
+        assertTrue(errors.get("meeting_times.csv:6").contains("endMin must be > startMin"));
+        assertTrue(errors.get("meeting_times.csv:7").contains("unknown course NOPE"));
+        assertEquals(8, report.getErrorCount());
+        // CS101, CS105 and their 3 times, plus the time added to OLD1
+        assertEquals(6, report.getRowsLoaded());
+
+        assertEquals(new HashSet<>(Arrays.asList(new TimeSlot(Day.MON, 540, 615), new TimeSlot(Day.WED, 540, 615))),
+                service.getCourse("CS101").getMeetingTimes());
+        assertEquals("Intro", service.getCourse("CS101").getTitle());
+        assertEquals(30, service.getCourse("CS101").getCapacity());
+        assertEquals(Collections.singleton(new TimeSlot(Day.THU, 570, 645)),
+                service.getCourse("CS105").getMeetingTimes());
+        assertEquals(Collections.singleton(new TimeSlot(Day.FRI, 780, 840)),
+                service.getCourse("OLD1").getMeetingTimes());
+        for (String code : Arrays.asList("CS102", "CS103", "CS104")) assertNull(service.getCourse(code));
+        assertEquals(3, service.listCourses().size());
+    }
+}
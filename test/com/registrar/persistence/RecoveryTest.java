@@ -0,0 +1,138 @@
+package com.registrar.persistence;
+
+import com.registrar.model.Course;
+import com.registrar.model.TimeSlot;
+import com.registrar.model.WaitlistEntry;
+import com.registrar.service.RegistrarService;
+import com.registrar.service.RegistrarService.EnrollResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Restarts from a data directory must rebuild rosters and waitlists exactly,
+ * waitlists in (priority, requestTimeMs, sequence) order.
+ */
+class RecoveryTest {
+    private static final long T = 1_700_000_000_000L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void journalReplayRestoresRostersAndWaitlistOrder() throws Exception {
+        Map<String, List<String>> before;
+        try (RegistrarPersistence p = RegistrarPersistence.open(dir, true)) {
+            RegistrarService service = p.getService();
+            populate(service);
+            before = state(service);
+        }
+        try (RegistrarPersistence p = RegistrarPersistence.open(dir, true)) {
+            assertEquals(before, state(p.getService()));
+        }
+    }
+
+    @Test
+    void snapshotPlusJournalTailRestoresTheSameState() throws Exception {
+        Map<String, List<String>> before;
+        try (RegistrarPersistence p = RegistrarPersistence.open(dir, true)) {
+            RegistrarService service = p.getService();
+            populate(service);
+            p.snapshot();
+            // Changes after the snapshot live only in the journal tail
+            assertTrue(service.drop("S2", "CS101"));
+            service.awaitPromotions();
+            assertEquals(EnrollResult.ADDED_TO_WAITLIST, service.replayEnroll("S9", "CS101", 0, T + 5));
+            assertTrue(service.leaveWaitlist("S5", "CS101"));
+            before = state(service);
+        }
+        try (RegistrarPersistence p = RegistrarPersistence.open(dir, true)) {
+            assertEquals(before, state(p.getService()));
+            p.snapshot();
+        }
+        // Recovering from the second snapshot alone gives the same state again
+        try (RegistrarPersistence p = RegistrarPersistence.open(dir, true)) {
+            assertEquals(before, state(p.getService()));
+        }
+    }
+
+    @Test
+    void snapshotKeepsStringsLongerThan64K() throws Exception {
+        char[] chars = new char[70_000];
+        Arrays.fill(chars, 'é');
+        String title = new String(chars);
+        try (RegistrarPersistence p = RegistrarPersistence.open(dir, true)) {
+            p.getService().addCourse("LONG", title, 1, Collections.emptyList());
+            p.snapshot();
+        }
+        try (RegistrarPersistence p = RegistrarPersistence.open(dir, true)) {
+            assertEquals(title, p.getService().getCourse("LONG").getTitle());
+        }
+    }
+
+    @Test
+    void closedJournalRefusesCallsBeforeAnythingChanges() throws IOException {
+        RegistrarService service = new RegistrarService();
+        service.addStudent("S1", "Student 1");
+        service.addCourse("C", "Course", 5, Collections.emptyList());
+        Journal journal = new Journal(dir, 0, true);
+        service.setStateLog(journal);
+        journal.close();
+
+        assertThrows(IllegalStateException.class, () -> service.enroll("S1", "C", 1));
+        assertFalse(service.getCourse("C").isEnrolled("S1"));
+        assertTrue(service.getStudent("S1").getEnrolledCourses().isEmpty());
+        assertThrows(IllegalStateException.class, () -> service.addStudent("S2", "Student 2"));
+        assertTrue(service.getStudent("S2") == null);
+    }
+
+    /** Two seats in CS101, a waitlist with ties on priority and time, a drop that promotes. */
+    private static void populate(RegistrarService service) throws InterruptedException {
+        for (int i = 1; i <= 9; i++) service.addStudent("S" + i, "Student " + i);
+        service.addCourse("CS101", "Intro", 2, Collections.singletonList(new TimeSlot(TimeSlot.Day.MON, 540, 600)));
+        service.addCourse("MA201", "Algebra", 1, Collections.singletonList(new TimeSlot(TimeSlot.Day.TUE, 540, 600)));
+
+        assertEquals(EnrollResult.ENROLLED, service.replayEnroll("S1", "CS101", 1, T));
+        assertEquals(EnrollResult.ENROLLED, service.replayEnroll("S2", "CS101", 1, T));
+        assertEquals(EnrollResult.ADDED_TO_WAITLIST, service.replayEnroll("S3", "CS101", 5, T + 1));
+        // S4 and S5: same priority and time, so only the sequence orders them
+        assertEquals(EnrollResult.ADDED_TO_WAITLIST, service.replayEnroll("S4", "CS101", 2, T + 2));
+        assertEquals(EnrollResult.ADDED_TO_WAITLIST, service.replayEnroll("S5", "CS101", 2, T + 2));
+        assertEquals(EnrollResult.ADDED_TO_WAITLIST, service.replayEnroll("S6", "CS101", 2, T + 1));
+        assertEquals(EnrollResult.ADDED_TO_WAITLIST, service.replayEnroll("S7", "CS101", 0, T + 9));
+        assertEquals(EnrollResult.ENROLLED, service.replayEnroll("S8", "MA201", 1, T));
+        assertEquals(EnrollResult.ADDED_TO_WAITLIST, service.replayEnroll("S1", "MA201", 1, T));
+
+        assertTrue(service.drop("S1", "CS101")); // S7 (priority 0) takes the seat
+        service.awaitPromotions();
+        assertTrue(service.getCourse("CS101").isEnrolled("S7"));
+    }
+
+    /** Per course: roster (sorted), then waitlist entries in promotion order. */
+    private static Map<String, List<String>> state(RegistrarService service) {
+        Map<String, List<String>> out = new TreeMap<>();
+        for (Course c : service.listCourses()) {
+            List<String> lines = new ArrayList<>(c.getEnrolledStudentIds());
+            Collections.sort(lines);
+            for (WaitlistEntry e : service.peekWaitlist(c.getCode(), Integer.MAX_VALUE)) {
+                lines.add("wait " + e.getStudentId() + " p" + e.getPriority() + " t" + e.getRequestTimeMs()
+                        + " #" + e.getSequence());
+            }
+            out.put(c.getCode(), lines);
+        }
+        return out;
+    }
+}
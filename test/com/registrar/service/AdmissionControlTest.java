@@ -0,0 +1,90 @@
+package com.registrar.service;
+
+import com.registrar.service.AdmissionControl.DropResult;
+import com.registrar.service.RegistrarService.EnrollResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlTest {
+
+    private static RegistrarService campus() {
+        RegistrarService service = new RegistrarService();
+        service.addCourse("C1", "One", 10, Collections.emptyList());
+        service.addCourse("C2", "Two", 10, Collections.emptyList());
+        service.addStudent("S1", "Student 1");
+        service.addStudent("S2", "Student 2");
+        return service;
+    }
+
+    @Test
+    void rememberedRetryIsAnsweredWithoutAToken() {
+        RegistrarService service = campus();
+        // One token, refilled only after about 1000 s
+        AdmissionControl admission = new AdmissionControl(service, AdmissionLimits.DEFAULT.perStudent(0.001, 1));
+
+        assertEquals(EnrollResult.ENROLLED, admission.enroll("S1", "C1", 1, "k1"));
+        assertEquals(EnrollResult.ENROLLED, admission.enroll("S1", "C1", 1, "k1"));
+        assertEquals(DropResult.RATE_LIMITED, admission.drop("S1", "C1", "k2"));
+        assertEquals(EnrollResult.ENROLLED, admission.enroll("S1", "C1", 1, "k1"));
+        assertEquals(1, admission.rateLimitedCount());
+        assertEquals(1, admission.admittedCount());
+
+        // The shed drop was not remembered: its retry is limited again rather than answered
+        assertEquals(DropResult.RATE_LIMITED, admission.drop("S1", "C1", "k2"));
+        assertTrue(service.getCourse("C1").getEnrolledStudentIds().contains("S1"));
+    }
+
+    @Test
+    void interruptedWaiterIsShedPromptly() throws InterruptedException {
+        RegistrarService service = campus();
+        CountDownLatch inService = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        service.setTraceSink(new TraceSink() {
+            @Override
+            public void enrolled(String studentId, String courseCode, int priority, long requestTimeMs,
+                                 EnrollResult result) {
+                if (!studentId.equals("S1")) return;
+                inService.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        AdmissionControl admission = new AdmissionControl(service,
+                AdmissionLimits.DEFAULT.maxConcurrent(1).maxQueued(8).maxWaitMillis(60_000));
+
+        Thread holder = new Thread(() -> admission.enroll("S1", "C1", 1), "slot-holder");
+        holder.start();
+        assertTrue(inService.await(10, TimeUnit.SECONDS));
+
+        AtomicReference<EnrollResult> result = new AtomicReference<>();
+        AtomicReference<Boolean> stillInterrupted = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            result.set(admission.enroll("S2", "C2", 1));
+            stillInterrupted.set(Thread.currentThread().isInterrupted());
+        }, "waiter");
+        waiter.start();
+        while (admission.queued() == 0) Thread.sleep(1);
+
+        long t0 = System.nanoTime();
+        waiter.interrupt();
+        waiter.join(10_000);
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - t0) < 10, "waiter kept waiting");
+        assertEquals(EnrollResult.OVERLOADED, result.get());
+        assertTrue(stillInterrupted.get());
+        assertEquals(0, admission.queued());
+
+        release.countDown();
+        holder.join();
+        assertEquals(0, admission.running());
+    }
+}
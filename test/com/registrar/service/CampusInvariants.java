@@ -0,0 +1,71 @@
+package com.registrar.service;
+
+import com.registrar.model.Course;
+import com.registrar.model.Student;
+import com.registrar.model.TimeSlot;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Checks that must hold for any quiescent RegistrarService: no course over
+ * capacity, rosters and student records agree, no student double-booked or
+ * both seated and waiting in one course, and every schedule matches the
+ * student's courses. Call it only once every writer has finished.
+ */
+final class CampusInvariants {
+    private CampusInvariants() { }
+
+    static void check(RegistrarService service) {
+        List<String> problems = new ArrayList<>();
+        for (Course c : service.listCourses()) {
+            if (c.enrolledCount() > c.getCapacity()) {
+                problems.add(c.getCode() + " over capacity: " + c.enrolledCount() + "/" + c.getCapacity());
+            }
+            for (String sid : c.getEnrolledStudentIds()) {
+                Student s = service.getStudent(sid);
+                if (s == null) {
+                    problems.add(c.getCode() + " seats unknown student " + sid);
+                } else if (!s.getEnrolledCourses().contains(c.getCode())) {
+                    problems.add(c.getCode() + " seats " + sid + " but the student does not list it");
+                }
+                if (c.isWaitlisted(sid)) problems.add(sid + " both seated and waiting in " + c.getCode());
+            }
+        }
+        for (Student s : service.listStudents()) {
+            List<Course> taken = new ArrayList<>();
+            Set<TimeSlot> expected = new HashSet<>();
+            for (String code : s.getEnrolledCourses()) {
+                Course c = service.getCourse(code);
+                if (c == null || !c.isEnrolled(s.getId())) {
+                    problems.add(s.getId() + " lists " + code + " but is not on its roster");
+                    continue;
+                }
+                for (Course other : taken) {
+                    if (overlap(c, other)) problems.add(s.getId() + " double-booked in " + code + " and " + other.getCode());
+                }
+                taken.add(c);
+                expected.addAll(c.getMeetingTimes());
+            }
+            if (!expected.equals(new HashSet<>(s.getSchedule()))) {
+                problems.add(s.getId() + " schedule " + s.getSchedule() + " does not match courses " + s.getEnrolledCourses());
+            }
+        }
+        if (!problems.isEmpty()) {
+            fail(problems.size() + " invariant violation(s), first: " + problems.subList(0, Math.min(5, problems.size())));
+        }
+    }
+
+    private static boolean overlap(Course a, Course b) {
+        for (TimeSlot x : a.getMeetingTimes()) {
+            for (TimeSlot y : b.getMeetingTimes()) {
+                if (x.conflictsWith(y)) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,128 @@
+package com.registrar.service;
+
+import com.registrar.model.Course;
+import com.registrar.model.TimeSlot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads enroll, drop and leave waitlists on a small, crowded campus
+ * (few lock stripes, overlapping meeting times, tiny sections), then the
+ * campus must satisfy {@link CampusInvariants}.
+ */
+class ConcurrentRegistrationTest {
+    static final int THREADS = 8;
+    static final int STUDENTS = 400;
+    static final int COURSES = 40;
+
+    /** Students S0.., courses C0.. of capacity 1-6; courses i and i+5 overlap, so conflicts are common. */
+    static RegistrarService campus(int lockStripes) {
+        RegistrarService service = new RegistrarService(lockStripes);
+        for (int i = 0; i < STUDENTS; i++) service.addStudent("S" + i, "Student " + i);
+        for (int i = 0; i < COURSES; i++) {
+            TimeSlot.Day day = TimeSlot.Day.values()[i % 5];
+            int start = 8 * 60 + (i / 5) * 40;
+            service.addCourse("C" + i, "Course " + i, 1 + i % 6,
+                    Collections.singletonList(new TimeSlot(day, start, start + 50)));
+        }
+        return service;
+    }
+
+    /** Runs {@code body} on THREADS threads, each with its own seeded random; rethrows the first failure. */
+    static void runConcurrently(int perThread, Worker body) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            SplittableRandom rnd = new SplittableRandom(31L * t + 7);
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) body.step(rnd);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }, "stress-" + t);
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+        assertNull(failure.get(), () -> "worker failed: " + failure.get());
+    }
+
+    interface Worker {
+        void step(SplittableRandom rnd) throws Exception;
+    }
+
+    static String randomStudent(SplittableRandom rnd) { return "S" + rnd.nextInt(STUDENTS); }
+
+    static String randomCourse(SplittableRandom rnd) { return "C" + rnd.nextInt(COURSES); }
+
+    @Test
+    void enrollDropAndLeaveKeepInvariants() throws InterruptedException {
+        RegistrarService service = campus(8);
+        runConcurrently(20_000, rnd -> {
+            String sid = randomStudent(rnd);
+            String code = randomCourse(rnd);
+            int op = rnd.nextInt(10);
+            if (op < 6) {
+                service.enroll(sid, code, rnd.nextInt(3));
+            } else if (op < 9) {
+                service.drop(sid, code);
+            } else {
+                service.leaveWaitlist(sid, code);
+            }
+        });
+        service.awaitPromotions();
+        CampusInvariants.check(service);
+    }
+
+    @Test
+    void viewsAreConsistentUnderWrites() throws InterruptedException {
+        RegistrarService service = campus(8);
+        runConcurrently(20_000, rnd -> {
+            String sid = randomStudent(rnd);
+            String code = randomCourse(rnd);
+            int op = rnd.nextInt(10);
+            if (op < 3) {
+                service.enroll(sid, code, rnd.nextInt(3));
+            } else if (op < 5) {
+                service.drop(sid, code);
+            } else if (op < 8) {
+                // Every course meets once and enrolled courses never overlap, so one slot per course
+                StudentView s = service.viewStudent(sid);
+                assertEquals(s.getEnrolledCourses().size(), s.getSchedule().size(), sid + " courses vs schedule");
+            } else {
+                CourseView c = service.viewCourse(code);
+                assertTrue(c.enrolledCount() <= c.getCapacity(), code + " oversold");
+                assertEquals(1, c.getMeetingTimes().size());
+            }
+        });
+        service.awaitPromotions();
+        CampusInvariants.check(service);
+    }
+
+    @Test
+    void seatsAreNeverOversold() throws InterruptedException {
+        RegistrarService service = campus(4);
+        // Everyone races for the same few courses and never drops
+        runConcurrently(STUDENTS, rnd -> service.enroll(randomStudent(rnd), "C" + rnd.nextInt(3), 1));
+        service.awaitPromotions();
+        for (int i = 0; i < 3; i++) {
+            Course c = service.getCourse("C" + i);
+            assertEquals(c.getCapacity(), c.enrolledCount(), "C" + i + " should be exactly full");
+        }
+        CampusInvariants.check(service);
+    }
+}
@@ -0,0 +1,106 @@
+package com.registrar.service;
+
+import com.registrar.model.TimeSlot;
+import com.registrar.model.TimeSlot.Day;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** conflictingCourses against a pairwise check of every course's meeting times. */
+class ConflictGraphTest {
+
+    @Test
+    void edgesFollowMeetingTimes() {
+        RegistrarService service = new RegistrarService();
+        service.addCourse("A", "A", 10, Collections.singletonList(new TimeSlot(Day.MON, 540, 600)));
+        service.addCourse("B", "B", 10, Collections.singletonList(new TimeSlot(Day.MON, 570, 630)));
+        // Shares the 9:55 block with A but starts after A ends
+        service.addCourse("C", "C", 10, Collections.singletonList(new TimeSlot(Day.MON, 600, 612)));
+        service.addCourse("D", "D", 10, Collections.singletonList(new TimeSlot(Day.TUE, 540, 600)));
+
+        assertEquals(set("B"), service.conflictingCourses("A"));
+        assertEquals(set("A", "C"), service.conflictingCourses("B"));
+        assertEquals(set("B"), service.conflictingCourses("C"));
+        assertEquals(set(), service.conflictingCourses("D"));
+        assertEquals(set(), service.conflictingCourses("nope"));
+
+        assertTrue(service.addMeetingTime("D", new TimeSlot(Day.MON, 605, 610)));
+        assertEquals(set("B", "C"), service.conflictingCourses("D"));
+        assertEquals(set("A", "C", "D"), service.conflictingCourses("B"));
+        assertEquals(set("B", "D"), service.conflictingCourses("C"));
+        assertEquals(set("B"), service.conflictingCourses("A"));
+    }
+
+    @Test
+    void randomCatalogMatchesPairwiseCheck() {
+        Random rnd = new Random(11);
+        RegistrarService service = new RegistrarService();
+        Map<String, List<TimeSlot>> times = new HashMap<>();
+
+        List<CourseDefinition> bulk = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String code = "K" + i;
+            List<TimeSlot> slots = randomSlots(rnd);
+            times.put(code, slots);
+            if (i % 3 == 0) service.addCourse(code, code, 10, slots);
+            else bulk.add(new CourseDefinition(code, code, 10, slots));
+            if (bulk.size() == 50) {
+                service.addCourses(bulk);
+                bulk.clear();
+            }
+        }
+        service.addCourses(bulk);
+        for (int i = 0; i < 100; i++) {
+            String code = "K" + rnd.nextInt(300);
+            TimeSlot t = randomSlots(rnd).get(0);
+            assertTrue(service.addMeetingTime(code, t));
+            List<TimeSlot> slots = new ArrayList<>(times.get(code));
+            slots.add(t);
+            times.put(code, slots);
+        }
+
+        for (String a : times.keySet()) {
+            Set<String> expected = new TreeSet<>();
+            for (String b : times.keySet()) {
+                if (!a.equals(b) && overlap(times.get(a), times.get(b))) expected.add(b);
+            }
+            assertEquals(expected, service.conflictingCourses(a), a);
+            for (String b : expected) assertTrue(service.coursesConflict(a, b), a + " " + b);
+        }
+    }
+
+    private static List<TimeSlot> randomSlots(Random rnd) {
+        List<TimeSlot> out = new ArrayList<>();
+        int n = 1 + rnd.nextInt(3);
+        for (int i = 0; i < n; i++) {
+            // Off-grid starts and ends, so block overlaps alone are not conflicts
+            int start = 480 + rnd.nextInt(600);
+            out.add(new TimeSlot(Day.values()[rnd.nextInt(5)], start, start + 20 + rnd.nextInt(90)));
+        }
+        return out;
+    }
+
+    private static boolean overlap(List<TimeSlot> a, List<TimeSlot> b) {
+        for (TimeSlot x : a) {
+            for (TimeSlot y : b) {
+                if (x.conflictsWith(y)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> set(String... codes) {
+        return new TreeSet<>(Arrays.asList(codes));
+    }
+}
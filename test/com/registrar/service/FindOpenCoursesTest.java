@@ -0,0 +1,166 @@
+package com.registrar.service;
+
+import com.registrar.model.Course;
+import com.registrar.model.TimeSlot;
+import com.registrar.model.TimeSlot.Day;
+import com.registrar.service.RegistrarService.EnrollResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** findOpenCourses against a plain scan of the catalog; a course with a waitlist has no open seat. */
+class FindOpenCoursesTest {
+
+    private static List<String> codes(List<Course> courses) {
+        List<String> out = new ArrayList<>();
+        for (Course c : courses) out.add(c.getCode());
+        return out;
+    }
+
+    /** What findOpenCourses should return, from the catalog and the student's courses. */
+    private static List<String> expected(RegistrarService service, String studentId, CourseFilter f) {
+        TreeMap<String, Course> byCode = new TreeMap<>();
+        for (Course c : service.listCourses()) byCode.put(c.getCode(), c);
+        List<Course> mine = new ArrayList<>();
+        for (String code : service.getStudent(studentId).getEnrolledCourses()) mine.add(service.getCourse(code));
+        List<String> out = new ArrayList<>();
+        for (Course c : byCode.values()) {
+            if (out.size() == f.getLimit()) break;
+            if (c.seatsRemaining() < f.getMinSeats() || c.waitlistSize() > 0 || mine.contains(c)) continue;
+            boolean fits = true;
+            for (Course m : mine) fits &= !c.overlaps(m);
+            for (TimeSlot t : c.getMeetingTimes()) {
+                fits &= f.getDays().contains(t.getDay()) && t.getStartMin() >= f.getFromMin()
+                        && t.getEndMin() <= f.getToMin();
+            }
+            if (fits) out.add(c.getCode());
+        }
+        return out;
+    }
+
+    @Test
+    void openSeatBoundary() throws InterruptedException {
+        RegistrarService service = new RegistrarService();
+        service.addCourse("A", "A", 2, Collections.singletonList(new TimeSlot(Day.MON, 540, 600)));
+        service.addCourse("B", "B", 3, Collections.singletonList(new TimeSlot(Day.TUE, 540, 600)));
+        for (int i = 1; i <= 4; i++) service.addStudent("S" + i, "Student " + i);
+        service.addStudent("X", "Searcher");
+
+        assertEquals(Arrays.asList("A", "B"), codes(service.findOpenCourses("X", CourseFilter.ANY)));
+        service.enroll("S1", "A", 1);
+        assertEquals(Arrays.asList("A", "B"), codes(service.findOpenCourses("X", CourseFilter.ANY)));
+        service.enroll("S2", "A", 1);
+        // The last seat is gone: A is out even though nobody waits yet
+        assertEquals(Collections.singletonList("B"), codes(service.findOpenCourses("X", CourseFilter.ANY)));
+        assertEquals(EnrollResult.ADDED_TO_WAITLIST, service.enroll("S3", "A", 1));
+
+        // Exactly minSeats open is enough, one fewer is not
+        service.enroll("S1", "B", 1);
+        assertEquals(Collections.singletonList("B"), codes(service.findOpenCourses("X", CourseFilter.ANY.minSeats(2))));
+        service.enroll("S2", "B", 1);
+        assertEquals(Collections.emptyList(), codes(service.findOpenCourses("X", CourseFilter.ANY.minSeats(2))));
+        assertEquals(Collections.singletonList("B"), codes(service.findOpenCourses("X", CourseFilter.ANY)));
+
+        // A seat freed by a drop belongs to the waitlist, so A stays out before and after the promotion
+        service.drop("S1", "A");
+        assertEquals(Collections.singletonList("B"), codes(service.findOpenCourses("X", CourseFilter.ANY)));
+        service.awaitPromotions();
+        assertTrue(service.getCourse("A").isEnrolled("S3"));
+        assertEquals(Collections.singletonList("B"), codes(service.findOpenCourses("X", CourseFilter.ANY)));
+
+        // Raising the capacity opens the course again
+        assertTrue(service.setCapacity("A", 3));
+        assertEquals(Arrays.asList("A", "B"), codes(service.findOpenCourses("X", CourseFilter.ANY)));
+        assertEquals(Collections.emptyList(), service.findOpenCourses("nobody", CourseFilter.ANY));
+    }
+
+    @Test
+    void filterCombinations() {
+        RegistrarService service = new RegistrarService();
+        service.addCourse("MWF9", "", 10, Arrays.asList(new TimeSlot(Day.MON, 540, 590),
+                new TimeSlot(Day.WED, 540, 590), new TimeSlot(Day.FRI, 540, 590)));
+        service.addCourse("MON14", "", 10, Collections.singletonList(new TimeSlot(Day.MON, 840, 930)));
+        service.addCourse("TUE9", "", 10, Collections.singletonList(new TimeSlot(Day.TUE, 540, 600)));
+        service.addCourse("MON930", "", 10, Collections.singletonList(new TimeSlot(Day.MON, 570, 620)));
+        service.addCourse("ONLINE", "", 10, Collections.emptyList());
+        service.addStudent("X", "Searcher");
+
+        CourseFilter mwf = CourseFilter.ANY.onDays(Day.MON, Day.WED, Day.FRI);
+        assertEquals(Arrays.asList("MON14", "MON930", "MWF9", "ONLINE"), codes(service.findOpenCourses("X", mwf)));
+        assertEquals(Arrays.asList("MON930", "MWF9", "ONLINE"),
+                codes(service.findOpenCourses("X", mwf.between(9 * 60, 12 * 60))));
+        // The window's edges are inclusive
+        assertEquals(Arrays.asList("MWF9", "ONLINE"), codes(service.findOpenCourses("X", mwf.between(540, 590))));
+        assertEquals(Collections.singletonList("ONLINE"), codes(service.findOpenCourses("X", mwf.between(541, 590))));
+        assertEquals(Arrays.asList("MON14", "MON930"), codes(service.findOpenCourses("X", mwf.limit(2))));
+        assertEquals(Arrays.asList("ONLINE", "TUE9"),
+                codes(service.findOpenCourses("X", CourseFilter.ANY.onDays(Day.TUE))));
+
+        // Enrolled courses and their conflict-graph neighbours drop out
+        service.enroll("X", "MWF9", 1);
+        assertEquals(Arrays.asList("MON14", "ONLINE", "TUE9"), codes(service.findOpenCourses("X", CourseFilter.ANY)));
+
+        assertThrows(IllegalArgumentException.class, () -> CourseFilter.ANY.between(600, 600));
+        assertThrows(IllegalArgumentException.class, () -> CourseFilter.ANY.onDays());
+        assertThrows(IllegalArgumentException.class, () -> CourseFilter.ANY.minSeats(0));
+        assertThrows(IllegalArgumentException.class, () -> CourseFilter.ANY.limit(0));
+    }
+
+    @Test
+    void parallelScanMatchesPlainScan() {
+        Random rnd = new Random(5);
+        RegistrarService service = new RegistrarService();
+        service.setManualPromotion(true);
+        int courses = RegistrarService.PARALLEL_SEARCH_THRESHOLD * 2;
+        for (int i = 0; i < courses; i++) addRandomCourse(service, rnd, String.format("C%05d", i));
+        for (int i = 0; i < 200; i++) service.addStudent("S" + i, "Student " + i);
+        for (int i = 0; i < 3000; i++) {
+            service.enroll("S" + rnd.nextInt(200), String.format("C%05d", rnd.nextInt(courses)), 1);
+        }
+
+        CourseFilter[] filters = {
+                CourseFilter.ANY,
+                CourseFilter.ANY.limit(25),
+                CourseFilter.ANY.minSeats(3),
+                CourseFilter.ANY.onDays(Day.MON, Day.THU).limit(500),
+                CourseFilter.ANY.between(8 * 60, 13 * 60).minSeats(2),
+                CourseFilter.ANY.onDays(Day.TUE, Day.WED, Day.FRI).between(10 * 60, 18 * 60).limit(7),
+        };
+        for (int k = 0; k < 8; k++) {
+            String student = "S" + rnd.nextInt(200);
+            for (CourseFilter f : filters) {
+                assertEquals(expected(service, student, f), codes(service.findOpenCourses(student, f)),
+                        student + " " + f);
+            }
+        }
+
+        // Courses added after a search are in the next one: the code index is rebuilt
+        int before = service.findOpenCourses("S0", CourseFilter.ANY).size();
+        service.addCourse("A0000", "", 5, Collections.emptyList());
+        service.addCourse("Z9999", "", 5, Collections.emptyList());
+        List<String> after = codes(service.findOpenCourses("S0", CourseFilter.ANY));
+        assertEquals(before + 2, after.size());
+        assertEquals("A0000", after.get(0));
+        assertEquals("Z9999", after.get(after.size() - 1));
+        assertEquals(expected(service, "S0", CourseFilter.ANY), after);
+    }
+
+    private static void addRandomCourse(RegistrarService service, Random rnd, String code) {
+        List<TimeSlot> slots = new ArrayList<>();
+        int n = rnd.nextInt(3);
+        for (int j = 0; j < n; j++) {
+            int start = 7 * 60 + rnd.nextInt(12 * 60);
+            slots.add(new TimeSlot(Day.values()[rnd.nextInt(5)], start, start + 30 + rnd.nextInt(120)));
+        }
+        service.addCourse(code, code, 1 + rnd.nextInt(4), slots);
+    }
+}
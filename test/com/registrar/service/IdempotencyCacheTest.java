@@ -0,0 +1,101 @@
+package com.registrar.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyCacheTest {
+
+    @Test
+    void retryGetsTheFirstAnswer() {
+        IdempotencyCache cache = new IdempotencyCache(10, 60_000);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertEquals(1, (int) cache.execute("k", "op", runs::incrementAndGet));
+        assertEquals(1, (int) cache.execute("k", "op", runs::incrementAndGet));
+        assertEquals(1, runs.get());
+        assertThrows(IllegalArgumentException.class, () -> cache.execute("k", "other", runs::incrementAndGet));
+
+        // A failed call is forgotten, so its retry runs
+        assertThrows(IllegalStateException.class, () -> cache.execute("f", "op", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(2, (int) cache.execute("f", "op", runs::incrementAndGet));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void keysExpireAfterTheTtl() throws InterruptedException {
+        IdempotencyCache cache = new IdempotencyCache(10, 30);
+        AtomicInteger runs = new AtomicInteger();
+
+        cache.execute("k", "op", runs::incrementAndGet);
+        Thread.sleep(60);
+        assertEquals(2, (int) cache.execute("k", "op", runs::incrementAndGet));
+        // The second call is remembered afresh
+        assertEquals(2, (int) cache.execute("k", "op", runs::incrementAndGet));
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void oldestCompletedKeysGoFirst() {
+        IdempotencyCache cache = new IdempotencyCache(3, 60_000);
+        AtomicInteger runs = new AtomicInteger();
+        for (int i = 0; i < 5; i++) cache.execute("k" + i, "op", runs::incrementAndGet);
+
+        assertEquals(3, cache.size());
+        assertEquals(5, (int) cache.execute("k4", "op", runs::incrementAndGet));
+        assertEquals(6, (int) cache.execute("k0", "op", runs::incrementAndGet));
+    }
+
+    @Test
+    void runningCallIsNeitherTrimmedNorExpired() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(1, 30);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = pool.submit(() -> cache.execute("slow", "op", () -> {
+                runs.incrementAndGet();
+                started.countDown();
+                try {
+                    assertTrue(release.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return 42;
+            }));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            // Over the bound and past the TTL while "slow" still runs
+            for (int i = 0; i < 5; i++) cache.execute("k" + i, "op", () -> 0);
+            Thread.sleep(60);
+            cache.execute("k9", "op", () -> 0);
+
+            Future<Integer> retry = pool.submit(() -> cache.execute("slow", "op", () -> {
+                runs.incrementAndGet();
+                return -1;
+            }));
+            Thread.sleep(50);
+            assertFalse(retry.isDone());
+            release.countDown();
+
+            assertEquals(42, (int) first.get(10, TimeUnit.SECONDS));
+            assertEquals(42, (int) retry.get(10, TimeUnit.SECONDS));
+            assertEquals(1, runs.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
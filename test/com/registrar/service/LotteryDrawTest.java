@@ -0,0 +1,57 @@
+package com.registrar.service;
+
+import com.registrar.service.RegistrarService.EnrollResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Enrolls that arrive while a lottery is being drawn must not take seats
+ * ahead of the lottery's entrants.
+ */
+class LotteryDrawTest {
+    private static final int SEATS = 50;
+    private static final int ENTRANTS = 2_000;
+    private static final int LATECOMERS = 200;
+
+    @Test
+    void enrollDuringDrawWaitsForIt() throws InterruptedException {
+        RegistrarService service = new RegistrarService();
+        service.addCourse("C", "Course", SEATS, Collections.emptyList());
+        for (int i = 0; i < ENTRANTS; i++) service.addStudent("E" + i, "Entrant " + i);
+        for (int i = 0; i < LATECOMERS; i++) service.addStudent("L" + i, "Latecomer " + i);
+
+        Lottery lottery = service.openLottery(42);
+        for (int i = 0; i < ENTRANTS; i++) assertEquals(EnrollResult.IN_LOTTERY, service.enroll("E" + i, "C", 1));
+
+        Set<String> entered = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        for (int i = 0; i < ENTRANTS; i++) entered.add("E" + i);
+        CountDownLatch started = new CountDownLatch(1);
+        Thread latecomers = new Thread(() -> {
+            started.countDown();
+            for (int i = 0; i < LATECOMERS; i++) {
+                // Latecomers that still caught the open lottery are entrants too.
+                if (service.enroll("L" + i, "C", 0) == EnrollResult.IN_LOTTERY) entered.add("L" + i);
+            }
+        }, "latecomers");
+        latecomers.start();
+        started.await();
+        EnrollResult[] results = lottery.draw();
+        latecomers.join();
+
+        int seated = 0;
+        for (EnrollResult r : results) {
+            if (r == EnrollResult.ENROLLED) seated++;
+        }
+        assertEquals(SEATS, seated, "lottery entrants should fill every seat");
+        for (String sid : service.getCourse("C").getEnrolledStudentIds()) {
+            assertTrue(entered.contains(sid), sid + " took a seat ahead of the draw");
+        }
+    }
+}
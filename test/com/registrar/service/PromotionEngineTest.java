@@ -0,0 +1,107 @@
+package com.registrar.service;
+
+import com.registrar.model.Course;
+import com.registrar.model.WaitlistEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.registrar.service.ConcurrentRegistrationTest.randomCourse;
+import static com.registrar.service.ConcurrentRegistrationTest.randomStudent;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Background waitlist promotion: seats end up filled in waitlist order,
+ * awaitPromotions is not held up by other clients' drops, and a promoter
+ * that throws an Error does not stop later passes.
+ */
+class PromotionEngineTest {
+
+    @Test
+    void freedSeatsAreFilledAfterConcurrentDrops() throws InterruptedException {
+        RegistrarService service = ConcurrentRegistrationTest.campus(8);
+        ConcurrentRegistrationTest.runConcurrently(20_000, rnd -> {
+            if (rnd.nextInt(3) < 2) {
+                service.enroll(randomStudent(rnd), randomCourse(rnd), rnd.nextInt(3));
+            } else {
+                service.drop(randomStudent(rnd), randomCourse(rnd));
+            }
+        });
+        service.awaitPromotions();
+        for (Course c : service.listCourses()) {
+            assertFalse(c.seatsRemaining() > 0 && c.waitlistSize() > 0,
+                    c.getCode() + " has a free seat and a waitlist after promotion");
+        }
+        assertEquals(0, service.pendingPromotions());
+        CampusInvariants.check(service);
+    }
+
+    @Test
+    void seatsGoToTheHeadOfTheWaitlist() throws InterruptedException {
+        RegistrarService service = new RegistrarService();
+        service.addCourse("C", "Course", 1, Collections.emptyList());
+        for (int i = 0; i < 50; i++) {
+            service.addStudent("S" + i, "Student " + i);
+            service.enroll("S" + i, "C", i % 4);
+        }
+        Course c = service.getCourse("C");
+        while (c.waitlistSize() > 0) {
+            List<WaitlistEntry> waiting = new ArrayList<>(c.getWaitlistEntries());
+            String seated = c.getEnrolledStudentIds().iterator().next();
+            assertTrue(service.drop(seated, "C"));
+            service.awaitPromotions();
+            assertEquals(Collections.singleton(waiting.get(0).getStudentId()), c.getEnrolledStudentIds());
+        }
+    }
+
+    @Test
+    void awaitPromotionsIgnoresLaterSignals() throws InterruptedException {
+        RegistrarService service = ConcurrentRegistrationTest.campus(8);
+        AtomicBoolean churning = new AtomicBoolean(true);
+        Thread churn = new Thread(() -> {
+            int i = 0;
+            while (churning.get()) {
+                String sid = "S" + (i % ConcurrentRegistrationTest.STUDENTS);
+                String code = "C" + (i++ % ConcurrentRegistrationTest.COURSES);
+                service.enroll(sid, code, 1);
+                service.drop(sid, code);
+            }
+        }, "churn");
+        churn.start();
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+                for (int i = 0; i < 200; i++) {
+                    service.drop("S" + i, "C" + (i % ConcurrentRegistrationTest.COURSES));
+                    service.awaitPromotions();
+                }
+            });
+        } finally {
+            churning.set(false);
+            churn.join();
+        }
+    }
+
+    @Test
+    void passesContinueAfterAnError() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        List<String> promoted = Collections.synchronizedList(new ArrayList<>());
+        PromotionEngine engine = new PromotionEngine(batch -> {
+            if (calls.getAndIncrement() == 0) throw new AssertionError("promoter failure (expected by the test)");
+            promoted.addAll(batch);
+        });
+        engine.signal("A");
+        engine.awaitIdle();
+        engine.signal("B");
+        assertTimeoutPreemptively(Duration.ofSeconds(10), engine::awaitIdle);
+        assertEquals(Collections.singletonList("B"), promoted);
+        assertEquals(0, engine.pending());
+    }
+}
@@ -0,0 +1,106 @@
+package com.registrar.service;
+
+import com.registrar.model.Course;
+import com.registrar.model.Student;
+import com.registrar.service.RegistrarService.RosterOrder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RosterExportTest {
+
+    private static List<String> ids(List<Student> page) {
+        List<String> out = new ArrayList<>();
+        for (Student s : page) out.add(s.getId());
+        return out;
+    }
+
+    @Test
+    void writeRosterMatchesGetRoster() throws IOException {
+        RegistrarService service = new RegistrarService();
+        service.addCourse("C", "Course", 2, Collections.emptyList());
+        for (String id : Arrays.asList("S2", "S1", "S3")) service.addStudent(id, "Name " + id);
+        for (String id : Arrays.asList("S2", "S1", "S3")) service.enroll(id, "C", 1);
+
+        StringWriter out = new StringWriter();
+        service.writeRoster("C", out);
+        String roster = out.toString();
+        assertEquals(service.getRoster("C"), roster);
+        assertTrue(roster.contains(" - S1 - Name S1\n"));
+        assertTrue(roster.contains(" - S2 - Name S2\n"));
+        assertTrue(roster.endsWith("Waitlist size: 1\n"));
+        assertEquals("Course not found.", service.getRoster("nope"));
+    }
+
+    @Test
+    void rosterPages() {
+        RegistrarService service = new RegistrarService();
+        service.addCourse("C", "Course", 10, Collections.emptyList());
+        String[][] people = {{"S4", "Ada"}, {"S1", "Cy"}, {"S3", "Ada"}, {"S2", "Bo"}, {"S5", "Al"}};
+        for (String[] p : people) {
+            service.addStudent(p[0], p[1]);
+            service.enroll(p[0], "C", 1);
+        }
+
+        assertEquals(Arrays.asList("S1", "S2"), ids(service.rosterPage("C", RosterOrder.STUDENT_ID, 0, 2)));
+        assertEquals(Arrays.asList("S3", "S4"), ids(service.rosterPage("C", RosterOrder.STUDENT_ID, 2, 2)));
+        assertEquals(Collections.singletonList("S5"), ids(service.rosterPage("C", RosterOrder.STUDENT_ID, 4, 2)));
+        // Ties on name fall back to ID
+        assertEquals(Arrays.asList("S3", "S4", "S5", "S2", "S1"),
+                ids(service.rosterPage("C", RosterOrder.NAME, 0, 10)));
+        assertEquals(Collections.emptyList(), service.rosterPage("C", RosterOrder.NAME, 5, 10));
+        assertEquals(Collections.emptyList(), service.rosterPage("C", RosterOrder.NAME, 0, 0));
+        assertEquals(Collections.emptyList(), service.rosterPage("nope", RosterOrder.NAME, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> service.rosterPage("C", RosterOrder.NAME, -1, 10));
+    }
+
+    @Test
+    void exportQuotesAndEncodesEveryRoster() throws IOException {
+        RegistrarService service = new RegistrarService();
+        // Names that need quoting, and 2-, 3- and 4-byte UTF-8; enough rows to fill the buffer several times
+        String[] names = {"Plain", "Last, First", "Says \"hi\"", "Zoë", "李雷", "Emoji 😀", "Line\nbreak"};
+        int courses = 40;
+        int perCourse = 300;
+        for (int c = 0; c < courses; c++) {
+            service.addCourse(String.format("K%02d", c), "Course " + c, perCourse, Collections.emptyList());
+        }
+        for (int i = 0; i < perCourse * 2; i++) service.addStudent(String.format("S%04d", i), names[i % names.length]);
+        for (int c = 0; c < courses; c++) {
+            for (int i = c % 2; i < perCourse * 2; i += 2) service.enroll(String.format("S%04d", i), String.format("K%02d", c), 1);
+        }
+
+        StringBuilder expected = new StringBuilder("course_code,student_id,student_name\r\n");
+        for (String code : new TreeSet<>(codes(service))) {
+            for (String sid : new TreeSet<>(service.getCourse(code).getEnrolledStudentIds())) {
+                String name = service.getStudent(sid).getName();
+                boolean quote = name.contains(",") || name.contains("\"") || name.contains("\n");
+                String field = quote ? "\"" + name.replace("\"", "\"\"") + "\"" : name;
+                expected.append(code).append(',').append(sid).append(',').append(field).append("\r\n");
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        service.exportRostersCsv(Channels.newChannel(bytes));
+        assertTrue(bytes.size() > 1 << 16);
+        assertEquals(expected.toString(), new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static List<String> codes(RegistrarService service) {
+        List<String> out = new ArrayList<>();
+        for (Course c : service.listCourses()) out.add(c.getCode());
+        return out;
+    }
+}
@@ -0,0 +1,60 @@
+package com.registrar.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.registrar.service.ConcurrentRegistrationTest.COURSES;
+import static com.registrar.service.ConcurrentRegistrationTest.STUDENTS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Students race to enroll in schedules picked by ScheduleBuilder, while
+ * other threads take single seats in the same courses. Each schedule must
+ * be all or nothing.
+ */
+class ScheduleEnrollmentTest {
+
+    @Test
+    void schedulesAreAllOrNothingUnderContention() throws InterruptedException {
+        RegistrarService service = ConcurrentRegistrationTest.campus(8);
+        int scheduled = STUDENTS / 2;  // S0..: schedules; the rest: single enrolls
+        AtomicInteger next = new AtomicInteger();
+        Map<String, List<String>> granted = new ConcurrentHashMap<>();
+
+        ConcurrentRegistrationTest.runConcurrently(STUDENTS, rnd -> {
+            int i = next.getAndIncrement();
+            if (i >= STUDENTS) return;
+            String sid = "S" + i;
+            if (i >= scheduled) {
+                service.enroll(sid, ConcurrentRegistrationTest.randomCourse(rnd), 1);
+                return;
+            }
+            ScheduleBuilder builder = service.scheduleBuilder(sid);
+            for (int slot = 0; slot < 3; slot++) {
+                String[] alternatives = new String[3];
+                for (int a = 0; a < alternatives.length; a++) alternatives[a] = "C" + rnd.nextInt(COURSES);
+                builder.want(alternatives);
+            }
+            Optional<Schedule> first = builder.schedules().findFirst();
+            if (first.isPresent() && builder.enroll(first.get())) granted.put(sid, first.get().getCourseCodes());
+        });
+        service.awaitPromotions();
+
+        assertTrue(!granted.isEmpty(), "no schedule was granted");
+        for (int i = 0; i < scheduled; i++) {
+            String sid = "S" + i;
+            List<String> codes = granted.get(sid);
+            assertEquals(codes == null ? Collections.<String>emptySet() : new HashSet<>(codes),
+                    service.getStudent(sid).getEnrolledCourses(), sid + " holds part of a schedule");
+        }
+        CampusInvariants.check(service);
+    }
+}
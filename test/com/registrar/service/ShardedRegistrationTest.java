@@ -0,0 +1,87 @@
+package com.registrar.service;
+
+import com.registrar.model.TimeSlot;
+import com.registrar.model.WaitlistEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.registrar.service.ConcurrentRegistrationTest.COURSES;
+import static com.registrar.service.ConcurrentRegistrationTest.STUDENTS;
+import static com.registrar.service.ConcurrentRegistrationTest.randomCourse;
+import static com.registrar.service.ConcurrentRegistrationTest.randomStudent;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The user-001 stress workload against a ShardedRegistrar, so that nearly
+ * every enroll and drop crosses shards. Capacity and no-conflict must hold,
+ * and course and student shards must agree once the calls have returned.
+ */
+class ShardedRegistrationTest {
+
+    @Test
+    void crossShardEnrollAndDropKeepInvariants() throws InterruptedException {
+        try (ShardedRegistrar registrar = new ShardedRegistrar(4)) {
+            for (int i = 0; i < STUDENTS; i++) registrar.addStudent("S" + i, "Student " + i);
+            for (int i = 0; i < COURSES; i++) {
+                TimeSlot.Day day = TimeSlot.Day.values()[i % 5];
+                int start = 8 * 60 + (i / 5) * 40;
+                registrar.addCourse("C" + i, "Course " + i, 1 + i % 6,
+                        Collections.singletonList(new TimeSlot(day, start, start + 50)));
+            }
+
+            ConcurrentRegistrationTest.runConcurrently(5_000, rnd -> {
+                String sid = randomStudent(rnd);
+                String code = randomCourse(rnd);
+                if (rnd.nextInt(10) < 6) {
+                    registrar.enroll(sid, code, rnd.nextInt(3));
+                } else {
+                    registrar.drop(sid, code);
+                }
+            });
+
+            Map<String, CourseView> courses = new HashMap<>();
+            Map<String, Set<String>> seatedIn = new HashMap<>();
+            for (int i = 0; i < COURSES; i++) {
+                CourseView c = registrar.course("C" + i);
+                courses.put(c.getCode(), c);
+                assertTrue(c.enrolledCount() <= c.getCapacity(), c.getCode() + " over capacity");
+                for (String sid : c.getEnrolledStudentIds()) {
+                    seatedIn.computeIfAbsent(sid, k -> new HashSet<>()).add(c.getCode());
+                }
+                for (WaitlistEntry e : c.getWaitlist()) {
+                    assertFalse(c.isEnrolled(e.getStudentId()), e.getStudentId() + " seated and waiting in " + c.getCode());
+                }
+            }
+            for (int i = 0; i < STUDENTS; i++) {
+                String sid = "S" + i;
+                Set<String> held = registrar.enrolledCourses(sid);
+                assertEquals(seatedIn.getOrDefault(sid, Collections.emptySet()), held, sid + " shards disagree");
+                List<String> codes = new ArrayList<>(held);
+                for (int a = 0; a < codes.size(); a++) {
+                    for (int b = a + 1; b < codes.size(); b++) {
+                        assertFalse(overlap(courses.get(codes.get(a)), courses.get(codes.get(b))),
+                                sid + " double-booked in " + codes.get(a) + " and " + codes.get(b));
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean overlap(CourseView a, CourseView b) {
+        for (TimeSlot x : a.getMeetingTimes()) {
+            for (TimeSlot y : b.getMeetingTimes()) {
+                if (x.conflictsWith(y)) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,109 @@
+package com.registrar.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.registrar.service.ConcurrentRegistrationTest.COURSES;
+import static com.registrar.service.ConcurrentRegistrationTest.randomCourse;
+import static com.registrar.service.ConcurrentRegistrationTest.randomStudent;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Snapshots opened while writers run must each be a consistent cut: no
+ * course over capacity, no student seated in two overlapping courses, and
+ * the same answers however often a snapshot is read.
+ */
+class SnapshotConsistencyTest {
+
+    @Test
+    void snapshotsTakenDuringEnrollmentAreConsistent() throws InterruptedException {
+        RegistrarService service = ConcurrentRegistrationTest.campus(8);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<String> problem = new AtomicReference<>();
+        AtomicInteger snapshots = new AtomicInteger();
+
+        Thread reader = new Thread(() -> {
+            while (writing.get() && problem.get() == null) {
+                try (CampusSnapshot snapshot = service.openSnapshot()) {
+                    String p = check(service, snapshot);
+                    if (p != null) problem.compareAndSet(null, p);
+                    snapshots.incrementAndGet();
+                }
+            }
+        }, "snapshot-reader");
+        reader.start();
+        try {
+            // Students hop between courses, many of which overlap the one they leave
+            ConcurrentRegistrationTest.runConcurrently(20_000, rnd -> {
+                String sid = randomStudent(rnd);
+                if (rnd.nextBoolean()) {
+                    service.enroll(sid, randomCourse(rnd), 1);
+                } else {
+                    service.drop(sid, randomCourse(rnd));
+                }
+            });
+        } finally {
+            writing.set(false);
+            reader.join();
+        }
+        assertNull(problem.get());
+        assertTrue(snapshots.get() > 0, "no snapshot was read");
+        service.awaitPromotions();
+        CampusInvariants.check(service);
+    }
+
+    @Test
+    void snapshotDoesNotChangeAfterWrites() throws InterruptedException {
+        RegistrarService service = ConcurrentRegistrationTest.campus(8);
+        for (int i = 0; i < COURSES; i++) service.enroll("S" + i, "C" + i, 1);
+        try (CampusSnapshot snapshot = service.openSnapshot()) {
+            Map<String, List<String>> before = rosters(snapshot);
+            ConcurrentRegistrationTest.runConcurrently(5_000, rnd -> {
+                String sid = randomStudent(rnd);
+                if (rnd.nextBoolean()) service.enroll(sid, randomCourse(rnd), 1);
+                else service.drop(sid, randomCourse(rnd));
+            });
+            assertEquals(before, rosters(snapshot));
+        }
+    }
+
+    private static Map<String, List<String>> rosters(CampusSnapshot snapshot) {
+        Map<String, List<String>> out = new HashMap<>();
+        for (String code : snapshot.courseCodes()) {
+            out.put(code, new ArrayList<>(snapshot.course(code).getEnrolledStudentIds()));
+        }
+        return out;
+    }
+
+    /** First inconsistency in a snapshot, or null. */
+    private static String check(RegistrarService service, CampusSnapshot snapshot) {
+        Map<String, List<String>> coursesOf = new HashMap<>();
+        for (String code : snapshot.courseCodes()) {
+            CourseView c = snapshot.course(code);
+            if (c.enrolledCount() > c.getCapacity()) return code + " over capacity in snapshot " + snapshot.version();
+            for (String sid : c.getEnrolledStudentIds()) {
+                List<String> taken = coursesOf.computeIfAbsent(sid, k -> new ArrayList<>());
+                for (String other : taken) {
+                    if (service.conflictingCourses(code).contains(other)) {
+                        return sid + " seated in overlapping " + other + " and " + code + " in snapshot "
+                                + snapshot.version();
+                    }
+                }
+                taken.add(code);
+            }
+            if (!c.getEnrolledStudentIds().equals(snapshot.course(code).getEnrolledStudentIds())) {
+                return code + " changed between two reads of snapshot " + snapshot.version();
+            }
+        }
+        return null;
+    }
+}
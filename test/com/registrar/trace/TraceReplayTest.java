@@ -0,0 +1,141 @@
+package com.registrar.trace;
+
+import com.registrar.model.Course;
+import com.registrar.model.TimeSlot;
+import com.registrar.model.TimeSlot.Day;
+import com.registrar.model.WaitlistEntry;
+import com.registrar.service.RegistrarService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Records a concurrent workload and replays it: every call must return what
+ * it returned when recorded, and rosters and waitlists must end the same.
+ */
+class TraceReplayTest {
+    private static final int THREADS = 4;
+    private static final int CALLS_PER_THREAD = 3_000;
+    private static final int STUDENTS = 300;
+    private static final int COURSES = 40;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayReproducesResultsAndRosters() throws Exception {
+        RegistrarService service = campus();
+        Path file = dir.resolve("campus.trace");
+        TraceRecorder recorder = TraceRecorder.start(service, file);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            threads[t] = new Thread(() -> workload(service, new Random(seed)), "workload-" + t);
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+        service.awaitPromotions();
+        recorder.close();
+        Map<String, String> recorded = state(service);
+
+        Trace trace = Trace.read(file);
+        assertTrue(trace.isComplete());
+        assertEquals(recorder.callCount(), trace.callCount());
+        assertTrue(trace.callCount() >= THREADS * CALLS_PER_THREAD);
+
+        for (int replayThreads : new int[] {1, THREADS}) {
+            RegistrarService replayed = new RegistrarService();
+            TraceReplayer.Report report = TraceReplayer.replay(trace, replayed, replayThreads, 0);
+            assertEquals(trace.callCount(), report.getCalls());
+            assertEquals(0, report.getMismatches(), report.getFirstMismatches().toString());
+            assertEquals(Collections.emptyList(), report.getFinalDifferences());
+            assertTrue(report.isIdentical());
+            assertEquals(recorded, state(replayed), replayThreads + " threads");
+        }
+    }
+
+    @Test
+    void truncatedTraceReplaysItsCompleteCalls() throws Exception {
+        RegistrarService service = campus();
+        Path file = dir.resolve("cut.trace");
+        TraceRecorder recorder = TraceRecorder.start(service, file);
+        workload(service, new Random(7));
+        service.awaitPromotions();
+        recorder.close();
+        int calls = Trace.read(file).callCount();
+
+        byte[] bytes = Files.readAllBytes(file);
+        Path cut = dir.resolve("cut-short.trace");
+        Files.write(cut, Arrays.copyOf(bytes, bytes.length * 2 / 3));
+        Trace partial = Trace.read(cut);
+        assertFalse(partial.isComplete());
+        assertTrue(partial.callCount() > 0 && partial.callCount() < calls);
+
+        TraceReplayer.Report report = TraceReplayer.replay(partial, 1, 0);
+        assertEquals(0, report.getMismatches(), report.getFirstMismatches().toString());
+        assertNull(report.getFinalDifferences());
+    }
+
+    /** Students and courses with overlapping times, some seats and waitlists taken before recording. */
+    private static RegistrarService campus() {
+        RegistrarService service = new RegistrarService();
+        Random rnd = new Random(1);
+        for (int c = 0; c < COURSES; c++) {
+            int start = 8 * 60 + 30 * rnd.nextInt(16);
+            service.addCourse("C" + c, "Course " + c, 3 + rnd.nextInt(6),
+                    Collections.singletonList(new TimeSlot(Day.values()[rnd.nextInt(5)], start, start + 50 + rnd.nextInt(40))));
+        }
+        for (int s = 0; s < STUDENTS; s++) service.addStudent("S" + s, "Student " + s);
+        for (int i = 0; i < 400; i++) {
+            service.enroll("S" + rnd.nextInt(STUDENTS), "C" + rnd.nextInt(COURSES), rnd.nextInt(3));
+        }
+        return service;
+    }
+
+    private static void workload(RegistrarService service, Random rnd) {
+        for (int i = 0; i < CALLS_PER_THREAD; i++) {
+            String s = "S" + rnd.nextInt(STUDENTS);
+            String c = "C" + rnd.nextInt(COURSES);
+            int op = rnd.nextInt(100);
+            if (op < 55) {
+                service.enroll(s, c, rnd.nextInt(3));
+            } else if (op < 80) {
+                service.drop(s, c);
+            } else if (op < 90) {
+                service.leaveWaitlist(s, c);
+            } else if (op < 95) {
+                service.enrollSchedule(s, Arrays.asList(c, "C" + rnd.nextInt(COURSES)));
+            } else if (op < 99) {
+                service.setCapacity(c, 2 + rnd.nextInt(8));
+            } else {
+                service.enroll("nobody", c, 1);
+            }
+        }
+    }
+
+    /** Per course: sorted roster, then the waitlist in promotion order. */
+    private static Map<String, String> state(RegistrarService service) {
+        Map<String, String> out = new TreeMap<>();
+        for (Course c : service.listCourses()) {
+            List<String> waiting = new ArrayList<>();
+            for (WaitlistEntry e : c.getWaitlistEntries()) waiting.add(e.getStudentId() + "/p" + e.getPriority());
+            out.put(c.getCode(), c.getCapacity() + " " + new TreeSet<>(c.getEnrolledStudentIds()) + " " + waiting);
+        }
+        return out;
+    }
+}